@@ -0,0 +1,23 @@
+#!/usr/bin/env sh
+# Per-stage latency breakdown of the spans exported with
+# TRACING_EXPORT_TARGET=file (one JSON span per line, see JsonLinesSpanExporter).
+#
+# Usage: scripts/span-report.sh [spans.jsonl]
+# Prints a markdown table with count, p50, p99 and max in milliseconds per span
+# name, slowest p99 first. Needs jq.
+
+set -e
+
+FILE=${1:-spans.jsonl}
+[ -f "$FILE" ] || { echo "Missing $FILE, start the service with TRACING_EXPORT_TARGET=file" >&2; exit 1; }
+
+echo "| span | count | p50 ms | p99 ms | max ms |"
+echo "|------|-------|--------|--------|--------|"
+jq -rs '
+  def pct(p): .[((length - 1) * p | floor)];
+  group_by(.name)
+  | map((map(.durationMicros / 1000) | sort) as $d
+        | {name: .[0].name, count: length, p50: ($d | pct(0.5)), p99: ($d | pct(0.99)), max: $d[-1]})
+  | sort_by(-.p99)[]
+  | "| \(.name) | \(.count) | \(.p50 * 100 | round / 100) | \(.p99 * 100 | round / 100) | \(.max * 100 | round / 100) |"
+' "$FILE"
@@ -0,0 +1,62 @@
+#!/usr/bin/env sh
+# Startup time and RSS comparison between the plain JVM jar, the AppCDS variant
+# and the native image (when it has been built with: mvn -Pnative native:compile).
+#
+# Usage: mvn package -DskipTests && scripts/startup-report.sh [runs]
+# Prints a markdown table; every run waits for "Started UserServiceApplication".
+
+set -e
+
+RUNS=${1:-3}
+JAR=target/user-service.jar
+NATIVE=target/user-service
+WORK=target/startup-report
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+[ -f "$JAR" ] || { echo "Missing $JAR, run mvn package first" >&2; exit 1; }
+rm -rf "$WORK" && mkdir -p "$WORK"
+
+# Runs the command given as arguments until the context is started and prints
+# "<startup seconds> <rss kB>" using the time reported by Spring Boot.
+measure() {
+    log="$WORK/run.log"
+    "$@" > "$log" 2>&1 &
+    pid=$!
+    i=0
+    until grep -q "Started UserServiceApplication" "$log"; do
+        i=$((i + 1))
+        [ $i -gt 600 ] && { kill $pid; echo "timeout" >&2; exit 1; }
+        sleep 0.1
+    done
+    rss=$(awk '/VmRSS/ {print $2}' /proc/$pid/status)
+    secs=$(sed -n 's/.*Started UserServiceApplication in \([0-9.]*\) seconds.*/\1/p' "$log")
+    kill $pid && wait $pid 2>/dev/null || true
+    echo "$secs $rss"
+}
+
+report() {
+    name=$1; shift
+    total_secs=0; total_rss=0
+    n=0
+    while [ $n -lt "$RUNS" ]; do
+        result=$(measure "$@")
+        total_secs=$(echo "$total_secs $result" | awk '{print $1 + $2}')
+        total_rss=$(echo "$total_rss $result" | awk '{print $1 + $3}')
+        n=$((n + 1))
+    done
+    echo "$name $total_secs $total_rss $RUNS" | awk '{printf "| %s | %.3f | %d |\n", $1, $2 / $4, $3 / $4 / 1024}'
+}
+
+echo "| Variant | Startup (s) | RSS (MB) |"
+echo "|---------|-------------|----------|"
+
+report jvm "$JAVA" -jar "$JAR"
+
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$WORK/extracted" > /dev/null
+(cd "$WORK/extracted" && "$JAVA" -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+    -jar user-service.jar > ../training.log 2>&1)
+report appcds sh -c "cd $WORK/extracted && exec $JAVA -XX:SharedArchiveFile=app.jsa -jar user-service.jar"
+
+if [ -x "$NATIVE" ]; then
+    report native "$NATIVE"
+fi
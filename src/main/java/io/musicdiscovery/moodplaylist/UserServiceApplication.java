@@ -2,14 +2,19 @@ package io.musicdiscovery.user;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import io.musicdiscovery.user.config.UserServiceRuntimeHints;
 
 /**
  * Entry point for the User Service application.
  * This class is annotated with @SpringBootApplication, which enables 
  * auto-configuration, component scanning, and allows the application 
  * to be run as a Spring Boot application.
+ * The runtime hints are only consumed by the AOT/native-image build.
  */
 @SpringBootApplication(scanBasePackages = "io.musicdiscovery")
+@ImportRuntimeHints(UserServiceRuntimeHints.class)
 public class UserServiceApplication {
     
     /**
@@ -0,0 +1,22 @@
+package io.musicdiscovery.user.application.port.input;
+
+import java.time.Instant;
+import java.util.List;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the expiration of the moods of the users.
+ */
+public interface MoodExpiryServicePort {
+
+    /**
+     * Clears the moods set at or before the given time, in the tenant of the request.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user, oldest mood first
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a {@link Mono} containing the number of moods expired
+     */
+    Mono<Integer> expireMoods(List<String> ids, Instant setBefore, int limit);
+}
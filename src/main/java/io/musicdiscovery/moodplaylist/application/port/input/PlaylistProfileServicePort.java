@@ -0,0 +1,31 @@
+package io.musicdiscovery.user.application.port.input;
+
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the playlist profiles of the users.
+ */
+public interface PlaylistProfileServicePort {
+
+    /**
+     * Retrieves the playlist profile of a user.
+     *
+     * @param userId the ID of the user
+     * @return a {@link Mono} containing the profile
+     */
+    Mono<PlaylistProfile> getProfile(String userId);
+
+    /**
+     * Retrieves the playlist profiles of the users in a mood.
+     *
+     * @param mood  the mood of the users
+     * @param genre a genre the users prefer, or null for any genre
+     * @param limit the maximum number of profiles
+     * @return a {@link Flux} emitting the profiles
+     */
+    Flux<PlaylistProfile> getProfilesByMood(Mood mood, Genre genre, int limit);
+}
@@ -2,6 +2,7 @@ package io.musicdiscovery.user.application.port.input;
 
 import java.util.List;
 
+import io.musicdiscovery.user.domain.model.MoodChange;
 import io.musicdiscovery.user.domain.model.User;
 import io.musicdiscovery.user.domain.model.enums.Mood;
 import reactor.core.publisher.Flux;
@@ -22,14 +23,33 @@ public interface UserServicePort {
      */
     Mono<User> getUserById(String id);
 
+    /**
+     * Retrieve a user by their email, compared case-insensitively.
+     *
+     * @param email the email of the user to retrieve
+     * @return a {@link Mono} containing the user if found
+     */
+    Mono<User> getUserByEmail(String email);
+
     /**
      * Create a new user in the system.
      *
      * @param user the {@link User} entity to be created
-     * @return a {@link Mono} containing the created user
+     * @return a {@link Mono} containing the created user, or an error if the email is already registered
      */
     Mono<User> createUser(User user);
 
+    /**
+     * Create a new user at most once per idempotency key. A retry with the same key and
+     * request gets the user created by the first attempt without creating it again.
+     *
+     * @param user the {@link User} entity to be created
+     * @param idempotencyKey the key chosen by the client, or null to create the user unconditionally
+     * @return a {@link Mono} containing the created user, or an error if the key was used with
+     *         another request or the request holding it is still in progress
+     */
+    Mono<User> createUser(User user, String idempotencyKey);
+
     /**
      * Update an existing user's information.
      *
@@ -46,6 +66,23 @@ public interface UserServicePort {
      */
     Mono<List<User>> getAllUsers();
 
+    /**
+     * Stream all users from the system, as fast as the subscriber requests them.
+     *
+     * @return a {@link Flux} emitting every user in the system
+     */
+    Flux<User> streamAllUsers();
+
+    /**
+     * Search users by prefix over their name and favorite artists, ranked by relevance.
+     *
+     * @param query the free text query, every word of it must match
+     * @param page the zero-based page number
+     * @param size the page size, capped to {@code MAX_SEARCH_PAGE_SIZE}
+     * @return a {@link Flux} streaming the users of the requested page
+     */
+    Flux<User> searchUsers(String query, int page, int size);
+
     /**
      * Delete a user by their unique identifier.
      *
@@ -62,4 +99,11 @@ public interface UserServicePort {
      * @return A {@link Mono} containing the updated {@link UserProfile}, or empty if the profile does not exist.
      */
     Mono<User> updateMood(String id, Mood mood);
+
+    /**
+     * Follow the mood changes of the users from now on.
+     *
+     * @return a {@link Flux} of the mood changes as they are saved
+     */
+    Flux<MoodChange> moodChanges();
 }
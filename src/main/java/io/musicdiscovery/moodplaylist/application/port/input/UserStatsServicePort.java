@@ -0,0 +1,28 @@
+package io.musicdiscovery.user.application.port.input;
+
+import java.util.List;
+
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the popularity statistics of the users.
+ */
+public interface UserStatsServicePort {
+
+    /**
+     * Retrieves the most popular favorite artists.
+     *
+     * @param limit the maximum number of artists
+     * @return a {@link Mono} containing the artists in descending popularity order
+     */
+    Mono<List<ArtistPopularity>> getTopArtists(int limit);
+
+    /**
+     * Retrieves the share of every preferred genre within each mood.
+     *
+     * @return a {@link Mono} containing the genre shares grouped by mood
+     */
+    Mono<List<GenreShare>> getGenreShares();
+}
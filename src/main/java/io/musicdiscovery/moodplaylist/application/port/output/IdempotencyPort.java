@@ -0,0 +1,41 @@
+package io.musicdiscovery.user.application.port.output;
+
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the store of idempotency keys. A key is reserved before the
+ * request it comes with is executed, then either completed with the result or
+ * released if the request failed, so that a retry can execute it again.
+ */
+public interface IdempotencyPort {
+
+    /**
+     * Reserves a key for a request, unless it is already known.
+     *
+     * @param key the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @return an empty Mono if the key was reserved for the caller, otherwise a Mono with
+     *         the existing record, completed or still in progress
+     */
+    Mono<IdempotencyRecord> reserve(String key, String fingerprint);
+
+    /**
+     * Stores the result of the request holding a key.
+     *
+     * @param key the reserved idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @param result the created user
+     * @return a Mono that completes when the result is stored
+     */
+    Mono<Void> complete(String key, String fingerprint, User result);
+
+    /**
+     * Releases a key whose request failed.
+     *
+     * @param key the reserved idempotency key
+     * @return a Mono that completes when the key is released
+     */
+    Mono<Void> release(String key);
+}
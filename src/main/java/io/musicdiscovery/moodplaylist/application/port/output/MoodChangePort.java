@@ -0,0 +1,25 @@
+package io.musicdiscovery.user.application.port.output;
+
+import io.musicdiscovery.user.domain.model.MoodChange;
+import reactor.core.publisher.Flux;
+
+/**
+ * Port interface for the feed of mood changes. The service publishes every saved
+ * change and the streaming input adapters follow the feed.
+ */
+public interface MoodChangePort {
+
+    /**
+     * Publishes a saved mood change. Never blocks nor fails the update it comes from.
+     *
+     * @param change the mood change
+     */
+    void publish(MoodChange change);
+
+    /**
+     * Follows the mood changes published from now on.
+     *
+     * @return a Flux of the mood changes, a subscriber too slow to keep up loses the oldest ones
+     */
+    Flux<MoodChange> changes();
+}
@@ -0,0 +1,23 @@
+package io.musicdiscovery.user.application.port.output;
+
+import java.time.Instant;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the scheduling of the mood expirations. The service schedules every
+ * mood it saves; the scheduler expires it through the {@code MoodExpiryServicePort}.
+ */
+public interface MoodExpiryPort {
+
+    /**
+     * Schedules the expiration of the mood of a user, in the tenant of the request.
+     * Never fails the update it comes from: a mood that could not be scheduled is
+     * expired by the sweep.
+     *
+     * @param userId the ID of the user
+     * @param moodSetAt the time the mood was set at
+     * @return a Mono that completes once the expiration is scheduled
+     */
+    Mono<Void> schedule(String userId, Instant moodSetAt);
+}
@@ -0,0 +1,18 @@
+package io.musicdiscovery.user.application.port.output;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the tenant of the request being served. The popularity counters and
+ * the mood change feed are not partitioned by tenant, so the service only feeds them with
+ * the changes of the default tenant.
+ */
+public interface TenantScopePort {
+
+    /**
+     * Tells whether the request being served belongs to the default tenant.
+     *
+     * @return a Mono emitting true for the default tenant, read from the subscriber context
+     */
+    Mono<Boolean> isDefaultTenant();
+}
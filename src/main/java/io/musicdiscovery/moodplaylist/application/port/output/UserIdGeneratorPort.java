@@ -0,0 +1,16 @@
+package io.musicdiscovery.user.application.port.output;
+
+/**
+ * Port interface for the generation of user identifiers.
+ * The identifier is assigned by the application before the user is persisted so
+ * the id strategy, and therefore the shard key distribution, is explicit.
+ */
+public interface UserIdGeneratorPort {
+
+    /**
+     * Generates a new unique user identifier.
+     *
+     * @return the generated identifier
+     */
+    String nextId();
+}
@@ -1,8 +1,10 @@
 package io.musicdiscovery.user.application.port.output;
 
+import java.time.Instant;
 import java.util.List;
 
 import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
@@ -18,6 +20,14 @@ public interface UserPersistencePort {
      */
 	Mono<List<User>> findAll();
 
+    /**
+     * Streams all users from the database as the subscriber requests them, so a slow
+     * consumer slows the cursor down instead of buffering the collection.
+     *
+     * @return a Flux of User entities
+     */
+    Flux<User> streamAll();
+
     /**
      * Retrieves a user by ID.
      *
@@ -27,13 +37,50 @@ public interface UserPersistencePort {
     Mono<User> findById(String id);
 
     /**
-     * Saves a user entity to the database.
+     * Retrieves a user by their normalized email.
+     *
+     * @param email the normalized email of the user to retrieve
+     * @return a Mono containing the User if found, or empty if not found
+     */
+    Mono<User> findByEmail(String email);
+
+    /**
+     * Checks whether a user with the given normalized email exists.
+     *
+     * @param email the normalized email to check
+     * @return a Mono containing true if a user with that email exists
+     */
+    Mono<Boolean> existsByEmail(String email);
+
+    /**
+     * Searches users whose name or favorite artists contain, for every query token,
+     * a word starting with it. Name matches rank before artist matches.
+     *
+     * @param queryTokens the normalized query tokens
+     * @param skip the number of ranked results to skip
+     * @param limit the maximum number of results
+     * @return a Flux of matching users in rank order
+     */
+    Flux<User> search(List<String> queryTokens, long skip, int limit);
+
+    /**
+     * Saves a new user to the database.
      *
      * @param user the User entity to save
      * @return a Mono containing the saved User
      */
     Mono<User> save(User user);
 
+    /**
+     * Saves the changes of an existing user. A user deleted since it was read is neither
+     * brought back nor written again.
+     *
+     * @param user the User entity to update
+     * @return a Mono containing the updated User
+     * @throws io.musicdiscovery.user.domain.exception.UserNotFoundException if no live user has its ID
+     */
+    Mono<User> update(User user);
+
     /**
      * Deletes a user by its ID.
      *
@@ -41,4 +88,16 @@ public interface UserPersistencePort {
      * @return a Mono signaling when the deletion is complete
      */
     Mono<Void> deleteById(String id);
+
+    /**
+     * Clears the mood of the users whose mood was set at or before the given time,
+     * oldest first. A mood cleared by a concurrent call, or set again meanwhile, is not
+     * reported, so every expiration is reported once.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a Mono containing the users whose mood this call expired, as they were before
+     */
+    Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit);
 }
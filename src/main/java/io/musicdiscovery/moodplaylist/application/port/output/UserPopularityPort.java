@@ -0,0 +1,38 @@
+package io.musicdiscovery.user.application.port.output;
+
+import java.util.List;
+
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import io.musicdiscovery.user.domain.model.User;
+
+/**
+ * Port interface for the popularity counters of artists and genres.
+ * The counters are maintained from the changes of the users, not recomputed from the
+ * collection, and reads are served from memory so they are cheap enough for every request.
+ */
+public interface UserPopularityPort {
+
+    /**
+     * Records the change of a user in the counters.
+     *
+     * @param before the user before the change, or null if it was created
+     * @param after  the user after the change, or null if it was deleted
+     */
+    void recordChange(User before, User after);
+
+    /**
+     * Returns the most popular favorite artists.
+     *
+     * @param limit the maximum number of artists
+     * @return the artists in descending popularity order
+     */
+    List<ArtistPopularity> topArtists(int limit);
+
+    /**
+     * Returns the share of every preferred genre within each mood.
+     *
+     * @return the genre shares, grouped by mood
+     */
+    List<GenreShare> genreSharesByMood();
+}
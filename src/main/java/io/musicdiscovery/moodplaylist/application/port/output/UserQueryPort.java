@@ -0,0 +1,33 @@
+package io.musicdiscovery.user.application.port.output;
+
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Port interface for the read model of the playlist queries. The read model is a
+ * denormalized copy of the users, kept apart from the write model and eventually
+ * consistent with it.
+ */
+public interface UserQueryPort {
+
+    /**
+     * Finds the playlist profile of a user.
+     *
+     * @param userId the ID of the user
+     * @return a Mono containing the profile, or an empty Mono if the user has none
+     */
+    Mono<PlaylistProfile> findProfile(String userId);
+
+    /**
+     * Finds the playlist profiles of the users in a mood.
+     *
+     * @param mood  the mood of the users
+     * @param genre a genre the users prefer, or null for any genre
+     * @param limit the maximum number of profiles
+     * @return a Flux emitting the profiles
+     */
+    Flux<PlaylistProfile> findProfilesByMood(Mood mood, Genre genre, int limit);
+}
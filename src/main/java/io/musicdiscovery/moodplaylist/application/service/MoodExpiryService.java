@@ -0,0 +1,60 @@
+package io.musicdiscovery.user.application.service;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import io.musicdiscovery.user.application.port.input.MoodExpiryServicePort;
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.application.port.output.TenantScopePort;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.model.MoodChange;
+import io.musicdiscovery.user.domain.model.User;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class for the expiration of the moods: a mood is cleared once it is older than
+ * its time to live, a batch at a time, and every expiration is recorded in the
+ * popularity counters and published on the mood change feed like any other mood change,
+ * for the default tenant only.
+ */
+@Service
+@RequiredArgsConstructor
+public class MoodExpiryService implements MoodExpiryServicePort {
+
+	private final UserPersistencePort userRepository;
+	private final UserPopularityPort userPopularity;
+	private final MoodChangePort moodChangeFeed;
+	private final TenantScopePort tenantScope;
+
+	/**
+	 * Clears the moods set at or before the given time.
+	 *
+	 * @param ids the IDs of the users to look at, or null to look at any user, oldest mood first
+	 * @param setBefore the latest time a mood to expire was set at
+	 * @param limit the maximum number of moods to expire
+	 * @return a {@link Mono} containing the number of moods expired
+	 */
+	@Override
+	public Mono<Integer> expireMoods(List<String> ids, Instant setBefore, int limit) {
+		if (ids != null && ids.isEmpty()) {
+			return Mono.just(0);
+		}
+		return userRepository.expireMoods(ids, setBefore, limit)
+				.zipWith(tenantScope.isDefaultTenant(), (expired, defaultTenant) -> {
+					if (defaultTenant) {
+						Instant now = Instant.now();
+						for (User before : expired) {
+							userPopularity.recordChange(before, new User(before.getId(), before.getName(),
+									before.getEmail(), null, null, before.getPreferredGenre(),
+									before.getFavoriteArtist()));
+							moodChangeFeed.publish(new MoodChange(before.getId(), before.getMood(), null, now));
+						}
+					}
+					return expired.size();
+				});
+	}
+}
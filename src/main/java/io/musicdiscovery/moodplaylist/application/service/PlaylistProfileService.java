@@ -0,0 +1,54 @@
+package io.musicdiscovery.user.application.service;
+
+import org.springframework.stereotype.Service;
+
+import io.musicdiscovery.user.application.port.input.PlaylistProfileServicePort;
+import io.musicdiscovery.user.application.port.output.UserQueryPort;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class for the playlist profiles of the users. The profiles are read from the
+ * read model only, never from the users collection, so playlist generation does not
+ * compete with the profile edits.
+ */
+@Service
+@RequiredArgsConstructor
+public class PlaylistProfileService implements PlaylistProfileServicePort {
+
+	/** Upper bound of the number of profiles returned by a single request. */
+	public static final int MAX_PROFILES = 1000;
+
+	private final UserQueryPort userQuery;
+
+	/**
+	 * Retrieves the playlist profile of a user.
+	 *
+	 * @param userId the ID of the user
+	 * @return a {@link Mono} containing the profile
+	 * @throws UserNotFoundException if the user has no profile
+	 */
+	@Override
+	public Mono<PlaylistProfile> getProfile(String userId) {
+		return userQuery.findProfile(userId)
+				.switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(userId)));
+	}
+
+	/**
+	 * Retrieves the playlist profiles of the users in a mood.
+	 *
+	 * @param mood  the mood of the users
+	 * @param genre a genre the users prefer, or null for any genre
+	 * @param limit the maximum number of profiles, between 1 and {@link #MAX_PROFILES}
+	 * @return a {@link Flux} emitting the profiles
+	 */
+	@Override
+	public Flux<PlaylistProfile> getProfilesByMood(Mood mood, Genre genre, int limit) {
+		return userQuery.findProfilesByMood(mood, genre, Math.min(Math.max(limit, 1), MAX_PROFILES));
+	}
+}
@@ -1,27 +1,67 @@
 package io.musicdiscovery.user.application.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Service;
 
 import io.musicdiscovery.user.application.port.input.UserServicePort;
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.application.port.output.MoodExpiryPort;
+import io.musicdiscovery.user.application.port.output.TenantScopePort;
+import io.musicdiscovery.user.application.port.output.UserIdGeneratorPort;
 import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyInUseException;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyMismatchException;
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
 import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.domain.model.MoodChange;
 import io.musicdiscovery.user.domain.model.User;
 import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.utils.SearchTokenizer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 /**
- * Service class for managing users.
+ * Service class for managing users. The changes of the users of the default tenant are
+ * recorded in the popularity counters and published on the mood change feed, which are
+ * not partitioned by tenant.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService implements UserServicePort {
 
+	/** Upper bound of the search page size, keeps a single search query cheap. */
+	public static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+	/** Upper bound of the words of a search query, each one adding two regexes to the query. */
+	public static final int MAX_SEARCH_TOKENS = 5;
+
+	/** Shortest word of a search query, shorter prefixes match too many index keys to be useful. */
+	public static final int MIN_SEARCH_PREFIX_LENGTH = 2;
+
 	private final UserPersistencePort userRepository;
+	private final UserIdGeneratorPort userIdGenerator;
+	private final UserPopularityPort userPopularity;
+	private final MoodChangePort moodChangeFeed;
+	private final IdempotencyPort idempotency;
+	private final MoodExpiryPort moodExpiry;
+	private final TenantScopePort tenantScope;
+	private final Map<String, InFlightCreation> inFlightCreations = new ConcurrentHashMap<>();
 
 	/**
 	 * Retrieves a user by their ID.
@@ -33,43 +73,158 @@ public class UserService implements UserServicePort {
 	@Override
 	public Mono<User> getUserById(String id) {
 		return userRepository.findById(id)
-				.switchIfEmpty(Mono.error(new UserNotFoundException("User not found with ID: " + id)));
+				.switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(id)));
+	}
+
+	/**
+	 * Retrieves a user by their email, compared case-insensitively.
+	 *
+	 * @param email the email of the user
+	 * @return a {@link Mono} containing the user if found
+	 * @throws UserNotFoundException if the user is not found
+	 */
+	@Override
+	public Mono<User> getUserByEmail(String email) {
+		return userRepository.findByEmail(normalizeEmail(email))
+				.switchIfEmpty(Mono.error(() -> new UserNotFoundException("User not found with email: " + email)));
 	}
 
 	/**
-	 * Creates a new user.
+	 * Creates a new user, assigning its id from the configured id strategy.
+	 * The email is normalized and checked for duplicates before saving. A mood
+	 * given on creation expires like any other.
 	 *
 	 * @param user the user to create
 	 * @return a {@link Mono} containing the created user
+	 * @throws UserAlreadyExistsException if a user with the same email exists
 	 */
 	@Override
 	public Mono<User> createUser(User user) {
-		return userRepository.save(user);
+		user.setEmail(normalizeEmail(user.getEmail()));
+		user.setMoodSetAt(user.getMood() == null ? null : Instant.now());
+		return userRepository.existsByEmail(user.getEmail()).flatMap(exists -> {
+			if (exists) {
+				return Mono.error(new UserAlreadyExistsException("User already exists with email: " + user.getEmail()));
+			}
+			if (user.getId() == null) {
+				user.setId(userIdGenerator.nextId());
+			}
+			return userRepository.save(user)
+					.flatMap(created -> inDefaultTenant(() -> userPopularity.recordChange(null, created))
+							.thenReturn(created))
+					.flatMap(this::scheduleMoodExpiry);
+		});
+	}
+
+	/**
+	 * Creates a new user at most once per idempotency key. Concurrent duplicates on this
+	 * instance share a single creation; across instances the key is reserved in the
+	 * idempotency store first, so a duplicate either replays the stored user or is told to
+	 * retry while the first request is in progress. A failed creation releases the key.
+	 *
+	 * @param user           the user to create
+	 * @param idempotencyKey the key chosen by the client, or null to create the user unconditionally
+	 * @return a {@link Mono} containing the created user, the same one for every retry
+	 * @throws IdempotencyKeyMismatchException if the key was used with a different user
+	 * @throws IdempotencyKeyInUseException if the request holding the key is still in progress
+	 */
+	@Override
+	public Mono<User> createUser(User user, String idempotencyKey) {
+		if (idempotencyKey == null) {
+			return createUser(user);
+		}
+		return Mono.defer(() -> {
+			user.setEmail(normalizeEmail(user.getEmail()));
+			String fingerprint = fingerprint(user);
+			InFlightCreation creation = inFlightCreations.computeIfAbsent(idempotencyKey,
+					key -> new InFlightCreation(fingerprint, createOnce(key, fingerprint, user)
+							.doFinally(signal -> inFlightCreations.remove(key))
+							.cache()));
+			if (!creation.fingerprint().equals(fingerprint)) {
+				return Mono.error(mismatch(idempotencyKey));
+			}
+			return creation.result().map(UserService::snapshot);
+		});
+	}
+
+	private Mono<User> createOnce(String key, String fingerprint, User user) {
+		return idempotency.reserve(key, fingerprint)
+				.flatMap(existing -> replay(existing, fingerprint))
+				.switchIfEmpty(Mono.defer(() -> createUser(user)
+						.onErrorResume(error -> idempotency.release(key)
+								.onErrorResume(releaseError -> Mono.empty())
+								.then(Mono.error(error)))
+						.flatMap(created -> idempotency.complete(key, fingerprint, created)
+								.onErrorResume(error -> {
+									log.warn("Result of idempotency key {} not stored: {}", key, error.getMessage());
+									return Mono.empty();
+								})
+								.thenReturn(created))));
+	}
+
+	private static Mono<User> replay(IdempotencyRecord existing, String fingerprint) {
+		if (!existing.getFingerprint().equals(fingerprint)) {
+			return Mono.error(mismatch(existing.getKey()));
+		}
+		if (!existing.isCompleted()) {
+			return Mono.error(new IdempotencyKeyInUseException(
+					"A request with idempotency key " + existing.getKey() + " is in progress"));
+		}
+		return Mono.just(existing.getResult());
+	}
+
+	private static IdempotencyKeyMismatchException mismatch(String key) {
+		return new IdempotencyKeyMismatchException("Idempotency key " + key + " was used with a different user");
 	}
 
 	/**
-	 * Updates an existing user.
+	 * Updates an existing user. A new email is normalized and checked for duplicates
+	 * before saving, as on creation.
 	 *
 	 * @param id   the ID of the user to update
 	 * @param user the updated user information
 	 * @return a {@link Mono} containing the updated user
 	 * @throws UserNotFoundException if the user is not found
+	 * @throws UserAlreadyExistsException if another user has the new email
 	 */
 	@Override
 	public Mono<User> updateUser(String id, User user) {
 		return userRepository.findById(id).flatMap(existingUser -> {
+			User before = snapshot(existingUser);
 			Optional.ofNullable(user.getName()).filter(name -> !name.isEmpty()).ifPresent(existingUser::setName);
-			Optional.ofNullable(user.getEmail()).filter(name -> !name.isEmpty()).ifPresent(existingUser::setEmail);
+			Optional.ofNullable(user.getEmail()).filter(name -> !name.isEmpty()).map(UserService::normalizeEmail)
+					.ifPresent(existingUser::setEmail);
 			Optional.ofNullable(user.getFavoriteArtist()).filter(name -> !name.isEmpty())
 					.ifPresent(existingUser::setFavoriteArtist);
 			Optional.ofNullable(user.getPreferredGenre()).filter(name -> !name.isEmpty())
 					.ifPresent(existingUser::setPreferredGenre);
-			return userRepository.save(existingUser);
-		}).switchIfEmpty(Mono.error(new UserNotFoundException("User not found with ID: " + id)));
+			return checkEmailAvailable(before.getEmail(), existingUser.getEmail())
+					.then(Mono.defer(() -> userRepository.update(existingUser)))
+					.flatMap(updated -> inDefaultTenant(() -> userPopularity.recordChange(before, updated))
+							.thenReturn(updated));
+		}).switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(id)));
+	}
+
+	/**
+	 * Checks that a changed email is registered to no user. The user's own email is not
+	 * looked up, so keeping it is no conflict.
+	 *
+	 * @param current the normalized email the user has
+	 * @param wanted  the normalized email the user will have
+	 * @return a {@link Mono} that completes if the email is available
+	 */
+	private Mono<Void> checkEmailAvailable(String current, String wanted) {
+		if (wanted == null || wanted.equals(current)) {
+			return Mono.empty();
+		}
+		return userRepository.existsByEmail(wanted)
+				.filter(Boolean::booleanValue)
+				.flatMap(exists -> Mono.<Void>error(new UserAlreadyExistsException("User already exists with email: " + wanted)));
 	}
 	
 	/**
-	 * Updates the mood of a user's profile.
+	 * Updates the mood of a user's profile and publishes the change if the mood differs.
+	 * Setting a mood, even the same one, restarts its time to live.
 	 *
 	 * @param id   The ID of the user profile whose mood is being updated.
 	 * @param mood The new mood to set for the user's profile.
@@ -79,9 +234,19 @@ public class UserService implements UserServicePort {
 	public Mono<User> updateMood(String id, Mood mood) {
         return userRepository.findById(id)
             .flatMap(profile -> {
+                User before = snapshot(profile);
                 profile.setMood(mood);
-                return userRepository.save(profile);
-            }).switchIfEmpty(Mono.error(new UserNotFoundException("User not found with ID: " + id)));
+                profile.setMoodSetAt(mood == null ? null : Instant.now());
+                return userRepository.update(profile)
+                        .flatMap(updated -> inDefaultTenant(() -> {
+                            userPopularity.recordChange(before, updated);
+                            if (before.getMood() != updated.getMood()) {
+                                moodChangeFeed.publish(new MoodChange(updated.getId(), before.getMood(),
+                                        updated.getMood(), Instant.now()));
+                            }
+                        }).thenReturn(updated))
+                        .flatMap(this::scheduleMoodExpiry);
+            }).switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(id)));
     }
 
 	/**
@@ -94,6 +259,51 @@ public class UserService implements UserServicePort {
 		return userRepository.findAll();
 	}
 
+	/**
+	 * Streams all users following the demand of the subscriber.
+	 *
+	 * @return a {@link Flux} emitting every user
+	 */
+	@Override
+	public Flux<User> streamAllUsers() {
+		return userRepository.streamAll();
+	}
+
+	/**
+	 * Follows the mood changes saved from now on.
+	 *
+	 * @return a {@link Flux} of the mood changes
+	 */
+	@Override
+	public Flux<MoodChange> moodChanges() {
+		return moodChangeFeed.changes();
+	}
+
+	/**
+	 * Searches users by prefix over their name and favorite artists.
+	 * Words shorter than {@link #MIN_SEARCH_PREFIX_LENGTH} are ignored and only the first
+	 * {@link #MAX_SEARCH_TOKENS} words are used, so queries without any usable word return
+	 * no results instead of scanning the collection.
+	 *
+	 * @param query the free text query
+	 * @param page  the zero-based page number, negative values are treated as 0
+	 * @param size  the page size, between 1 and {@link #MAX_SEARCH_PAGE_SIZE}
+	 * @return a {@link Flux} streaming the users of the requested page in rank order
+	 */
+	@Override
+	public Flux<User> searchUsers(String query, int page, int size) {
+		List<String> tokens = SearchTokenizer.tokenize(query).stream()
+				.filter(token -> token.length() >= MIN_SEARCH_PREFIX_LENGTH)
+				.limit(MAX_SEARCH_TOKENS)
+				.toList();
+		if (tokens.isEmpty()) {
+			return Flux.empty();
+		}
+		int limit = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
+		long skip = (long) Math.max(page, 0) * limit;
+		return userRepository.search(tokens, skip, limit);
+	}
+
 	/**
 	 * Deletes a user by their ID.
 	 *
@@ -103,12 +313,83 @@ public class UserService implements UserServicePort {
 	 */
 	@Override
 	public Mono<Void> deleteUser(String id) {
+		return userRepository.findById(id)
+				.switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(id)))
+				.flatMap(user -> userRepository.deleteById(id)
+						.then(inDefaultTenant(() -> userPopularity.recordChange(user, null))));
+	}
 
-		if (userRepository.findById(id) == null) {
-			throw new UserNotFoundException("User not found with ID: " + id);
+	/**
+	 * Schedules the expiration of the mood of a saved user, if it has one.
+	 *
+	 * @param saved the saved user
+	 * @return a {@link Mono} containing the saved user once its mood expiration is scheduled
+	 */
+	private Mono<User> scheduleMoodExpiry(User saved) {
+		if (saved.getMoodSetAt() == null) {
+			return Mono.just(saved);
 		}
+		return moodExpiry.schedule(saved.getId(), saved.getMoodSetAt()).thenReturn(saved);
+	}
 
-		return userRepository.deleteById(id);
+	/**
+	 * Runs the recording of a saved change only for the default tenant, the one the
+	 * popularity counters and the mood change feed belong to.
+	 *
+	 * @param record the recording of the change
+	 * @return a {@link Mono} that completes once the change is recorded or skipped
+	 */
+	private Mono<Void> inDefaultTenant(Runnable record) {
+		return tenantScope.isDefaultTenant()
+				.filter(Boolean::booleanValue)
+				.doOnNext(defaultTenant -> record.run())
+				.then();
+	}
+
+	/**
+	 * Copies the fields of a user that are about to be updated in place, so the change
+	 * can be recorded once it is saved. The lists are replaced, never mutated, by the updates.
+	 *
+	 * @param user the user as loaded
+	 * @return a shallow copy of the user
+	 */
+	private static User snapshot(User user) {
+		return new User(user.getId(), user.getName(), user.getEmail(), user.getMood(), user.getMoodSetAt(),
+				user.getPreferredGenre(), user.getFavoriteArtist());
+	}
 
+	/**
+	 * Hashes the fields of a user to be created, so a retry can be told apart from a
+	 * different request reusing the same idempotency key.
+	 *
+	 * @param user the user to create, with its email normalized
+	 * @return the hex encoded SHA-256 of the fields
+	 */
+	private static String fingerprint(User user) {
+		String fields = String.join("\u0000", String.valueOf(user.getId()), String.valueOf(user.getName()),
+				String.valueOf(user.getEmail()), String.valueOf(user.getMood()),
+				String.valueOf(user.getPreferredGenre()), String.valueOf(user.getFavoriteArtist()));
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+					.digest(fields.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Normalizes an email so lookups and the unique index are case-insensitive.
+	 *
+	 * @param email the email as received
+	 * @return the trimmed, lower-cased email, or null if none was given
+	 */
+	private static String normalizeEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Creation in progress on this instance for an idempotency key, shared by its duplicates.
+	 */
+	private record InFlightCreation(String fingerprint, Mono<User> result) {
 	}
-}
\ No newline at end of file
+}
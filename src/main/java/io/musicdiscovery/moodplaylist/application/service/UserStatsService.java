@@ -0,0 +1,47 @@
+package io.musicdiscovery.user.application.service;
+
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import io.musicdiscovery.user.application.port.input.UserStatsServicePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service class for the popularity statistics of the users.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsService implements UserStatsServicePort {
+
+	/** Upper bound of the number of top artists returned by a single request. */
+	public static final int MAX_TOP_ARTISTS = 1000;
+
+	private final UserPopularityPort userPopularity;
+
+	/**
+	 * Retrieves the most popular favorite artists.
+	 *
+	 * @param limit the maximum number of artists, between 1 and {@link #MAX_TOP_ARTISTS}
+	 * @return a {@link Mono} containing the artists in descending popularity order
+	 */
+	@Override
+	public Mono<List<ArtistPopularity>> getTopArtists(int limit) {
+		int clamped = Math.min(Math.max(limit, 1), MAX_TOP_ARTISTS);
+		return Mono.fromSupplier(() -> userPopularity.topArtists(clamped));
+	}
+
+	/**
+	 * Retrieves the share of every preferred genre within each mood.
+	 *
+	 * @return a {@link Mono} containing the genre shares grouped by mood
+	 */
+	@Override
+	public Mono<List<GenreShare>> getGenreShares() {
+		return Mono.fromSupplier(userPopularity::genreSharesByMood);
+	}
+}
@@ -0,0 +1,56 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.AdaptiveConcurrencyLimiter;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.TokenBucketRateLimiter;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.TokenBucketRateLimiter.Limit;
+
+/**
+ * Configuration of the admission control applied in front of the user endpoints.
+ * The concurrency max limit should stay below the Mongo pool size so requests are
+ * shed before they wait on the pool's maxWaitTime.
+ */
+@Configuration
+public class AdmissionControlConfig {
+
+    @Value("${admission.read.capacity}")
+    private long readCapacity;
+
+    @Value("${admission.read.refill-per-second}")
+    private double readRefillPerSecond;
+
+    @Value("${admission.write.capacity}")
+    private long writeCapacity;
+
+    @Value("${admission.write.refill-per-second}")
+    private double writeRefillPerSecond;
+
+    @Value("${admission.max-clients}")
+    private int maxClients;
+
+    @Value("${admission.concurrency.initial-limit}")
+    private int initialLimit;
+
+    @Value("${admission.concurrency.min-limit}")
+    private int minLimit;
+
+    @Value("${admission.concurrency.max-limit}")
+    private int maxLimit;
+
+    @Value("${admission.concurrency.smoothing}")
+    private double smoothing;
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter() {
+        return new TokenBucketRateLimiter(new Limit(readCapacity, readRefillPerSecond),
+                new Limit(writeCapacity, writeRefillPerSecond), maxClients, System::nanoTime);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, smoothing);
+    }
+}
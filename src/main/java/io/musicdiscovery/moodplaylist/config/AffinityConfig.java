@@ -0,0 +1,88 @@
+package io.musicdiscovery.user.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.AffinityWebFilter;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing.Replica;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRingEndpoint;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Configuration of the affinity of the user lookups to the replicas. The replicas are
+ * listed in {@code affinity.replicas} as {@code <id>=<base url>}, the same list on every
+ * replica, and {@code affinity.self} names this one. The ring is published on the
+ * {@code ring} actuator endpoint and, unless {@code affinity.forward.enabled} is false
+ * because the gateway already routes by it, lookups reaching the wrong replica are
+ * forwarded to their owner.
+ */
+@Configuration
+@ConditionalOnProperty(name = "affinity.enabled", havingValue = "true")
+public class AffinityConfig {
+
+    @Value("${affinity.self}")
+    private String self;
+
+    @Value("${affinity.replicas}")
+    private List<String> replicas;
+
+    @Value("${affinity.virtual-nodes}")
+    private int virtualNodes;
+
+    @Value("${affinity.forward.header}")
+    private String forwardedHeader;
+
+    @Value("${affinity.forward.client-header}")
+    private String clientHeader;
+
+    @Value("${affinity.forward.connect-timeout}")
+    private Duration connectTimeout;
+
+    @Value("${affinity.forward.timeout}")
+    private Duration timeout;
+
+    @Bean
+    public ReplicaRing replicaRing() {
+        return new ReplicaRing(self, replicas.stream()
+                .map(String::trim)
+                .filter(replica -> !replica.isEmpty())
+                .map(AffinityConfig::replica)
+                .toList(), virtualNodes);
+    }
+
+    @Bean
+    public ReplicaRingEndpoint replicaRingEndpoint(ReplicaRing replicaRing) {
+        return new ReplicaRingEndpoint(replicaRing);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "affinity.forward.enabled", havingValue = "true")
+    public AffinityWebFilter affinityWebFilter(ReplicaRing replicaRing, WebClient.Builder webClientBuilder,
+            MeterRegistry meterRegistry) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(timeout);
+        return new AffinityWebFilter(replicaRing,
+                webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build(),
+                forwardedHeader, clientHeader, meterRegistry);
+    }
+
+    private static Replica replica(String replica) {
+        int separator = replica.indexOf('=');
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Replica " + replica + " is not of the form <id>=<base url>");
+        }
+        return new Replica(replica.substring(0, separator).trim(), URI.create(replica.substring(separator + 1).trim()));
+    }
+}
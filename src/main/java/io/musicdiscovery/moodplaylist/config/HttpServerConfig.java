@@ -0,0 +1,54 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorResourceFactory;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Tuning of the Reactor Netty servers. HTTP/2 (h2c when there is no TLS), response
+ * compression and the keep-alive limits are set through the standard {@code server.*}
+ * properties; this class sizes the event loops, enables TCP keep-alive probes on the
+ * accepted connections and bounds the concurrent streams of an HTTP/2 connection.
+ */
+@Configuration
+public class HttpServerConfig {
+
+    @Value("${http.server.event-loop.select-count}")
+    private int selectCount;
+
+    @Value("${http.server.event-loop.worker-count}")
+    private int workerCount;
+
+    @Value("${http.server.tcp-keep-alive}")
+    private boolean tcpKeepAlive;
+
+    @Value("${http.server.http2.max-concurrent-streams}")
+    private long maxConcurrentStreams;
+
+    /**
+     * Event loops of the HTTP and RSocket servers, replacing Reactor Netty's global ones.
+     * A select count of 0 accepts connections on the worker loops and a worker count of 0
+     * keeps the default of one worker per available processor, at least 4.
+     */
+    @Bean
+    public ReactorResourceFactory reactorServerResourceFactory() {
+        ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+        resourceFactory.setUseGlobalResources(false);
+        int workers = workerCount > 0 ? workerCount : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        resourceFactory.setLoopResourcesSupplier(() -> selectCount > 0
+                ? LoopResources.create("user-http", selectCount, workers, true)
+                : LoopResources.create("user-http", workers, true));
+        return resourceFactory;
+    }
+
+    @Bean
+    public NettyServerCustomizer httpServerTuning() {
+        return server -> server.childOption(ChannelOption.SO_KEEPALIVE, tcpKeepAlive)
+                .http2Settings(settings -> settings.maxConcurrentStreams(maxConcurrentStreams));
+    }
+}
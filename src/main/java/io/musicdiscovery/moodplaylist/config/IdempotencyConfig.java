@@ -0,0 +1,46 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency.CachingIdempotencyAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency.MongoIdempotencyAdapter;
+
+/**
+ * Configuration of the idempotency key store: the Mongo collection behind a local cache
+ * of the completed keys. The cache TTL should stay below {@code idempotency.ttl}, so
+ * that an instance never replays a key Mongo already forgot.
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    @Value("${idempotency.cache.max-size}")
+    private long cacheMaxSize;
+
+    @Value("${idempotency.cache.ttl}")
+    private Duration cacheTtl;
+
+    @Bean
+    @Primary
+    public IdempotencyPort idempotencyPort(MongoIdempotencyAdapter mongoIdempotencyAdapter,
+            MeterRegistry meterRegistry) {
+        Cache<String, IdempotencyRecord> completed = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyCache");
+        return new CachingIdempotencyAdapter(mongoIdempotencyAdapter, completed);
+    }
+}
@@ -6,19 +6,25 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.config.AbstractReactiveMongoConfiguration;
-import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.mongodb.reactivestreams.client.MongoClients;
-import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
 
 @Configuration
 @EnableMongoRepositories
+@RequiredArgsConstructor
 public class MongoDBConfig extends AbstractReactiveMongoConfiguration {
 
+    private final ObservationRegistry observationRegistry;
+
 
     @Value("${mongo.data-base-user-name}")
     private String DATA_BASE_USER_NAME;
@@ -38,24 +44,26 @@ public class MongoDBConfig extends AbstractReactiveMongoConfiguration {
     }
 
 
-    @Override
+    /**
+     * Settings of the client of the service, also the base of the clients dedicated to tenants.
+     */
     @Bean
-    public MongoClient reactiveMongoClient() {
+    public MongoClientSettings userMongoClientSettings() {
 
         ConnectionString connectionString = new ConnectionString("mongodb://"+DATA_BASE_USER_NAME+":"+DATA_BASE_USER_PASSWORD+"@"+DATA_BASE_HOST);
 
-        MongoClientSettings settings = MongoClientSettings.builder()
+        return MongoClientSettings.builder()
                 .applyConnectionString(connectionString)
                 .applyToConnectionPoolSettings(builder -> builder.maxWaitTime(5000, TimeUnit.MILLISECONDS)) // Tiempo de espera de conexión
                 .applyToSocketSettings(builder -> builder.connectTimeout(5000, TimeUnit.MILLISECONDS)) // Tiempo de espera de socket
+                .contextProvider(ContextProviderFactory.create(observationRegistry)) // Span padre desde el contexto de Reactor
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry, connectionString)) // Un span por comando
                 .build();
-
-        return MongoClients.create(settings);
     }
 
-
+    @Override
     @Bean
-    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient mongoClient) {
-        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(mongoClient, "database"));
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(userMongoClientSettings());
     }
 }
@@ -0,0 +1,63 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.input.MoodExpiryServicePort;
+import io.musicdiscovery.user.application.port.output.MoodExpiryPort;
+import io.musicdiscovery.user.infrastructure.adapters.input.expiry.MoodExpiryScheduler;
+import io.musicdiscovery.user.infrastructure.adapters.input.expiry.MoodExpiryScheduler.Settings;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuration of the expiration of the moods. When disabled, moods never expire.
+ */
+@Configuration
+public class MoodExpiryConfig {
+
+    @Value("${user.mood-expiry.ttl}")
+    private Duration ttl;
+
+    @Value("${user.mood-expiry.tick}")
+    private Duration tick;
+
+    @Value("${user.mood-expiry.wheel-slots}")
+    private int wheelSlots;
+
+    @Value("${user.mood-expiry.wheel-levels}")
+    private int wheelLevels;
+
+    @Value("${user.mood-expiry.max-timers}")
+    private int maxTimers;
+
+    @Value("${user.mood-expiry.batch-size}")
+    private int batchSize;
+
+    @Value("${user.mood-expiry.sweep-interval}")
+    private Duration sweepInterval;
+
+    @Value("${user.mood-expiry.operations-per-second}")
+    private int operationsPerSecond;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "user.mood-expiry.enabled", havingValue = "true")
+    public MoodExpiryScheduler moodExpiryScheduler(MoodExpiryServicePort moodExpiryService,
+            TenantRegistry tenantRegistry, MeterRegistry meterRegistry) {
+        return new MoodExpiryScheduler(moodExpiryService, tenantRegistry, new MigrationThrottle(operationsPerSecond),
+                new Settings(ttl, tick, wheelSlots, wheelLevels, maxTimers, batchSize, sweepInterval),
+                System::currentTimeMillis, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "user.mood-expiry.enabled", havingValue = "false")
+    public MoodExpiryPort noMoodExpiry() {
+        return (userId, moodSetAt) -> Mono.empty();
+    }
+}
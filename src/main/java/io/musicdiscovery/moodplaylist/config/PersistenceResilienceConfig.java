@@ -0,0 +1,113 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.ResilientUserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.ResilientUserPersistenceAdapter.Hedging;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.ResilientUserPersistenceAdapter.Timeouts;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+
+/**
+ * Configuration of the timeouts, hedged reads and circuit breaker wrapped around
+ * the Mongo persistence adapter. The resilient decorator is the innermost layer of
+ * the {@link UserPersistencePort} of every tenant, assembled in {@link UserPersistencePortConfig}.
+ * The default tenant uses the {@code userPersistence} circuit breaker shared with the
+ * background jobs; each other tenant gets a breaker of its own.
+ */
+@Configuration
+public class PersistenceResilienceConfig {
+
+    @Value("${persistence.timeouts.find-all}")
+    private Duration findAllTimeout;
+
+    @Value("${persistence.timeouts.find-by-id}")
+    private Duration findByIdTimeout;
+
+    @Value("${persistence.timeouts.save}")
+    private Duration saveTimeout;
+
+    @Value("${persistence.timeouts.delete-by-id}")
+    private Duration deleteByIdTimeout;
+
+    @Value("${persistence.hedging.enabled}")
+    private boolean hedgingEnabled;
+
+    @Value("${persistence.hedging.percentile}")
+    private double hedgingPercentile;
+
+    @Value("${persistence.hedging.min-delay}")
+    private Duration hedgingMinDelay;
+
+    @Value("${persistence.hedging.max-delay}")
+    private Duration hedgingMaxDelay;
+
+    @Value("${persistence.circuit-breaker.failure-rate-threshold}")
+    private float failureRateThreshold;
+
+    @Value("${persistence.circuit-breaker.sliding-window-size}")
+    private int slidingWindowSize;
+
+    @Value("${persistence.circuit-breaker.wait-duration-in-open-state}")
+    private Duration waitDurationInOpenState;
+
+    @Value("${persistence.stale-cache.max-size}")
+    private long staleCacheMaxSize;
+
+    @Value("${persistence.stale-cache.ttl}")
+    private Duration staleCacheTtl;
+
+    @Bean
+    public CircuitBreaker userPersistenceCircuitBreaker() {
+        return circuitBreaker("userPersistence");
+    }
+
+    /**
+     * Creates the circuit breaker of a tenant other than the default one.
+     *
+     * @param tenant the tenant id
+     * @return the circuit breaker
+     */
+    public CircuitBreaker tenantCircuitBreaker(String tenant) {
+        return circuitBreaker("userPersistence-" + tenant);
+    }
+
+    /**
+     * Wraps the Mongo adapter in the resilience decorator of a tenant. The stale cache is
+     * capped by the cache size of the tenant, like its other caches.
+     *
+     * @param tenant the tenant
+     * @param userPersistenceAdapter the Mongo adapter
+     * @param circuitBreaker the circuit breaker of the tenant
+     * @param meterRegistry the registry of the tenant
+     * @return the decorator
+     */
+    public ResilientUserPersistenceAdapter resilientUserPersistenceAdapter(Tenant tenant,
+            UserPersistenceAdapter userPersistenceAdapter, CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        return new ResilientUserPersistenceAdapter(userPersistenceAdapter, circuitBreaker,
+                Caffeine.newBuilder().maximumSize(Math.min(staleCacheMaxSize, tenant.cacheMaxSize()))
+                        .expireAfterWrite(staleCacheTtl).build(),
+                new Timeouts(findAllTimeout, findByIdTimeout, saveTimeout, deleteByIdTimeout),
+                new Hedging(hedgingEnabled, hedgingPercentile, hedgingMinDelay, hedgingMaxDelay),
+                meterRegistry);
+    }
+
+    private CircuitBreaker circuitBreaker(String name) {
+        return CircuitBreaker.of(name, CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .recordException(ResilientUserPersistenceAdapter::isDegraded)
+                .build());
+    }
+}
@@ -0,0 +1,45 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.query.PlaylistProfileProjector;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.query.PlaylistProfileProjector.Settings;
+
+/**
+ * Configuration of the projector maintaining the read model of the playlist queries.
+ * Instances with the projector disabled still serve the read model projected by the others.
+ */
+@Configuration
+@ConditionalOnProperty(name = "query-model.projector.enabled", havingValue = "true")
+public class QueryModelConfig {
+
+    @Value("${query-model.projector.top-artists}")
+    private int topArtists;
+
+    @Value("${query-model.projector.lease}")
+    private Duration lease;
+
+    @Value("${query-model.projector.checkpoint-interval}")
+    private Duration checkpointInterval;
+
+    @Value("${query-model.projector.rebuild.batch-size}")
+    private int rebuildBatchSize;
+
+    @Value("${query-model.projector.rebuild.operations-per-second}")
+    private int rebuildOperationsPerSecond;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PlaylistProfileProjector playlistProfileProjector(ReactiveMongoTemplate reactiveMongoTemplate,
+            MeterRegistry meterRegistry) {
+        return new PlaylistProfileProjector(reactiveMongoTemplate, new MigrationThrottle(rebuildOperationsPerSecond),
+                new Settings(topArtists, lease, checkpointInterval, rebuildBatchSize), meterRegistry);
+    }
+}
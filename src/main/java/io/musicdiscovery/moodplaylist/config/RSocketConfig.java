@@ -0,0 +1,72 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.rsocket.RSocketMessageHandlerCustomizer;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.Validator;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.PayloadSizeLimitInterceptor;
+
+/**
+ * Configuration of the RSocket server behind {@code UserRSocketController}. Requests get
+ * the same protection as over HTTP: payloads larger than {@code http.payload.max-body-size}
+ * are rejected before they are decoded, the CBOR and JSON decoders apply the list, string
+ * and nesting limits, and {@code @Valid} payloads are validated.
+ */
+@Configuration
+public class RSocketConfig {
+
+    @Value("${http.payload.max-body-size}")
+    private DataSize maxBodySize;
+
+    @Value("${http.payload.max-in-memory-size}")
+    private DataSize maxInMemorySize;
+
+    @Bean
+    public RSocketServerCustomizer rsocketPayloadLimit(MeterRegistry meterRegistry) {
+        return server -> server.interceptors(registry -> registry.forResponder(
+                new PayloadSizeLimitInterceptor(maxBodySize.toBytes(), meterRegistry)));
+    }
+
+    /**
+     * Registers the bounded decoders ahead of the default ones, which stay in place for the encoding.
+     * Their media types are explicit: a decoder only wins the lookup if it declares the data MIME type.
+     */
+    @Bean
+    @Order(-1)
+    public RSocketStrategiesCustomizer rsocketBoundedDecoders(RequestPayloadConfig requestPayloadConfig,
+            ObjectMapper objectMapper, Jackson2ObjectMapperBuilder builder) {
+        return strategies -> {
+            ObjectMapper cborMapper = requestPayloadConfig.limitRequests(builder.createXmlMapper(false)
+                    .factory(new CBORFactory()).build());
+            Jackson2CborDecoder cbor = new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR);
+            cbor.setMaxInMemorySize((int) maxInMemorySize.toBytes());
+            Jackson2JsonDecoder json = new Jackson2JsonDecoder(requestPayloadConfig.limitRequests(objectMapper.copy()),
+                    MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+            json.setMaxInMemorySize((int) maxInMemorySize.toBytes());
+            strategies.decoders(decoders -> {
+                decoders.add(0, cbor);
+                decoders.add(1, json);
+            });
+        };
+    }
+
+    @Bean
+    public RSocketMessageHandlerCustomizer rsocketValidation(@Qualifier("defaultValidator") Validator validator) {
+        return messageHandler -> messageHandler.setValidator(validator);
+    }
+}
@@ -0,0 +1,69 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.BoundedCollectionsModule;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.RequestBodyLimitWebFilter;
+import io.musicdiscovery.user.infrastructure.observability.ObservedJackson2JsonDecoder;
+
+/**
+ * Codecs used to read request bodies, with the limits that protect the service from
+ * oversized payloads. The body size is bounded by {@link RequestBodyLimitWebFilter};
+ * the codecs never hold more than {@code http.payload.max-in-memory-size} and the JSON
+ * decoder rejects long strings, deep nesting and long lists while parsing.
+ * The decoder has its own copy of the application {@link ObjectMapper}, so the limits
+ * only apply to request bodies. It is observed as the {@code user.decode} stage.
+ */
+@Configuration
+public class RequestPayloadConfig implements WebFluxConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final ObservationRegistry observationRegistry;
+
+    @Value("${http.payload.max-in-memory-size}")
+    private DataSize maxInMemorySize;
+
+    @Value("${http.payload.max-list-items}")
+    private int maxListItems;
+
+    @Value("${http.payload.max-string-length}")
+    private int maxStringLength;
+
+    @Value("${http.payload.max-nesting-depth}")
+    private int maxNestingDepth;
+
+    public RequestPayloadConfig(ObjectMapper objectMapper, ObservationRegistry observationRegistry) {
+        this.objectMapper = objectMapper;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.defaultCodecs().maxInMemorySize((int) maxInMemorySize.toBytes());
+        configurer.defaultCodecs().jackson2JsonDecoder(
+                new ObservedJackson2JsonDecoder(limitRequests(objectMapper.copy()), observationRegistry));
+    }
+
+    /**
+     * Applies the list, string and nesting limits of the request payloads to a mapper.
+     *
+     * @param requestMapper a mapper used only to read requests
+     * @return the same mapper
+     */
+    public ObjectMapper limitRequests(ObjectMapper requestMapper) {
+        requestMapper.registerModule(new BoundedCollectionsModule(maxListItems));
+        requestMapper.getFactory().setStreamReadConstraints(StreamReadConstraints.builder()
+                .maxStringLength(maxStringLength)
+                .maxNestingDepth(maxNestingDepth)
+                .build());
+        return requestMapper;
+    }
+}
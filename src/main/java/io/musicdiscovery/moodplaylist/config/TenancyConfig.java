@@ -0,0 +1,134 @@
+package io.musicdiscovery.user.config;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationConvention;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+
+/**
+ * Configuration of the tenants served by the deployment and of the location of their users.
+ * <p>
+ * The default tenant keeps the {@code users} collection of the service. Every tenant listed
+ * in {@code tenancy.tenants} gets a {@code users_<id>} collection in the same database,
+ * which {@code tenancy.tenant.<id>.*} can move to another database or give a connection
+ * pool of its own.
+ */
+@Configuration
+public class TenancyConfig {
+
+    private static final String TENANT_PROPERTY = "tenancy.tenant.";
+
+    @Value("${tenancy.default-tenant}")
+    private String defaultTenant;
+
+    @Value("${tenancy.tenants}")
+    private List<String> tenantIds;
+
+    @Value("${tenancy.defaults.max-connections}")
+    private int defaultMaxConnections;
+
+    @Value("${tenancy.defaults.cache-max-size}")
+    private long defaultCacheMaxSize;
+
+    @Value("${persistence.cache.near.max-size}")
+    private long nearCacheMaxSize;
+
+    @Value("${tenancy.header}")
+    private String tenantHeader;
+
+    @Value("${mongo.data-base-name}")
+    private String databaseName;
+
+    @Bean
+    public TenantRegistry tenantRegistry(ReactiveMongoTemplate reactiveMongoTemplate, Environment environment) {
+        Tenant tenant = tenant(environment, defaultTenant, reactiveMongoTemplate.getCollectionName(UserEntity.class),
+                0, nearCacheMaxSize);
+        List<Tenant> others = tenantIds.stream()
+                .map(String::trim)
+                .filter(id -> !id.isEmpty() && !id.equals(defaultTenant))
+                .map(id -> tenant(environment, id, "users_" + id, defaultMaxConnections, defaultCacheMaxSize))
+                .toList();
+        return new TenantRegistry(tenant, others);
+    }
+
+    @Bean
+    public UserCollectionRouter userCollectionRouter(TenantRegistry tenantRegistry,
+            ReactiveMongoTemplate reactiveMongoTemplate, MongoClient reactiveMongoClient,
+            MongoClientSettings userMongoClientSettings, MeterRegistry meterRegistry) {
+        Map<String, UserCollection> collections = new LinkedHashMap<>();
+        List<MongoClient> dedicatedClients = new ArrayList<>();
+        for (Tenant tenant : tenantRegistry.all()) {
+            ReactiveMongoTemplate template = reactiveMongoTemplate;
+            if (tenant.maxConnections() > 0 || tenant.database() != null) {
+                MongoClient client = reactiveMongoClient;
+                if (tenant.maxConnections() > 0) {
+                    MeterRegistry tenantMeterRegistry = TenantRegistry.meterRegistry(meterRegistry, tenant);
+                    client = MongoClients.create(MongoClientSettings.builder(userMongoClientSettings)
+                            .applyToConnectionPoolSettings(pool -> pool.maxSize(tenant.maxConnections())
+                                    .addConnectionPoolListener(
+                                            new MongoMetricsConnectionPoolListener(tenantMeterRegistry)))
+                            .build());
+                    dedicatedClients.add(client);
+                }
+                template = new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(client,
+                        tenant.database() != null ? tenant.database() : databaseName),
+                        reactiveMongoTemplate.getConverter());
+            }
+            collections.put(tenant.id(), new UserCollection(tenant, template, tenant.collection()));
+        }
+        return new UserCollectionRouter(tenantRegistry, collections, dedicatedClients);
+    }
+
+    /**
+     * Tags the {@code http.server.requests} observations with the tenant of the request.
+     * Tenants that are not served, rejected by the tenant filter, are tagged as the default
+     * one so the tag only takes the values of the registry.
+     */
+    @Bean
+    public ServerRequestObservationConvention tenantServerRequestObservationConvention(
+            TenantRegistry tenantRegistry) {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                String id = context.getCarrier().getHeaders().getFirst(tenantHeader);
+                Tenant tenant = id == null ? tenantRegistry.defaultTenant()
+                        : tenantRegistry.find(id).orElse(tenantRegistry.defaultTenant());
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("tenant", tenant.id()));
+            }
+        };
+    }
+
+    private static Tenant tenant(Environment environment, String id, String collection, int maxConnections,
+            long cacheMaxSize) {
+        String prefix = TENANT_PROPERTY + id + ".";
+        return new Tenant(id,
+                environment.getProperty(prefix + "database"),
+                environment.getProperty(prefix + "collection", collection),
+                environment.getProperty(prefix + "max-connections", Integer.class, maxConnections),
+                environment.getProperty(prefix + "cache-max-size", Long.class, cacheMaxSize));
+    }
+}
@@ -0,0 +1,42 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.purge.TombstonePurger;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.purge.TombstonePurger.Settings;
+
+/**
+ * Configuration of the background purge of the deleted users.
+ */
+@Configuration
+@ConditionalOnProperty(name = "persistence.purge.enabled", havingValue = "true")
+public class TombstonePurgeConfig {
+
+    @Value("${persistence.purge.retention}")
+    private Duration retention;
+
+    @Value("${persistence.purge.batch-size}")
+    private int batchSize;
+
+    @Value("${persistence.purge.interval}")
+    private Duration interval;
+
+    @Value("${persistence.purge.operations-per-second}")
+    private int operationsPerSecond;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public TombstonePurger tombstonePurger(UserCollectionRouter userCollectionRouter,
+            CircuitBreaker userPersistenceCircuitBreaker, MeterRegistry meterRegistry) {
+        return new TombstonePurger(userCollectionRouter, userPersistenceCircuitBreaker,
+                new MigrationThrottle(operationsPerSecond), new Settings(retention, batchSize, interval), meterRegistry);
+    }
+}
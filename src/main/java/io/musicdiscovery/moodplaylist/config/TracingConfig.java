@@ -0,0 +1,42 @@
+package io.musicdiscovery.user.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.musicdiscovery.user.infrastructure.observability.JsonLinesSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Tracing of the request stages. The HTTP server and Mongo command spans come
+ * from Spring and the Mongo driver listener; when {@code tracing.export.target}
+ * is {@code log} or {@code file}, this configuration exports the spans without
+ * an external collector. The JSON decoding stage is observed by the decoder set up
+ * in {@link RequestPayloadConfig}; the request bodies are validated by plain getter
+ * calls, too cheap to be a stage of their own. The controller, service, persistence
+ * and mapping stages are observed by
+ * {@link io.musicdiscovery.user.infrastructure.observability.ReactiveObservationAspect}.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Static so the span exporter, needed to build the observation registry,
+     * does not depend on this configuration.
+     */
+    @Bean
+    @ConditionalOnExpression("'${tracing.export.target}' != 'none'")
+    public static SpanExporter jsonLinesSpanExporter(ObjectMapper objectMapper,
+            @Value("${tracing.export.target}") String exportTarget,
+            @Value("${tracing.export.file}") Path exportFile) throws IOException {
+        return "file".equals(exportTarget)
+                ? JsonLinesSpanExporter.toFile(objectMapper, exportFile)
+                : JsonLinesSpanExporter.toLog(objectMapper);
+    }
+}
@@ -0,0 +1,62 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.InMemorySharedUserCache;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.InMemoryUserCacheInvalidations;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.RedisSharedUserCache;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.RedisUserCacheInvalidations;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.SharedUserCache;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.UserCacheInvalidations;
+
+/**
+ * Configuration of the shared user cache and of the invalidation channel, selected by
+ * {@code persistence.cache.shared.type}: {@code redis}, {@code memory}, or {@code none}
+ * to cache in the near tier only.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Value("${persistence.cache.shared.ttl}")
+    private Duration sharedTtl;
+
+    @Value("${persistence.cache.shared.max-size}")
+    private long sharedMaxSize;
+
+    @Value("${persistence.cache.shared.invalidation-channel}")
+    private String invalidationChannel;
+
+    @Bean
+    @ConditionalOnProperty(name = "persistence.cache.shared.type", havingValue = "redis")
+    public SharedUserCache redisSharedUserCache(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+            ObjectMapper objectMapper) {
+        return new RedisSharedUserCache(reactiveStringRedisTemplate, objectMapper, sharedTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "persistence.cache.shared.type", havingValue = "redis")
+    public UserCacheInvalidations redisUserCacheInvalidations(ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+        return new RedisUserCacheInvalidations(reactiveStringRedisTemplate, invalidationChannel);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "persistence.cache.shared.type", havingValue = "memory")
+    public SharedUserCache inMemorySharedUserCache() {
+        return new InMemorySharedUserCache(sharedMaxSize, sharedTtl);
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${persistence.cache.shared.type}' != 'redis'")
+    public UserCacheInvalidations inMemoryUserCacheInvalidations() {
+        return new InMemoryUserCacheInvalidations();
+    }
+}
@@ -0,0 +1,49 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.UserMigrationExecutor;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.UserMigrationExecutor.Settings;
+
+/**
+ * Configuration of the background migrations of the users collection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "persistence.migrations.enabled", havingValue = "true")
+public class UserMigrationConfig {
+
+    @Value("${persistence.migrations.partitions}")
+    private int partitions;
+
+    @Value("${persistence.migrations.parallelism}")
+    private int parallelism;
+
+    @Value("${persistence.migrations.batch-size}")
+    private int batchSize;
+
+    @Value("${persistence.migrations.operations-per-second}")
+    private int operationsPerSecond;
+
+    @Value("${persistence.migrations.lease}")
+    private Duration lease;
+
+    @Value("${persistence.migrations.degraded-pause}")
+    private Duration degradedPause;
+
+    @Bean
+    public UserMigrationExecutor userMigrationExecutor(ReactiveMongoTemplate reactiveMongoTemplate,
+            CircuitBreaker userPersistenceCircuitBreaker, MeterRegistry meterRegistry) {
+        return new UserMigrationExecutor(reactiveMongoTemplate, userPersistenceCircuitBreaker,
+                new MigrationThrottle(operationsPerSecond),
+                new Settings(partitions, parallelism, batchSize, lease, degradedPause), meterRegistry);
+    }
+}
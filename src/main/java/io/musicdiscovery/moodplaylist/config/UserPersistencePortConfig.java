@@ -0,0 +1,162 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.NegativeCachingUserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.TenantRoutingUserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.HotKeyUserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.SharedUserCache;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.TieredCachingUserPersistenceAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.UserCacheInvalidations;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import io.musicdiscovery.user.utils.SlidingWindowSketch;
+
+/**
+ * Assembles the {@link UserPersistencePort} injected into the application services.
+ * The Mongo adapter is wrapped, from the inside out, by the resilience decorator,
+ * the negative cache of unknown ids, the near and shared caches of users and the
+ * pinning of the hot users.
+ * <p>
+ * Every tenant gets its own chain of decorators: its own circuit breaker, its own
+ * bounded caches sized by its quota, a namespace in the shared cache and meters tagged
+ * with its id. The chains sit behind a port routing each call to the chain of the
+ * tenant of the request.
+ * <p>
+ * With request affinity, the lookups of a user all reach the replica owning it on the
+ * {@link ReplicaRing}, so the cache quota of a tenant is the size of its near cache
+ * across the fleet and every replica keeps its own slice of it.
+ */
+@Configuration
+public class UserPersistencePortConfig {
+
+    private static final int HOT_KEYS_SKETCH_DEPTH = 4;
+    private static final int HOT_KEYS_WINDOW_BUCKETS = 5;
+
+    @Value("${persistence.negative-cache.enabled}")
+    private boolean negativeCacheEnabled;
+
+    @Value("${persistence.negative-cache.max-size}")
+    private long negativeCacheMaxSize;
+
+    @Value("${persistence.negative-cache.ttl}")
+    private Duration negativeCacheTtl;
+
+    @Value("${persistence.cache.enabled}")
+    private boolean cacheEnabled;
+
+    @Value("${persistence.cache.near.ttl}")
+    private Duration nearCacheTtl;
+
+    @Value("${affinity.cache-headroom}")
+    private double affinityCacheHeadroom;
+
+    @Value("${persistence.cache.shared.timeout}")
+    private Duration sharedCacheTimeout;
+
+    @Value("${persistence.cache.shared.invalidation-redelay}")
+    private Duration invalidationRedelay;
+
+    @Value("${persistence.hot-keys.enabled}")
+    private boolean hotKeysEnabled;
+
+    @Value("${persistence.hot-keys.window}")
+    private Duration hotKeysWindow;
+
+    @Value("${persistence.hot-keys.sketch-width}")
+    private int hotKeysSketchWidth;
+
+    @Value("${persistence.hot-keys.threshold}")
+    private long hotKeysThreshold;
+
+    @Value("${persistence.hot-keys.refresh-after}")
+    private Duration hotKeysRefreshAfter;
+
+    @Value("${persistence.hot-keys.ttl}")
+    private Duration hotKeysTtl;
+
+    @Value("${persistence.hot-keys.max-size}")
+    private long hotKeysMaxSize;
+
+    @Bean
+    @Primary
+    public UserPersistencePort userPersistencePort(TenantRegistry tenantRegistry,
+            UserPersistenceAdapter userPersistenceAdapter, PersistenceResilienceConfig persistenceResilienceConfig,
+            CircuitBreaker userPersistenceCircuitBreaker, ObjectProvider<SharedUserCache> sharedUserCache,
+            UserCacheInvalidations userCacheInvalidations, ObjectProvider<ReplicaRing> replicaRing,
+            MeterRegistry meterRegistry) {
+        ReplicaRing ring = replicaRing.getIfAvailable();
+        Map<String, UserPersistencePort> ports = new LinkedHashMap<>();
+        for (Tenant tenant : tenantRegistry.all()) {
+            boolean defaultTenant = tenant.equals(tenantRegistry.defaultTenant());
+            CircuitBreaker circuitBreaker = defaultTenant ? userPersistenceCircuitBreaker
+                    : persistenceResilienceConfig.tenantCircuitBreaker(tenant.id());
+            SharedUserCache tenantSharedCache = sharedUserCache.getIfAvailable();
+            if (tenantSharedCache != null && !defaultTenant) {
+                tenantSharedCache = tenantSharedCache.namespaced(tenant.id());
+            }
+            MeterRegistry tenantMeterRegistry = TenantRegistry.meterRegistry(meterRegistry, tenant);
+            long nearCacheSize = ring == null ? tenant.cacheMaxSize()
+                    : ring.sliceOf(tenant.cacheMaxSize(), affinityCacheHeadroom);
+            ports.put(tenant.id(), tenantPort(tenant, nearCacheSize,
+                    persistenceResilienceConfig.resilientUserPersistenceAdapter(tenant, userPersistenceAdapter,
+                            circuitBreaker, tenantMeterRegistry),
+                    tenantSharedCache, userCacheInvalidations, tenantMeterRegistry));
+        }
+        return new TenantRoutingUserPersistenceAdapter(tenantRegistry, ports);
+    }
+
+    private UserPersistencePort tenantPort(Tenant tenant, long nearCacheSize, UserPersistencePort port,
+            SharedUserCache sharedUserCache, UserCacheInvalidations userCacheInvalidations,
+            MeterRegistry meterRegistry) {
+        if (negativeCacheEnabled) {
+            Cache<String, Boolean> missingIds = Caffeine.newBuilder()
+                    .maximumSize(Math.min(negativeCacheMaxSize, tenant.cacheMaxSize()))
+                    .expireAfterWrite(negativeCacheTtl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, missingIds, "userNegativeCache");
+            port = new NegativeCachingUserPersistenceAdapter(port, missingIds, meterRegistry);
+        }
+        if (cacheEnabled) {
+            AsyncCache<String, User> nearCache = Caffeine.newBuilder()
+                    .maximumSize(nearCacheSize)
+                    .expireAfterWrite(nearCacheTtl)
+                    .buildAsync();
+            TieredCachingUserPersistenceAdapter cachingPort = new TieredCachingUserPersistenceAdapter(port, nearCache,
+                    sharedUserCache, userCacheInvalidations,
+                    new TieredCachingUserPersistenceAdapter.Settings(sharedCacheTimeout, invalidationRedelay),
+                    meterRegistry);
+            cachingPort.start();
+            port = cachingPort;
+        }
+        if (hotKeysEnabled) {
+            port = new HotKeyUserPersistenceAdapter(port,
+                    new SlidingWindowSketch(HOT_KEYS_SKETCH_DEPTH, hotKeysSketchWidth, hotKeysWindow,
+                            HOT_KEYS_WINDOW_BUCKETS, System::nanoTime),
+                    new HotKeyUserPersistenceAdapter.Settings(hotKeysThreshold, hotKeysRefreshAfter, hotKeysTtl,
+                            Math.min(hotKeysMaxSize, tenant.cacheMaxSize())),
+                    System::nanoTime, meterRegistry);
+        }
+        return port;
+    }
+}
@@ -0,0 +1,39 @@
+package io.musicdiscovery.user.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.stats.SketchUserPopularityAdapter;
+import io.musicdiscovery.user.infrastructure.adapters.output.stats.SketchUserPopularityAdapter.Settings;
+
+/**
+ * Configuration of the popularity counters behind the stats endpoints.
+ */
+@Configuration
+public class UserPopularityConfig {
+
+    @Value("${stats.popularity.sketch-depth}")
+    private int sketchDepth;
+
+    @Value("${stats.popularity.sketch-width}")
+    private int sketchWidth;
+
+    @Value("${stats.popularity.candidates}")
+    private int candidates;
+
+    @Value("${stats.popularity.refresh-interval}")
+    private Duration refreshInterval;
+
+    @Value("${stats.popularity.checkpoint-interval}")
+    private Duration checkpointInterval;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SketchUserPopularityAdapter userPopularityAdapter(ReactiveMongoTemplate reactiveMongoTemplate) {
+        return new SketchUserPopularityAdapter(reactiveMongoTemplate,
+                new Settings(sketchDepth, sketchWidth, candidates, refreshInterval, checkpointInterval));
+    }
+}
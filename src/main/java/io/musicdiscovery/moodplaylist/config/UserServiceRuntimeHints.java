@@ -0,0 +1,53 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UpdateMoodRequest;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.ArtistPopularityResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.ErrorResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.GenreShareResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.PlaylistProfileResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.model.MoodChangeResponse;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency.IdempotencyKeyEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.query.PlaylistProfileEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.query.ProjectionCheckpoint;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRingEndpoint.RingDescription;
+
+/**
+ * Runtime hints used when the application is compiled to a GraalVM native image.
+ * Spring AOT already covers the bean definitions (including the MapStruct mappers,
+ * which are plain Spring components), so this registrar only adds what is resolved
+ * reflectively at runtime: the Jackson/Mongo bound types with their Lombok generated
+ * accessors and the therapi javadoc resources read by springdoc.
+ */
+public class UserServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(),
+                User.class,
+                UserEntity.class,
+                IdempotencyKeyEntity.class,
+                PlaylistProfileEntity.class,
+                ProjectionCheckpoint.class,
+                UserCreateRequest.class,
+                UpdateMoodRequest.class,
+                UserResponse.class,
+                ErrorResponse.class,
+                ArtistPopularityResponse.class,
+                GenreShareResponse.class,
+                PlaylistProfileResponse.class,
+                MoodChangeResponse.class,
+                RingDescription.class);
+
+        hints.resources().registerPattern("**/*__Javadoc.json");
+    }
+}
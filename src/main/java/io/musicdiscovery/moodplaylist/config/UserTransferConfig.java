@@ -0,0 +1,40 @@
+package io.musicdiscovery.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer.UserCollectionExporter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer.UserCollectionImporter;
+
+/**
+ * Builds the offline export/import of the users collection. Only active when
+ * the service is started as a transfer job with {@code user.transfer.mode}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "user.transfer.mode")
+public class UserTransferConfig {
+
+    @Value("${user.transfer.chunk-size}")
+    private int chunkSize;
+
+    @Value("${user.transfer.parallelism}")
+    private int parallelism;
+
+    @Bean
+    public UserCollectionExporter userCollectionExporter(ReactiveMongoTemplate reactiveMongoTemplate,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new UserCollectionExporter(reactiveMongoTemplate, objectMapper, chunkSize, meterRegistry);
+    }
+
+    @Bean
+    public UserCollectionImporter userCollectionImporter(ReactiveMongoTemplate reactiveMongoTemplate,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new UserCollectionImporter(reactiveMongoTemplate, objectMapper, chunkSize, parallelism, meterRegistry);
+    }
+}
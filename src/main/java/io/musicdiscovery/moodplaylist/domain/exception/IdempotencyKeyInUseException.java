@@ -0,0 +1,15 @@
+package io.musicdiscovery.user.domain.exception;
+
+
+/**
+ * Custom exception thrown when a request with the same idempotency key is still in progress.
+ */
+public class IdempotencyKeyInUseException extends RuntimeException {
+
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyInUseException(String message) {
+        super(message);
+    }
+}
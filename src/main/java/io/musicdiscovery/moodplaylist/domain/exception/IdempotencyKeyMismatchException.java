@@ -0,0 +1,15 @@
+package io.musicdiscovery.user.domain.exception;
+
+
+/**
+ * Custom exception thrown when an idempotency key is reused with a different request.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
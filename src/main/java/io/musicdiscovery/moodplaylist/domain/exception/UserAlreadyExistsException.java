@@ -0,0 +1,15 @@
+package io.musicdiscovery.user.domain.exception;
+
+
+/**
+ * Custom exception thrown when a user with the same email already exists in the system.
+ */
+public class UserAlreadyExistsException extends RuntimeException {
+
+
+	private static final long serialVersionUID = 1L;
+
+	public UserAlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -3,13 +3,39 @@ package io.musicdiscovery.user.domain.exception;
 
 /**
  * Custom exception thrown when a user is not found in the system.
+ * Not-found is an expected outcome rather than a failure, so the exception is
+ * stackless and, when created from an id, builds its message only if it is read.
  */
 public class UserNotFoundException extends RuntimeException {
 
 
 	private static final long serialVersionUID = 1L;
 
+	private static final String ID_MESSAGE_PREFIX = "User not found with ID: ";
+
+	private final String id;
+
 	public UserNotFoundException(String message) {
-        super(message);
+        this(message, null);
     }
+
+	private UserNotFoundException(String message, String id) {
+		super(message, null, false, false);
+		this.id = id;
+	}
+
+	/**
+	 * Creates the exception for a missing user id without building its message.
+	 *
+	 * @param id the id that was not found
+	 * @return the exception
+	 */
+	public static UserNotFoundException withId(String id) {
+		return new UserNotFoundException(null, id);
+	}
+
+	@Override
+	public String getMessage() {
+		return id == null ? super.getMessage() : ID_MESSAGE_PREFIX + id;
+	}
 }
@@ -0,0 +1,18 @@
+package io.musicdiscovery.user.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Estimated number of users having an artist among their favorites.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArtistPopularity {
+    private String artist;
+    private long users;
+}
@@ -0,0 +1,23 @@
+package io.musicdiscovery.user.domain.model;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of users in a mood preferring a genre, and the share of the genre among
+ * the genre preferences of that mood. A null mood groups the users without one.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenreShare {
+    private Mood mood;
+    private Genre genre;
+    private long users;
+    private double share;
+}
@@ -0,0 +1,27 @@
+package io.musicdiscovery.user.domain.model;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outcome of a request sent with an idempotency key: the fingerprint of the request
+ * and, once it completed, the user it created. A record without result is in progress.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyRecord {
+    private String key;
+    private String fingerprint;
+    private User result;
+    private Instant createdAt;
+
+    public boolean isCompleted() {
+        return result != null;
+    }
+}
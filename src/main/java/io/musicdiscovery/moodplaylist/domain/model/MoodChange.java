@@ -0,0 +1,23 @@
+package io.musicdiscovery.user.domain.model;
+
+import java.time.Instant;
+
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change of the mood of a user, as saved.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MoodChange {
+    private String userId;
+    private Mood previous;
+    private Mood current;
+    private Instant changedAt;
+}
@@ -0,0 +1,29 @@
+package io.musicdiscovery.user.domain.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The part of a user that playlist generation reads: its mood, preferred genres and
+ * top favorite artists. Profiles are projected from the users asynchronously, so a
+ * profile may lag the user it was projected from; {@code updatedAt} tells when it
+ * was last projected.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistProfile {
+    private String userId;
+    private Mood mood;
+    private List<Genre> preferredGenre;
+    private List<String> topArtists;
+    private Instant updatedAt;
+}
@@ -1,6 +1,7 @@
 package io.musicdiscovery.user.domain.model;
 
 
+import java.time.Instant;
 import java.util.List;
 
 import io.musicdiscovery.user.domain.model.enums.Genre;
@@ -13,6 +14,8 @@ import lombok.Setter;
 
 /**
  * User Domain representing a user in the system.
+ * A mood is not permanent: {@code moodSetAt} records when it was set, and the mood
+ * expires back to none once it is older than the configured time to live.
  */
 @Setter
 @Getter
@@ -23,6 +26,7 @@ public class User {
     private String name;
     private String email;
     private Mood mood;
+    private Instant moodSetAt;
     private List<Genre> preferredGenre;
     private List<String> favoriteArtist;
 
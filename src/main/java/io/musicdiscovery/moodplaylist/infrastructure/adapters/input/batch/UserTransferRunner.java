@@ -0,0 +1,49 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.batch;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer.UserCollectionExporter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer.UserCollectionImporter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a users export or import instead of serving requests, for example:
+ * {@code java -jar user-service.jar --spring.main.web-application-type=none
+ * --user.transfer.mode=export --user.transfer.file=users.ndjson.gz}.
+ * The process exits when the transfer is done.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "user.transfer.mode")
+public class UserTransferRunner implements ApplicationRunner {
+
+    private final UserCollectionExporter exporter;
+    private final UserCollectionImporter importer;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${user.transfer.mode}")
+    private String mode;
+
+    @Value("${user.transfer.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        switch (mode) {
+            case "export" -> exporter.export(file).block();
+            case "import" -> log.info("Import finished: {}", importer.importFile(file).block());
+            default -> throw new IllegalArgumentException("Unknown user.transfer.mode: " + mode);
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
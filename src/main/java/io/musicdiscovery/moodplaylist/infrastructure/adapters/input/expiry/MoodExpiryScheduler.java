@@ -0,0 +1,234 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.expiry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.input.MoodExpiryServicePort;
+import io.musicdiscovery.user.application.port.output.MoodExpiryPort;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import io.musicdiscovery.user.utils.TimerWheel;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Expires the moods of the users once they are older than their time to live.
+ * <p>
+ * Every mood saved through this instance gets a timer in a {@link TimerWheel} of its
+ * tenant: a node of a few bytes, scheduled in constant time. Every tick the due user ids
+ * are drained from the wheels and expired in batches, each with one conditional multi-update.
+ * A timer does not survive a restart, cannot be cancelled and is capped in number; the
+ * expiry is conditional on the time the mood was set, so a timer fired for a mood set
+ * again since is a no-op.
+ * <p>
+ * The sweep covers what the wheels miss: the moods set before the start of the instance,
+ * through other instances, beyond the capacity of the wheels, or whose batch failed. Every
+ * sweep interval it expires the oldest due moods of every tenant through the partial
+ * {@code mood_expiry} index, batch after batch while batches come back full, at the rate
+ * of its throttle. Instances sweeping the same moods together split them: every mood is
+ * expired, counted and published by the one instance whose conditional multi-update cleared it.
+ */
+@Slf4j
+public class MoodExpiryScheduler implements MoodExpiryPort {
+
+    private final MoodExpiryServicePort moodExpiry;
+    private final TenantRegistry tenants;
+    private final MigrationThrottle throttle;
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final Map<String, TimerWheel<String>> wheels = new LinkedHashMap<>();
+
+    private final Counter wheelExpired;
+    private final Counter sweepExpired;
+    private final Counter deferred;
+
+    private Disposable ticking;
+    private Disposable sweeping;
+
+    /**
+     * Settings of the mood expiry.
+     *
+     * @param ttl the time a mood lasts
+     * @param tick the resolution of the timers
+     * @param wheelSlots the number of slots of every level of the wheels, a power of two
+     * @param wheelLevels the number of levels of the wheels
+     * @param maxTimers the maximum number of timers per tenant, the moods beyond are left to the sweep
+     * @param batchSize the maximum number of moods expired per update
+     * @param sweepInterval the time between two sweeps
+     */
+    public record Settings(Duration ttl, Duration tick, int wheelSlots, int wheelLevels, int maxTimers,
+            int batchSize, Duration sweepInterval) {
+    }
+
+    /**
+     * Creates the scheduler.
+     *
+     * @param moodExpiry the service expiring the moods
+     * @param tenants the tenants, each with its own wheel
+     * @param throttle the rate limiter of the sweep
+     * @param settings the settings
+     * @param clock the clock, in milliseconds
+     * @param meterRegistry the registry of the expiry meters
+     */
+    public MoodExpiryScheduler(MoodExpiryServicePort moodExpiry, TenantRegistry tenants, MigrationThrottle throttle,
+            Settings settings, LongSupplier clock, MeterRegistry meterRegistry) {
+        this.moodExpiry = moodExpiry;
+        this.tenants = tenants;
+        this.throttle = throttle;
+        this.settings = settings;
+        this.clock = clock;
+        long now = clock.getAsLong();
+        for (Tenant tenant : tenants.all()) {
+            wheels.put(tenant.id(), new TimerWheel<>(settings.tick().toMillis(), settings.wheelSlots(),
+                    settings.wheelLevels(), now));
+        }
+        this.wheelExpired = expired(meterRegistry, "wheel");
+        this.sweepExpired = expired(meterRegistry, "sweep");
+        this.deferred = Counter.builder("user.mood_expiry.deferred")
+                .description("Moods left to the sweep because the wheel was full or too short")
+                .register(meterRegistry);
+        Gauge.builder("user.mood_expiry.timers", this, MoodExpiryScheduler::timers)
+                .description("Mood expirations scheduled in the wheels")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the ticks of the wheels and the sweeps. A tick or a sweep still running when
+     * the next one is due delays it.
+     */
+    public void start() {
+        ticking = Flux.interval(settings.tick())
+                .onBackpressureDrop()
+                .concatMap(tick -> expireDue())
+                .subscribe();
+        sweeping = Flux.interval(settings.sweepInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> sweep()
+                        .onErrorResume(error -> {
+                            log.warn("Mood expiry sweep interrupted: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe(count -> {
+                    if (count > 0) {
+                        log.info("Swept {} expired moods", count);
+                    }
+                });
+    }
+
+    public void stop() {
+        if (ticking != null) {
+            ticking.dispose();
+        }
+        if (sweeping != null) {
+            sweeping.dispose();
+        }
+    }
+
+    /**
+     * Schedules the expiration of a mood in the wheel of the tenant of the request.
+     *
+     * @param userId the ID of the user
+     * @param moodSetAt the time the mood was set at
+     * @return a Mono that completes once the expiration is scheduled
+     */
+    @Override
+    public Mono<Void> schedule(String userId, Instant moodSetAt) {
+        return Mono.deferContextual(context -> {
+            TimerWheel<String> wheel = wheels.get(tenants.current(context).id());
+            boolean scheduled;
+            synchronized (wheel) {
+                scheduled = wheel.size() < settings.maxTimers()
+                        && wheel.schedule(userId, moodSetAt.plus(settings.ttl()).toEpochMilli());
+            }
+            if (!scheduled) {
+                deferred.increment();
+            }
+            return Mono.empty();
+        });
+    }
+
+    /**
+     * Drains the due timers of every wheel and expires their moods, a batch at a time.
+     * A failed batch is logged and left to the sweep.
+     *
+     * @return a Mono with the number of moods expired
+     */
+    public Mono<Long> expireDue() {
+        return Mono.defer(() -> {
+            long now = clock.getAsLong();
+            Instant cutoff = Instant.ofEpochMilli(now).minus(settings.ttl());
+            return Flux.fromIterable(wheels.entrySet())
+                    .concatMap(tenantWheel -> {
+                        List<String> due = new ArrayList<>();
+                        TimerWheel<String> wheel = tenantWheel.getValue();
+                        synchronized (wheel) {
+                            wheel.advance(now, due::add);
+                        }
+                        return Flux.fromIterable(due)
+                                .buffer(settings.batchSize())
+                                .concatMap(ids -> moodExpiry.expireMoods(ids, cutoff, ids.size())
+                                        .contextWrite(TenantContext.of(tenantWheel.getKey()))
+                                        .onErrorResume(error -> {
+                                            log.warn("Expiry of {} moods of tenant {} deferred to the sweep: {}",
+                                                    ids.size(), tenantWheel.getKey(), error.getMessage());
+                                            return Mono.empty();
+                                        }));
+                    })
+                    .doOnNext(wheelExpired::increment)
+                    .reduce(0L, Long::sum);
+        });
+    }
+
+    /**
+     * Expires the oldest due moods of every tenant, batch after batch, until a batch
+     * comes back short.
+     *
+     * @return a Mono with the number of moods expired
+     */
+    public Mono<Long> sweep() {
+        return Mono.defer(() -> {
+            Instant cutoff = Instant.ofEpochMilli(clock.getAsLong()).minus(settings.ttl());
+            return Flux.fromIterable(tenants.all())
+                    .concatMap(tenant -> sweepBatch(tenant, cutoff)
+                            .expand(expired -> expired == settings.batchSize() ? sweepBatch(tenant, cutoff)
+                                    : Mono.empty()))
+                    .doOnNext(sweepExpired::increment)
+                    .reduce(0L, Long::sum);
+        });
+    }
+
+    private Mono<Integer> sweepBatch(Tenant tenant, Instant cutoff) {
+        return throttle.acquire(settings.batchSize())
+                .then(moodExpiry.expireMoods(null, cutoff, settings.batchSize()))
+                .contextWrite(TenantContext.of(tenant.id()));
+    }
+
+    private double timers() {
+        long timers = 0;
+        for (TimerWheel<String> wheel : wheels.values()) {
+            synchronized (wheel) {
+                timers += wheel.size();
+            }
+        }
+        return timers;
+    }
+
+    private static Counter expired(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("user.mood_expiry.expired")
+                .description("Moods cleared once older than their time to live")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
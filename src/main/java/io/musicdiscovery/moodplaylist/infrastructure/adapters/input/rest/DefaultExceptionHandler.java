@@ -1,23 +1,52 @@
 package io.musicdiscovery.user.infrastructure.adapters.input.rest;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ServerWebInputException;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyInUseException;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyMismatchException;
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
 import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadRejections;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.ErrorResponse;
+import io.musicdiscovery.user.utils.ErrorCatalog;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Global exception handler for formatting error messages in JSON format.
+ * Errors with a fixed body answer with a response built once from the
+ * {@link ErrorCatalog}, so frequent outcomes such as not-found allocate nothing.
  */
 @ControllerAdvice
 public class DefaultExceptionHandler {
 
+    private static final Mono<ResponseEntity<ErrorResponse>> NOT_FOUND = precomputed(HttpStatus.NOT_FOUND, ErrorCatalog.USER_NOT_FOUND);
+    private static final Mono<ResponseEntity<ErrorResponse>> CONFLICT = precomputed(HttpStatus.CONFLICT, ErrorCatalog.USER_ALREADY_EXISTS);
+    private static final Mono<ResponseEntity<ErrorResponse>> GATEWAY_TIMEOUT = precomputed(HttpStatus.GATEWAY_TIMEOUT, ErrorCatalog.TIMEOUT);
+    private static final Mono<ResponseEntity<ErrorResponse>> SERVICE_UNAVAILABLE = precomputed(HttpStatus.SERVICE_UNAVAILABLE, ErrorCatalog.SERVICE_UNAVAILABLE);
+    private static final Mono<ResponseEntity<ErrorResponse>> PAYLOAD_TOO_LARGE = precomputed(HttpStatus.PAYLOAD_TOO_LARGE, ErrorCatalog.PAYLOAD_TOO_LARGE);
+    private static final Mono<ResponseEntity<ErrorResponse>> IDEMPOTENCY_KEY_MISMATCH = precomputed(HttpStatus.UNPROCESSABLE_ENTITY, ErrorCatalog.IDEMPOTENCY_KEY_MISMATCH);
+    private static final Mono<ResponseEntity<ErrorResponse>> IDEMPOTENCY_KEY_IN_USE = precomputed(HttpStatus.CONFLICT, ErrorCatalog.IDEMPOTENCY_KEY_IN_USE);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> payloadRejections = new ConcurrentHashMap<>();
+
+    public DefaultExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Handles generic exceptions and returns a JSON formatted error response.
      *
@@ -25,12 +54,9 @@ public class DefaultExceptionHandler {
      * @return a {@link Mono} containing the formatted error response
      */
     @ExceptionHandler(Exception.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleGenericException(Exception ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        errorResponse.put("message", ex.getMessage());
-
-        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse));
+    public Mono<ResponseEntity<ErrorResponse>> handleGenericException(Exception ex) {
+        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCatalog.GENERIC_ERROR, ex.getMessage())));
     }
 
     /**
@@ -40,26 +66,107 @@ public class DefaultExceptionHandler {
      * @return a {@link Mono} containing the formatted error response
      */
     @ExceptionHandler(ServerWebInputException.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleInputException(ServerWebInputException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
-        errorResponse.put("message", "Invalid request input: " + ex.getReason());
-
-        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    public Mono<ResponseEntity<ErrorResponse>> handleInputException(ServerWebInputException ex) {
+        String payloadLimit = PayloadRejections.reason(ex);
+        if (payloadLimit != null) {
+            return payloadTooLarge(payloadLimit);
+        }
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(errorResponse(HttpStatus.BAD_REQUEST, ErrorCatalog.INVALID_USER, "Invalid request input: " + ex.getReason())));
     }
 
     /**
-     * Handles not found exceptions and returns a JSON formatted error response.
+     * Handles not found exceptions and returns the precomputed JSON error response.
      *
      * @param ex the {@link UserNotFoundException}
      * @return a {@link Mono} containing the formatted error response
      */
     @ExceptionHandler(UserNotFoundException.class)
-    public Mono<ResponseEntity<Map<String, Object>>> handleUserNotFoundException(UserNotFoundException ex) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
-        errorResponse.put("message", ex.getMessage());
+    public Mono<ResponseEntity<ErrorResponse>> handleUserNotFoundException(UserNotFoundException ex) {
+        return NOT_FOUND;
+    }
+
+    /**
+     * Handles duplicated user exceptions and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link UserAlreadyExistsException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler(UserAlreadyExistsException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
+        return CONFLICT;
+    }
+
+    /**
+     * Handles idempotency keys reused with a different request and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link IdempotencyKeyMismatchException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException ex) {
+        return IDEMPOTENCY_KEY_MISMATCH;
+    }
+
+    /**
+     * Handles retries arriving while the request with the same idempotency key is in progress
+     * and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link IdempotencyKeyInUseException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler(IdempotencyKeyInUseException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleIdempotencyKeyInUseException(IdempotencyKeyInUseException ex) {
+        return IDEMPOTENCY_KEY_IN_USE;
+    }
+
+    /**
+     * Handles persistence timeouts and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link TimeoutException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler(TimeoutException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleTimeoutException(TimeoutException ex) {
+        return GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Handles calls rejected by the open persistence circuit breaker and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link CallNotPermittedException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleCallNotPermittedException(CallNotPermittedException ex) {
+        return SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * Handles request bodies exceeding a size limit while they are read and returns the precomputed JSON error response.
+     *
+     * @param ex the {@link PayloadLimitExceededException} or {@link DataBufferLimitException}
+     * @return a {@link Mono} containing the formatted error response
+     */
+    @ExceptionHandler({PayloadLimitExceededException.class, DataBufferLimitException.class})
+    public Mono<ResponseEntity<ErrorResponse>> handlePayloadLimitException(RuntimeException ex) {
+        return payloadTooLarge(PayloadRejections.reason(ex));
+    }
+
+    private Mono<ResponseEntity<ErrorResponse>> payloadTooLarge(String reason) {
+        payloadRejections.computeIfAbsent(reason, key -> PayloadRejections.counter(meterRegistry, key)).increment();
+        return PAYLOAD_TOO_LARGE;
+    }
+
+    private static ErrorResponse errorResponse(HttpStatus status, ErrorCatalog error, String message) {
+        return ErrorResponse.builder()
+                .code(error.getCode())
+                .status(status.value())
+                .message(message)
+                .build();
+    }
 
-        return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse));
+    private static Mono<ResponseEntity<ErrorResponse>> precomputed(HttpStatus status, ErrorCatalog error) {
+        return Mono.just(ResponseEntity.status(status).body(errorResponse(status, error, error.getMessage())));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.musicdiscovery.user.application.port.input.PlaylistProfileServicePort;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.PlaylistProfileRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.PlaylistProfileResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class that exposes the playlist profiles of the users.
+ * The profiles are served from the read model, which lags the user writes by the
+ * time the change takes to be projected, usually well under a second.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/playlist-profiles")
+@Tag(name = "Playlist Profile API", description = "Mood, genres and top artists of the users, for playlist generation")
+public class PlaylistProfileController {
+
+    private final PlaylistProfileServicePort playlistProfileServicePort;
+    private final PlaylistProfileRestMapper restMapper;
+
+    @Operation(summary = "Get the playlist profile of a user", description = "Mood, preferred genres and "
+            + "top favorite artists of a user, as last projected from the user.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profile found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PlaylistProfileResponse.class),
+                            examples = @ExampleObject(value = "{\r\n"
+                            		+ "    \"userId\": \"66f56b94831c3d47cc76cb54\",\r\n"
+                            		+ "    \"mood\": \"HAPPY\",\r\n"
+                            		+ "    \"preferredGenre\": [\r\n"
+                            		+ "        \"ROCK\",\r\n"
+                            		+ "        \"JAZZ\"\r\n"
+                            		+ "    ],\r\n"
+                            		+ "    \"topArtists\": [\r\n"
+                            		+ "        \"The Beatles\",\r\n"
+                            		+ "        \"Miles Davis\"\r\n"
+                            		+ "    ],\r\n"
+                            		+ "    \"updatedAt\": \"2024-09-26T14:03:12.512Z\"\r\n"
+                            		+ "}"))}),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"code\":\"ERR_STUDENT_001\", \"status\": 404, \"message\":\"User not found.\"}")))
+    })
+    @GetMapping("/{userId}")
+    public Mono<PlaylistProfileResponse> getProfile(@PathVariable String userId) {
+        return playlistProfileServicePort.getProfile(userId)
+                .map(restMapper::toPlaylistProfileResponse);
+    }
+
+    @Operation(summary = "Get the playlist profiles of a mood", description = "Playlist profiles of the users "
+            + "in a mood, optionally only those preferring a genre. Results are streamed, as a JSON array or "
+            + "as NDJSON when requested with Accept: application/x-ndjson.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Profiles of the mood",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PlaylistProfileResponse.class),
+                            examples = @ExampleObject(value = "[\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"userId\": \"66f56b94831c3d47cc76cb54\",\r\n"
+                            		+ "        \"mood\": \"HAPPY\",\r\n"
+                            		+ "        \"preferredGenre\": [\r\n"
+                            		+ "            \"ROCK\"\r\n"
+                            		+ "        ],\r\n"
+                            		+ "        \"topArtists\": [\r\n"
+                            		+ "            \"The Beatles\"\r\n"
+                            		+ "        ],\r\n"
+                            		+ "        \"updatedAt\": \"2024-09-26T14:03:12.512Z\"\r\n"
+                            		+ "    }\r\n"
+                            		+ "]"))})
+    })
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<PlaylistProfileResponse> getProfilesByMood(@RequestParam Mood mood,
+            @RequestParam(required = false) Genre genre,
+            @RequestParam(defaultValue = "100") int limit) {
+        return playlistProfileServicePort.getProfilesByMood(mood, genre, limit)
+                .map(restMapper::toPlaylistProfileResponse);
+    }
+}
@@ -0,0 +1,86 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.musicdiscovery.user.application.port.input.UserStatsServicePort;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.StatsRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.ArtistPopularityResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.GenreShareResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller class that exposes the popularity statistics of the users.
+ * The statistics are served from memory and lag the writes by about a second.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/stats")
+@Tag(name = "Stats API", description = "Popularity of artists and genres among the users")
+public class StatsController {
+
+    private final UserStatsServicePort userStatsServicePort;
+    private final StatsRestMapper restMapper;
+
+    @Operation(summary = "Get the top artists", description = "Most popular favorite artists. "
+            + "The counts are estimates that may exceed, but never undercount, the real number of users.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Artists in descending popularity order",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ArtistPopularityResponse.class),
+                            examples = @ExampleObject(value = "[\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"artist\": \"The Beatles\",\r\n"
+                            		+ "        \"users\": 1250\r\n"
+                            		+ "    },\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"artist\": \"Miles Davis\",\r\n"
+                            		+ "        \"users\": 830\r\n"
+                            		+ "    }\r\n"
+                            		+ "]"))})
+    })
+    @GetMapping("/top-artists")
+    public Mono<List<ArtistPopularityResponse>> getTopArtists(@RequestParam(defaultValue = "100") int limit) {
+        return userStatsServicePort.getTopArtists(limit)
+                .map(restMapper::toArtistPopularityResponseList);
+    }
+
+    @Operation(summary = "Get the genre shares by mood", description = "Number of users preferring each genre "
+            + "and its share among the genre preferences of every mood.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Genre shares grouped by mood",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = GenreShareResponse.class),
+                            examples = @ExampleObject(value = "[\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"mood\": \"HAPPY\",\r\n"
+                            		+ "        \"genre\": \"ROCK\",\r\n"
+                            		+ "        \"users\": 300,\r\n"
+                            		+ "        \"share\": 0.6\r\n"
+                            		+ "    },\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"mood\": \"HAPPY\",\r\n"
+                            		+ "        \"genre\": \"JAZZ\",\r\n"
+                            		+ "        \"users\": 200,\r\n"
+                            		+ "        \"share\": 0.4\r\n"
+                            		+ "    }\r\n"
+                            		+ "]"))})
+    })
+    @GetMapping("/genres")
+    public Mono<List<GenreShareResponse>> getGenreShares() {
+        return userStatsServicePort.getGenreShares()
+                .map(restMapper::toGenreShareResponseList);
+    }
+}
@@ -3,15 +3,19 @@ package io.musicdiscovery.user.infrastructure.adapters.input.rest;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
 
 import io.musicdiscovery.user.application.port.input.UserServicePort;
 import io.musicdiscovery.user.domain.exception.UserNotFoundException;
@@ -19,6 +23,8 @@ import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRest
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UpdateMoodRequest;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.validation.UserRequestValidator;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -26,8 +32,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 
@@ -41,8 +47,14 @@ import reactor.core.publisher.Mono;
 @Tag(name = "User API", description = "Operations related to user management")
 public class UserController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /** Upper bound of the idempotency key length, as for the keys of the usual payment APIs. */
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final UserServicePort userServicePort;
     private final UserRestMapper restMapper;
+    private final TenantRegistry tenants;
     
     @Operation(summary = "Get a user by ID", description = "Retrieve a user by their unique identifier.")
     @ApiResponses(value = {
@@ -64,17 +76,75 @@ public class UserController {
                             		+ "}"))}),
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json",
-                            examples = @ExampleObject(value = "{\"message\":\"User not found with ID: 123\", \"status\": 404}")))
+                            examples = @ExampleObject(value = "{\"code\":\"ERR_STUDENT_001\", \"status\": 404, \"message\":\"User not found.\"}")))
     })
     @GetMapping("/{id}")
     public Mono<UserResponse> getUserById(@PathVariable String id) {
     	return userServicePort.getUserById(id)
     	        .map(restMapper::toUserResponse)
-    	        .switchIfEmpty(Mono.error(new UserNotFoundException(id)));
+    	        .switchIfEmpty(Mono.error(() -> UserNotFoundException.withId(id)));
         
     }
 
-    @Operation(summary = "Create a new user", description = "Create a new user with the provided details.")
+    @Operation(summary = "Get a user by email", description = "Retrieve a user by their email, compared case-insensitively.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User found",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserResponse.class),
+                            examples = @ExampleObject(value = "{\r\n"
+                            		+ "    \"id\": \"66f56b94831c3d47cc76cb54\",\r\n"
+                            		+ "    \"name\": \"Marcelo Alejandro Albarracín\",\r\n"
+                            		+ "    \"email\": \"marceloalejandro.albarracin@gmail.com\",\r\n"
+                            		+ "    \"preferredGenre\": [\r\n"
+                            		+ "        \"ROCK\",\r\n"
+                            		+ "        \"JAZZ\"\r\n"
+                            		+ "    ],\r\n"
+                            		+ "    \"favoriteArtist\": [\r\n"
+                            		+ "        \"The Beatles\",\r\n"
+                            		+ "        \"Miles Davis\"\r\n"
+                            		+ "    ]\r\n"
+                            		+ "}"))}),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"code\":\"ERR_STUDENT_001\", \"status\": 404, \"message\":\"User not found.\"}")))
+    })
+    @GetMapping("/by-email")
+    public Mono<UserResponse> getUserByEmail(@RequestParam String email) {
+        return userServicePort.getUserByEmail(email)
+                .map(restMapper::toUserResponse);
+    }
+
+    @Operation(summary = "Search users", description = "Search users by prefix over their name and favorite artists. "
+            + "Every word of the query must match the start of a word, name matches rank first. "
+            + "Results are streamed, as a JSON array or as NDJSON when requested with Accept: application/x-ndjson.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of matching users in rank order",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserResponse.class),
+                            examples = @ExampleObject(value = "[\r\n"
+                            		+ "    {\r\n"
+                            		+ "        \"id\": \"66f56b94831c3d47cc76cb54\",\r\n"
+                            		+ "        \"name\": \"Marcelo Alejandro Albarracín\",\r\n"
+                            		+ "        \"email\": \"marceloalejandro.albarracin@gmail.com\",\r\n"
+                            		+ "        \"preferredGenre\": [\r\n"
+                            		+ "            \"ROCK\"\r\n"
+                            		+ "        ],\r\n"
+                            		+ "        \"favoriteArtist\": [\r\n"
+                            		+ "            \"The Beatles\"\r\n"
+                            		+ "        ]\r\n"
+                            		+ "    }\r\n"
+                            		+ "]"))})
+    })
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<UserResponse> searchUsers(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return userServicePort.searchUsers(query, page, size)
+                .map(restMapper::toUserResponse);
+    }
+
+    @Operation(summary = "Create a new user", description = "Create a new user with the provided details. "
+            + "A retry sent with the same Idempotency-Key header and body returns the user created by the first attempt.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "User created",
                     content = {@Content(mediaType = "application/json",
@@ -92,18 +162,37 @@ public class UserController {
                             		+ "        \"Miles Davis\"\r\n"
                             		+ "    ]\r\n"
                             		+ "}"))}),
+            @ApiResponse(responseCode = "409", description = "Email already registered, or a request with the same Idempotency-Key in progress",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"code\":\"ERR_STUDENT_003\", \"status\": 409, \"message\":\"A user with this email already exists.\"}"))),
+            @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with a different body",
+                    content = @Content(mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"code\":\"ERR_GEN_005\", \"status\": 422, \"message\":\"The idempotency key was already used with a different request.\"}"))),
             @ApiResponse(responseCode = "400", description = "Invalid input",
                     content = @Content(mediaType = "application/json",
                     		schema = @Schema(implementation = UserCreateRequest.class),
                             examples = @ExampleObject(value = "{\r\n"
+                            		+ "    \"code\": \"ERR_STUDENT_002\",\r\n"
                             		+ "    \"message\": \"Invalid request input: Failed to read HTTP message\",\r\n"
                             		+ "    \"status\": 400\r\n"
                             		+ "}")))
     })
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Mono<UserResponse> createUser(@Valid @RequestBody UserCreateRequest user) {
-    	return userServicePort.createUser(restMapper.toUser(user))
+    public Mono<UserResponse> createUser(@RequestBody UserCreateRequest user,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            return Mono.error(new ServerWebInputException(
+                    IDEMPOTENCY_KEY_HEADER + " must have between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+        }
+        String violations = UserRequestValidator.violations(user);
+        if (violations != null) {
+            return Mono.error(new ServerWebInputException(violations));
+        }
+        // Keys are chosen by the clients, so they are scoped to the tenant that sent them, the
+        // default one included: tenant ids hold no ':', so no client key reaches another tenant
+        return Mono.deferContextual(context -> userServicePort.createUser(restMapper.toUser(user),
+                        idempotencyKey == null ? null : tenants.current(context).id() + ":" + idempotencyKey))
     	        .map(restMapper::toUserResponse);
     }
 
@@ -126,19 +215,25 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\r\n"
-                            		+ "    \"message\": \"User not found with ID: 66f4bdf541bae35a29ecd68f2\",\r\n"
-                            		+ "    \"status\": 404\r\n"
+                            		+ "    \"code\": \"ERR_STUDENT_001\",\r\n"
+                            		+ "    \"status\": 404,\r\n"
+                            		+ "    \"message\": \"User not found.\"\r\n"
                             		+ "}"))),
             @ApiResponse(responseCode = "400", description = "Invalid input",
             content = @Content(mediaType = "application/json",
                     examples = @ExampleObject(value = "{\r\n"
+                    		+ "    \"code\": \"ERR_STUDENT_002\",\r\n"
                     		+ "    \"message\": \"Invalid request input: Failed to read HTTP message\",\r\n"
                     		+ "    \"status\": 400\r\n"
                     		+ "}")))
             
     })
     @PutMapping("/{id}")
-    public Mono<UserResponse> updateUser(@PathVariable String id, @Valid @RequestBody UserCreateRequest user) {       
+    public Mono<UserResponse> updateUser(@PathVariable String id, @RequestBody UserCreateRequest user) {
+        String violations = UserRequestValidator.violations(user);
+        if (violations != null) {
+            return Mono.error(new ServerWebInputException(violations));
+        }
         return userServicePort.updateUser(id, restMapper.toUser(user))
                 .map(restMapper::toUserResponse);
         
@@ -150,17 +245,15 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\r\n"
-                            		+ "    \"message\": \"User not found with ID: 66f4bdf541bae35a29ecd68f\",\r\n"
-                            		+ "    \"status\": 404\r\n"
+                            		+ "    \"code\": \"ERR_STUDENT_001\",\r\n"
+                            		+ "    \"status\": 404,\r\n"
+                            		+ "    \"message\": \"User not found.\"\r\n"
                             		+ "}")))
     })
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteUser(@PathVariable String id) {
-    	//return userServicePort.deleteUser(id);
-    	 return userServicePort.getUserById(id)
-    		        .switchIfEmpty(Mono.error(new UserNotFoundException("User not found with ID: " + id)))
-    		        .flatMap(user -> userServicePort.deleteUser(id));
+        return userServicePort.deleteUser(id);
     }
 
     @Operation(summary = "Get all users", description = "Retrieve all users from the system.")
@@ -213,12 +306,14 @@ public class UserController {
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content(mediaType = "application/json",
                             examples = @ExampleObject(value = "{\r\n"
-                            		+ "    \"message\": \"User not found with ID: 66f4bdf541bae35a29ecd68f2\",\r\n"
-                            		+ "    \"status\": 404\r\n"
+                            		+ "    \"code\": \"ERR_STUDENT_001\",\r\n"
+                            		+ "    \"status\": 404,\r\n"
+                            		+ "    \"message\": \"User not found.\"\r\n"
                             		+ "}"))),
             @ApiResponse(responseCode = "400", description = "Invalid input",
             content = @Content(mediaType = "application/json",
                     examples = @ExampleObject(value = "{\r\n"
+                    		+ "    \"code\": \"ERR_STUDENT_002\",\r\n"
                     		+ "    \"message\": \"Invalid request input: Failed to read HTTP message\",\r\n"
                     		+ "    \"status\": 400\r\n"
                     		+ "}")))
@@ -0,0 +1,91 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.codec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.CollectionDeserializer;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringCollectionDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.CollectionType;
+
+/**
+ * Jackson module that bounds the number of elements of every list decoded. The elements
+ * are added to a list that refuses to grow past the limit, so an oversized JSON array is
+ * rejected at its first extra element instead of after it has been fully parsed.
+ */
+public class BoundedCollectionsModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public BoundedCollectionsModule(int maxItems) {
+        super("BoundedCollectionsModule");
+        setDeserializerModifier(new BeanDeserializerModifier() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public JsonDeserializer<?> modifyCollectionDeserializer(DeserializationConfig config, CollectionType type,
+                    BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+                boolean updatable = deserializer instanceof CollectionDeserializer
+                        || deserializer instanceof StringCollectionDeserializer;
+                return updatable && type.isTypeOrSubTypeOf(List.class)
+                        ? new BoundedListDeserializer(deserializer, maxItems)
+                        : deserializer;
+            }
+        });
+    }
+
+    private static final class BoundedListDeserializer extends DelegatingDeserializer {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxItems;
+
+        private BoundedListDeserializer(JsonDeserializer<?> delegate, int maxItems) {
+            super(delegate);
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new BoundedListDeserializer(newDelegatee, maxItems);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartArrayToken()) {
+                return super.deserialize(parser, context);
+            }
+            return ((JsonDeserializer<Object>) _delegatee).deserialize(parser, context, new BoundedList(maxItems));
+        }
+    }
+
+    private static final class BoundedList extends ArrayList<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxItems;
+
+        private BoundedList(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        public boolean add(Object element) {
+            if (size() >= maxItems) {
+                throw new PayloadLimitExceededException("list_length",
+                        "List length exceeds the maximum allowed (" + maxItems + ")");
+            }
+            return super.add(element);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.codec;
+
+/**
+ * Thrown while a request body is decoded as soon as it exceeds one of the payload limits,
+ * before the rest of the body is read.
+ */
+public class PayloadLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String reason;
+
+    public PayloadLimitExceededException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the limit exceeded, used as the tag of the rejected payloads metric.
+     *
+     * @return the reason, e.g. {@code list_length}
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,58 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.codec;
+
+import org.springframework.core.io.buffer.DataBufferLimitException;
+
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Classification and counting of the request payloads rejected for exceeding a limit.
+ */
+public final class PayloadRejections {
+
+    private static final String METRIC = "user.payload.rejected";
+
+    private PayloadRejections() {
+    }
+
+    /**
+     * Returns the counter of the payloads rejected for a reason.
+     *
+     * @param meterRegistry the registry
+     * @param reason the limit exceeded
+     * @return the counter
+     */
+    public static Counter counter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder(METRIC)
+                .description("Request payloads rejected for exceeding a size limit")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds the payload limit an error, or one of its causes, reports as exceeded.
+     *
+     * @param error the error raised while reading a request
+     * @return the reason, or null if the error is not caused by a payload limit
+     */
+    public static String reason(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadLimitExceededException limit) {
+                return limit.getReason();
+            }
+            if (cause instanceof DataBufferLimitException) {
+                return "in_memory_size";
+            }
+            if (cause instanceof StreamConstraintsException constraint) {
+                String message = String.valueOf(constraint.getOriginalMessage());
+                if (message.contains("String value length")) {
+                    return "string_length";
+                }
+                return message.contains("nesting depth") ? "nesting_depth" : "stream_constraint";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux filter writing one JSON line per request to the user endpoints on the
+ * {@code access} logger, which {@code logback-spring.xml} sends through an asynchronous
+ * appender so the request thread never waits on the console.
+ * <p>
+ * Successful requests are sampled at {@code access-log.sample-rate}; errors, cancelled
+ * requests and requests slower than {@code access-log.slow-threshold} are always logged.
+ * An error reaching the filter, not turned into a response by the exception handler yet,
+ * is logged with the status of a {@link ResponseStatusException}, such as the 404 and 405
+ * of the handler mapping, or 500.
+ * The line is only built for the requests that are logged. It runs before the admission
+ * control, so the requests it rejects are logged too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "access-log.enabled", havingValue = "true")
+public class AccessLogWebFilter implements WebFilter {
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("access");
+    private static final String USERS_PATH = "/users";
+    private static final int CANCELLED = 499;
+
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+    private final String tenantHeader;
+
+    public AccessLogWebFilter(@Value("${access-log.sample-rate}") double sampleRate,
+            @Value("${access-log.slow-threshold}") Duration slowThreshold,
+            @Value("${tenancy.header}") String tenantHeader) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.tenantHeader = tenantHeader;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!ACCESS_LOG.isInfoEnabled()
+                || !exchange.getRequest().getPath().pathWithinApplication().value().startsWith(USERS_PATH)) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(done -> {
+                    HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+                    log(exchange, statusCode == null ? 200 : statusCode.value(), false, System.nanoTime() - start);
+                })
+                .doOnError(error -> log(exchange, errorStatus(error), true, System.nanoTime() - start))
+                .doOnCancel(() -> log(exchange, CANCELLED, true, System.nanoTime() - start));
+    }
+
+    private void log(ServerWebExchange exchange, int status, boolean failed, long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        boolean success = !failed && status < 400;
+        if (success && !slow && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        ACCESS_LOG.info(line(exchange, status, elapsedNanos, slow, success ? sampleRate : 1.0));
+    }
+
+    private String line(ServerWebExchange exchange, int status, long elapsedNanos, boolean slow, double rate) {
+        PathPattern route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String tenant = exchange.getRequest().getHeaders().getFirst(tenantHeader);
+        StringBuilder json = new StringBuilder(256)
+                .append("{\"@timestamp\":\"").append(Instant.now())
+                .append("\",\"method\":\"").append(exchange.getRequest().getMethod().name())
+                .append("\",\"route\":");
+        string(json, route == null ? null : route.getPatternString())
+                .append(",\"path\":");
+        string(json, exchange.getRequest().getPath().pathWithinApplication().value())
+                .append(",\"status\":").append(status)
+                .append(",\"duration_ms\":").append(elapsedNanos / 1_000_000.0)
+                .append(",\"slow\":").append(slow)
+                .append(",\"sample_rate\":").append(rate)
+                .append(",\"tenant\":");
+        string(json, tenant)
+                .append(",\"trace_id\":");
+        return string(json, MDC.get("traceId")).append('}').toString();
+    }
+
+    private static int errorStatus(Throwable error) {
+        return error instanceof ResponseStatusException statusError ? statusError.getStatusCode().value()
+                : HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    /**
+     * Appends a JSON string, or null, escaping the quotes, backslashes and control characters.
+     */
+    private static StringBuilder string(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,76 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient based adaptive concurrency limiter.
+ * The limit follows the ratio between the long term latency baseline and the latest
+ * sample: when latency grows because requests start queueing on the Mongo pool the
+ * gradient drops below 1 and the limit shrinks, otherwise it probes upwards by
+ * {@code sqrt(limit)}. Requests above the limit are shed instead of queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BASELINE_DECAY = 0.95;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private double baselineRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Tries to reserve a concurrency slot.
+     *
+     * @return true if the request may proceed, in which case {@link #release} must be called
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases a slot and, for completed requests, feeds the latency into the limit.
+     *
+     * @param rttNanos the time the request held the slot
+     * @param sample false for cancelled requests, whose latency is not meaningful
+     */
+    public void release(long rttNanos, boolean sample) {
+        int current = inFlight.getAndDecrement();
+        if (sample && rttNanos > 0) {
+            update(rttNanos, current);
+        }
+    }
+
+    private synchronized void update(long rtt, int inFlightAtCompletion) {
+        baselineRtt = baselineRtt == 0 ? rtt : baselineRtt * BASELINE_DECAY + rtt * (1 - BASELINE_DECAY);
+        // Application limited: far below the limit there is nothing to learn
+        if (inFlightAtCompletion < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, baselineRtt / rtt));
+        double target = limit * gradient + Math.sqrt(limit);
+        double smoothed = limit * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
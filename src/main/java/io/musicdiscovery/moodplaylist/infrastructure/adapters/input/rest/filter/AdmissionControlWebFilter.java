@@ -0,0 +1,140 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * WebFlux filter placed in front of the user endpoints that applies admission control:
+ * a token bucket per API key and route class (429 when exhausted) followed by the
+ * adaptive concurrency limit (503 when the service is saturated), so excess load is
+ * rejected before it queues up behind the Mongo connection pool. A request without API
+ * key is charged to the bucket of its caller's address, so one anonymous client cannot
+ * starve the others. The address is the remote address of the request, or for a lookup
+ * forwarded by another replica the address of the original caller, handed over by the
+ * {@link AffinityWebFilter} in {@link #FORWARDED_CLIENT_ATTRIBUTE}. The forwarded
+ * headers of proxies are not honored.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class AdmissionControlWebFilter implements WebFilter {
+
+    /** Exchange attribute holding the address of the original caller of a forwarded lookup. */
+    public static final String FORWARDED_CLIENT_ATTRIBUTE = AdmissionControlWebFilter.class.getName() + ".forwardedClient";
+
+    private static final String USERS_PATH = "/users";
+    private static final String ANONYMOUS_CLIENT = "anonymous:";
+    private static final byte[] TOO_MANY_REQUESTS_BODY = errorBody(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded");
+    private static final byte[] SERVICE_UNAVAILABLE_BODY = errorBody(HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded, retry later");
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String apiKeyHeader;
+    private final Map<RouteType, Counter> admitted = new EnumMap<>(RouteType.class);
+    private final Map<RouteType, Counter> rateLimited = new EnumMap<>(RouteType.class);
+    private final Map<RouteType, Counter> shed = new EnumMap<>(RouteType.class);
+
+    public AdmissionControlWebFilter(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+            @Value("${admission.api-key-header}") String apiKeyHeader, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.apiKeyHeader = apiKeyHeader;
+        for (RouteType route : RouteType.values()) {
+            admitted.put(route, admissionCounter(meterRegistry, route, "admitted"));
+            rateLimited.put(route, admissionCounter(meterRegistry, route, "rate_limited"));
+            shed.put(route, admissionCounter(meterRegistry, route, "shed"));
+        }
+        Gauge.builder("user.admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("user.admission.concurrency.in_flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().pathWithinApplication().value().startsWith(USERS_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        RouteType route = RouteType.of(exchange.getRequest().getMethod());
+        String apiKey = exchange.getRequest().getHeaders().getFirst(apiKeyHeader);
+        if (!rateLimiter.tryAcquire(apiKey == null ? anonymousClient(exchange) : apiKey, route)) {
+            rateLimited.get(route).increment();
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(rateLimiter.retryAfterSeconds(route)));
+            return reject(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_BODY);
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.get(route).increment();
+            return reject(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE_BODY);
+        }
+
+        admitted.get(route).increment();
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> concurrencyLimiter.release(System.nanoTime() - start, signal != SignalType.CANCEL));
+    }
+
+    /**
+     * Keys an anonymous caller by its address: the original caller of a forwarded lookup,
+     * otherwise the remote address of the request. The prefix keeps an address apart from
+     * an API key.
+     */
+    private static String anonymousClient(ServerWebExchange exchange) {
+        String forwardedClient = exchange.getAttribute(FORWARDED_CLIENT_ATTRIBUTE);
+        String address = forwardedClient != null ? forwardedClient : remoteAddress(exchange.getRequest());
+        return address == null ? ANONYMOUS_CLIENT : ANONYMOUS_CLIENT + address;
+    }
+
+    /**
+     * Reads the address of the peer that sent a request.
+     *
+     * @param request the request
+     * @return the IP address, or the host name if unresolved, or null if unknown
+     */
+    public static String remoteAddress(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return null;
+        }
+        return address.getAddress() == null ? address.getHostString() : address.getAddress().getHostAddress();
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, HttpStatus status, byte[] body) {
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    private static Counter admissionCounter(MeterRegistry meterRegistry, RouteType route, String outcome) {
+        return Counter.builder("user.admission.requests")
+                .description("Requests evaluated by the admission control filter")
+                .tag("route", route.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static byte[] errorBody(HttpStatus status, String message) {
+        return ("{\"status\":" + status.value() + ",\"message\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,188 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing.Replica;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux filter routing {@code GET /users/{id}} to the replica owning the user on the
+ * {@link ReplicaRing}, so each user is cached by a single replica even behind a
+ * round-robin load balancer.
+ * <p>
+ * A lookup of a user owned by this replica, or forwarded by another one, is served
+ * locally; the forwarded header also keeps two replicas with different rings from
+ * bouncing a request. A lookup of a user owned by another replica is sent there with
+ * the headers of the request, tenant included, plus the client header carrying the
+ * address of the caller, and its answer relayed as is. If the
+ * owner cannot be reached, does not answer within the client timeout, or answers that it
+ * is rate limiting or shedding load, the lookup is served locally: affinity is an
+ * optimization, never a new way to fail.
+ * <p>
+ * The filter runs before the admission control, so a forwarded lookup is admitted once,
+ * by its owner, instead of taking a token and a concurrency slot on both replicas; only a
+ * lookup served locally goes through the admission control of this replica. The
+ * forwarded header exempts nothing from it. On a lookup forwarded by a replica of the
+ * ring, the client header is handed to the admission control, which charges an anonymous
+ * caller to the bucket of its own address rather than of the forwarding replica. Like the
+ * API key header, it only spreads the buckets fairly and authenticates no one.
+ */
+@Slf4j
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AffinityWebFilter implements WebFilter {
+
+    private static final String USERS_PATH = "/users/";
+    private static final Set<String> NOT_IDS = Set.of("by-email", "search");
+    private static final Set<HttpStatusCode> OWNER_UNAVAILABLE = Set.of(HttpStatus.TOO_MANY_REQUESTS,
+            HttpStatus.SERVICE_UNAVAILABLE);
+    private static final Set<String> HOP_BY_HOP_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        HOP_BY_HOP_HEADERS.addAll(List.of(HttpHeaders.CONNECTION, HttpHeaders.HOST, HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.CONTENT_LENGTH, HttpHeaders.UPGRADE, "Keep-Alive"));
+    }
+
+    private final ReplicaRing ring;
+    private final WebClient webClient;
+    private final String forwardedHeader;
+    private final String clientHeader;
+    private final Counter local;
+    private final Counter accepted;
+    private final Counter forwarded;
+    private final Counter fallback;
+
+    /**
+     * Creates the filter.
+     *
+     * @param ring the ring of the replicas
+     * @param webClient the client of the other replicas, with its connect and response timeouts
+     * @param forwardedHeader the header marking a request forwarded by another replica
+     * @param clientHeader the header carrying the address of the caller of a forwarded request
+     * @param meterRegistry the registry of the routing counters
+     */
+    public AffinityWebFilter(ReplicaRing ring, WebClient webClient, String forwardedHeader, String clientHeader,
+            MeterRegistry meterRegistry) {
+        this.ring = ring;
+        this.webClient = webClient;
+        this.forwardedHeader = forwardedHeader;
+        this.clientHeader = clientHeader;
+        this.local = requests(meterRegistry, "local");
+        this.accepted = requests(meterRegistry, "accepted");
+        this.forwarded = requests(meterRegistry, "forwarded");
+        this.fallback = requests(meterRegistry, "fallback");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String userId = HttpMethod.GET.equals(request.getMethod())
+                ? userId(request.getPath().pathWithinApplication().value())
+                : null;
+        if (userId == null) {
+            return chain.filter(exchange);
+        }
+        String forwardedBy = request.getHeaders().getFirst(forwardedHeader);
+        if (forwardedBy != null) {
+            accepted.increment();
+            String client = request.getHeaders().getFirst(clientHeader);
+            if (client != null && isOtherReplica(forwardedBy)) {
+                exchange.getAttributes().put(AdmissionControlWebFilter.FORWARDED_CLIENT_ATTRIBUTE, client);
+            }
+            return chain.filter(exchange);
+        }
+        Replica owner = ring.owner(userId);
+        if (ring.isSelf(owner)) {
+            local.increment();
+            return chain.filter(exchange);
+        }
+        return forward(exchange, owner)
+                .doOnSuccess(done -> forwarded.increment())
+                .onErrorResume(error -> !exchange.getResponse().isCommitted(), error -> {
+                    fallback.increment();
+                    log.debug("Lookup of user {} served locally, owner {} failed: {}", userId, owner.id(),
+                            error.getMessage());
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, Replica owner) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        return webClient.get()
+                .uri(owner.url().resolve(request.getURI().getRawPath()
+                        + (request.getURI().getRawQuery() == null ? "" : "?" + request.getURI().getRawQuery())))
+                .headers(headers -> {
+                    request.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                            headers.addAll(name, values);
+                        }
+                    });
+                    headers.set(forwardedHeader, ring.self().id());
+                    String client = AdmissionControlWebFilter.remoteAddress(request);
+                    if (client == null) {
+                        headers.remove(clientHeader);
+                    } else {
+                        headers.set(clientHeader, client);
+                    }
+                })
+                .exchangeToMono(ownerResponse -> {
+                    if (OWNER_UNAVAILABLE.contains(ownerResponse.statusCode())) {
+                        return ownerResponse.createError();
+                    }
+                    response.setStatusCode(ownerResponse.statusCode());
+                    ownerResponse.headers().asHttpHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name)) {
+                            response.getHeaders().addAll(name, values);
+                        }
+                    });
+                    return response.writeWith(ownerResponse.bodyToFlux(DataBuffer.class));
+                });
+    }
+
+    private boolean isOtherReplica(String replicaId) {
+        return !ring.self().id().equals(replicaId)
+                && ring.replicas().stream().anyMatch(replica -> replica.id().equals(replicaId));
+    }
+
+    /**
+     * Extracts the id of a lookup of a single user.
+     *
+     * @param path the path of the request within the application
+     * @return the id, or null if the path is not {@code /users/{id}}
+     */
+    static String userId(String path) {
+        if (!path.startsWith(USERS_PATH) || path.indexOf('/', USERS_PATH.length()) >= 0
+                || path.length() == USERS_PATH.length()) {
+            return null;
+        }
+        String id = path.substring(USERS_PATH.length());
+        return NOT_IDS.contains(id) ? null : id;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("user.affinity.requests")
+                .description("User lookups by routing on the replica ring")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,87 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadRejections;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux filter that bounds the size of request bodies. A declared Content-Length over
+ * the limit is answered with 413 before the body is read; a body without one, or lying
+ * about it, fails with {@link PayloadLimitExceededException} as soon as the bytes read so
+ * far exceed the limit, so an oversized body is never buffered.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class RequestBodyLimitWebFilter implements WebFilter {
+
+    private static final byte[] PAYLOAD_TOO_LARGE_BODY = ("{\"status\":" + HttpStatus.PAYLOAD_TOO_LARGE.value()
+            + ",\"message\":\"Request body too large\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final long maxBodyBytes;
+    private final Counter declaredTooLarge;
+
+    public RequestBodyLimitWebFilter(@Value("${http.payload.max-body-size}") DataSize maxBodySize,
+            MeterRegistry meterRegistry) {
+        this.maxBodyBytes = maxBodySize.toBytes();
+        this.declaredTooLarge = PayloadRejections.counter(meterRegistry, "content_length");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getHeaders().getContentLength() > maxBodyBytes) {
+            declaredTooLarge.increment();
+            return reject(exchange.getResponse());
+        }
+        return chain.filter(exchange.mutate().request(new LimitedBodyRequest(request)).build());
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(PAYLOAD_TOO_LARGE_BODY)));
+    }
+
+    private final class LimitedBodyRequest extends ServerHttpRequestDecorator {
+
+        private LimitedBodyRequest(ServerHttpRequest delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            AtomicLong read = new AtomicLong();
+            return super.getBody().handle((buffer, sink) -> {
+                if (read.addAndGet(buffer.readableByteCount()) > maxBodyBytes) {
+                    DataBufferUtils.release(buffer);
+                    sink.error(new PayloadLimitExceededException("body_size",
+                            "Request body exceeds the maximum allowed (" + maxBodyBytes + " bytes)"));
+                } else {
+                    sink.next(buffer);
+                }
+            });
+        }
+    }
+}
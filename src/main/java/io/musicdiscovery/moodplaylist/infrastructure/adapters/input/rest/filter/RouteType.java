@@ -0,0 +1,15 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * Route classes with independent rate limits: reads are cheap, single-document
+ * lookups while writes hold a Mongo connection for longer.
+ */
+public enum RouteType {
+    READ, WRITE;
+
+    public static RouteType of(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) ? READ : WRITE;
+    }
+}
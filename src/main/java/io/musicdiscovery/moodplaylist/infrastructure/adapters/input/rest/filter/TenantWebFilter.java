@@ -0,0 +1,92 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import io.musicdiscovery.user.utils.ErrorCatalog;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux filter that resolves the tenant of a request from the tenant header and puts
+ * it in the Reactor context, where the persistence adapters route by it. A request
+ * without the header belongs to the default tenant; one naming a tenant this deployment
+ * does not serve is answered with 400 before reaching any endpoint.
+ * <p>
+ * The playlist read model and the popularity stats only hold the users of the default
+ * tenant, so a request of another tenant to them is answered with 400 as well, instead of
+ * being served the data of the default tenant.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 4)
+public class TenantWebFilter implements WebFilter {
+
+    private static final List<String> DEFAULT_TENANT_ONLY_PATHS = List.of("/playlist-profiles", "/stats");
+    private static final byte[] UNKNOWN_TENANT_BODY = errorBody(ErrorCatalog.UNKNOWN_TENANT);
+    private static final byte[] DEFAULT_TENANT_ONLY_BODY = errorBody(ErrorCatalog.DEFAULT_TENANT_ONLY);
+
+    private final TenantRegistry tenants;
+    private final String tenantHeader;
+    private final Counter unknownTenants;
+
+    public TenantWebFilter(TenantRegistry tenants, @Value("${tenancy.header}") String tenantHeader,
+            MeterRegistry meterRegistry) {
+        this.tenants = tenants;
+        this.tenantHeader = tenantHeader;
+        this.unknownTenants = Counter.builder("user.tenancy.unknown_tenant")
+                .description("Requests rejected for naming a tenant that is not served")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String id = exchange.getRequest().getHeaders().getFirst(tenantHeader);
+        if (id == null || id.isBlank() || id.equals(tenants.defaultTenant().id())) {
+            return chain.filter(exchange);
+        }
+        Tenant tenant = tenants.find(id).orElse(null);
+        if (tenant == null) {
+            unknownTenants.increment();
+            return reject(exchange.getResponse(), UNKNOWN_TENANT_BODY);
+        }
+        if (isDefaultTenantOnly(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return reject(exchange.getResponse(), DEFAULT_TENANT_ONLY_BODY);
+        }
+        return chain.filter(exchange).contextWrite(TenantContext.of(tenant.id()));
+    }
+
+    private static boolean isDefaultTenantOnly(String path) {
+        for (String prefix : DEFAULT_TENANT_ONLY_PATHS) {
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, byte[] body) {
+        response.setStatusCode(HttpStatus.BAD_REQUEST);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    private static byte[] errorBody(ErrorCatalog error) {
+        return ("{\"code\":\"" + error.getCode() + "\",\"status\":" + HttpStatus.BAD_REQUEST.value()
+                + ",\"message\":\"" + error.getMessage() + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
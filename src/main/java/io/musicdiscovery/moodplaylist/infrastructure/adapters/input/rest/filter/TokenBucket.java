@@ -0,0 +1,45 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills
+ * continuously at {@code refillPerSecond}. Each admitted request consumes one token.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(long capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Tries to take one token from the bucket.
+     *
+     * @param now the current time in nanoseconds
+     * @return true if a token was available, false if the caller must be throttled
+     */
+    public synchronized boolean tryConsume(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Per client and per route token bucket rate limiter.
+ * Buckets are created lazily in a cache bounded to {@code maxClients} entries, so random
+ * API keys cannot grow it without bound nor make a request cost more than a lookup. A
+ * bucket idle for the time it takes to refill is full again and expires, since a new one
+ * is the same; under more clients than the bound, the least used ones are evicted and
+ * start over with a full bucket, so a flood of one-off keys does not evict busy clients.
+ */
+public class TokenBucketRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<RouteType, Limit> limits;
+    private final LongSupplier clock;
+
+    public TokenBucketRateLimiter(Limit readLimit, Limit writeLimit, int maxClients, LongSupplier clock) {
+        this.limits = Map.of(RouteType.READ, readLimit, RouteType.WRITE, writeLimit);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(readLimit.refillNanos(), writeLimit.refillNanos())))
+                .ticker(clock::getAsLong)
+                .build();
+    }
+
+    /**
+     * Tries to admit one request of the given client on the given route.
+     *
+     * @param clientKey the API key, or the address of an anonymous caller
+     * @param route the route class of the request
+     * @return true if the request is admitted, false if it must be rejected
+     */
+    public boolean tryAcquire(String clientKey, RouteType route) {
+        long now = clock.getAsLong();
+        Limit limit = limits.get(route);
+        return buckets.get(route.name() + ':' + clientKey,
+                key -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now))
+                .tryConsume(now);
+    }
+
+    /**
+     * Seconds a throttled client should wait before one token is available again.
+     *
+     * @param route the route class of the rejected request
+     * @return the value for the Retry-After header
+     */
+    public long retryAfterSeconds(RouteType route) {
+        return Math.max(1, (long) Math.ceil(1 / limits.get(route).refillPerSecond()));
+    }
+
+    /**
+     * @return the number of buckets tracked, once the pending evictions are done
+     */
+    long trackedClients() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    /**
+     * Bucket size and refill rate of one route class.
+     */
+    public record Limit(long capacity, double refillPerSecond) {
+
+        /**
+         * @return the time an empty bucket takes to refill, in nanoseconds
+         */
+        long refillNanos() {
+            return (long) Math.ceil(capacity / refillPerSecond * 1_000_000_000L);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.PlaylistProfileResponse;
+
+/**
+ * Mapper interface for converting the playlist profiles into their DTOs.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface PlaylistProfileRestMapper {
+
+    /**
+     * Converts a PlaylistProfile domain object to a PlaylistProfileResponse.
+     *
+     * @param profile the profile to convert
+     * @return the converted PlaylistProfileResponse
+     */
+    PlaylistProfileResponse toPlaylistProfileResponse(PlaylistProfile profile);
+}
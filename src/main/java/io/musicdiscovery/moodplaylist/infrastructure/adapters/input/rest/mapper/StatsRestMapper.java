@@ -0,0 +1,34 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.ArtistPopularityResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.GenreShareResponse;
+
+/**
+ * Mapper interface for converting the popularity statistics into their DTOs.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface StatsRestMapper {
+
+    /**
+     * Converts a list of ArtistPopularity domain objects to a list of ArtistPopularityResponse objects.
+     *
+     * @param artists the artists to convert
+     * @return the list of converted ArtistPopularityResponse objects
+     */
+    List<ArtistPopularityResponse> toArtistPopularityResponseList(List<ArtistPopularity> artists);
+
+    /**
+     * Converts a list of GenreShare domain objects to a list of GenreShareResponse objects.
+     *
+     * @param shares the genre shares to convert
+     * @return the list of converted GenreShareResponse objects
+     */
+    List<GenreShareResponse> toGenreShareResponseList(List<GenreShare> shares);
+}
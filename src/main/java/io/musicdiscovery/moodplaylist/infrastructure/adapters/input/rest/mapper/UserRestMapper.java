@@ -8,6 +8,7 @@ import org.mapstruct.ReportingPolicy;
 import io.musicdiscovery.user.domain.model.User;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.mapper.HandOverMapperConfig;
 
 
 /**
@@ -15,8 +16,11 @@ import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.
  * This interface defines the mapping methods for transforming
  * UserCreateRequest into User, User into UserResponse, and
  * lists of Users into lists of UserResponses.
+ * The genre and artist lists are handed over rather than copied: the requests are
+ * dropped once mapped and the responses only serialized, and the users read from the
+ * caches are already copies.
  */
-@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+@Mapper(componentModel = "spring", config = HandOverMapperConfig.class, unmappedTargetPolicy = ReportingPolicy.IGNORE)
 public interface UserRestMapper {
 
     /**
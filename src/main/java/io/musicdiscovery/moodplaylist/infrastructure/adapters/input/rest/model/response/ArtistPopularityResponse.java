@@ -0,0 +1,21 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArtistPopularityResponse {
+    @Schema(description = "Name of the artist")
+    private String artist;
+
+    @Schema(description = "Estimated number of users having the artist among their favorites, never below the real one")
+    private long users;
+}
@@ -3,6 +3,8 @@ package io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -14,9 +16,11 @@ import lombok.Setter;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ErrorResponse {
 
 	private String code;
+	private Integer status;
 	private String message;
 	private List<String> details;
 	private LocalDateTime timestamp;
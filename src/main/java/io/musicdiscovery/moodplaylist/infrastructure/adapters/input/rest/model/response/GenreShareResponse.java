@@ -0,0 +1,29 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenreShareResponse {
+    @Schema(description = "Mood of the users, null for the users without one")
+    private Mood mood;
+
+    @Schema(description = "Preferred music genre")
+    private Genre genre;
+
+    @Schema(description = "Number of users in the mood preferring the genre")
+    private long users;
+
+    @Schema(description = "Share of the genre among the genre preferences of the mood, between 0 and 1")
+    private double share;
+}
@@ -0,0 +1,35 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response;
+
+import java.time.Instant;
+import java.util.List;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaylistProfileResponse {
+    @Schema(description = "Unique identifier of the user", example = "1")
+    private String userId;
+
+    @Schema(description = "Mood of the user")
+    private Mood mood;
+
+    @Schema(description = "List of preferred music genres")
+    private List<Genre> preferredGenre;
+
+    @Schema(description = "First favorite artists of the user")
+    private List<String> topArtists;
+
+    @Schema(description = "Time the profile was last projected from the user")
+    private Instant updatedAt;
+}
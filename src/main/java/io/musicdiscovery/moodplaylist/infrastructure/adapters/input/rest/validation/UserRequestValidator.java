@@ -0,0 +1,58 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.validation;
+
+import java.util.Collection;
+
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+
+/**
+ * Validates the user requests with plain getter calls, in place of Bean Validation on the
+ * request path: no constraint metadata lookup, reflective property access or violation
+ * set per request, and nothing allocated for a valid request.
+ * <p>
+ * The checks are those of the constraint annotations of {@link UserCreateRequest}, which
+ * stay as the documented contract of the API, with the same messages;
+ * {@code UserRequestValidatorTest} keeps both in agreement.
+ */
+public final class UserRequestValidator {
+
+    private UserRequestValidator() {
+    }
+
+    /**
+     * Validates a request to create or update a user.
+     *
+     * @param request the request to validate
+     * @return the messages of the violated constraints, or null if the request is valid
+     */
+    public static String violations(UserCreateRequest request) {
+        String violations = null;
+        if (isBlank(request.getName())) {
+            violations = append(violations, "Field name cannot be empty or null.");
+        }
+        if (isBlank(request.getEmail())) {
+            violations = append(violations, "Field email cannot be empty or null.");
+        }
+        if (isEmpty(request.getPreferredGenre())) {
+            violations = append(violations, "Field preferredGenre cannot be empty or null.");
+        }
+        if (isEmpty(request.getFavoriteArtist())) {
+            violations = append(violations, "Field favoriteArtist cannot be empty or null.");
+        }
+        return violations;
+    }
+
+    /**
+     * Same check as the NotBlank validator of Hibernate Validator.
+     */
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static boolean isEmpty(Collection<?> value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static String append(String violations, String message) {
+        return violations == null ? message : violations + " " + message;
+    }
+}
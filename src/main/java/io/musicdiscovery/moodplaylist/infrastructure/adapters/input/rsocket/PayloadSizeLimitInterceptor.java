@@ -0,0 +1,84 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket;
+
+import org.reactivestreams.Publisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadRejections;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.plugins.RSocketInterceptor;
+import io.rsocket.util.RSocketProxy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Responder interceptor rejecting the request payloads larger than the body size limit
+ * before they are decoded. The TCP transport reassembles frames of up to 16 MB, so the
+ * limit of the HTTP bodies cannot be enforced on the frames themselves.
+ * Rejections are answered with ERR_GEN_004 and counted with the {@code body_size} reason,
+ * as over HTTP.
+ */
+public class PayloadSizeLimitInterceptor implements RSocketInterceptor {
+
+    private final long maxBodySize;
+    private final Counter rejected;
+
+    public PayloadSizeLimitInterceptor(long maxBodySize, MeterRegistry meterRegistry) {
+        this.maxBodySize = maxBodySize;
+        this.rejected = PayloadRejections.counter(meterRegistry, "body_size");
+    }
+
+    @Override
+    public RSocket apply(RSocket responder) {
+        return new RSocketProxy(responder) {
+
+            @Override
+            public Mono<Void> fireAndForget(Payload payload) {
+                return tooLarge(payload) ? Mono.error(applicationError(payload)) : super.fireAndForget(payload);
+            }
+
+            @Override
+            public Mono<Payload> requestResponse(Payload payload) {
+                return tooLarge(payload) ? Mono.error(applicationError(payload)) : super.requestResponse(payload);
+            }
+
+            @Override
+            public Flux<Payload> requestStream(Payload payload) {
+                return tooLarge(payload) ? Flux.error(applicationError(payload)) : super.requestStream(payload);
+            }
+
+            @Override
+            public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+                return super.requestChannel(Flux.from(payloads).handle((payload, sink) -> {
+                    if (tooLarge(payload)) {
+                        sink.error(rejection(payload));
+                    } else {
+                        sink.next(payload);
+                    }
+                }));
+            }
+        };
+    }
+
+    private boolean tooLarge(Payload payload) {
+        return payload.data().readableBytes() > maxBodySize;
+    }
+
+    /**
+     * Rejects the payload of a request: the requester gets the ERR_GEN_004 application error.
+     */
+    private Throwable applicationError(Payload payload) {
+        return UserRSocketController.toApplicationError(rejection(payload));
+    }
+
+    /**
+     * Rejects a payload of a channel: the route fails with the rejection and maps it.
+     */
+    private PayloadLimitExceededException rejection(Payload payload) {
+        payload.release();
+        rejected.increment();
+        return new PayloadLimitExceededException("body_size", "Request payload exceeds " + maxBodySize + " bytes");
+    }
+}
@@ -0,0 +1,181 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket;
+
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.stereotype.Controller;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.input.UserServicePort;
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadRejections;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UpdateMoodRequest;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.validation.UserRequestValidator;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.mapper.UserRSocketMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.model.MoodChangeResponse;
+import io.musicdiscovery.user.utils.ErrorCatalog;
+import io.rsocket.exceptions.ApplicationErrorException;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * RSocket entry point (adapter) to the user operations, next to the REST controller.
+ * Payloads are the same as over HTTP, encoded as CBOR or JSON as negotiated by the client.
+ * <p>
+ * The streams follow the RSocket request-n flow control: the demand of the requester is
+ * the Reactor demand of the route, up to the Mongo cursor for {@code users.stream-all}
+ * and up to the lookups in flight for {@code users.batch-get}. Errors are sent as
+ * application errors carrying the {@link ErrorCatalog} code and message.
+ */
+@Controller
+@RequiredArgsConstructor
+@MessageMapping("users")
+public class UserRSocketController {
+
+    /** Lookups of a batch get running at once, and so ids requested ahead from the channel. */
+    static final int BATCH_GET_CONCURRENCY = 32;
+
+    private final UserServicePort userServicePort;
+    private final UserRestMapper restMapper;
+    private final UserRSocketMapper rsocketMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Request-response: retrieves a user by id.
+     *
+     * @param id the user id, from the route
+     * @return a Mono with the user, or an ERR_STUDENT_001 error
+     */
+    @MessageMapping("get.{id}")
+    public Mono<UserResponse> getUserById(@DestinationVariable String id) {
+        return userServicePort.getUserById(id)
+                .map(restMapper::toUserResponse)
+                .onErrorMap(UserRSocketController::toApplicationError);
+    }
+
+    /**
+     * Request-channel: retrieves the users of a stream of ids, in the order of the ids.
+     * Unknown ids are skipped, the requester matches the results by id.
+     *
+     * @param ids the user ids
+     * @return a Flux with the users found
+     */
+    @MessageMapping("batch-get")
+    public Flux<UserResponse> batchGet(Flux<String> ids) {
+        return ids.flatMapSequential(id -> userServicePort.getUserById(id)
+                        .onErrorResume(UserNotFoundException.class, ex -> Mono.empty()), BATCH_GET_CONCURRENCY)
+                .map(restMapper::toUserResponse)
+                .onErrorMap(UserRSocketController::toApplicationError);
+    }
+
+    /**
+     * Request-response: creates a user.
+     *
+     * @param user the user to create, validated as over HTTP
+     * @return a Mono with the created user, or an ERR_STUDENT_002/003 error
+     */
+    @MessageMapping("create")
+    public Mono<UserResponse> createUser(UserCreateRequest user) {
+        if (UserRequestValidator.violations(user) != null) {
+            return Mono.error(applicationError(ErrorCatalog.INVALID_USER));
+        }
+        return userServicePort.createUser(restMapper.toUser(user))
+                .map(restMapper::toUserResponse)
+                .onErrorMap(UserRSocketController::toApplicationError);
+    }
+
+    /**
+     * Request-response: updates the mood of a user.
+     *
+     * @param id the user id, from the route
+     * @param mood the new mood
+     * @return a Mono with the updated user, or an ERR_STUDENT_001 error
+     */
+    @MessageMapping("update-mood.{id}")
+    public Mono<UserResponse> updateMood(@DestinationVariable String id, UpdateMoodRequest mood) {
+        return userServicePort.updateMood(id, mood.getMood())
+                .map(restMapper::toUserResponse)
+                .onErrorMap(UserRSocketController::toApplicationError);
+    }
+
+    /**
+     * Request-stream: streams every user at the pace requested by the requester.
+     *
+     * @return a Flux with all the users
+     */
+    @MessageMapping("stream-all")
+    public Flux<UserResponse> streamAll() {
+        return userServicePort.streamAllUsers()
+                .map(restMapper::toUserResponse)
+                .onErrorMap(UserRSocketController::toApplicationError);
+    }
+
+    /**
+     * Request-stream: follows the mood changes of the users until the requester cancels.
+     *
+     * @return a Flux with the mood changes as they are saved
+     */
+    @MessageMapping("mood-changes")
+    public Flux<MoodChangeResponse> moodChanges() {
+        return userServicePort.moodChanges()
+                .map(rsocketMapper::toMoodChangeResponse);
+    }
+
+    /**
+     * Answers a payload rejected before the route runs: ERR_GEN_004 when it exceeds one of
+     * the payload limits while decoded, ERR_STUDENT_002 when it is malformed or invalid.
+     *
+     * @param ex the decoding or validation error
+     * @return a Mono failing with the application error
+     */
+    @MessageExceptionHandler({MethodArgumentNotValidException.class, DecodingException.class})
+    public Mono<Void> handleInvalidPayload(Exception ex) {
+        String payloadLimit = PayloadRejections.reason(ex);
+        if (payloadLimit != null) {
+            PayloadRejections.counter(meterRegistry, payloadLimit).increment();
+            return Mono.error(applicationError(ErrorCatalog.PAYLOAD_TOO_LARGE));
+        }
+        return Mono.error(applicationError(ErrorCatalog.INVALID_USER));
+    }
+
+    /**
+     * Maps the errors of the service to RSocket application errors with the same
+     * catalog codes as the HTTP responses.
+     *
+     * @param ex the error of the service
+     * @return the application error sent to the requester
+     */
+    public static Throwable toApplicationError(Throwable ex) {
+        if (ex instanceof UserNotFoundException) {
+            return applicationError(ErrorCatalog.USER_NOT_FOUND);
+        }
+        if (ex instanceof UserAlreadyExistsException) {
+            return applicationError(ErrorCatalog.USER_ALREADY_EXISTS);
+        }
+        if (ex instanceof PayloadLimitExceededException) {
+            return applicationError(ErrorCatalog.PAYLOAD_TOO_LARGE);
+        }
+        if (ex instanceof TimeoutException) {
+            return applicationError(ErrorCatalog.TIMEOUT);
+        }
+        if (ex instanceof CallNotPermittedException) {
+            return applicationError(ErrorCatalog.SERVICE_UNAVAILABLE);
+        }
+        return applicationError(ErrorCatalog.GENERIC_ERROR);
+    }
+
+    private static ApplicationErrorException applicationError(ErrorCatalog error) {
+        return new ApplicationErrorException(error.getCode() + " " + error.getMessage());
+    }
+}
@@ -0,0 +1,22 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket.mapper;
+
+import org.mapstruct.Mapper;
+
+import io.musicdiscovery.user.domain.model.MoodChange;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.model.MoodChangeResponse;
+
+/**
+ * Mapper of the payloads specific to the RSocket routes. The user payloads are the
+ * same as over HTTP and go through the REST mapper.
+ */
+@Mapper(componentModel = "spring")
+public interface UserRSocketMapper {
+
+    /**
+     * Converts a MoodChange domain object to a MoodChangeResponse object.
+     *
+     * @param change the MoodChange domain object to convert
+     * @return the converted MoodChangeResponse object
+     */
+    MoodChangeResponse toMoodChangeResponse(MoodChange change);
+}
@@ -0,0 +1,22 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket.model;
+
+import java.time.Instant;
+
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MoodChangeResponse {
+    private String userId;
+    private Mood previous;
+    private Mood current;
+    private Instant changedAt;
+}
@@ -0,0 +1,11 @@
+package io.musicdiscovery.user.infrastructure.adapters.mapper;
+
+import org.mapstruct.MapperConfig;
+
+/**
+ * Shared configuration of the user mappers whose genre and artist lists are handed over
+ * rather than copied. Each mapper states why its lists are not shared with anyone else.
+ */
+@MapperConfig(uses = ListHandOver.class)
+public interface HandOverMapperConfig {
+}
@@ -0,0 +1,35 @@
+package io.musicdiscovery.user.infrastructure.adapters.mapper;
+
+import java.util.List;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+
+/**
+ * Mapping methods handing the genre and artist lists of a user over to the mapped object,
+ * where MapStruct would copy them. Used through {@link HandOverMapperConfig}.
+ */
+public final class ListHandOver {
+
+    private ListHandOver() {
+    }
+
+    /**
+     * Hands a list of genres over to the mapped object.
+     *
+     * @param genres the genres of the source object
+     * @return the same list
+     */
+    public static List<Genre> handOverGenres(List<Genre> genres) {
+        return genres;
+    }
+
+    /**
+     * Hands a list of artists over to the mapped object.
+     *
+     * @param artists the artists of the source object
+     * @return the same list
+     */
+    public static List<String> handOverArtists(List<String> artists) {
+        return artists;
+    }
+}
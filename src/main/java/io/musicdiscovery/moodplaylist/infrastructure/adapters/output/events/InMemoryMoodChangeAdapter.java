@@ -0,0 +1,42 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.domain.model.MoodChange;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Feed of the mood changes saved through this instance. Each subscriber gets its own
+ * bounded buffer: the feed never waits for a subscriber, one that falls behind by more
+ * than the buffer loses its oldest changes, counted in {@code user.mood_changes.dropped}.
+ */
+@Component
+public class InMemoryMoodChangeAdapter implements MoodChangePort {
+
+    private final Sinks.Many<MoodChange> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final Counter dropped;
+
+    public InMemoryMoodChangeAdapter(@Value("${events.mood-changes.buffer-size}") int bufferSize,
+            MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.dropped = meterRegistry.counter("user.mood_changes.dropped");
+    }
+
+    @Override
+    public synchronized void publish(MoodChange change) {
+        sink.tryEmitNext(change);
+    }
+
+    @Override
+    public Flux<MoodChange> changes() {
+        return sink.asFlux()
+                .onBackpressureBuffer(bufferSize, change -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST);
+    }
+}
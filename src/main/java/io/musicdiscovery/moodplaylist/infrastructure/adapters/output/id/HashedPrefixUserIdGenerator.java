@@ -0,0 +1,36 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.id;
+
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.application.port.output.UserIdGeneratorPort;
+
+/**
+ * Generates identifiers made of a 4 hex digit hash prefix followed by an ObjectId,
+ * e.g. {@code 9f3a-66f56b94831c3d47cc76cb54}. The prefix spreads inserts evenly over
+ * the chunks of a range shard key on _id while ids stay unique and sortable by
+ * creation time within a prefix.
+ */
+@Component
+@ConditionalOnProperty(name = "user.id.strategy", havingValue = "hashed-prefix")
+public class HashedPrefixUserIdGenerator implements UserIdGeneratorPort {
+
+    private static final int PREFIX_MASK = 0xFFFF;
+
+    @Override
+    public String nextId() {
+        String objectId = new ObjectId().toHexString();
+        return String.format("%04x-%s", mix(objectId.hashCode()) & PREFIX_MASK, objectId);
+    }
+
+    private static int mix(int hash) {
+        // Murmur3 finalizer, consecutive ObjectIds otherwise share most prefix bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.id;
+
+import org.bson.types.ObjectId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.application.port.output.UserIdGeneratorPort;
+
+/**
+ * Generates time-ordered identifiers in the ObjectId format, compatible with the
+ * ids already stored in the users collection. Because consecutive ids are close
+ * to each other, this strategy must be paired with a hashed shard key on _id.
+ */
+@Component
+@ConditionalOnProperty(name = "user.id.strategy", havingValue = "time-ordered", matchIfMissing = true)
+public class TimeOrderedUserIdGenerator implements UserIdGeneratorPort {
+
+    @Override
+    public String nextId() {
+        return new ObjectId().toHexString();
+    }
+}
@@ -0,0 +1,85 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.utils.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * In-memory Bloom filter of the registered emails, loaded from Mongo on startup and
+ * updated on every save. A negative answer means the email is definitely new and
+ * the existence query can be skipped. Emails created by other replicas are not
+ * seen here, so the unique email index remains the source of truth for duplicates.
+ * The filter is shared by the tenants: an email registered with another tenant only
+ * costs the existence query.
+ * <p>
+ * A sharded collection has no unique email index, so the existence query is the only
+ * check left and a stale filter would let a duplicate through: with sharding enabled
+ * the filter is off and every email is checked in Mongo.
+ */
+@Slf4j
+@Component
+public class KnownEmailsFilter {
+
+    private final UserCollectionRouter collections;
+    private final BloomFilter filter;
+    private volatile boolean ready;
+
+    public KnownEmailsFilter(UserCollectionRouter collections,
+            @Value("${persistence.email-filter.expected-insertions}") long expectedInsertions,
+            @Value("${persistence.email-filter.false-positive-probability}") double falsePositiveProbability,
+            @Value("${persistence.sharding.enabled:false}") boolean shardingEnabled) {
+        this.collections = collections;
+        this.filter = shardingEnabled ? null : new BloomFilter(expectedInsertions, falsePositiveProbability);
+    }
+
+    /**
+     * Checks whether the email may already be registered.
+     *
+     * @param email the normalized email
+     * @return false only if the email is definitely not registered
+     */
+    public boolean mightContain(String email) {
+        return !ready || filter.mightContain(email);
+    }
+
+    /**
+     * Records a registered email.
+     *
+     * @param email the normalized email
+     */
+    public void put(String email) {
+        if (email != null && filter != null) {
+            filter.put(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (filter == null) {
+            log.info("Known emails filter disabled, the users collection is sharded");
+            return;
+        }
+        // Every user holding an email, i.e. every live user, read through the partial email index
+        Query emails = query(where("email").exists(true));
+        emails.fields().include("email");
+        Flux.fromIterable(collections.all())
+                .concatMap(users -> users.template().find(emails, UserEntity.class, users.name()))
+                .doOnNext(entity -> put(entity.getEmail()))
+                .count()
+                .subscribe(count -> {
+                    ready = true;
+                    log.info("Known emails filter loaded with {} emails", count);
+                }, error -> log.warn("Could not load known emails filter, existence checks will query Mongo: {}",
+                        error.getMessage()));
+    }
+}
@@ -0,0 +1,49 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Sliding window of the most recent read latencies used to derive the hedging delay.
+ * The percentile is recomputed every {@code RECOMPUTE_EVERY} samples so recording
+ * stays O(1) on the read path.
+ */
+public class LatencyTracker {
+
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 128;
+
+    private final long[] samples = new long[WINDOW];
+    private final double percentile;
+    private int count;
+    private volatile long percentileNanos;
+
+    public LatencyTracker(double percentile, Duration initial) {
+        this.percentile = percentile;
+        this.percentileNanos = initial.toNanos();
+    }
+
+    /**
+     * Records one completed read.
+     *
+     * @param nanos the read latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        samples[count % WINDOW] = nanos;
+        count++;
+        if (count % RECOMPUTE_EVERY == 0) {
+            long[] sorted = Arrays.copyOf(samples, Math.min(count, WINDOW));
+            Arrays.sort(sorted);
+            percentileNanos = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+    }
+
+    /**
+     * Returns the latency percentile of the current window.
+     *
+     * @return the tracked percentile, or the initial value until enough samples exist
+     */
+    public Duration getPercentile() {
+        return Duration.ofNanos(percentileNanos);
+    }
+}
@@ -0,0 +1,143 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decorator of the persistence port that remembers, for a short time, the ids
+ * {@link #findById(String)} did not find, so repeated lookups of deleted or never
+ * existing users are answered in memory.
+ * Saving a user invalidates its entry. To avoid a read that started before the save
+ * caching a stale miss, every write bumps a stamp for the id's stripe and a miss is
+ * only cached if no write touched that stripe while the read was in flight.
+ * Other replicas only see the entry expire, so the TTL bounds cross-node staleness.
+ */
+public class NegativeCachingUserPersistenceAdapter implements UserPersistencePort {
+
+    private static final int STRIPES = 1024;
+
+    private final UserPersistencePort delegate;
+    private final Cache<String, Boolean> missingIds;
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STRIPES);
+    private final Counter hits;
+
+    public NegativeCachingUserPersistenceAdapter(UserPersistencePort delegate, Cache<String, Boolean> missingIds,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.missingIds = missingIds;
+        this.hits = meterRegistry.counter("user.persistence.negative_cache.hits");
+    }
+
+    @Override
+    public Mono<List<User>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    /**
+     * Finds a user by id, answering known misses from memory.
+     *
+     * @param id the ID of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findById(String id) {
+        return Mono.defer(() -> {
+            if (missingIds.getIfPresent(id) != null) {
+                hits.increment();
+                return Mono.empty();
+            }
+            int stripe = stripe(id);
+            long stamp = writeStamps.get(stripe);
+            return delegate.findById(id).doOnSuccess(user -> {
+                if (user == null && writeStamps.get(stripe) == stamp) {
+                    missingIds.put(id, Boolean.TRUE);
+                }
+            });
+        });
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return delegate.search(queryTokens, skip, limit);
+    }
+
+    /**
+     * Saves a user and drops any cached miss for its id.
+     *
+     * @param user the User domain object to save
+     * @return a Mono containing the saved User domain object.
+     */
+    @Override
+    public Mono<User> save(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.save(user).doOnNext(saved -> forget(saved.getId()));
+        });
+    }
+
+    /**
+     * Updates a user and drops any cached miss for its id.
+     *
+     * @param user the User domain object to update
+     * @return a Mono containing the updated User domain object.
+     */
+    @Override
+    public Mono<User> update(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.update(user).doOnNext(updated -> forget(updated.getId()));
+        });
+    }
+
+    /**
+     * Deletes a user and records its id as missing.
+     *
+     * @param id the ID of the user to delete
+     * @return a Mono that completes when the deletion is done.
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delegate.deleteById(id).doOnSuccess(ignored -> missingIds.put(id, Boolean.TRUE));
+    }
+
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return delegate.expireMoods(ids, setBefore, limit);
+    }
+
+    private void forget(String id) {
+        if (id != null) {
+            writeStamps.incrementAndGet(stripe(id));
+            missingIds.invalidate(id);
+        }
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
@@ -0,0 +1,255 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.mongodb.MongoException;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache.TieredCachingUserPersistenceAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decorator of the persistence port that protects callers from a degraded Mongo:
+ * every operation gets its own timeout and goes through a circuit breaker, reads by
+ * id can be hedged after the observed p95 latency, and while Mongo is failing
+ * {@link #findById(String)} answers with the last value read for that id. The last
+ * values are copies: the service updates the users it reads in place before saving them,
+ * and an update whose save failed must not be served as the last value.
+ */
+public class ResilientUserPersistenceAdapter implements UserPersistencePort {
+
+    private final UserPersistencePort delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Cache<String, User> staleCache;
+    private final Timeouts timeouts;
+    private final Hedging hedging;
+    private final LatencyTracker latencyTracker;
+    private final Counter hedgedReads;
+    private final Counter staleReads;
+
+    public ResilientUserPersistenceAdapter(UserPersistencePort delegate, CircuitBreaker circuitBreaker,
+            Cache<String, User> staleCache, Timeouts timeouts, Hedging hedging, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.staleCache = staleCache;
+        this.timeouts = timeouts;
+        this.hedging = hedging;
+        this.latencyTracker = new LatencyTracker(hedging.percentile(), hedging.maxDelay());
+        this.hedgedReads = meterRegistry.counter("user.persistence.hedged_reads");
+        this.staleReads = meterRegistry.counter("user.persistence.stale_reads");
+    }
+
+    /**
+     * Finds all users, bounded by the findAll timeout.
+     *
+     * @return a Mono containing a list of User domain objects.
+     */
+    @Override
+    public Mono<List<User>> findAll() {
+        return protect(delegate.findAll(), timeouts.findAll());
+    }
+
+    /**
+     * Finds a user by id, hedging the read when enabled and falling back to the
+     * last known value when Mongo times out, fails or the circuit is open.
+     *
+     * @param id the ID of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findById(String id) {
+        Mono<User> read = hedging.enabled() ? hedgedFindById(id) : timedFindById(id);
+        return protect(read, timeouts.findById())
+                .doOnSuccess(user -> {
+                    if (user == null) {
+                        staleCache.invalidate(id);
+                    } else {
+                        staleCache.put(id, TieredCachingUserPersistenceAdapter.copyOf(user));
+                    }
+                })
+                .onErrorResume(ResilientUserPersistenceAdapter::isDegraded, ex -> staleFindById(id, ex));
+    }
+
+    /**
+     * Finds a user by email, bounded by the findById timeout.
+     *
+     * @param email the normalized email of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return protect(delegate.findByEmail(email), timeouts.findById());
+    }
+
+    /**
+     * Checks whether an email is registered, bounded by the findById timeout.
+     *
+     * @param email the normalized email to check
+     * @return a Mono containing true if the email is registered
+     */
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return protect(delegate.existsByEmail(email), timeouts.findById());
+    }
+
+    /**
+     * Streams all users through the circuit breaker. There is no timeout: the stream
+     * waits for its subscriber, and a pause in the demand is not a slow Mongo.
+     *
+     * @return a Flux of User domain objects.
+     */
+    @Override
+    public Flux<User> streamAll() {
+        return delegate.streamAll()
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Searches users, bounding the wait for each result by the findAll timeout.
+     *
+     * @param queryTokens the normalized query tokens
+     * @param skip the number of ranked results to skip
+     * @param limit the maximum number of results
+     * @return a Flux of matching User domain objects in rank order.
+     */
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return delegate.search(queryTokens, skip, limit)
+                .timeout(timeouts.findAll())
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * Saves a user, bounded by the save timeout.
+     *
+     * @param user the User domain object to save
+     * @return a Mono containing the saved User domain object.
+     */
+    @Override
+    public Mono<User> save(User user) {
+        return protect(delegate.save(user), timeouts.save())
+                .doOnNext(saved -> staleCache.put(saved.getId(), TieredCachingUserPersistenceAdapter.copyOf(saved)));
+    }
+
+    /**
+     * Updates a user, bounded by the save timeout.
+     *
+     * @param user the User domain object to update
+     * @return a Mono containing the updated User domain object.
+     */
+    @Override
+    public Mono<User> update(User user) {
+        return protect(delegate.update(user), timeouts.save())
+                .doOnNext(updated -> staleCache.put(updated.getId(), TieredCachingUserPersistenceAdapter.copyOf(updated)));
+    }
+
+    /**
+     * Deletes a user by id, bounded by the delete timeout.
+     *
+     * @param id the ID of the user to delete
+     * @return a Mono that completes when the deletion is done.
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return protect(delegate.deleteById(id), timeouts.deleteById())
+                .doOnSuccess(ignored -> staleCache.invalidate(id));
+    }
+
+    /**
+     * Expires moods, bounded by the save timeout, and drops the last known value of the
+     * users whose mood expired.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a Mono containing the users whose mood expired, as they were before
+     */
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return protect(delegate.expireMoods(ids, setBefore, limit), timeouts.save())
+                .doOnNext(expired -> expired.forEach(user -> staleCache.invalidate(user.getId())));
+    }
+
+    private <T> Mono<T> protect(Mono<T> operation, Duration timeout) {
+        return operation.timeout(timeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    private Mono<User> timedFindById(String id) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return delegate.findById(id).doOnSuccess(user -> latencyTracker.record(System.nanoTime() - start));
+        });
+    }
+
+    private Mono<User> hedgedFindById(String id) {
+        Duration delay = latencyTracker.getPercentile();
+        if (delay.compareTo(hedging.minDelay()) < 0) {
+            delay = hedging.minDelay();
+        } else if (delay.compareTo(hedging.maxDelay()) > 0) {
+            delay = hedging.maxDelay();
+        }
+        Mono<User> hedge = Mono.delay(delay)
+                .then(Mono.defer(() -> {
+                    hedgedReads.increment();
+                    return delegate.findById(id);
+                }));
+        // The first read to signal wins, the other one is cancelled. The time of the winner
+        // is recorded either way: sampling only the primary reads that win would leave the
+        // slow ones out of the percentile, shrinking the delay and hedging ever more reads
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.firstWithSignal(delegate.findById(id), hedge)
+                    .doOnSuccess(user -> latencyTracker.record(System.nanoTime() - start));
+        });
+    }
+
+    private Mono<User> staleFindById(String id, Throwable cause) {
+        User stale = staleCache.getIfPresent(id);
+        if (stale == null) {
+            return Mono.error(cause);
+        }
+        staleReads.increment();
+        return Mono.just(TieredCachingUserPersistenceAdapter.copyOf(stale));
+    }
+
+    /**
+     * Tells infrastructure failures, which count against the circuit breaker and
+     * trigger the stale fallback, apart from business errors.
+     *
+     * @param ex the error raised by the persistence operation
+     * @return true if the error means Mongo is slow or unavailable
+     */
+    public static boolean isDegraded(Throwable ex) {
+        return ex instanceof TimeoutException || ex instanceof CallNotPermittedException
+                || ex instanceof DataAccessResourceFailureException || ex instanceof TransientDataAccessException
+                || ex instanceof MongoException;
+    }
+
+    /**
+     * Timeout applied to each persistence operation.
+     */
+    public record Timeouts(Duration findAll, Duration findById, Duration save, Duration deleteById) {
+    }
+
+    /**
+     * Hedged read settings: the second read fires after the tracked latency percentile,
+     * clamped between the min and max delay.
+     */
+    public record Hedging(boolean enabled, double percentile, Duration minDelay, Duration maxDelay) {
+    }
+}
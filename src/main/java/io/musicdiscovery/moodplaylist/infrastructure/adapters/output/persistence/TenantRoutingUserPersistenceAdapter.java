@@ -0,0 +1,103 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Persistence port dispatching every operation to the port of the tenant of the request.
+ * Each tenant has its own chain of decorators, with its own circuit breaker and its own
+ * bounded caches, so a tenant's hot keys and failures stay within its own quotas.
+ */
+@Slf4j
+public class TenantRoutingUserPersistenceAdapter implements UserPersistencePort, AutoCloseable {
+
+    private final TenantRegistry tenants;
+    private final Map<String, UserPersistencePort> ports;
+
+    /**
+     * Creates the adapter.
+     *
+     * @param tenants the tenants
+     * @param ports the port of every tenant, by tenant id
+     */
+    public TenantRoutingUserPersistenceAdapter(TenantRegistry tenants, Map<String, UserPersistencePort> ports) {
+        this.tenants = tenants;
+        this.ports = ports;
+    }
+
+    @Override
+    public Mono<List<User>> findAll() {
+        return Mono.deferContextual(context -> port(context).findAll());
+    }
+
+    @Override
+    public Flux<User> streamAll() {
+        return Flux.deferContextual(context -> port(context).streamAll());
+    }
+
+    @Override
+    public Mono<User> findById(String id) {
+        return Mono.deferContextual(context -> port(context).findById(id));
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return Mono.deferContextual(context -> port(context).findByEmail(email));
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return Mono.deferContextual(context -> port(context).existsByEmail(email));
+    }
+
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return Flux.deferContextual(context -> port(context).search(queryTokens, skip, limit));
+    }
+
+    @Override
+    public Mono<User> save(User user) {
+        return Mono.deferContextual(context -> port(context).save(user));
+    }
+
+    @Override
+    public Mono<User> update(User user) {
+        return Mono.deferContextual(context -> port(context).update(user));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.deferContextual(context -> port(context).deleteById(id));
+    }
+
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return Mono.deferContextual(context -> port(context).expireMoods(ids, setBefore, limit));
+    }
+
+    @Override
+    public void close() {
+        for (UserPersistencePort port : ports.values()) {
+            if (port instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Could not close the user persistence port: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private UserPersistencePort port(ContextView context) {
+        return ports.get(tenants.current(context).id());
+    }
+}
@@ -0,0 +1,83 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes the user operations to the collection of the tenant of the request. Each
+ * tenant's collection is reached through a template bound to its database, and through
+ * a connection pool of its own when the tenant has one, so a tenant exhausting its pool
+ * with scans only queues its own requests.
+ */
+public class UserCollectionRouter implements AutoCloseable {
+
+    /**
+     * The users collection of a tenant.
+     *
+     * @param tenant the tenant
+     * @param template the template bound to the database and pool of the tenant
+     * @param name the name of the collection
+     */
+    public record UserCollection(Tenant tenant, ReactiveMongoTemplate template, String name) {
+    }
+
+    private final TenantRegistry tenants;
+    private final Map<String, UserCollection> collections;
+    private final List<MongoClient> dedicatedClients;
+
+    /**
+     * Creates the router.
+     *
+     * @param tenants the tenants
+     * @param collections the collection of every tenant, by tenant id
+     * @param dedicatedClients the clients of the tenants with their own pool, closed with the router
+     */
+    public UserCollectionRouter(TenantRegistry tenants, Map<String, UserCollection> collections,
+            List<MongoClient> dedicatedClients) {
+        this.tenants = tenants;
+        this.collections = collections;
+        this.dedicatedClients = dedicatedClients;
+    }
+
+    /**
+     * Returns the collection of the tenant of the current request.
+     *
+     * @return a Mono with the collection
+     */
+    public Mono<UserCollection> current() {
+        return Mono.deferContextual(context -> Mono.just(collections.get(tenants.current(context).id())));
+    }
+
+    /**
+     * Returns the collection of the default tenant, the one the background jobs work on.
+     *
+     * @return the collection
+     */
+    public UserCollection defaultCollection() {
+        return collections.get(tenants.defaultTenant().id());
+    }
+
+    /**
+     * Returns the collections of all the tenants.
+     *
+     * @return the collections
+     */
+    public Collection<UserCollection> all() {
+        return Collections.unmodifiableCollection(collections.values());
+    }
+
+    @Override
+    public void close() {
+        dedicatedClients.forEach(MongoClient::close);
+    }
+}
@@ -0,0 +1,84 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shards the users collection of every tenant on startup when running against a
+ * sharded cluster. The shard key is _id, matching the id strategy: time-ordered ids
+ * need a hashed key to avoid a single hot chunk, hashed-prefix ids are already spread
+ * and keep a range key.
+ * <p>
+ * The operations filtering by _id are targeted to one shard: findById, save, update,
+ * deleteById and the expiry of the moods of given users, which reaches the shards
+ * owning them. The others are broadcast to every shard and served there by an index:
+ * findByEmail and existsByEmail through the email index, search through the search
+ * token indexes, the expired moods sweep through the mood expiry index and the
+ * tombstone purge through the tombstone index. findAll and streamAll scan every shard
+ * by nature. The email reservations collection is not sharded and lives on the primary
+ * shard of the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "persistence.sharding.enabled", havingValue = "true")
+public class UserCollectionShardingInitializer {
+
+    private final MongoClient mongoClient;
+    private final UserCollectionRouter collections;
+    private final String idStrategy;
+
+    public UserCollectionShardingInitializer(MongoClient mongoClient, UserCollectionRouter collections,
+            @Value("${user.id.strategy:time-ordered}") String idStrategy) {
+        this.mongoClient = mongoClient;
+        this.collections = collections;
+        this.idStrategy = idStrategy;
+    }
+
+    /**
+     * Builds the shard key document for the configured id strategy.
+     *
+     * @param idStrategy the value of user.id.strategy
+     * @return the shard key of the users collection
+     */
+    public static Document shardKey(String idStrategy) {
+        return "hashed-prefix".equals(idStrategy) ? new Document("_id", 1) : new Document("_id", "hashed");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void shardUsersCollections() {
+        for (UserCollection users : collections.all()) {
+            shard(users).subscribe(null, error -> log.warn("Could not shard collection {}: {}", users.name(),
+                    error.getMessage()));
+        }
+    }
+
+    /**
+     * Enables the sharding of the database of a users collection and shards it. Both
+     * commands are no-ops on a database and collection already sharded the same way.
+     *
+     * @param users the users collection of a tenant
+     * @return a Mono that completes once the collection is sharded
+     */
+    public Mono<Void> shard(UserCollection users) {
+        Document shardKey = shardKey(idStrategy);
+        return users.template().getMongoDatabase()
+                .flatMap(database -> Mono.from(mongoClient.getDatabase("admin")
+                                .runCommand(new Document("enableSharding", database.getName())))
+                        .then(Mono.from(mongoClient.getDatabase("admin").runCommand(
+                                new Document("shardCollection", database.getName() + "." + users.name())
+                                        .append("key", shardKey))))
+                        .doOnSuccess(result -> log.info("Collection {}.{} sharded with key {}", database.getName(),
+                                users.name(), shardKey.toJson())))
+                .then();
+    }
+}
@@ -0,0 +1,144 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the emails unique on a sharded users collection, whose email index cannot be
+ * unique because it is not prefixed by the shard key. Before a user is written with an
+ * email, the email is reserved in the {@code <collection>_emails} collection of the
+ * tenant, keyed by the email itself, so the unique _id index lets a single user hold it.
+ * That collection is not sharded: it holds one small document per live user and is
+ * written only when an email is registered, changed or released.
+ * <p>
+ * A reservation left behind by a write that failed midway, or by a delete whose release
+ * failed, is taken over once it is older than {@link #PENDING_TIMEOUT} and its holder is
+ * no longer a live user with that email. Users registered before the sharding was enabled
+ * hold no reservation; the existence check run before every create or email change still
+ * finds them. Without sharding the unique email index is enough and nothing is reserved.
+ */
+@Component
+public class UserEmailReservations {
+
+    /** Age after which a reservation whose holder does not have the email can be taken over. */
+    static final Duration PENDING_TIMEOUT = Duration.ofSeconds(30);
+
+    private final boolean enabled;
+
+    public UserEmailReservations(@Value("${persistence.sharding.enabled:false}") boolean shardingEnabled) {
+        this.enabled = shardingEnabled;
+    }
+
+    /**
+     * Names the reservations collection of a users collection.
+     *
+     * @param users the users collection
+     * @return the name of its reservations collection
+     */
+    public static String collectionOf(UserCollection users) {
+        return users.name() + "_emails";
+    }
+
+    /**
+     * Reserves an email for a user.
+     *
+     * @param users the users collection of the tenant
+     * @param email the normalized email, or null for a user without email
+     * @param userId the ID of the user
+     * @return a Mono containing true if the reservation was taken by this call, false if
+     *         the user already held it or nothing is reserved
+     * @throws UserAlreadyExistsException if another user holds the email
+     */
+    public Mono<Boolean> reserve(UserCollection users, String email, String userId) {
+        if (!enabled || email == null) {
+            return Mono.just(false);
+        }
+        return insert(users, email, userId)
+                .onErrorResume(DuplicateKeyException.class, duplicate -> contest(users, email, userId));
+    }
+
+    /**
+     * Releases the reservation of an email taken by a write that failed.
+     *
+     * @param users the users collection of the tenant
+     * @param email the normalized email
+     * @param userId the ID of the user holding it
+     * @return a Mono that completes when the reservation is released
+     */
+    public Mono<Void> release(UserCollection users, String email, String userId) {
+        if (!enabled || email == null) {
+            return Mono.empty();
+        }
+        return users.template().remove(query(where("_id").is(email).and("userId").is(userId)),
+                collectionOf(users)).then();
+    }
+
+    /**
+     * Releases the reservations of a user except the one of the email it keeps, i.e. the
+     * reservation of the email it had before an update. A null email releases them all,
+     * as on a delete.
+     *
+     * @param users the users collection of the tenant
+     * @param userId the ID of the user
+     * @param keptEmail the normalized email the user keeps, or null
+     * @return a Mono that completes when the reservations are released
+     */
+    public Mono<Void> releaseOthers(UserCollection users, String userId, String keptEmail) {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        return users.template().remove(keptEmail == null ? query(where("userId").is(userId))
+                : query(where("userId").is(userId).and("_id").ne(keptEmail)), collectionOf(users)).then();
+    }
+
+    private Mono<Boolean> insert(UserCollection users, String email, String userId) {
+        return users.template().insert(new Document("_id", email).append("userId", userId)
+                .append("reservedAt", Date.from(Instant.now())), collectionOf(users))
+                .thenReturn(true);
+    }
+
+    private Mono<Boolean> contest(UserCollection users, String email, String userId) {
+        return users.template().findOne(query(where("_id").is(email)), Document.class, collectionOf(users))
+                .flatMap(held -> {
+                    String holder = held.getString("userId");
+                    if (userId.equals(holder)) {
+                        return Mono.just(false);
+                    }
+                    if (held.getDate("reservedAt").toInstant().isAfter(Instant.now().minus(PENDING_TIMEOUT))) {
+                        return Mono.error(taken(email));
+                    }
+                    return users.template().exists(query(where("id").is(holder).and("email").is(email)
+                                    .and("deleted").ne(true)), UserEntity.class, users.name())
+                            .flatMap(live -> live ? Mono.<Boolean>error(taken(email)) : takeOver(users, email, holder, userId));
+                })
+                // Released meanwhile: a single new attempt, without contesting again
+                .switchIfEmpty(Mono.defer(() -> insert(users, email, userId)
+                        .onErrorMap(DuplicateKeyException.class, duplicate -> taken(email))));
+    }
+
+    private Mono<Boolean> takeOver(UserCollection users, String email, String holder, String userId) {
+        return users.template().updateFirst(query(where("_id").is(email).and("userId").is(holder)),
+                        new Update().set("userId", userId).set("reservedAt", Date.from(Instant.now())),
+                        collectionOf(users))
+                .flatMap(result -> result.getModifiedCount() == 1 ? Mono.just(true) : Mono.<Boolean>error(taken(email)));
+    }
+
+    private static UserAlreadyExistsException taken(String email) {
+        return new UserAlreadyExistsException("User already exists with email: " + email);
+    }
+}
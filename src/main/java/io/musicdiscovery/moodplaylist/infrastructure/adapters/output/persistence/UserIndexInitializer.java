@@ -0,0 +1,93 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the indexes of the users collection of every tenant on startup.
+ * Emails are stored normalized (trimmed and lower-cased), so a plain unique index
+ * is case-insensitive. A sharded collection only accepts unique indexes prefixed
+ * by the shard key, so in that mode the email index is created non-unique and the
+ * emails are kept unique by the {@link UserEmailReservations}, whose collection gets
+ * an index on the holder of each reservation to release them by user.
+ * The search token arrays get multikey indexes so anchored prefix regexes on
+ * them are resolved as index range scans.
+ * Tombstones hold no email, so the email index is partial on the email being
+ * present: deleted users take no room in it and release their email for a new
+ * registration. It replaces the former full index, dropped once the partial one
+ * exists. A second partial index, on the deletion time of the tombstones only,
+ * serves the purger without weighing on the live documents. A third one, on the
+ * time the mood was set of the users holding a mood only, serves the sweep of the
+ * expired moods oldest first.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIndexInitializer {
+
+    private static final String LEGACY_EMAIL_INDEX = "email_unique";
+
+    private final UserCollectionRouter collections;
+
+    @Value("${persistence.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        for (UserCollection users : collections.all()) {
+            ensureIndexes(users).subscribe(null, error -> log.warn("Could not create {} indexes: {}", users.name(),
+                    error.getMessage()));
+        }
+    }
+
+    /**
+     * Ensures the indexes of a users collection, and of its email reservations when sharded.
+     *
+     * @param users the users collection of a tenant
+     * @return a Mono that completes once the indexes exist
+     */
+    public Mono<Void> ensureIndexes(UserCollection users) {
+        Index email = new Index().on("email", Sort.Direction.ASC).named("email_live")
+                .partial(PartialIndexFilter.of(Criteria.where("email").exists(true)));
+        if (!shardingEnabled) {
+            email.unique();
+        }
+        Index nameTokens = new Index().on("nameTokens", Sort.Direction.ASC).named("name_tokens");
+        Index artistTokens = new Index().on("artistTokens", Sort.Direction.ASC).named("artist_tokens");
+        Index tombstones = new Index().on("deletedAt", Sort.Direction.ASC).named("tombstones")
+                .partial(PartialIndexFilter.of(Criteria.where("deleted").is(true)));
+        Index moodExpiry = new Index().on("moodSetAt", Sort.Direction.ASC).named("mood_expiry")
+                .partial(PartialIndexFilter.of(Criteria.where("moodSetAt").exists(true)));
+        Index reservationHolders = new Index().on("userId", Sort.Direction.ASC).named("reservation_holders");
+        return Flux.just(email, nameTokens, artistTokens, tombstones, moodExpiry)
+                .flatMap(index -> users.template().indexOps(users.name()).ensureIndex(index))
+                .doOnNext(name -> log.info("Index {} ensured on {}", name, users.name()))
+                .then(dropLegacyEmailIndex(users))
+                .then(shardingEnabled ? users.template().indexOps(UserEmailReservations.collectionOf(users))
+                        .ensureIndex(reservationHolders)
+                        .doOnNext(name -> log.info("Index {} ensured on {}", name,
+                                UserEmailReservations.collectionOf(users)))
+                        .then() : Mono.empty());
+    }
+
+    private Mono<Void> dropLegacyEmailIndex(UserCollection users) {
+        return users.template().indexOps(users.name()).getIndexInfo()
+                .filter(index -> LEGACY_EMAIL_INDEX.equals(index.getName()))
+                .concatMap(index -> users.template().indexOps(users.name()).dropIndex(LEGACY_EMAIL_INDEX)
+                        .doOnSuccess(dropped -> log.info("Index {} dropped from {}", LEGACY_EMAIL_INDEX,
+                                users.name())))
+                .then();
+    }
+}
@@ -1,54 +1,144 @@
 package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Instant;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
 import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
 import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
 import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
 import io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapper;
-import io.musicdiscovery.user.infrastructure.adapters.output.persistence.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Adapter class that implements the UserPersistencePort interface.
  * This class acts as a bridge between the domain layer and the persistence layer,
- * handling user-related data operations using the UserRepository.
+ * handling user-related data operations on the users collection of the tenant of the
+ * request, as routed by the {@link UserCollectionRouter}.
+ * Deletes are soft: the user is turned into a tombstone that no read returns and that
+ * the tombstone purger removes physically in the background.
  */
 @Component
 @RequiredArgsConstructor
 public class UserPersistenceAdapter implements UserPersistencePort {
 
-    private final UserRepository repository;
+    /** Field stamped with the token of the expiry that cleared the mood of a user last. */
+    static final String EXPIRY_TOKEN = "moodExpiryToken";
+
+    private final UserCollectionRouter collections;
     private final UserPersistenceMapper mapper;
+    private final KnownEmailsFilter knownEmails;
+    private final UserEmailReservations emailReservations;
 
     /**
-     * Finds all users in the repository.
+     * Finds all users in the repository, except the tombstones.
      *
      * @return a Mono containing a list of User domain objects.
      */
     @Override
     public Mono<List<User>> findAll() {
-        return repository.findAll()
-                .map(mapper::toUser)
-                .collectList();
+        return streamAll().collectList();
+    }
+
+    /**
+     * Streams all users in the repository, except the tombstones, following the demand
+     * of the subscriber.
+     *
+     * @return a Flux of User domain objects.
+     */
+    @Override
+    public Flux<User> streamAll() {
+        return collections.current()
+                .flatMapMany(users -> users.template().find(live(), UserEntity.class, users.name()))
+                .map(mapper::toUser);
     }
 
     /**
-     * Finds a user by their ID.
+     * Finds a user by their ID. A tombstone is not found.
      *
      * @param id the ID of the user to find
      * @return a Mono containing the User domain object if found, or an empty Mono if not found.
      */
     @Override
     public Mono<User> findById(String id) {
-        return repository.findById(id).map(mapper::toUser);
+        return collections.current()
+                .flatMap(users -> users.template().findOne(live().addCriteria(where("id").is(id)), UserEntity.class,
+                        users.name()))
+                .map(mapper::toUser);
+    }
+
+    /**
+     * Finds a user by their normalized email. Tombstones hold no email.
+     *
+     * @param email the normalized email of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return collections.current()
+                .flatMap(users -> users.template().findOne(query(where("email").is(email)), UserEntity.class,
+                        users.name()))
+                .map(mapper::toUser);
+    }
+
+    /**
+     * Checks whether a user with the given normalized email exists, answering
+     * from the known emails filter when the email is definitely new.
+     *
+     * @param email the normalized email to check
+     * @return a Mono containing true if the email is registered
+     */
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        if (!knownEmails.mightContain(email)) {
+            return Mono.just(false);
+        }
+        return collections.current()
+                .flatMap(users -> users.template().exists(query(where("email").is(email)), UserEntity.class,
+                        users.name()));
     }
 
     /**
-     * Saves a new user to the repository.
+     * Searches users by token prefixes over their name and favorite artists.
+     * Tombstones hold no search tokens.
+     *
+     * @param queryTokens the normalized query tokens
+     * @param skip the number of ranked results to skip
+     * @param limit the maximum number of results
+     * @return a Flux of matching User domain objects in rank order.
+     */
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return collections.current()
+                .flatMapMany(users -> users.template().aggregate(
+                        UserSearchQuery.byTokenPrefixes(queryTokens, skip, limit), users.name(), UserEntity.class))
+                .map(mapper::toUser);
+    }
+
+    /**
+     * Saves a new user to the repository. The user is inserted, never upserted, so the id
+     * of an existing user or tombstone is not written over.
+     * The saved document is the given user, so the user itself is returned, with the id
+     * set by the database if it had none, instead of a copy mapped back from the entity.
+     * On a sharded collection the email is reserved first, see {@link UserEmailReservations}.
      *
      * @param user the User domain object to save
      * @return a Mono containing the saved User domain object.
@@ -56,17 +146,151 @@ public class UserPersistenceAdapter implements UserPersistencePort {
     @Override
     public Mono<User> save(User user) {
         UserEntity entity = mapper.toUserEntity(user);
-        return repository.save(entity).map(mapper::toUser);
+        if (entity.getId() == null) {
+            entity.setId(new ObjectId().toHexString());
+        }
+        return collections.current()
+                .flatMap(users -> withEmailReserved(users, entity,
+                        Mono.defer(() -> users.template().insert(entity, users.name()))))
+                .onErrorMap(DuplicateKeyException.class, ex -> alreadyExists(user))
+                .map(saved -> {
+                    knownEmails.put(saved.getEmail());
+                    user.setId(saved.getId());
+                    return user;
+                });
+    }
+
+    /**
+     * Saves the changes of an existing user by replacing its document only while it is
+     * live. A user deleted after it was read is left a tombstone, or left purged, instead
+     * of being brought back with its former email and search tokens.
+     * On a sharded collection a new email is reserved first, see {@link UserEmailReservations},
+     * and the former one released once the user is updated.
+     *
+     * @param user the User domain object to update
+     * @return a Mono containing the updated User domain object.
+     * @throws UserNotFoundException if no live user has its ID
+     */
+    @Override
+    public Mono<User> update(User user) {
+        UserEntity entity = mapper.toUserEntity(user);
+        return collections.current()
+                .flatMap(users -> withEmailReserved(users, entity, Mono.defer(() -> users.template()
+                        .replace(live().addCriteria(where("id").is(entity.getId())), entity, ReplaceOptions.none(),
+                                users.name()))
+                        .flatMap(result -> result.getMatchedCount() == 0
+                                ? Mono.<UserEntity>error(UserNotFoundException.withId(entity.getId()))
+                                : Mono.just(entity))))
+                .onErrorMap(DuplicateKeyException.class, ex -> alreadyExists(user))
+                .map(updated -> {
+                    knownEmails.put(updated.getEmail());
+                    return user;
+                });
+    }
+
+    /**
+     * Runs the write of a user holding the reservation of its email. A reservation taken
+     * for the write is released if the write fails, and replaces the former reservations
+     * of the user if it succeeds.
+     */
+    private Mono<UserEntity> withEmailReserved(UserCollection users, UserEntity entity, Mono<UserEntity> write) {
+        return emailReservations.reserve(users, entity.getEmail(), entity.getId())
+                .flatMap(reserved -> write
+                        .onErrorResume(error -> reserved
+                                ? emailReservations.release(users, entity.getEmail(), entity.getId())
+                                        .onErrorResume(releaseError -> Mono.empty())
+                                        .then(Mono.error(error))
+                                : Mono.error(error))
+                        .flatMap(written -> reserved
+                                ? emailReservations.releaseOthers(users, written.getId(), written.getEmail())
+                                        .thenReturn(written)
+                                : Mono.just(written)));
+    }
+
+    private static UserAlreadyExistsException alreadyExists(User user) {
+        return new UserAlreadyExistsException("User already exists with email: " + user.getEmail());
     }
 
     /**
-     * Deletes a user by their ID.
+     * Deletes a user by their ID, turning it into a tombstone: flags it deleted and removes
+     * its email, search tokens and mood time, so it drops out of the partial email index, of
+     * the search and of the mood expiry, and the email can be registered again right away.
+     * Deleting a missing user or a tombstone is a no-op. On a sharded collection the
+     * reservation of the email is released as well.
      *
      * @param userId the ID of the user to delete
      * @return a Mono that completes when the deletion is done.
      */
     @Override
     public Mono<Void> deleteById(String userId) {
-        return repository.deleteById(userId);
+        return collections.current()
+                .flatMap(users -> users.template().updateFirst(live().addCriteria(where("id").is(userId)),
+                        new Update().set("deleted", true).set("deletedAt", Instant.now())
+                                .unset("email").unset("nameTokens").unset("artistTokens")
+                                .unset("moodSetAt"),
+                        UserEntity.class, users.name())
+                        .then(emailReservations.releaseOthers(users, userId, null)));
+    }
+
+    /**
+     * Expires the moods set at or before the given time, in three round trips whatever the
+     * size of the batch. The due users are read first, the given ones or the oldest due ones
+     * found through the partial mood expiry index. A single multi-update then unsets the
+     * mood of those still holding the mood time that was read, so a mood set again since, or
+     * expired meanwhile by another instance, is left alone, and stamps them with a token of
+     * this call. When it cleared fewer moods than it read, the users stamped with the token
+     * are looked up to tell which. Every expired mood is thereby reported by a single call,
+     * as it was read, with the mood it had.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a Mono containing the users whose mood this call expired, as they were before
+     */
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return collections.current()
+                .flatMap(users -> dueUsers(users, ids, setBefore, limit).collectList()
+                        .flatMap(due -> due.isEmpty() ? Mono.just(due) : expire(users, due)))
+                .map(expired -> expired.stream().map(mapper::toUser).toList());
+    }
+
+    private Flux<UserEntity> dueUsers(UserCollection users, List<String> ids, Instant setBefore, int limit) {
+        Query dueUsers = due(setBefore);
+        if (ids != null) {
+            dueUsers.addCriteria(where("id").in(ids.size() > limit ? ids.subList(0, limit) : ids));
+        } else {
+            dueUsers.with(Sort.by("moodSetAt"));
+        }
+        return users.template().find(dueUsers.limit(limit), UserEntity.class, users.name());
+    }
+
+    private Mono<List<UserEntity>> expire(UserCollection users, List<UserEntity> due) {
+        String token = UUID.randomUUID().toString();
+        Criteria unchanged = new Criteria().orOperator(due.stream()
+                .map(user -> where("id").is(user.getId()).and("moodSetAt").is(user.getMoodSetAt()))
+                .toArray(Criteria[]::new));
+        return users.template().updateMulti(live().addCriteria(unchanged),
+                        new Update().unset("mood").unset("moodSetAt").set(EXPIRY_TOKEN, token),
+                        UserEntity.class, users.name())
+                .flatMap(result -> result.getModifiedCount() == due.size() ? Mono.just(due)
+                        : stampedWith(users, token, due));
+    }
+
+    private Mono<List<UserEntity>> stampedWith(UserCollection users, String token, List<UserEntity> due) {
+        Query stamped = query(where("id").in(due.stream().map(UserEntity::getId).toList()).and(EXPIRY_TOKEN).is(token));
+        stamped.fields().include("id");
+        return users.template().find(stamped, UserEntity.class, users.name())
+                .map(UserEntity::getId)
+                .collect(Collectors.toSet())
+                .map(expired -> due.stream().filter(user -> expired.contains(user.getId())).toList());
+    }
+
+    private static Query due(Instant setBefore) {
+        return live().addCriteria(where("moodSetAt").exists(true).lte(setBefore));
+    }
+
+    private static Query live() {
+        return query(where("deleted").ne(true));
     }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Ranked prefix search over the user search tokens. Tokens are alphanumeric only,
+ * so the anchored regular expressions need no escaping and are resolved as
+ * range scans on the multikey nameTokens/artistTokens indexes. The ranking needs a
+ * blocking sort, so only the first {@link #MAX_CANDIDATES} matches in index order are
+ * scored and sorted: memory stays bounded however common the prefixes are, at the cost
+ * of ranking beyond that many matches being approximate and of no page past them.
+ */
+final class UserSearchQuery {
+
+    private static final int NAME_WEIGHT = 2;
+    private static final int ARTIST_WEIGHT = 1;
+
+    /** Matches scored and sorted at most per query. */
+    static final int MAX_CANDIDATES = 1000;
+
+    private UserSearchQuery() {
+    }
+
+    /**
+     * Builds the aggregation finding the users having, for every query token, a name or
+     * artist token starting with it. Results are ranked by name matches first, then
+     * artist matches, among the first {@link #MAX_CANDIDATES} matches.
+     *
+     * @param queryTokens the normalized query tokens
+     * @param skip the number of ranked results to skip
+     * @param limit the maximum number of results
+     * @return the aggregation
+     */
+    static Aggregation byTokenPrefixes(List<String> queryTokens, long skip, int limit) {
+        List<Criteria> perToken = new ArrayList<>();
+        List<Document> scores = new ArrayList<>();
+        for (String token : queryTokens) {
+            String prefix = "^" + token;
+            perToken.add(new Criteria().orOperator(Criteria.where("nameTokens").regex(prefix),
+                    Criteria.where("artistTokens").regex(prefix)));
+            scores.add(weightIfAnyMatches("$nameTokens", prefix, NAME_WEIGHT));
+            scores.add(weightIfAnyMatches("$artistTokens", prefix, ARTIST_WEIGHT));
+        }
+
+        AggregationOperation addScore = context -> new Document("$addFields", new Document("score", new Document("$add", scores)));
+        return Aggregation.newAggregation(
+                Aggregation.match(new Criteria().andOperator(perToken)),
+                Aggregation.limit(MAX_CANDIDATES),
+                addScore,
+                Aggregation.sort(Sort.by(Sort.Order.desc("score"), Sort.Order.asc("name"), Sort.Order.asc("_id"))),
+                Aggregation.skip(skip),
+                Aggregation.limit(limit));
+    }
+
+    private static Document weightIfAnyMatches(String field, String regex, int weight) {
+        Document anyMatches = new Document("$anyElementTrue", List.of(new Document("$map", new Document("input", new Document("$ifNull", List.of(field, List.of())))
+                .append("as", "token")
+                .append("in", new Document("$regexMatch", new Document("input", "$$token").append("regex", regex))))));
+        return new Document("$cond", List.of(anyMatches, weight, 0));
+    }
+}
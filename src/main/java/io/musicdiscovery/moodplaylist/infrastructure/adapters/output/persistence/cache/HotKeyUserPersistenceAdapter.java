@@ -0,0 +1,281 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.utils.SlidingWindowSketch;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Decorator of the persistence port absorbing the bursts of lookups of a few very popular
+ * users, the outermost layer of the port.
+ * <p>
+ * Concurrent {@link #findById(String)} calls for the same id share a single subscription
+ * to the delegate, whatever the caches below do. Every lookup is also counted in a
+ * sliding-window sketch, and the user of an id looked up at least {@code threshold} times
+ * in the window is pinned in memory. A pinned user is served without reaching the
+ * delegate; once it is older than {@code refreshAfter}, the next lookup still gets it
+ * while a single background load replaces it, so the lookups of a hot user never wait on
+ * an expiry. A refresh unpins the users that cooled down, and the pinned ones nobody asks
+ * for expire after {@code ttl}.
+ * <p>
+ * Writes through this instance unpin the user right away. Writes through other instances
+ * are seen at the next refresh, so {@code refreshAfter} bounds the extra staleness of a
+ * hot user. As in the near cache, a load only pins if no write touched the id's stripe
+ * while it was in flight, and users are copied on the way in and out.
+ */
+@Slf4j
+public class HotKeyUserPersistenceAdapter implements UserPersistencePort {
+
+    private static final int STRIPES = 1024;
+
+    private final UserPersistencePort delegate;
+    private final SlidingWindowSketch lookups;
+    private final Cache<String, Pinned> pinned;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<String, Mono<User>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STRIPES);
+
+    private final Counter collapsed;
+    private final Counter pinnedHits;
+    private final Counter refreshes;
+
+    /**
+     * Settings of the hot key detection.
+     *
+     * @param threshold the number of lookups in the window from which an id is hot
+     * @param refreshAfter the age from which a pinned user is reloaded in the background
+     * @param ttl the age from which a pinned user that was not reloaded is dropped
+     * @param maxPinned the maximum number of pinned users
+     */
+    public record Settings(long threshold, Duration refreshAfter, Duration ttl, long maxPinned) {
+    }
+
+    private record Pinned(User user, long loadedAt, AtomicBoolean refreshing) {
+    }
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the decorated port
+     * @param lookups the sketch counting the lookups of the window
+     * @param settings the settings
+     * @param nanoClock the clock, in nanoseconds
+     * @param meterRegistry the registry of the hot key meters
+     */
+    public HotKeyUserPersistenceAdapter(UserPersistencePort delegate, SlidingWindowSketch lookups, Settings settings,
+            LongSupplier nanoClock, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.lookups = lookups;
+        this.pinned = Caffeine.newBuilder()
+                .maximumSize(settings.maxPinned())
+                .expireAfterWrite(settings.ttl())
+                .ticker(nanoClock::getAsLong)
+                .build();
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.collapsed = Counter.builder("user.hot_keys.collapsed")
+                .description("Lookups that joined the in-flight lookup of the same id")
+                .register(meterRegistry);
+        this.pinnedHits = Counter.builder("user.hot_keys.pinned_hits")
+                .description("Lookups answered by a pinned hot user")
+                .register(meterRegistry);
+        this.refreshes = Counter.builder("user.hot_keys.refreshes")
+                .description("Background reloads of pinned hot users")
+                .register(meterRegistry);
+        Gauge.builder("user.hot_keys.pinned", pinned, Cache::estimatedSize)
+                .description("Hot users pinned in memory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<List<User>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    /**
+     * Finds a user by id, from memory if it is hot, otherwise through the single lookup
+     * of the id in flight.
+     *
+     * @param id the ID of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findById(String id) {
+        return Mono.deferContextual(context -> {
+            boolean hot = lookups.increment(id) >= settings.threshold();
+            Pinned pin = pinned.getIfPresent(id);
+            if (pin != null) {
+                pinnedHits.increment();
+                if (nanoClock.getAsLong() - pin.loadedAt() >= settings.refreshAfter().toNanos()
+                        && pin.refreshing().compareAndSet(false, true)) {
+                    refresh(id, pin, context);
+                }
+                return Mono.just(TieredCachingUserPersistenceAdapter.copyOf(pin.user()));
+            }
+            int stripe = stripe(id);
+            long stamp = writeStamps.get(stripe);
+            return collapsed(id)
+                    .doOnNext(user -> {
+                        if (hot && writeStamps.get(stripe) == stamp) {
+                            pin(id, user);
+                        }
+                    })
+                    .map(TieredCachingUserPersistenceAdapter::copyOf);
+        });
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return delegate.search(queryTokens, skip, limit);
+    }
+
+    /**
+     * Saves a user and unpins it.
+     *
+     * @param user the User domain object to save
+     * @return a Mono containing the saved User domain object.
+     */
+    @Override
+    public Mono<User> save(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.save(user).doOnNext(saved -> forget(saved.getId()));
+        });
+    }
+
+    /**
+     * Updates a user and unpins it.
+     *
+     * @param user the User domain object to update
+     * @return a Mono containing the updated User domain object.
+     */
+    @Override
+    public Mono<User> update(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.update(user).doOnNext(updated -> forget(updated.getId()));
+        });
+    }
+
+    /**
+     * Deletes a user and unpins it.
+     *
+     * @param id the ID of the user to delete
+     * @return a Mono that completes when the deletion is done.
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delegate.deleteById(id).doOnSuccess(done -> forget(id));
+    }
+
+    /**
+     * Expires moods and unpins the users whose mood expired.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a Mono containing the users whose mood expired, as they were before
+     */
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return delegate.expireMoods(ids, setBefore, limit)
+                .doOnNext(expired -> expired.forEach(user -> forget(user.getId())));
+    }
+
+    /**
+     * Returns the lookup of an id in flight, starting it if there is none. The lookup
+     * leaves the map when it terminates, so a later call starts a fresh one.
+     */
+    private Mono<User> collapsed(String id) {
+        Mono<User> existing = inFlight.get(id);
+        if (existing != null) {
+            collapsed.increment();
+            return existing;
+        }
+        AtomicReference<Mono<User>> self = new AtomicReference<>();
+        Mono<User> lookup = delegate.findById(id)
+                .doFinally(signal -> inFlight.remove(id, self.get()))
+                .cache();
+        self.set(lookup);
+        existing = inFlight.putIfAbsent(id, lookup);
+        if (existing != null) {
+            collapsed.increment();
+            return existing;
+        }
+        return lookup;
+    }
+
+    /**
+     * Reloads a pinned user in the background, in the context of the lookup that found it
+     * due. The user stays pinned only if it is still hot and no write raced with the reload.
+     */
+    private void refresh(String id, Pinned pin, ContextView context) {
+        refreshes.increment();
+        int stripe = stripe(id);
+        long stamp = writeStamps.get(stripe);
+        collapsed(id)
+                .contextWrite(context)
+                .subscribe(user -> {
+                    if (writeStamps.get(stripe) == stamp && lookups.estimate(id) >= settings.threshold()) {
+                        pin(id, user);
+                    } else {
+                        pinned.asMap().remove(id, pin);
+                    }
+                }, error -> {
+                    pin.refreshing().set(false);
+                    log.debug("Refresh of hot user {} failed: {}", id, error.getMessage());
+                }, () -> pinned.asMap().remove(id, pin));
+    }
+
+    private void pin(String id, User user) {
+        pinned.put(id, new Pinned(TieredCachingUserPersistenceAdapter.copyOf(user), nanoClock.getAsLong(),
+                new AtomicBoolean()));
+    }
+
+    private void forget(String id) {
+        if (id != null) {
+            writeStamps.incrementAndGet(stripe(id));
+            pinned.invalidate(id);
+            inFlight.remove(id);
+        }
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & 0x7fffffff) % STRIPES;
+    }
+}
@@ -0,0 +1,53 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared cache kept in the memory of the instance. It stands in for the remote
+ * cache in tests and single instance deployments.
+ */
+public class InMemorySharedUserCache implements SharedUserCache {
+
+    private final Cache<String, User> users;
+    private final String keyPrefix;
+
+    public InMemorySharedUserCache(long maxSize, Duration ttl) {
+        this(Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(), "");
+    }
+
+    private InMemorySharedUserCache(Cache<String, User> users, String keyPrefix) {
+        this.users = users;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Mono<User> get(String id) {
+        return Mono.fromSupplier(() -> users.getIfPresent(keyPrefix + id))
+                .map(TieredCachingUserPersistenceAdapter::copyOf);
+    }
+
+    @Override
+    public Mono<Void> put(User user) {
+        return Mono.fromRunnable(
+                () -> users.put(keyPrefix + user.getId(), TieredCachingUserPersistenceAdapter.copyOf(user)));
+    }
+
+    @Override
+    public Mono<Void> evict(String id) {
+        return Mono.fromRunnable(() -> users.invalidate(keyPrefix + id));
+    }
+
+    @Override
+    public SharedUserCache namespaced(String namespace) {
+        return new InMemorySharedUserCache(users, keyPrefix + namespace + ":");
+    }
+}
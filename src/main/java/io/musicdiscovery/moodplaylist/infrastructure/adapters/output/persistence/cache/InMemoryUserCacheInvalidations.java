@@ -0,0 +1,28 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Invalidation channel local to the instance, used when there is no shared cache
+ * and in tests. Other instances only see their near cache entries expire.
+ */
+public class InMemoryUserCacheInvalidations implements UserCacheInvalidations {
+
+    private static final Sinks.EmitFailureHandler RETRY_CONCURRENT_EMITS = Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(10));
+
+    private final Sinks.Many<String> messages = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Mono<Void> publish(String id) {
+        return Mono.fromRunnable(() -> messages.emitNext(id, RETRY_CONCURRENT_EMITS));
+    }
+
+    @Override
+    public Flux<String> invalidations() {
+        return messages.asFlux();
+    }
+}
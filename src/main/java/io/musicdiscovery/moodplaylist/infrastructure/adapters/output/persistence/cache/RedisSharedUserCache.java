@@ -0,0 +1,65 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import java.time.Duration;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Shared cache of users stored in Redis as JSON strings under {@code user:<id>}, or
+ * {@code user:<namespace>:<id>} in a namespaced view.
+ */
+public class RedisSharedUserCache implements SharedUserCache {
+
+    private static final String KEY_PREFIX = "user:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final String keyPrefix;
+
+    public RedisSharedUserCache(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper, Duration ttl) {
+        this(redisTemplate, objectMapper, ttl, KEY_PREFIX);
+    }
+
+    private RedisSharedUserCache(ReactiveStringRedisTemplate redisTemplate, ObjectMapper objectMapper, Duration ttl,
+            String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Mono<User> get(String id) {
+        return redisTemplate.opsForValue().get(keyPrefix + id)
+                .handle((json, sink) -> {
+                    try {
+                        sink.next(objectMapper.readValue(json, User.class));
+                    } catch (Exception e) {
+                        sink.error(e);
+                    }
+                });
+    }
+
+    @Override
+    public Mono<Void> put(User user) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(user))
+                .flatMap(json -> redisTemplate.opsForValue().set(keyPrefix + user.getId(), json, ttl))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> evict(String id) {
+        return redisTemplate.delete(keyPrefix + id).then();
+    }
+
+    @Override
+    public SharedUserCache namespaced(String namespace) {
+        return new RedisSharedUserCache(redisTemplate, objectMapper, ttl, keyPrefix + namespace + ":");
+    }
+}
@@ -0,0 +1,36 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import org.springframework.data.redis.connection.ReactiveSubscription.Message;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Invalidation channel over Redis pub/sub. Messages published while an instance is
+ * disconnected are lost, which is why the near cache clears itself on reconnection.
+ */
+public class RedisUserCacheInvalidations implements UserCacheInvalidations {
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final String channel;
+
+    public RedisUserCacheInvalidations(ReactiveStringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    @Override
+    public Mono<Void> publish(String id) {
+        return redisTemplate.convertAndSend(channel, id).then();
+    }
+
+    @Override
+    public Flux<String> invalidations() {
+        // subscribing connects synchronously, keep it off the event loop and parallel threads
+        return Flux.defer(() -> redisTemplate.listenToChannel(channel))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(Message::getMessage);
+    }
+}
@@ -0,0 +1,45 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Second level cache of users, shared by all the instances of the service.
+ * Implementations expire the entries after their own TTL, and the callers treat
+ * any error as a miss, so the shared cache is never required to serve a request.
+ */
+public interface SharedUserCache {
+
+    /**
+     * Gets a cached user.
+     *
+     * @param id the ID of the user
+     * @return a Mono containing the cached user, or an empty Mono if not cached
+     */
+    Mono<User> get(String id);
+
+    /**
+     * Caches a user under its id.
+     *
+     * @param user the user to cache
+     * @return a Mono that completes when the user is cached
+     */
+    Mono<Void> put(User user);
+
+    /**
+     * Removes a cached user.
+     *
+     * @param id the ID of the user
+     * @return a Mono that completes when the entry is removed
+     */
+    Mono<Void> evict(String id);
+
+    /**
+     * Gets a view of this cache whose keys cannot collide with the keys of the other
+     * namespaces, so that tenants sharing the cache never read each other's users.
+     *
+     * @param namespace the namespace of the view
+     * @return the namespaced view of this cache
+     */
+    SharedUserCache namespaced(String namespace);
+}
@@ -0,0 +1,311 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Decorator of the persistence port that caches {@link #findById(String)} in two tiers:
+ * a bounded near cache in the memory of the instance, then a cache shared by all the
+ * instances. Only a miss in both tiers reaches Mongo.
+ * <p>
+ * Concurrent lookups of the same id on an instance share a single load, so a popular
+ * user expiring triggers one shared cache read and at most one Mongo read per instance.
+ * Writes invalidate rather than update the caches: the saved user is evicted from both
+ * tiers and announced on the invalidation channel so the other instances drop it from
+ * their near cache; the shared entry is evicted a second time after a short delay to
+ * catch a concurrent read that repopulated it with the previous version.
+ * As in the negative cache, a load only fills the caches if no write touched the id's
+ * stripe while it was in flight.
+ * <p>
+ * Cached users are copied on the way in and out because the services update them in place.
+ */
+@Slf4j
+public class TieredCachingUserPersistenceAdapter implements UserPersistencePort, AutoCloseable {
+
+    private static final int STRIPES = 1024;
+
+    private final UserPersistencePort delegate;
+    private final AsyncCache<String, User> nearCache;
+    private final SharedUserCache sharedCache;
+    private final UserCacheInvalidations invalidations;
+    private final Settings settings;
+    private final AtomicLongArray writeStamps = new AtomicLongArray(STRIPES);
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter sharedHits;
+    private final Counter sharedMisses;
+    private final Counter sharedErrors;
+    private final Counter remoteInvalidations;
+
+    private Disposable listening;
+
+    /**
+     * Settings of the tiered cache.
+     *
+     * @param sharedTimeout the time a shared cache operation may take before it is treated as a miss
+     * @param invalidationRedelay the delay of the second eviction of a written user from the shared cache
+     */
+    public record Settings(Duration sharedTimeout, Duration invalidationRedelay) {
+    }
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate the decorated port
+     * @param nearCache the near cache of the instance
+     * @param sharedCache the shared cache, or null to cache in the near tier only
+     * @param invalidations the channel announcing the changed users
+     * @param settings the settings
+     * @param meterRegistry the registry of the per tier request counters
+     */
+    public TieredCachingUserPersistenceAdapter(UserPersistencePort delegate, AsyncCache<String, User> nearCache,
+            SharedUserCache sharedCache, UserCacheInvalidations invalidations, Settings settings,
+            MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.nearCache = nearCache;
+        this.sharedCache = sharedCache;
+        this.invalidations = invalidations;
+        this.settings = settings;
+        this.nearHits = requests(meterRegistry, "near", "hit");
+        this.nearMisses = requests(meterRegistry, "near", "miss");
+        this.sharedHits = requests(meterRegistry, "shared", "hit");
+        this.sharedMisses = requests(meterRegistry, "shared", "miss");
+        this.sharedErrors = requests(meterRegistry, "shared", "error");
+        this.remoteInvalidations = meterRegistry.counter("user.cache.invalidations");
+    }
+
+    /**
+     * Starts listening to the invalidation channel. Every (re)subscription clears the
+     * near cache, since the messages sent while disconnected are lost.
+     */
+    public void start() {
+        listening = invalidations.invalidations()
+                .doOnSubscribe(subscription -> nearCache.synchronous().invalidateAll())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("User cache invalidations interrupted: {}",
+                                signal.failure().getMessage())))
+                .subscribe(id -> {
+                    remoteInvalidations.increment();
+                    forget(id);
+                });
+    }
+
+    @Override
+    public void close() {
+        if (listening != null) {
+            listening.dispose();
+        }
+    }
+
+    @Override
+    public Mono<List<User>> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<User> streamAll() {
+        return delegate.streamAll();
+    }
+
+    /**
+     * Finds a user by id through the near cache, then the shared cache, then the delegate.
+     *
+     * @param id the ID of the user to find
+     * @return a Mono containing the User domain object if found, or an empty Mono if not found.
+     */
+    @Override
+    public Mono<User> findById(String id) {
+        return Mono.deferContextual(context -> {
+            int stripe = stripe(id);
+            long stamp = writeStamps.get(stripe);
+            AtomicBoolean loading = new AtomicBoolean();
+            CompletableFuture<User> user = nearCache.get(id, (key, executor) -> {
+                loading.set(true);
+                // The load outlives this subscription, but still reads the tenant of the request
+                return load(key, stamp).contextWrite(context).toFuture();
+            });
+            (loading.get() ? nearMisses : nearHits).increment();
+            return Mono.fromFuture(user, true)
+                    .doOnNext(found -> {
+                        if (loading.get() && writeStamps.get(stripe) != stamp) {
+                            nearCache.synchronous().invalidate(id);
+                        }
+                    })
+                    .map(TieredCachingUserPersistenceAdapter::copyOf);
+        });
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public Mono<Boolean> existsByEmail(String email) {
+        return delegate.existsByEmail(email);
+    }
+
+    @Override
+    public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+        return delegate.search(queryTokens, skip, limit);
+    }
+
+    /**
+     * Saves a user and invalidates it in every tier and instance.
+     *
+     * @param user the User domain object to save
+     * @return a Mono containing the saved User domain object.
+     */
+    @Override
+    public Mono<User> save(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.save(user).flatMap(saved -> invalidate(saved.getId()).thenReturn(saved));
+        });
+    }
+
+    /**
+     * Updates a user and invalidates it in every tier and instance.
+     *
+     * @param user the User domain object to update
+     * @return a Mono containing the updated User domain object.
+     */
+    @Override
+    public Mono<User> update(User user) {
+        return Mono.defer(() -> {
+            forget(user.getId());
+            return delegate.update(user).flatMap(updated -> invalidate(updated.getId()).thenReturn(updated));
+        });
+    }
+
+    /**
+     * Deletes a user and invalidates it in every tier and instance.
+     *
+     * @param id the ID of the user to delete
+     * @return a Mono that completes when the deletion is done.
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delegate.deleteById(id).then(Mono.defer(() -> invalidate(id)));
+    }
+
+    /**
+     * Expires moods and invalidates the users whose mood expired in every tier and instance.
+     *
+     * @param ids the IDs of the users to look at, or null to look at any user
+     * @param setBefore the latest time a mood to expire was set at
+     * @param limit the maximum number of moods to expire
+     * @return a Mono containing the users whose mood expired, as they were before
+     */
+    @Override
+    public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+        return delegate.expireMoods(ids, setBefore, limit)
+                .flatMap(expired -> Flux.fromIterable(expired)
+                        .concatMap(user -> invalidate(user.getId()))
+                        .then(Mono.just(expired)));
+    }
+
+    /**
+     * Loads a user missing from the near cache from the shared cache or the delegate,
+     * filling the shared cache when the user comes from the delegate.
+     */
+    private Mono<User> load(String id, long stamp) {
+        if (sharedCache == null) {
+            return delegate.findById(id);
+        }
+        return sharedCache.get(id)
+                .timeout(settings.sharedTimeout())
+                .doOnSuccess(user -> (user != null ? sharedHits : sharedMisses).increment())
+                .onErrorResume(error -> {
+                    sharedErrors.increment();
+                    log.debug("Shared user cache read failed: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> delegate.findById(id)
+                        .flatMap(user -> writeStamps.get(stripe(id)) != stamp ? Mono.just(user)
+                                : sharedCache.put(copyOf(user))
+                                        .timeout(settings.sharedTimeout())
+                                        .onErrorResume(error -> {
+                                            sharedErrors.increment();
+                                            return Mono.empty();
+                                        })
+                                        .thenReturn(user))));
+    }
+
+    /**
+     * Evicts a written user from the near cache, the shared cache, and the near caches of
+     * the other instances. Failures are logged, the TTLs bound the staleness they cause.
+     */
+    private Mono<Void> invalidate(String id) {
+        forget(id);
+        Mono<Void> shared = Mono.empty();
+        if (sharedCache != null) {
+            shared = evictShared(id);
+            evictShared(id).delaySubscription(settings.invalidationRedelay()).subscribe();
+        }
+        return shared.then(invalidations.publish(id)
+                .onErrorResume(error -> {
+                    log.warn("User cache invalidation of {} not published: {}", id, error.getMessage());
+                    return Mono.empty();
+                }));
+    }
+
+    private Mono<Void> evictShared(String id) {
+        return sharedCache.evict(id)
+                .timeout(settings.sharedTimeout())
+                .onErrorResume(error -> {
+                    sharedErrors.increment();
+                    log.warn("Shared user cache eviction of {} failed: {}", id, error.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private void forget(String id) {
+        if (id != null) {
+            writeStamps.incrementAndGet(stripe(id));
+            nearCache.synchronous().invalidate(id);
+        }
+    }
+
+    private static int stripe(String id) {
+        return (id.hashCode() & 0x7fffffff) % STRIPES;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("user.cache.requests")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copies a user, lists included, so a cached value is never shared with a caller that
+     * updates it in place.
+     *
+     * @param user the user
+     * @return a copy of the user
+     */
+    public static User copyOf(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getMood(), user.getMoodSetAt(),
+                user.getPreferredGenre() == null ? null : new ArrayList<>(user.getPreferredGenre()),
+                user.getFavoriteArtist() == null ? null : new ArrayList<>(user.getFavoriteArtist()));
+    }
+}
@@ -0,0 +1,27 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Channel the instances use to tell each other which users changed, so their near
+ * caches drop them. Delivery is best effort: a lost message leaves an entry stale
+ * until the near cache TTL expires it.
+ */
+public interface UserCacheInvalidations {
+
+    /**
+     * Announces that a user changed.
+     *
+     * @param id the ID of the changed user
+     * @return a Mono that completes when the message is sent
+     */
+    Mono<Void> publish(String id);
+
+    /**
+     * Streams the ids of the users announced as changed by any instance, this one included.
+     *
+     * @return a Flux of user ids
+     */
+    Flux<String> invalidations();
+}
@@ -1,8 +1,11 @@
 package io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Sharded;
 
 import io.musicdiscovery.user.domain.model.enums.Genre;
 import io.musicdiscovery.user.domain.model.enums.Mood;
@@ -10,22 +13,32 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import nonapi.io.github.classgraph.json.Id;
 
 /**
  * User entity representing a user in the system.
+ * The collection is sharded on _id so every single-user operation is routed to one shard.
+ * A deleted user is kept as a tombstone, flagged {@code deleted} and stripped of its email
+ * and search tokens, until the purger removes it; live users do not store the flag.
+ * Users with a mood store when it was set, indexed for its expiry; the field is removed
+ * with the mood when it expires.
  */
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "users")
+@Sharded(shardKey = "id")
 public class UserEntity {
 	@Id
 	private String id;
 	private String name;
 	private String email;
 	private Mood mood;
+	private Instant moodSetAt;
 	private List<Genre> preferredGenre;
     private List<String> favoriteArtist;
+    private List<String> nameTokens;
+    private List<String> artistTokens;
+    private Boolean deleted;
+    private Instant deletedAt;
 }
@@ -0,0 +1,55 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency;
+
+import java.time.Instant;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+
+/**
+ * Decorator of the idempotency key store that keeps the completed keys of the instance
+ * in memory, so a client retrying against the same instance is answered without a
+ * round trip to Mongo. Only completed records are cached: they never change, whereas a
+ * key in progress may still be completed or released by another instance.
+ */
+public class CachingIdempotencyAdapter implements IdempotencyPort {
+
+    private final IdempotencyPort delegate;
+    private final Cache<String, IdempotencyRecord> completed;
+
+    public CachingIdempotencyAdapter(IdempotencyPort delegate, Cache<String, IdempotencyRecord> completed) {
+        this.delegate = delegate;
+        this.completed = completed;
+    }
+
+    @Override
+    public Mono<IdempotencyRecord> reserve(String key, String fingerprint) {
+        return Mono.defer(() -> {
+            IdempotencyRecord cached = completed.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return delegate.reserve(key, fingerprint)
+                    .doOnNext(record -> {
+                        if (record.isCompleted()) {
+                            completed.put(key, record);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public Mono<Void> complete(String key, String fingerprint, User result) {
+        return delegate.complete(key, fingerprint, result)
+                .then(Mono.fromRunnable(() -> completed.put(key,
+                        new IdempotencyRecord(key, fingerprint, result, Instant.now()))));
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return delegate.release(key);
+    }
+}
@@ -0,0 +1,29 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import io.musicdiscovery.user.domain.model.User;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Idempotency key of a create request, kept in the {@code idempotency_keys} collection
+ * until its TTL index expires it. The created user is stored as returned to the client
+ * and is absent while the request is in progress.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Document(collection = "idempotency_keys")
+public class IdempotencyKeyEntity {
+
+    @Id
+    private String key;
+    private String fingerprint;
+    private User result;
+    private Instant createdAt;
+}
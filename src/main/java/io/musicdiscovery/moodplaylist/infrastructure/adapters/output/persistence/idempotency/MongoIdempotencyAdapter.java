@@ -0,0 +1,107 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyInUseException;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.domain.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mongo implementation of the idempotency key store. A key is reserved by inserting it,
+ * so the unique {@code _id} decides between concurrent requests of different instances.
+ * A key left in progress for longer than {@code idempotency.pending-timeout}, by an
+ * instance that stopped before completing or releasing it, can be reserved again.
+ * The keys expire {@code idempotency.ttl} after they were reserved.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoIdempotencyAdapter implements IdempotencyPort {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${idempotency.ttl}")
+    private Duration ttl;
+
+    @Value("${idempotency.pending-timeout}")
+    private Duration pendingTimeout;
+
+    @Value("${persistence.timeouts.save}")
+    private Duration timeout;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        Index expiry = new Index().on("createdAt", Sort.Direction.ASC).named("expiry").expire(ttl);
+        mongoTemplate.indexOps(IdempotencyKeyEntity.class).ensureIndex(expiry)
+                .doOnNext(name -> log.info("Index {} ensured on idempotency_keys", name))
+                .subscribe(null, error -> log.warn("Could not create idempotency_keys indexes: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<IdempotencyRecord> reserve(String key, String fingerprint) {
+        return Mono.defer(() -> {
+            IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+            entity.setKey(key);
+            entity.setFingerprint(fingerprint);
+            entity.setCreatedAt(Instant.now());
+            return mongoTemplate.insert(entity).then(Mono.<IdempotencyRecord>empty());
+        })
+                .onErrorResume(DuplicateKeyException.class, duplicate -> existing(key, fingerprint))
+                .timeout(timeout);
+    }
+
+    /**
+     * Takes over a key abandoned in progress, or returns the record holding it.
+     */
+    private Mono<IdempotencyRecord> existing(String key, String fingerprint) {
+        Instant now = Instant.now();
+        return mongoTemplate.findAndModify(
+                query(where("key").is(key).and("result").exists(false).and("createdAt").lt(now.minus(pendingTimeout))),
+                new Update().set("fingerprint", fingerprint).set("createdAt", now),
+                IdempotencyKeyEntity.class)
+                .hasElement()
+                .flatMap(takenOver -> takenOver ? Mono.empty()
+                        : mongoTemplate.findById(key, IdempotencyKeyEntity.class)
+                                .map(MongoIdempotencyAdapter::toRecord)
+                                .switchIfEmpty(Mono.error(() -> new IdempotencyKeyInUseException(
+                                        "Idempotency key " + key + " expired while it was reserved"))));
+    }
+
+    @Override
+    public Mono<Void> complete(String key, String fingerprint, User result) {
+        return mongoTemplate.updateFirst(query(where("key").is(key)), new Update().set("result", result),
+                IdempotencyKeyEntity.class)
+                .timeout(timeout)
+                .then();
+    }
+
+    @Override
+    public Mono<Void> release(String key) {
+        return mongoTemplate.remove(query(where("key").is(key).and("result").exists(false)), IdempotencyKeyEntity.class)
+                .timeout(timeout)
+                .then();
+    }
+
+    private static IdempotencyRecord toRecord(IdempotencyKeyEntity entity) {
+        return new IdempotencyRecord(entity.getKey(), entity.getFingerprint(), entity.getResult(),
+                entity.getCreatedAt());
+    }
+}
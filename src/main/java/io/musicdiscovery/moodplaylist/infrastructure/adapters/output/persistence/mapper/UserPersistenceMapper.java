@@ -2,10 +2,15 @@ package io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper
 
 import java.util.List;
 
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.mapper.HandOverMapperConfig;
 import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.utils.SearchTokenizer;
 
 
 
@@ -13,8 +18,11 @@ import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.
  * Mapper interface for converting between User domain objects and UserEntity objects.
  * This interface is implemented by MapStruct at compile time to provide the necessary 
  * mappings between the two types.
+ * The genre and artist lists are handed over rather than copied: an entity only lives
+ * for the duration of one read or write, and the persistence adapter returns it to
+ * nobody else.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", config = HandOverMapperConfig.class)
 public interface UserPersistenceMapper {
 
     /**
@@ -23,8 +31,24 @@ public interface UserPersistenceMapper {
      * @param user the User domain object to convert
      * @return the corresponding UserEntity object
      */
+    @Mapping(target = "nameTokens", ignore = true)
+    @Mapping(target = "artistTokens", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
     UserEntity toUserEntity(User user);
 
+    /**
+     * Fills the search tokens of the entity so the search indexes stay in sync on every write.
+     *
+     * @param user the User domain object being converted
+     * @param entity the resulting UserEntity object
+     */
+    @AfterMapping
+    default void indexSearchTokens(User user, @MappingTarget UserEntity entity) {
+        entity.setNameTokens(SearchTokenizer.tokenize(user.getName()));
+        entity.setArtistTokens(SearchTokenizer.tokenize(user.getFavoriteArtist()));
+    }
+
     /**
      * Converts a UserEntity object to a User domain object.
      *
@@ -40,4 +64,4 @@ public interface UserPersistenceMapper {
      * @return the list of corresponding User domain objects
      */
     List<User> toUserList(List<UserEntity> entityList);
-}
\ No newline at end of file
+}
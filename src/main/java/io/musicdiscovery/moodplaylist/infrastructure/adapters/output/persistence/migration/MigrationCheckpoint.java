@@ -0,0 +1,40 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a migration, kept in the {@code user_migrations} control collection.
+ * Each migration has a plan document (partition -1) holding the {@code _id}
+ * boundaries it was split on, and one document per partition with the last id
+ * processed and the lease of the instance working on it.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Document(collection = "user_migrations")
+public class MigrationCheckpoint {
+
+    public static final int PLAN = -1;
+
+    @Id
+    private String id;
+    private String migration;
+    private int partition;
+    private List<String> boundaries;
+    private String lower;
+    private String upper;
+    private String lastId;
+    private long processed;
+    private boolean done;
+    private String owner;
+    private Instant leaseUntil;
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import java.time.Duration;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Rate limiter shared by all the partitions of a migration. Each batch reserves
+ * as many slots as documents it writes and waits until its slot comes, so the
+ * write rate never exceeds the configured operations per second no matter how
+ * many partitions run concurrently.
+ */
+public class MigrationThrottle {
+
+    private final long nanosPerOperation;
+    private long nextFreeNanos;
+
+    public MigrationThrottle(int operationsPerSecond) {
+        this.nanosPerOperation = Duration.ofSeconds(1).toNanos() / operationsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits for the slots of a batch.
+     *
+     * @param operations the number of operations of the batch
+     * @return a Mono completing when the batch may run
+     */
+    public Mono<Void> acquire(int operations) {
+        return Mono.defer(() -> {
+            long wait = reserve(operations, System.nanoTime());
+            return wait > 0 ? Mono.delay(Duration.ofNanos(wait)).then() : Mono.empty();
+        });
+    }
+
+    /**
+     * Reserves the slots of a batch.
+     *
+     * @param operations the number of operations of the batch
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return how long the batch has to wait, in nanoseconds
+     */
+    synchronized long reserve(int operations, long nowNanos) {
+        long start = Math.max(nextFreeNanos, nowNanos);
+        nextFreeNanos = start + operations * nanosPerOperation;
+        return start - nowNanos;
+    }
+}
@@ -0,0 +1,33 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.utils.SearchTokenizer;
+
+/**
+ * Fills the search tokens of the users written before the search fields existed.
+ */
+@Component
+public class SearchTokensBackfillMigration implements UserMigration {
+
+    @Override
+    public String id() {
+        return "0001-search-tokens";
+    }
+
+    @Override
+    public Criteria pending() {
+        return new Criteria().orOperator(Criteria.where("nameTokens").exists(false),
+                Criteria.where("artistTokens").exists(false));
+    }
+
+    @Override
+    public Update update(UserEntity user) {
+        return new Update()
+                .set("nameTokens", SearchTokenizer.tokenize(user.getName()))
+                .set("artistTokens", SearchTokenizer.tokenize(user.getFavoriteArtist()));
+    }
+}
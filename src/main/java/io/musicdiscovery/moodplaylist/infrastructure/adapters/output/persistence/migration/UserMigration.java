@@ -0,0 +1,37 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+
+/**
+ * A backfill over the users collection run by the {@link UserMigrationExecutor}.
+ * Migrations must be idempotent: {@link #pending()} selects the documents that
+ * still need the change and is also used as the guard of every update, so a
+ * document rewritten by live traffic in the meantime is left untouched.
+ */
+public interface UserMigration {
+
+    /**
+     * Unique, stable identifier of the migration. Migrations run in id order.
+     *
+     * @return the migration id
+     */
+    String id();
+
+    /**
+     * Selects the documents that still need this migration.
+     *
+     * @return the pending documents criteria
+     */
+    Criteria pending();
+
+    /**
+     * Builds the update migrating one document.
+     *
+     * @param user the document as read
+     * @return the update to apply to it
+     */
+    Update update(UserEntity user);
+}
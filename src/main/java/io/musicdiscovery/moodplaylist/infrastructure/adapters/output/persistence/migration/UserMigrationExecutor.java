@@ -0,0 +1,262 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sample;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs {@link UserMigration}s online, next to the live traffic.
+ * <p>
+ * The collection is split into {@code _id} ranges from a random sample of ids
+ * and the split is stored once in the {@code user_migrations} control
+ * collection. Partitions are leased to workers, of this or any other instance,
+ * and processed in {@code _id} order in small batches. Every batch waits for
+ * its slots in the shared {@link MigrationThrottle} and commits its last id to
+ * the partition checkpoint, renewing the lease; a partition whose lease expires
+ * is picked up again from its checkpoint. While the persistence circuit breaker
+ * is not closed the migration pauses instead of adding load to a degraded Mongo.
+ * Tombstones are left alone, the purger removes them.
+ */
+@Slf4j
+public class UserMigrationExecutor {
+
+    private static final int SAMPLES_PER_PARTITION = 32;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final MigrationThrottle throttle;
+    private final Settings settings;
+    private final MeterRegistry meterRegistry;
+    private final String owner = UUID.randomUUID().toString();
+
+    public UserMigrationExecutor(ReactiveMongoTemplate mongoTemplate, CircuitBreaker circuitBreaker,
+            MigrationThrottle throttle, Settings settings, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.throttle = throttle;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs a migration until all its partitions are done. Completes immediately
+     * for a migration that already finished.
+     *
+     * @param migration the migration to run
+     * @return a Mono completing when the migration is done
+     */
+    public Mono<Void> run(UserMigration migration) {
+        return plan(migration).flatMap(plan -> plan.isDone()
+                ? Mono.<Void>empty()
+                : createPartitions(migration, plan.getBoundaries()).then(runUntilComplete(migration)));
+    }
+
+    private Mono<MigrationCheckpoint> plan(UserMigration migration) {
+        return mongoTemplate.findById(migration.id(), MigrationCheckpoint.class)
+                .switchIfEmpty(Mono.defer(() -> split().flatMap(boundaries -> {
+                    MigrationCheckpoint plan = new MigrationCheckpoint();
+                    plan.setId(migration.id());
+                    plan.setMigration(migration.id());
+                    plan.setPartition(MigrationCheckpoint.PLAN);
+                    plan.setBoundaries(boundaries);
+                    plan.setUpdatedAt(Instant.now());
+                    return mongoTemplate.insert(plan)
+                            .onErrorResume(DuplicateKeyException.class,
+                                    ex -> mongoTemplate.findById(migration.id(), MigrationCheckpoint.class));
+                })));
+    }
+
+    private Mono<List<String>> split() {
+        int partitions = settings.partitions();
+        return mongoTemplate.aggregate(newAggregation(UserEntity.class,
+                        sample(partitions * SAMPLES_PER_PARTITION),
+                        project("id"),
+                        sort(Sort.Direction.ASC, "id")), UserEntity.class)
+                .map(UserEntity::getId)
+                .collectList()
+                .map(ids -> {
+                    List<String> boundaries = new ArrayList<>();
+                    for (int i = 1; i < partitions && !ids.isEmpty(); i++) {
+                        String boundary = ids.get(i * ids.size() / partitions);
+                        if (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary)) {
+                            boundaries.add(boundary);
+                        }
+                    }
+                    return boundaries;
+                });
+    }
+
+    private Mono<Void> createPartitions(UserMigration migration, List<String> boundaries) {
+        return Flux.range(0, boundaries.size() + 1)
+                .flatMap(partition -> mongoTemplate.upsert(
+                        query(where("id").is(migration.id() + ":" + partition)),
+                        new Update()
+                                .setOnInsert("migration", migration.id())
+                                .setOnInsert("partition", partition)
+                                .setOnInsert("lower", partition == 0 ? null : boundaries.get(partition - 1))
+                                .setOnInsert("upper", partition == boundaries.size() ? null : boundaries.get(partition))
+                                .setOnInsert("processed", 0L)
+                                .setOnInsert("done", false),
+                        MigrationCheckpoint.class))
+                .then();
+    }
+
+    private Mono<Void> runUntilComplete(UserMigration migration) {
+        Mono<Boolean> claimAndRun = claim(migration)
+                .flatMap(partition -> runPartition(migration, partition).thenReturn(true))
+                .defaultIfEmpty(false);
+        return Flux.range(0, settings.parallelism())
+                .flatMap(worker -> claimAndRun.repeat().takeWhile(Boolean::booleanValue).then())
+                .then(mongoTemplate.count(partitions(migration).addCriteria(where("done").is(false)), MigrationCheckpoint.class))
+                .flatMap(remaining -> {
+                    if (remaining == 0) {
+                        log.info("Migration {} complete", migration.id());
+                        return mongoTemplate.updateFirst(query(where("id").is(migration.id())),
+                                new Update().set("done", true).set("updatedAt", Instant.now()), MigrationCheckpoint.class)
+                                .then();
+                    }
+                    log.info("{} partitions of migration {} are leased by other instances, checking again in {}",
+                            remaining, migration.id(), settings.lease());
+                    return Mono.delay(settings.lease()).then(Mono.defer(() -> runUntilComplete(migration)));
+                });
+    }
+
+    private Mono<MigrationCheckpoint> claim(UserMigration migration) {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Query claimable = partitions(migration).addCriteria(where("done").is(false)
+                    .orOperator(where("leaseUntil").is(null), where("leaseUntil").lt(now)));
+            return mongoTemplate.findAndModify(claimable,
+                    new Update().set("owner", owner).set("leaseUntil", now.plus(settings.lease())),
+                    FindAndModifyOptions.options().returnNew(true), MigrationCheckpoint.class);
+        });
+    }
+
+    private Mono<Void> runPartition(UserMigration migration, MigrationCheckpoint partition) {
+        log.info("Migrating partition {} from {}", partition.getId(), partition.getLastId());
+        return Mono.defer(() -> processBatch(migration, partition))
+                .repeat()
+                .takeUntil(more -> !more)
+                .then(Mono.defer(() -> mongoTemplate.updateFirst(
+                        query(where("id").is(partition.getId()).and("owner").is(owner)),
+                        new Update().set("done", true).set("leaseUntil", null).set("updatedAt", Instant.now()),
+                        MigrationCheckpoint.class)))
+                .then();
+    }
+
+    /**
+     * Migrates the next batch of a partition.
+     *
+     * @return a Mono with true while the partition may have more pending documents
+     */
+    private Mono<Boolean> processBatch(UserMigration migration, MigrationCheckpoint partition) {
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            return commit(partition, partition.getLastId(), 0)
+                    .flatMap(leased -> Mono.delay(settings.degradedPause()).thenReturn(leased));
+        }
+        List<Criteria> criteria = new ArrayList<>();
+        if (partition.getLastId() != null) {
+            criteria.add(where("id").gt(partition.getLastId()));
+        } else if (partition.getLower() != null) {
+            criteria.add(where("id").gte(partition.getLower()));
+        }
+        if (partition.getUpper() != null) {
+            criteria.add(where("id").lt(partition.getUpper()));
+        }
+        criteria.add(where("deleted").ne(true));
+        criteria.add(migration.pending());
+        Query batchQuery = new Query(new Criteria().andOperator(criteria))
+                .with(Sort.by("id"))
+                .limit(settings.batchSize());
+
+        return mongoTemplate.find(batchQuery, UserEntity.class).collectList().flatMap(batch -> {
+            if (batch.isEmpty()) {
+                return Mono.just(false);
+            }
+            String lastId = batch.get(batch.size() - 1).getId();
+            return throttle.acquire(batch.size())
+                    .then(write(migration, batch))
+                    .then(commit(partition, lastId, batch.size()))
+                    .map(leased -> leased && batch.size() == settings.batchSize());
+        });
+    }
+
+    private Mono<Void> write(UserMigration migration, List<UserEntity> batch) {
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, UserEntity.class);
+        for (UserEntity user : batch) {
+            bulk.updateOne(new Query(where("id").is(user.getId()).andOperator(migration.pending())), migration.update(user));
+        }
+        Counter migrated = Counter.builder("user.migration.documents")
+                .description("Documents updated by background migrations")
+                .tag("migration", migration.id())
+                .register(meterRegistry);
+        return bulk.execute()
+                .doOnNext(result -> migrated.increment(result.getModifiedCount()))
+                .then();
+    }
+
+    /**
+     * Commits the progress of a partition and renews its lease.
+     *
+     * @return a Mono with false when the partition was taken over by another worker
+     */
+    private Mono<Boolean> commit(MigrationCheckpoint partition, String lastId, int processed) {
+        Instant now = Instant.now();
+        return mongoTemplate.updateFirst(
+                        query(where("id").is(partition.getId()).and("owner").is(owner)),
+                        new Update().set("lastId", lastId).inc("processed", processed)
+                                .set("leaseUntil", now.plus(settings.lease())).set("updatedAt", now),
+                        MigrationCheckpoint.class)
+                .map(result -> {
+                    if (result.getMatchedCount() == 0) {
+                        log.warn("Partition {} was taken over by another instance", partition.getId());
+                        return false;
+                    }
+                    partition.setLastId(lastId);
+                    return true;
+                });
+    }
+
+    private static Query partitions(UserMigration migration) {
+        return query(where("migration").is(migration.id()).and("partition").gte(0));
+    }
+
+    /**
+     * Tuning of the migrations.
+     *
+     * @param partitions the number of {@code _id} ranges a collection is split into
+     * @param parallelism the partitions processed concurrently by this instance
+     * @param batchSize the documents read and updated per batch
+     * @param lease how long a partition stays assigned to a worker without progress
+     * @param degradedPause how long to pause while the persistence circuit breaker is not closed
+     */
+    public record Settings(int partitions, int parallelism, int batchSize, Duration lease, Duration degradedPause) {
+    }
+}
@@ -0,0 +1,48 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Starts the pending migrations in the background once the service is ready,
+ * one migration at a time in id order. Stopping the service interrupts them;
+ * they resume from their checkpoints on the next start.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "persistence.migrations.enabled", havingValue = "true")
+public class UserMigrationRunner {
+
+    private final UserMigrationExecutor executor;
+    private final List<UserMigration> migrations;
+
+    private Disposable running;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void runMigrations() {
+        running = Flux.fromIterable(migrations)
+                .sort(Comparator.comparing(UserMigration::id))
+                .concatMap(migration -> executor.run(migration)
+                        .doOnSubscribe(subscription -> log.info("Running migration {}", migration.id())))
+                .subscribe(null, error -> log.warn("Migrations stopped: {}", error.getMessage()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (running != null) {
+            running.dispose();
+        }
+    }
+}
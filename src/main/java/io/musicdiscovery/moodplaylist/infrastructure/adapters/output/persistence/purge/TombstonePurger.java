@@ -0,0 +1,134 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.purge;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Physically removes the tombstones left by the soft deletes once their retention
+ * period is over.
+ * <p>
+ * Every interval the purger reads the oldest due tombstones through the partial
+ * {@code tombstones} index, a batch at a time, and removes them by id. Each batch
+ * waits for its slots in a {@link MigrationThrottle}, so a wave of deletions is
+ * drained at a steady rate instead of competing with the live reads, and the purge
+ * is skipped while the persistence circuit breaker is not closed. The users
+ * collections of the tenants are purged one after the other. Purgers of several
+ * instances may pick the same batch; removing a document twice is harmless.
+ */
+@Slf4j
+public class TombstonePurger {
+
+    private final UserCollectionRouter collections;
+    private final CircuitBreaker circuitBreaker;
+    private final MigrationThrottle throttle;
+    private final Settings settings;
+    private final Counter purged;
+
+    private Disposable running;
+
+    /**
+     * Settings of the purger.
+     *
+     * @param retention the time a tombstone is kept before it is purged
+     * @param batchSize the number of tombstones removed per batch
+     * @param interval the time between two purges
+     */
+    public record Settings(Duration retention, int batchSize, Duration interval) {
+    }
+
+    public TombstonePurger(UserCollectionRouter collections, CircuitBreaker circuitBreaker,
+            MigrationThrottle throttle, Settings settings, MeterRegistry meterRegistry) {
+        this.collections = collections;
+        this.circuitBreaker = circuitBreaker;
+        this.throttle = throttle;
+        this.settings = settings;
+        this.purged = Counter.builder("user.purge.documents")
+                .description("Tombstones physically removed from the users collection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the purges. A purge still running when the next one is due delays it.
+     */
+    public void start() {
+        running = Flux.interval(settings.interval())
+                .onBackpressureDrop()
+                .concatMap(tick -> purge()
+                        .onErrorResume(error -> {
+                            log.warn("Tombstone purge interrupted: {}", error.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe(count -> {
+                    if (count > 0) {
+                        log.info("Purged {} tombstones", count);
+                    }
+                });
+    }
+
+    public void stop() {
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    /**
+     * Removes the due tombstones, batch after batch, until a batch comes back short
+     * or the circuit breaker leaves the closed state.
+     *
+     * @return a Mono with the number of tombstones removed
+     */
+    public Mono<Long> purge() {
+        return Mono.defer(() -> {
+            Instant cutoff = Instant.now().minus(settings.retention());
+            return Flux.fromIterable(collections.all())
+                    .concatMap(users -> purgeBatch(users, cutoff)
+                            .expand(removed -> removed == settings.batchSize() ? purgeBatch(users, cutoff)
+                                    : Mono.empty()))
+                    .reduce(0L, Long::sum);
+        });
+    }
+
+    private Mono<Long> purgeBatch(UserCollection users, Instant cutoff) {
+        return Mono.defer(() -> {
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                return Mono.empty();
+            }
+            Query due = query(where("deleted").is(true).and("deletedAt").lt(cutoff))
+                    .with(Sort.by("deletedAt"))
+                    .limit(settings.batchSize());
+            due.fields().include("id");
+            return users.template().find(due, UserEntity.class, users.name())
+                    .map(UserEntity::getId)
+                    .collectList()
+                    .filter(ids -> !ids.isEmpty())
+                    .flatMap(ids -> throttle.acquire(ids.size()).then(remove(users, ids))
+                            .thenReturn((long) ids.size()));
+        });
+    }
+
+    private Mono<Void> remove(UserCollection users, List<String> ids) {
+        return users.template()
+                .remove(query(where("id").in(ids).and("deleted").is(true)), UserEntity.class, users.name())
+                .doOnNext(result -> purged.increment(result.getDeletedCount()))
+                .then();
+    }
+}
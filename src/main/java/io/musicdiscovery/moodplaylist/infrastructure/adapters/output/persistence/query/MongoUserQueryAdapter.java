@@ -0,0 +1,80 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.query;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import io.musicdiscovery.user.application.port.output.UserQueryPort;
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mongo implementation of the read model, reading the {@code user_playlist_profiles}
+ * collection maintained by the {@link PlaylistProfileProjector}. The collection has its
+ * own {@code mood_genre} index, partial on the profiles with a mood so the deletion
+ * markers stay out of it; the users collection and its indexes are never touched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MongoUserQueryAdapter implements UserQueryPort {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Value("${persistence.timeouts.find-by-id}")
+    private Duration findByIdTimeout;
+
+    @Value("${persistence.timeouts.find-all}")
+    private Duration findAllTimeout;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        Index moodGenre = new Index().on("mood", Sort.Direction.ASC).on("preferredGenre", Sort.Direction.ASC)
+                .named("mood_genre")
+                .partial(PartialIndexFilter.of(where("mood").exists(true)));
+        mongoTemplate.indexOps(PlaylistProfileEntity.class).ensureIndex(moodGenre)
+                .doOnNext(name -> log.info("Index {} ensured on user_playlist_profiles", name))
+                .subscribe(null, error -> log.warn("Could not create user_playlist_profiles indexes: {}",
+                        error.getMessage()));
+    }
+
+    @Override
+    public Mono<PlaylistProfile> findProfile(String userId) {
+        return mongoTemplate.findOne(query(where("userId").is(userId).and("deleted").ne(true)),
+                PlaylistProfileEntity.class)
+                .map(MongoUserQueryAdapter::toProfile)
+                .timeout(findByIdTimeout);
+    }
+
+    @Override
+    public Flux<PlaylistProfile> findProfilesByMood(Mood mood, Genre genre, int limit) {
+        Query byMood = query(where("mood").is(mood)).limit(limit);
+        if (genre != null) {
+            byMood.addCriteria(where("preferredGenre").is(genre));
+        }
+        return mongoTemplate.find(byMood, PlaylistProfileEntity.class)
+                .map(MongoUserQueryAdapter::toProfile)
+                .timeout(findAllTimeout);
+    }
+
+    private static PlaylistProfile toProfile(PlaylistProfileEntity entity) {
+        return new PlaylistProfile(entity.getUserId(), entity.getMood(), entity.getPreferredGenre(),
+                entity.getTopArtists(), entity.getUpdatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.query;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Playlist profile of a user in the {@code user_playlist_profiles} read collection.
+ * A deleted user is projected as a marker flagged {@code deleted}, without mood, so a
+ * rebuild running concurrently cannot bring the profile back; the marker is removed
+ * with the user's tombstone.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Document(collection = "user_playlist_profiles")
+public class PlaylistProfileEntity {
+
+    @Id
+    private String userId;
+    private Mood mood;
+    private List<Genre> preferredGenre;
+    private List<String> topArtists;
+    private Boolean deleted;
+    private Instant updatedAt;
+}
@@ -0,0 +1,317 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.query;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.MongoServerException;
+import com.mongodb.client.model.changestream.FullDocument;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Maintains the {@code user_playlist_profiles} read collection from the change stream
+ * of the users collection, off the request path of the user writes.
+ * <p>
+ * One instance projects at a time: the projection is leased in its checkpoint, like the
+ * migration partitions, and the lease is renewed every third of its duration while the
+ * changes are followed. The first owner rebuilds the collection from the users, a batch
+ * at a time through a {@link MigrationThrottle}, while already following the changes
+ * from the cluster time taken before the rebuild started. The rebuild only inserts the
+ * missing profiles, so it never overwrites a newer change.
+ * <p>
+ * The resume token of the last applied change is checkpointed every
+ * {@code checkpointInterval} and the next owner resumes after it, so a change may be
+ * applied twice, which is harmless since a change replaces the whole profile. When the
+ * token has already left the oplog the checkpoint is reset and the collection rebuilt.
+ * Change streams need a replica set or a sharded cluster; on a standalone server the
+ * projector keeps retrying with a warning and the read model stays empty.
+ */
+@Slf4j
+public class PlaylistProfileProjector {
+
+    static final String CHECKPOINT_ID = "user_playlist_profiles";
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MigrationThrottle throttle;
+    private final Settings settings;
+    private final String owner = UUID.randomUUID().toString();
+    private final Counter projected;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private Disposable running;
+
+    /**
+     * Settings of the projector.
+     *
+     * @param topArtists the number of favorite artists kept in a profile
+     * @param lease the duration of the lease of the projection
+     * @param checkpointInterval the time between two checkpoints of the resume token
+     * @param rebuildBatchSize the number of profiles inserted per batch of a rebuild
+     */
+    public record Settings(int topArtists, Duration lease, Duration checkpointInterval, int rebuildBatchSize) {
+    }
+
+    public PlaylistProfileProjector(ReactiveMongoTemplate mongoTemplate, MigrationThrottle throttle,
+            Settings settings, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.throttle = throttle;
+        this.settings = settings;
+        this.projected = Counter.builder("user.query_model.changes")
+                .description("User changes applied to the playlist profiles")
+                .register(meterRegistry);
+        Gauge.builder("user.query_model.lag", lagMillis, AtomicLong::get)
+                .description("Time between the last applied user change and its projection")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts competing for the projection. An instance that stops renewing its lease, or
+     * stops altogether, is replaced by another one once the lease expires.
+     */
+    public void start() {
+        running = Flux.interval(Duration.ZERO, settings.lease().dividedBy(3))
+                .onBackpressureDrop()
+                .concatMap(tick -> claim()
+                        .onErrorResume(error -> {
+                            log.warn("Could not lease the playlist profile projection: {}", error.getMessage());
+                            return Mono.just(false);
+                        }))
+                .distinctUntilChanged()
+                .switchMap(leased -> {
+                    if (!leased) {
+                        log.info("Playlist profile projection leased by another instance");
+                        return Flux.empty();
+                    }
+                    return follow();
+                })
+                .subscribe();
+    }
+
+    public void stop() {
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    private Mono<Boolean> claim() {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Query claimable = query(where("id").is(CHECKPOINT_ID)
+                    .orOperator(where("owner").is(owner), where("leaseUntil").lt(now)));
+            return mongoTemplate.findAndModify(claimable,
+                    new Update().set("owner", owner).set("leaseUntil", now.plus(settings.lease())),
+                    FindAndModifyOptions.options().returnNew(true).upsert(true), ProjectionCheckpoint.class)
+                    .hasElement()
+                    .onErrorResume(DuplicateKeyException.class, held -> Mono.just(false));
+        });
+    }
+
+    /**
+     * Follows the changes from the checkpoint, or rebuilds the collection first if no
+     * rebuild completed yet, retrying with backoff until the lease is lost.
+     */
+    private Flux<Void> follow() {
+        return Flux.defer(() -> mongoTemplate.findById(CHECKPOINT_ID, ProjectionCheckpoint.class)
+                        .flatMapMany(checkpoint -> checkpoint.isRebuilt() ? resume(checkpoint) : rebuildAndFollow()))
+                .onErrorResume(PlaylistProfileProjector::isHistoryLost, error -> {
+                    log.warn("User changes since the last checkpoint are no longer in the oplog, "
+                            + "rebuilding the playlist profiles");
+                    return reset().then(Mono.error(error));
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Playlist profile projection interrupted: {}",
+                                signal.failure().getMessage())));
+    }
+
+    private Flux<Void> resume(ProjectionCheckpoint checkpoint) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder();
+        if (checkpoint.getResumeToken() != null) {
+            options.resumeAfter(BsonDocument.parse(checkpoint.getResumeToken()));
+        } else {
+            options.resumeAt(new BsonTimestamp(checkpoint.getStartAtOperationTime()));
+        }
+        log.info("Following the user changes from the playlist profile checkpoint");
+        return changes(options);
+    }
+
+    private Flux<Void> rebuildAndFollow() {
+        return operationTime().flatMapMany(startAt -> {
+            log.info("Rebuilding the playlist profiles");
+            Mono<Void> rebuild = rebuild()
+                    .flatMap(inserted -> {
+                        log.info("Playlist profiles rebuilt, {} inserted", inserted);
+                        return markRebuilt(startAt);
+                    });
+            return changes(ChangeStreamOptions.builder().resumeAt(startAt)).mergeWith(rebuild);
+        });
+    }
+
+    /**
+     * Applies the user changes in order, checkpointing the latest applied one. The change
+     * stream never completes on its own; if the server closes it, it is reopened.
+     */
+    private Flux<Void> changes(ChangeStreamOptions.ChangeStreamOptionsBuilder options) {
+        return mongoTemplate.changeStream(null, mongoTemplate.getCollectionName(UserEntity.class),
+                        options.fullDocumentLookup(FullDocument.UPDATE_LOOKUP).build(), UserEntity.class)
+                .concatMap(event -> apply(event).thenReturn(event))
+                .sample(settings.checkpointInterval())
+                .concatMap(event -> checkpoint(event.getResumeToken()))
+                .concatWith(Mono.error(() -> new IllegalStateException("User change stream closed")));
+    }
+
+    private Mono<Void> apply(ChangeStreamEvent<UserEntity> event) {
+        Mono<?> applied = switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE -> event.getBody() == null ? Mono.empty()
+                    : mongoTemplate.save(toProjection(event.getBody(), settings.topArtists(), Instant.now()));
+            case DELETE -> mongoTemplate.remove(query(where("userId").is(documentId(event))),
+                    PlaylistProfileEntity.class);
+            default -> Mono.empty();
+        };
+        return applied.then(Mono.fromRunnable(() -> {
+            projected.increment();
+            if (event.getTimestamp() != null) {
+                lagMillis.set(Duration.between(event.getTimestamp(), Instant.now()).toMillis());
+            }
+        }));
+    }
+
+    /**
+     * Inserts the profiles of the live users missing from the collection.
+     *
+     * @return a Mono with the number of profiles inserted
+     */
+    private Mono<Long> rebuild() {
+        Query live = query(where("deleted").ne(true));
+        live.fields().include("id", "mood", "preferredGenre", "favoriteArtist");
+        return mongoTemplate.find(live, UserEntity.class)
+                .buffer(settings.rebuildBatchSize())
+                .concatMap(users -> throttle.acquire(users.size()).then(insertMissing(users)))
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> insertMissing(List<UserEntity> users) {
+        Instant now = Instant.now();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, PlaylistProfileEntity.class);
+        for (UserEntity user : users) {
+            PlaylistProfileEntity profile = toProjection(user, settings.topArtists(), now);
+            Update insertOnly = new Update().setOnInsert("updatedAt", now);
+            if (profile.getMood() != null) {
+                insertOnly.setOnInsert("mood", profile.getMood());
+            }
+            if (profile.getPreferredGenre() != null) {
+                insertOnly.setOnInsert("preferredGenre", profile.getPreferredGenre());
+            }
+            if (profile.getTopArtists() != null) {
+                insertOnly.setOnInsert("topArtists", profile.getTopArtists());
+            }
+            bulk.upsert(query(where("userId").is(user.getId())), insertOnly);
+        }
+        return bulk.execute().map(result -> (long) result.getUpserts().size());
+    }
+
+    private Mono<Void> checkpoint(BsonValue resumeToken) {
+        return mongoTemplate.updateFirst(query(where("id").is(CHECKPOINT_ID).and("owner").is(owner)),
+                new Update().set("resumeToken", resumeToken.asDocument().toJson()).set("updatedAt", Instant.now()),
+                ProjectionCheckpoint.class)
+                .then();
+    }
+
+    private Mono<Void> markRebuilt(BsonTimestamp startAt) {
+        return mongoTemplate.updateFirst(query(where("id").is(CHECKPOINT_ID).and("owner").is(owner)),
+                new Update().set("rebuilt", true).set("startAtOperationTime", startAt.getValue())
+                        .set("updatedAt", Instant.now()),
+                ProjectionCheckpoint.class)
+                .then();
+    }
+
+    private Mono<Void> reset() {
+        return mongoTemplate.updateFirst(query(where("id").is(CHECKPOINT_ID).and("owner").is(owner)),
+                new Update().set("rebuilt", false).unset("resumeToken").unset("startAtOperationTime")
+                        .set("updatedAt", Instant.now()),
+                ProjectionCheckpoint.class)
+                .then();
+    }
+
+    /**
+     * Reads the current cluster time, which standalone servers do not report.
+     */
+    private Mono<BsonTimestamp> operationTime() {
+        return mongoTemplate.executeCommand(new Document("hello", 1))
+                .flatMap(reply -> Mono.justOrEmpty(reply.get("operationTime", BsonTimestamp.class)))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException(
+                        "The user change stream needs a replica set or a sharded cluster")));
+    }
+
+    /**
+     * Projects a user: its mood, genres and first favorite artists, or a deletion marker
+     * if it is a tombstone.
+     *
+     * @param user the user, with at least its id, flags and playlist fields
+     * @param topArtists the number of favorite artists kept
+     * @param now the projection time
+     * @return the profile
+     */
+    static PlaylistProfileEntity toProjection(UserEntity user, int topArtists, Instant now) {
+        PlaylistProfileEntity profile = new PlaylistProfileEntity();
+        profile.setUserId(user.getId());
+        profile.setUpdatedAt(now);
+        if (Boolean.TRUE.equals(user.getDeleted())) {
+            profile.setDeleted(true);
+            return profile;
+        }
+        profile.setMood(user.getMood());
+        profile.setPreferredGenre(user.getPreferredGenre());
+        List<String> artists = user.getFavoriteArtist();
+        if (artists != null) {
+            profile.setTopArtists(new ArrayList<>(artists.subList(0, Math.min(topArtists, artists.size()))));
+        }
+        return profile;
+    }
+
+    static boolean isHistoryLost(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoServerException server && server.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String documentId(ChangeStreamEvent<UserEntity> event) {
+        BsonValue id = event.getRaw().getDocumentKey().get("_id");
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.query;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a projection in the {@code query_model_checkpoints} collection: the
+ * instance leasing it, whether its initial rebuild completed, and where its change
+ * stream resumes, as the last applied resume token or else the cluster time the
+ * rebuild started at.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Document(collection = "query_model_checkpoints")
+public class ProjectionCheckpoint {
+
+    @Id
+    private String id;
+    private String owner;
+    private Instant leaseUntil;
+    private boolean rebuilt;
+    private String resumeToken;
+    private Long startAtOperationTime;
+    private Instant updatedAt;
+}
@@ -0,0 +1,86 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * File kept next to an import source recording the last chunk whose documents
+ * are all in Mongo. It is replaced atomically on every commit, so after a crash
+ * the import resumes right after the last committed chunk. The chunk size is
+ * stored too, since chunk numbers are only meaningful for the same size.
+ */
+public class ImportCheckpoint {
+
+    private static final String CHUNK_SIZE = "chunkSize";
+    private static final String LAST_COMMITTED_CHUNK = "lastCommittedChunk";
+
+    private final Path file;
+    private final int chunkSize;
+
+    public ImportCheckpoint(Path source, int chunkSize) {
+        this.file = source.resolveSibling(source.getFileName() + ".checkpoint");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads the last committed chunk.
+     *
+     * @return the last committed chunk number, or -1 when the import starts from scratch
+     * @throws IllegalStateException if the checkpoint was written with another chunk size
+     */
+    public long lastCommittedChunk() {
+        if (!Files.exists(file)) {
+            return -1;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int storedChunkSize = Integer.parseInt(properties.getProperty(CHUNK_SIZE));
+        if (storedChunkSize != chunkSize) {
+            throw new IllegalStateException("Checkpoint " + file + " was written with chunk size " + storedChunkSize
+                    + ", resume with the same chunk size or delete it");
+        }
+        return Long.parseLong(properties.getProperty(LAST_COMMITTED_CHUNK));
+    }
+
+    /**
+     * Records a chunk as committed, together with every chunk before it.
+     *
+     * @param chunk the chunk number
+     */
+    public void commit(long chunk) {
+        Properties properties = new Properties();
+        properties.setProperty(CHUNK_SIZE, Integer.toString(chunkSize));
+        properties.setProperty(LAST_COMMITTED_CHUNK, Long.toString(chunk));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the import is complete.
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
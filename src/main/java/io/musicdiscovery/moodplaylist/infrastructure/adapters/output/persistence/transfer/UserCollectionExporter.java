@@ -0,0 +1,112 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Streams the live users of the collection to a gzip compressed NDJSON file, one
+ * entity per line. Documents are pulled from the Mongo cursor in batches and
+ * written as they arrive, so memory is bounded by the batch size and not by
+ * the collection size. The file is written next to the target and moved into
+ * place once complete, so a failed export never leaves a truncated snapshot.
+ */
+@Slf4j
+public class UserCollectionExporter {
+
+    private static final int PROGRESS_INTERVAL = 10_000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Counter exported;
+
+    public UserCollectionExporter(ReactiveMongoTemplate mongoTemplate, ObjectMapper objectMapper, int batchSize,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.exported = Counter.builder("user.transfer.documents")
+                .description("Documents moved by the users export/import")
+                .tag("direction", "export")
+                .tag("outcome", "written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Exports the users collection.
+     *
+     * @param target the gzip NDJSON file to create or replace
+     * @return a Mono with the number of exported documents
+     */
+    public Mono<Long> export(Path target) {
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        Query query = new Query(Criteria.where("deleted").ne(true)).cursorBatchSize(batchSize);
+        return Mono.defer(() -> {
+            AtomicLong written = new AtomicLong();
+            return Mono.using(() -> open(part),
+                    out -> mongoTemplate.find(query, UserEntity.class)
+                            .publishOn(Schedulers.boundedElastic(), batchSize)
+                            .doOnNext(entity -> writeLine(out, entity, written.incrementAndGet()))
+                            .then(Mono.fromSupplier(written::get)),
+                    UserCollectionExporter::close);
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(count -> {
+                    move(part, target);
+                    log.info("Exported {} users to {}", count, target);
+                });
+    }
+
+    private void writeLine(OutputStream out, UserEntity entity, long count) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(entity));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        exported.increment();
+        if (count % PROGRESS_INTERVAL == 0) {
+            log.info("Exported {} users so far", count);
+        }
+    }
+
+    private static OutputStream open(Path part) throws IOException {
+        return new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(part), 64 * 1024));
+    }
+
+    private static void close(OutputStream out) {
+        try {
+            out.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void move(Path part, Path target) {
+        try {
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
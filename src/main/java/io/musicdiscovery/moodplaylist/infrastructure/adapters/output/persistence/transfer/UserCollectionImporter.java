@@ -0,0 +1,182 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Loads a gzip NDJSON users file, as written by {@link UserCollectionExporter},
+ * into the users collection. The file is read sequentially and cut into chunks
+ * that are written in parallel with unordered bulk inserts; at most
+ * {@code parallelism} chunks are in memory at a time. Chunks are committed in
+ * file order to an {@link ImportCheckpoint}, so an interrupted import restarts
+ * after the last chunk known to be complete. Documents of a partially written
+ * chunk that are already present fail with a duplicate key and are counted as
+ * duplicates instead of failing the import.
+ */
+@Slf4j
+public class UserCollectionImporter {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Counter inserted;
+    private final Counter duplicates;
+    private final AtomicLong committedChunk = new AtomicLong(-1);
+
+    public UserCollectionImporter(ReactiveMongoTemplate mongoTemplate, ObjectMapper objectMapper, int chunkSize,
+            int parallelism, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.inserted = documents(meterRegistry, "written");
+        this.duplicates = documents(meterRegistry, "duplicate");
+        meterRegistry.gauge("user.transfer.import.committed_chunk", committedChunk);
+    }
+
+    /**
+     * Imports a users file, resuming from its checkpoint when there is one.
+     *
+     * @param source the gzip NDJSON file to import
+     * @return a Mono with the totals of this run
+     */
+    public Mono<Result> importFile(Path source) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(source, chunkSize);
+        return Mono.defer(() -> {
+            long resumeAfter = checkpoint.lastCommittedChunk();
+            committedChunk.set(resumeAfter);
+            if (resumeAfter >= 0) {
+                log.info("Resuming import of {} after chunk {}", source, resumeAfter);
+            }
+            return Flux.using(() -> open(source), reader -> Flux.fromStream(reader.lines()), UserCollectionImporter::close)
+                    .buffer(chunkSize)
+                    .index()
+                    .skipWhile(chunk -> chunk.getT1() <= resumeAfter)
+                    .flatMapSequential(chunk -> insertChunk(chunk.getT1(), chunk.getT2()), parallelism, 1)
+                    .publishOn(Schedulers.boundedElastic())
+                    .doOnNext(result -> {
+                        checkpoint.commit(result.chunk());
+                        committedChunk.set(result.chunk());
+                        log.info("Imported chunk {} ({} inserted, {} duplicates)", result.chunk(), result.inserted(),
+                                result.duplicates());
+                    })
+                    .reduce(new Result(0, 0, 0, resumeAfter), Result::add)
+                    .doOnNext(total -> checkpoint.clear());
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<ChunkResult> insertChunk(long chunk, List<String> lines) {
+        return Mono.fromCallable(() -> parse(lines))
+                .flatMap(entities -> mongoTemplate.bulkOps(BulkMode.UNORDERED, UserEntity.class)
+                        .insert(entities)
+                        .execute()
+                        .map(result -> new ChunkResult(chunk, result.getInsertedCount(), 0))
+                        .onErrorResume(UserCollectionImporter::onlyDuplicates,
+                                ex -> Mono.just(fromDuplicates(chunk, ex))))
+                .doOnNext(result -> {
+                    inserted.increment(result.inserted());
+                    duplicates.increment(result.duplicates());
+                });
+    }
+
+    private List<UserEntity> parse(List<String> lines) throws JsonProcessingException {
+        List<UserEntity> entities = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                entities.add(objectMapper.readValue(line, UserEntity.class));
+            }
+        }
+        return entities;
+    }
+
+    private static boolean onlyDuplicates(Throwable ex) {
+        List<BulkWriteError> errors = bulkErrors(ex);
+        return errors != null && errors.stream().allMatch(error -> error.getCode() == DUPLICATE_KEY);
+    }
+
+    private static ChunkResult fromDuplicates(long chunk, Throwable ex) {
+        BulkWriteResult result = ex instanceof BulkOperationException bulk ? bulk.getResult()
+                : ((MongoBulkWriteException) ex).getWriteResult();
+        return new ChunkResult(chunk, result.getInsertedCount(), bulkErrors(ex).size());
+    }
+
+    private static List<BulkWriteError> bulkErrors(Throwable ex) {
+        if (ex instanceof BulkOperationException bulk) {
+            return bulk.getErrors();
+        }
+        if (ex instanceof MongoBulkWriteException bulk) {
+            return bulk.getWriteErrors();
+        }
+        return null;
+    }
+
+    private static BufferedReader open(Path source) throws IOException {
+        return new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(source), 64 * 1024),
+                StandardCharsets.UTF_8));
+    }
+
+    private static void close(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Counter documents(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("user.transfer.documents")
+                .description("Documents moved by the users export/import")
+                .tag("direction", "import")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record ChunkResult(long chunk, long inserted, long duplicates) {
+    }
+
+    /**
+     * Totals of an import run.
+     *
+     * @param chunks the chunks written by this run
+     * @param inserted the documents inserted
+     * @param duplicates the documents that were already present
+     * @param resumedAfterChunk the chunk the run resumed after, or -1 for a fresh import
+     */
+    public record Result(long chunks, long inserted, long duplicates, long resumedAfterChunk) {
+
+        private Result add(ChunkResult chunk) {
+            return new Result(chunks + 1, inserted + chunk.inserted(), duplicates + chunk.duplicates(),
+                    resumedAfterChunk);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.stats;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.utils.CountMinSketch;
+import io.musicdiscovery.user.utils.SpaceSaving;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Popularity counters kept as streaming sketches and shared through a single Mongo document.
+ * <p>
+ * Every instance accumulates the deltas of the changes it serves: artists in a Count-Min
+ * sketch plus a Space-Saving summary of the artists worth ranking, genres per mood in exact
+ * counters since there are only a few hundred of them. The deltas are periodically added to
+ * the shared document with {@code $inc}, which also returns the sum of the deltas of all the
+ * instances. Reads never touch Mongo: they are answered from a ranking rebuilt every refresh
+ * interval out of the shared counters plus the local deltas not yet checkpointed.
+ * <p>
+ * The document id includes the sketch dimensions, so changing them starts a new document
+ * which, like a missing one, is seeded with a single scan of the users collection.
+ */
+@Slf4j
+public class SketchUserPopularityAdapter implements UserPopularityPort {
+
+    static final String COLLECTION = "user_stats";
+    static final String NO_MOOD = "NONE";
+
+    private static final Mood[] MOODS = Mood.values();
+    private static final Genre[] GENRES = Genre.values();
+
+    private final ReactiveMongoTemplate template;
+    private final Settings settings;
+    private final String documentId;
+
+    private final CountMinSketch pendingArtists;
+    private final CountMinSketch sharedArtists;
+    private final SpaceSaving localCandidates;
+    private final AtomicLongArray pendingGenres = new AtomicLongArray((MOODS.length + 1) * GENRES.length);
+    private volatile long[] sharedGenres = new long[(MOODS.length + 1) * GENRES.length];
+    private volatile Map<String, String> sharedCandidates = Map.of();
+
+    private volatile Ranking ranking = new Ranking(List.of(), List.of());
+    private Disposable scheduled;
+
+    /**
+     * Settings of the popularity counters.
+     *
+     * @param depth the number of rows of the Count-Min sketch
+     * @param width the number of counters per row of the Count-Min sketch
+     * @param candidates the number of artists tracked as candidates for the ranking
+     * @param refreshInterval the interval between rebuilds of the ranking served to reads
+     * @param checkpointInterval the interval between checkpoints to the shared document
+     */
+    public record Settings(int depth, int width, int candidates, Duration refreshInterval,
+            Duration checkpointInterval) {
+    }
+
+    /**
+     * The ranking served to reads, immutable so it can be swapped in one volatile write.
+     */
+    private record Ranking(List<ArtistPopularity> artists, List<GenreShare> genres) {
+    }
+
+    public SketchUserPopularityAdapter(ReactiveMongoTemplate template, Settings settings) {
+        this.template = template;
+        this.settings = settings;
+        this.documentId = "popularity:" + settings.depth() + "x" + settings.width();
+        this.pendingArtists = new CountMinSketch(settings.depth(), settings.width());
+        this.sharedArtists = new CountMinSketch(settings.depth(), settings.width());
+        this.localCandidates = new SpaceSaving(settings.candidates());
+    }
+
+    /**
+     * Loads the shared counters, seeding them first when the document does not exist,
+     * and schedules the refreshes and checkpoints. Failures are logged and retried on
+     * the next checkpoint, they never affect the requests.
+     */
+    public void start() {
+        long checkpointEvery = Math.max(1,
+                settings.checkpointInterval().toMillis() / Math.max(1, settings.refreshInterval().toMillis()));
+        scheduled = initialize()
+                .onErrorResume(error -> {
+                    log.warn("Popularity counters not loaded, serving local counts: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .thenMany(Flux.interval(settings.refreshInterval()))
+                .onBackpressureDrop()
+                .concatMap(tick -> ((tick + 1) % checkpointEvery == 0 ? checkpoint() : Mono.<Void>empty())
+                        .then(Mono.fromRunnable(this::refresh)), 1)
+                .subscribe(null, error -> log.error("Popularity counters stopped", error));
+    }
+
+    /**
+     * Stops the scheduled work and writes the remaining deltas.
+     */
+    public void stop() {
+        if (scheduled != null) {
+            scheduled.dispose();
+        }
+        checkpoint()
+                .timeout(settings.checkpointInterval())
+                .onErrorResume(error -> {
+                    log.warn("Popularity deltas not written on shutdown: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    @Override
+    public void recordChange(User before, User after) {
+        Map<String, String> removed = artists(before);
+        Map<String, String> added = artists(after);
+        removed.forEach((key, label) -> {
+            if (!added.containsKey(key)) {
+                pendingArtists.add(key, -1);
+            }
+        });
+        added.forEach((key, label) -> {
+            if (!removed.containsKey(key)) {
+                pendingArtists.add(key, 1);
+                localCandidates.offer(key, label);
+            }
+        });
+
+        Set<Integer> removedGenres = genreCells(before);
+        Set<Integer> addedGenres = genreCells(after);
+        removedGenres.stream().filter(cell -> !addedGenres.contains(cell))
+                .forEach(cell -> pendingGenres.addAndGet(cell, -1));
+        addedGenres.stream().filter(cell -> !removedGenres.contains(cell))
+                .forEach(cell -> pendingGenres.addAndGet(cell, 1));
+    }
+
+    @Override
+    public List<ArtistPopularity> topArtists(int limit) {
+        List<ArtistPopularity> artists = ranking.artists();
+        return artists.subList(0, Math.min(limit, artists.size()));
+    }
+
+    @Override
+    public List<GenreShare> genreSharesByMood() {
+        return ranking.genres();
+    }
+
+    /**
+     * Creates the shared document if it does not exist, seeding it from the users
+     * collection, or loads it otherwise.
+     */
+    Mono<Void> initialize() {
+        List<Long> zeros = Collections.nCopies(settings.depth() * settings.width(), 0L);
+        Update create = new Update()
+                .setOnInsert("depth", settings.depth())
+                .setOnInsert("width", settings.width())
+                .setOnInsert("cms", zeros)
+                .setOnInsert("genres", new Document())
+                .setOnInsert("candidates", List.of())
+                .setOnInsert("createdAt", Instant.now());
+        return template.findAndModify(query(where("_id").is(documentId)), create,
+                        FindAndModifyOptions.options().upsert(true).returnNew(false), Document.class, COLLECTION)
+                .doOnNext(this::load)
+                .map(existing -> false)
+                .switchIfEmpty(Mono.defer(() -> seed().thenReturn(true)))
+                .flatMap(seeded -> seeded ? checkpoint() : Mono.empty())
+                .doOnSuccess(ignored -> refresh());
+    }
+
+    /**
+     * Records every stored user as created. Only the instance that created the shared
+     * document seeds it, the others see the counts on their next checkpoint.
+     */
+    private Mono<Void> seed() {
+        Query users = query(where("deleted").ne(true)).cursorBatchSize(1000);
+        users.fields().include("mood", "preferredGenre", "favoriteArtist");
+        log.info("Seeding popularity counters {} from the users collection", documentId);
+        return template.find(users, UserEntity.class)
+                .doOnNext(entity -> recordChange(null, new User(entity.getId(), null, null, entity.getMood(),
+                        entity.getMoodSetAt(), entity.getPreferredGenre(), entity.getFavoriteArtist())))
+                .count()
+                .doOnNext(count -> log.info("Seeded popularity counters from {} users", count))
+                .then();
+    }
+
+    /**
+     * Adds the local deltas to the shared document and loads the result. The deltas are
+     * restored if the update fails so they are retried on the next checkpoint.
+     */
+    Mono<Void> checkpoint() {
+        return Mono.defer(() -> {
+            long[] artists = pendingArtists.drain();
+            long[] genres = drainGenres();
+            Map<String, String> candidates = localCandidates.drainTouched();
+
+            Update update = new Update().set("updatedAt", Instant.now());
+            for (int i = 0; i < artists.length; i++) {
+                if (artists[i] != 0) {
+                    update.inc("cms." + i, artists[i]);
+                }
+            }
+            for (int i = 0; i < genres.length; i++) {
+                if (genres[i] != 0) {
+                    update.inc("genres." + moodName(i / GENRES.length) + "." + GENRES[i % GENRES.length].name(), genres[i]);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                update.addToSet("candidates").each(candidates.entrySet().stream()
+                        .map(candidate -> new Document("key", candidate.getKey()).append("label", candidate.getValue()))
+                        .toArray());
+            }
+            return template.findAndModify(query(where("_id").is(documentId)), update,
+                            FindAndModifyOptions.options().returnNew(true), Document.class, COLLECTION)
+                    .doOnNext(this::load)
+                    .then(Mono.defer(this::trimCandidates))
+                    .onErrorResume(error -> {
+                        pendingArtists.merge(artists);
+                        for (int i = 0; i < genres.length; i++) {
+                            pendingGenres.addAndGet(i, genres[i]);
+                        }
+                        localCandidates.touch(candidates);
+                        log.warn("Popularity checkpoint failed, retrying later: {}", error.getMessage());
+                        return Mono.empty();
+                    });
+        });
+    }
+
+    /**
+     * Keeps the shared candidate list bounded: once it doubles the configured size, it is
+     * replaced by the best ranked candidates. A concurrent trim by another instance is
+     * harmless, the candidates dropped by both are the least popular ones.
+     */
+    private Mono<Void> trimCandidates() {
+        if (sharedCandidates.size() <= 2 * settings.candidates()) {
+            return Mono.empty();
+        }
+        List<Document> kept = rankArtists(sharedCandidates).stream()
+                .limit(settings.candidates())
+                .map(artist -> new Document("key", key(artist.getArtist())).append("label", artist.getArtist()))
+                .toList();
+        return template.updateFirst(query(where("_id").is(documentId)), new Update().set("candidates", kept),
+                COLLECTION).then();
+    }
+
+    private void load(Document shared) {
+        List<?> cms = shared.getList("cms", Object.class, List.of());
+        long[] cells = new long[cms.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = ((Number) cms.get(i)).longValue();
+        }
+        sharedArtists.load(cells);
+
+        long[] genres = new long[pendingGenres.length()];
+        Document byMood = shared.get("genres", Document.class);
+        if (byMood != null) {
+            for (int mood = 0; mood <= MOODS.length; mood++) {
+                Document counts = byMood.get(moodName(mood), Document.class);
+                if (counts == null) {
+                    continue;
+                }
+                for (Genre genre : GENRES) {
+                    Object count = counts.get(genre.name());
+                    if (count instanceof Number number) {
+                        genres[mood * GENRES.length + genre.ordinal()] = number.longValue();
+                    }
+                }
+            }
+        }
+        sharedGenres = genres;
+
+        Map<String, String> candidates = new LinkedHashMap<>();
+        for (Document candidate : shared.getList("candidates", Document.class, List.of())) {
+            candidates.putIfAbsent(candidate.getString("key"), candidate.getString("label"));
+        }
+        sharedCandidates = candidates;
+    }
+
+    /**
+     * Rebuilds the ranking served to reads from the shared counters and the local deltas.
+     */
+    void refresh() {
+        Map<String, String> candidates = new HashMap<>(localCandidates.candidates());
+        candidates.putAll(sharedCandidates);
+        List<ArtistPopularity> artists = rankArtists(candidates);
+        ranking = new Ranking(List.copyOf(artists.subList(0, Math.min(settings.candidates(), artists.size()))),
+                genreShares());
+    }
+
+    private List<ArtistPopularity> rankArtists(Map<String, String> candidates) {
+        List<ArtistPopularity> artists = new ArrayList<>(candidates.size());
+        candidates.forEach((key, label) -> {
+            long users = CountMinSketch.estimate(key, sharedArtists, pendingArtists);
+            if (users > 0) {
+                artists.add(new ArtistPopularity(label, users));
+            }
+        });
+        artists.sort(Comparator.comparingLong(ArtistPopularity::getUsers).reversed()
+                .thenComparing(ArtistPopularity::getArtist));
+        return artists;
+    }
+
+    private List<GenreShare> genreShares() {
+        long[] shared = sharedGenres;
+        List<GenreShare> shares = new ArrayList<>();
+        for (int mood = 0; mood <= MOODS.length; mood++) {
+            Map<Genre, Long> counts = new EnumMap<>(Genre.class);
+            long total = 0;
+            for (Genre genre : GENRES) {
+                int cell = mood * GENRES.length + genre.ordinal();
+                long users = Math.max(0, shared[cell] + pendingGenres.get(cell));
+                if (users > 0) {
+                    counts.put(genre, users);
+                    total += users;
+                }
+            }
+            Mood value = mood < MOODS.length ? MOODS[mood] : null;
+            for (Map.Entry<Genre, Long> count : counts.entrySet()) {
+                shares.add(new GenreShare(value, count.getKey(), count.getValue(), (double) count.getValue() / total));
+            }
+        }
+        return List.copyOf(shares);
+    }
+
+    private long[] drainGenres() {
+        long[] drained = new long[pendingGenres.length()];
+        for (int i = 0; i < drained.length; i++) {
+            drained[i] = pendingGenres.getAndSet(i, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the distinct favorite artists of a user, keyed by their normalized name and
+     * labelled with the name as first written.
+     */
+    private static Map<String, String> artists(User user) {
+        Map<String, String> artists = new HashMap<>();
+        if (user != null && user.getFavoriteArtist() != null) {
+            for (String artist : user.getFavoriteArtist()) {
+                if (artist != null && !artist.isBlank()) {
+                    artists.putIfAbsent(key(artist), artist.trim());
+                }
+            }
+        }
+        return artists;
+    }
+
+    /**
+     * Returns the genre counter cells a user contributes to, one per distinct preferred genre.
+     */
+    private static Set<Integer> genreCells(User user) {
+        Set<Integer> cells = new LinkedHashSet<>();
+        if (user != null && user.getPreferredGenre() != null) {
+            int mood = user.getMood() == null ? MOODS.length : user.getMood().ordinal();
+            user.getPreferredGenre().stream().filter(Objects::nonNull)
+                    .forEach(genre -> cells.add(mood * GENRES.length + genre.ordinal()));
+        }
+        return cells;
+    }
+
+    static String key(String artist) {
+        return artist.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String moodName(int mood) {
+        return mood < MOODS.length ? MOODS[mood].name() : NO_MOOD;
+    }
+}
@@ -0,0 +1,107 @@
+package io.musicdiscovery.user.infrastructure.affinity;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.musicdiscovery.user.utils.ConsistentHashRing;
+
+/**
+ * The replicas of the service placed on a consistent hash ring of user ids, so every user
+ * has an owner replica. Requests for a user sent to its owner, by an affinity-aware
+ * gateway or by the forwarding filter, keep each user in the near cache of a single
+ * replica: the near caches hold disjoint slices instead of the same hot users, and each
+ * one is sized for its slice only.
+ */
+public class ReplicaRing {
+
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    private final Replica self;
+    private final ConsistentHashRing ring;
+    private final int virtualNodes;
+    private final double selfShare;
+
+    /**
+     * A replica of the service.
+     *
+     * @param id the id of the replica on the ring
+     * @param url the base URL of the replica, up to the context path excluded
+     */
+    public record Replica(String id, URI url) {
+    }
+
+    /**
+     * Creates the ring.
+     *
+     * @param selfId the id of this replica, one of the replicas
+     * @param replicas the replicas, this one included
+     * @param virtualNodes the number of points of every replica on the ring
+     */
+    public ReplicaRing(String selfId, List<Replica> replicas, int virtualNodes) {
+        for (Replica replica : replicas) {
+            if (this.replicas.putIfAbsent(replica.id(), replica) != null) {
+                throw new IllegalArgumentException("Duplicate replica id: " + replica.id());
+            }
+        }
+        this.self = this.replicas.get(selfId);
+        if (self == null) {
+            throw new IllegalArgumentException("Replica " + selfId + " is not one of the replicas of the ring");
+        }
+        this.ring = new ConsistentHashRing(this.replicas.keySet(), virtualNodes);
+        this.virtualNodes = virtualNodes;
+        this.selfShare = ring.share(selfId);
+    }
+
+    /**
+     * Finds the replica owning a user.
+     *
+     * @param userId the ID of the user
+     * @return the owner replica
+     */
+    public Replica owner(String userId) {
+        return replicas.get(ring.owner(userId));
+    }
+
+    /**
+     * @param replica a replica of the ring
+     * @return true if the replica is this one
+     */
+    public boolean isSelf(Replica replica) {
+        return self.equals(replica);
+    }
+
+    public Replica self() {
+        return self;
+    }
+
+    public List<Replica> replicas() {
+        return List.copyOf(replicas.values());
+    }
+
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * @return the share of the users owned by this replica
+     */
+    public double selfShare() {
+        return selfShare;
+    }
+
+    public ConsistentHashRing ring() {
+        return ring;
+    }
+
+    /**
+     * Sizes a cache of this replica for its slice of the users.
+     *
+     * @param fleetSize the number of entries the cache would need to hold every user it caches
+     * @param headroom the factor applied to the slice for the uneven spread of the hot users
+     * @return the size of the slice of this replica, at least 1 and at most the fleet size
+     */
+    public long sliceOf(long fleetSize, double headroom) {
+        return Math.max(1, Math.min(fleetSize, (long) Math.ceil(fleetSize * selfShare * headroom)));
+    }
+}
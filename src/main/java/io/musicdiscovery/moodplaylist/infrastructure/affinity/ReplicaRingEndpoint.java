@@ -0,0 +1,59 @@
+package io.musicdiscovery.user.infrastructure.affinity;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing.Replica;
+import io.musicdiscovery.user.utils.ConsistentHashRing.Point;
+
+/**
+ * Actuator endpoint publishing the ring of replicas, so a gateway or a client can send
+ * each {@code GET /users/{id}} straight to the replica owning the user: the owner of an id
+ * is the replica of the first point at or after the hash of the id, wrapping around.
+ */
+@Endpoint(id = "ring")
+public class ReplicaRingEndpoint {
+
+    static final String HASH = "fnv1a64-fmix64-63bit";
+
+    private final ReplicaRing ring;
+
+    public ReplicaRingEndpoint(ReplicaRing ring) {
+        this.ring = ring;
+    }
+
+    @ReadOperation
+    public RingDescription ring() {
+        return new RingDescription(HASH, ring.virtualNodes(), ring.self().id(),
+                ring.replicas().stream()
+                        .map(replica -> new ReplicaDescription(replica.id(), replica.url().toString(),
+                                ring.ring().share(replica.id())))
+                        .toList(),
+                ring.ring().points());
+    }
+
+    /**
+     * The ring as published.
+     *
+     * @param hash the hash of the ids and of the points {@code <replica>#<i>}
+     * @param virtualNodes the number of points of every replica
+     * @param self the replica answering
+     * @param replicas the replicas
+     * @param points the points of the ring, in ring order
+     */
+    public record RingDescription(String hash, int virtualNodes, String self, List<ReplicaDescription> replicas,
+            List<Point> points) {
+    }
+
+    /**
+     * A replica as published.
+     *
+     * @param id the id of the replica on the ring
+     * @param url the base URL of the replica
+     * @param share the share of the users owned by the replica
+     */
+    public record ReplicaDescription(String id, String url, double share) {
+    }
+}
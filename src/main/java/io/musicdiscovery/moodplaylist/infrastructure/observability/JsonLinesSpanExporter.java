@@ -0,0 +1,125 @@
+package io.musicdiscovery.user.infrastructure.observability;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Span exporter that needs no collector: every finished span is written as one
+ * JSON line, either to a file or to the {@code io.musicdiscovery.user.spans}
+ * logger, with its trace/parent ids and duration in microseconds. The file can
+ * be summarised per stage with {@code scripts/span-report.sh}.
+ */
+@Slf4j(topic = "io.musicdiscovery.user.spans")
+public class JsonLinesSpanExporter implements SpanExporter {
+
+    private final ObjectMapper objectMapper;
+    private final Writer file;
+
+    private JsonLinesSpanExporter(ObjectMapper objectMapper, Writer file) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    /**
+     * Creates an exporter writing to the spans logger.
+     *
+     * @param objectMapper the mapper used to write the lines
+     * @return the exporter
+     */
+    public static JsonLinesSpanExporter toLog(ObjectMapper objectMapper) {
+        return new JsonLinesSpanExporter(objectMapper, null);
+    }
+
+    /**
+     * Creates an exporter appending to a file.
+     *
+     * @param objectMapper the mapper used to write the lines
+     * @param path the file, created if missing
+     * @return the exporter
+     * @throws IOException if the file cannot be opened
+     */
+    public static JsonLinesSpanExporter toFile(ObjectMapper objectMapper, Path path) throws IOException {
+        return new JsonLinesSpanExporter(objectMapper, Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                String line = toJson(span);
+                if (file != null) {
+                    file.write(line);
+                    file.write('\n');
+                } else {
+                    log.info(line);
+                }
+            }
+            if (file != null) {
+                file.flush();
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException ex) {
+            log.warn("Could not export {} spans: {}", spans.size(), ex.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public synchronized CompletableResultCode flush() {
+        if (file != null) {
+            try {
+                file.flush();
+            } catch (IOException ex) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException ex) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private String toJson(SpanData span) throws JsonProcessingException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("traceId", span.getTraceId());
+        line.put("spanId", span.getSpanId());
+        if (SpanId.isValid(span.getParentSpanId())) {
+            line.put("parentSpanId", span.getParentSpanId());
+        }
+        line.put("name", span.getName());
+        line.put("kind", span.getKind().name());
+        line.put("startEpochMicros", span.getStartEpochNanos() / 1_000);
+        line.put("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000);
+        line.put("status", span.getStatus().getStatusCode().name());
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        line.put("attributes", attributes);
+        return objectMapper.writeValueAsString(line);
+    }
+}
@@ -0,0 +1,41 @@
+package io.musicdiscovery.user.infrastructure.observability;
+
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * JSON decoder that observes the decoding of request bodies, from the first
+ * byte read to the decoded object, as the {@code user.decode} stage.
+ */
+public class ObservedJackson2JsonDecoder extends Jackson2JsonDecoder {
+
+    private final ObservationRegistry registry;
+
+    public ObservedJackson2JsonDecoder(ObjectMapper objectMapper, ObservationRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType, MimeType mimeType,
+            Map<String, Object> hints) {
+        try {
+            return (Mono<Object>) ReactiveObservations.observe(registry, "user.decode",
+                    elementType.toClass().getSimpleName() + "#decode", "decodeToMono", Mono.class,
+                    () -> super.decodeToMono(input, elementType, mimeType, hints));
+        } catch (Throwable error) {
+            return Mono.error(error);
+        }
+    }
+}
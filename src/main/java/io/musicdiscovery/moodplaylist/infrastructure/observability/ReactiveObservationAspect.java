@@ -0,0 +1,53 @@
+package io.musicdiscovery.user.infrastructure.observability;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Opens an observation, and so a span, around every call to the REST controller,
+ * the application service, the Mongo persistence adapter and the MapStruct
+ * mappers. Reactive results are observed from subscription to termination and
+ * the observation is written to the Reactor context, so the nested stages and
+ * the Mongo command spans are parented to it.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ReactiveObservationAspect {
+
+    private final ObservationRegistry registry;
+
+    @Around("execution(public * io.musicdiscovery.user.infrastructure.adapters.input.rest.UserController.*(..))")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "user.controller");
+    }
+
+    @Around("execution(public * io.musicdiscovery.user.application.port.input.UserServicePort+.*(..))")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "user.service");
+    }
+
+    @Around("execution(public * io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserPersistenceAdapter.*(..))")
+    public Object observePersistence(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "user.persistence");
+    }
+
+    @Around("execution(public * io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapper+.*(..))"
+            + " || execution(public * io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapper+.*(..))")
+    public Object observeMapping(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "user.mapping");
+    }
+
+    private Object observe(ProceedingJoinPoint joinPoint, String name) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        String contextualName = joinPoint.getTarget().getClass().getSimpleName() + "#" + method;
+        return ReactiveObservations.observe(registry, name, contextualName, method,
+                ((MethodSignature) joinPoint.getSignature()).getReturnType(), joinPoint::proceed);
+    }
+}
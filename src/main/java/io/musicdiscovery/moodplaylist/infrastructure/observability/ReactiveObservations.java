@@ -0,0 +1,95 @@
+package io.musicdiscovery.user.infrastructure.observability;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Helpers to observe a call whose result may be a {@link Mono} or a {@link Flux}.
+ * A reactive result is observed when it is subscribed: its parent is taken from
+ * the subscriber's Reactor context and the call itself is made inside the
+ * observation scope, so work done while assembling the pipeline is attributed
+ * to it too. Any other result is observed for the duration of the call.
+ */
+public final class ReactiveObservations {
+
+    private ReactiveObservations() {
+    }
+
+    /**
+     * A call that may throw anything, like a proceeding join point.
+     */
+    @FunctionalInterface
+    public interface Call {
+        Object proceed() throws Throwable;
+    }
+
+    /**
+     * Observes a call.
+     *
+     * @param registry the observation registry
+     * @param name the observation name, one per stage
+     * @param contextualName the span name
+     * @param method the low cardinality method tag
+     * @param returnType the declared return type of the call
+     * @param call the call to observe
+     * @return the result of the call, wrapped when reactive
+     * @throws Throwable what a non reactive call throws
+     */
+    public static Object observe(ObservationRegistry registry, String name, String contextualName, String method,
+            Class<?> returnType, Call call) throws Throwable {
+        if (Mono.class.isAssignableFrom(returnType)) {
+            return Mono.deferContextual(context -> {
+                Observation observation = start(registry, name, contextualName, method, context);
+                Mono<?> result;
+                try (Observation.Scope scope = observation.openScope()) {
+                    result = (Mono<?>) call.proceed();
+                } catch (Throwable error) {
+                    result = Mono.error(error);
+                }
+                return result.doOnError(observation::error)
+                        .doFinally(signal -> observation.stop())
+                        .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+            });
+        }
+        if (Flux.class.isAssignableFrom(returnType)) {
+            return Flux.deferContextual(context -> {
+                Observation observation = start(registry, name, contextualName, method, context);
+                Flux<?> result;
+                try (Observation.Scope scope = observation.openScope()) {
+                    result = (Flux<?>) call.proceed();
+                } catch (Throwable error) {
+                    result = Flux.error(error);
+                }
+                return result.doOnError(observation::error)
+                        .doFinally(signal -> observation.stop())
+                        .contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY, observation));
+            });
+        }
+        Observation observation = Observation.createNotStarted(name, registry)
+                .contextualName(contextualName)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return call.proceed();
+        } catch (Throwable error) {
+            observation.error(error);
+            throw error;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static Observation start(ObservationRegistry registry, String name, String contextualName, String method,
+            ContextView context) {
+        Observation parent = context.getOrDefault(ObservationThreadLocalAccessor.KEY, null);
+        return Observation.createNotStarted(name, registry)
+                .contextualName(contextualName)
+                .lowCardinalityKeyValue("method", method)
+                .parentObservation(parent != null ? parent : registry.getCurrentObservation())
+                .start();
+    }
+}
@@ -0,0 +1,15 @@
+package io.musicdiscovery.user.infrastructure.tenancy;
+
+/**
+ * A white-label app served by the deployment, with the location of its users and its
+ * share of the resources.
+ *
+ * @param id the tenant id, sent by the clients in the tenant header
+ * @param database the database of the users, or null for the database of the service
+ * @param collection the collection of the users
+ * @param maxConnections the size of a connection pool dedicated to the tenant, or 0 to
+ *        share the pool of the service
+ * @param cacheMaxSize the maximum number of users of the tenant in the near cache
+ */
+public record Tenant(String id, String database, String collection, int maxConnections, long cacheMaxSize) {
+}
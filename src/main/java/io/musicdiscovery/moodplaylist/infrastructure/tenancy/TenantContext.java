@@ -0,0 +1,39 @@
+package io.musicdiscovery.user.infrastructure.tenancy;
+
+import java.util.Optional;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Carries the tenant of a request in the Reactor context, from the web filter that
+ * resolves it to the adapters that route by it. Requests of the default tenant, and
+ * work started outside a request, carry no tenant.
+ */
+public final class TenantContext {
+
+    private static final String KEY = TenantContext.class.getName();
+
+    private TenantContext() {
+    }
+
+    /**
+     * Creates the context of a request of a tenant.
+     *
+     * @param tenant the tenant id
+     * @return the context holding the tenant
+     */
+    public static Context of(String tenant) {
+        return Context.of(KEY, tenant);
+    }
+
+    /**
+     * Reads the tenant of a request.
+     *
+     * @param context the Reactor context of the request
+     * @return the tenant id, or empty for the default tenant
+     */
+    public static Optional<String> tenant(ContextView context) {
+        return context.getOrEmpty(KEY);
+    }
+}
@@ -0,0 +1,105 @@
+package io.musicdiscovery.user.infrastructure.tenancy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.musicdiscovery.user.application.port.output.TenantScopePort;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * The tenants served by the deployment. Tenant ids end up in collection names and metric
+ * tags, so they are restricted to lower-case letters, digits, {@code _} and {@code -}.
+ */
+public class TenantRegistry implements TenantScopePort {
+
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    private final Tenant defaultTenant;
+    private final Map<String, Tenant> tenants = new LinkedHashMap<>();
+
+    /**
+     * Creates the registry.
+     *
+     * @param defaultTenant the tenant of the requests sent without tenant
+     * @param others the other tenants
+     */
+    public TenantRegistry(Tenant defaultTenant, Collection<Tenant> others) {
+        this.defaultTenant = defaultTenant;
+        register(defaultTenant);
+        others.forEach(this::register);
+    }
+
+    private void register(Tenant tenant) {
+        if (!TENANT_ID.matcher(tenant.id()).matches()) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenant.id());
+        }
+        if (tenants.putIfAbsent(tenant.id(), tenant) != null) {
+            throw new IllegalArgumentException("Duplicate tenant id: " + tenant.id());
+        }
+    }
+
+    public Tenant defaultTenant() {
+        return defaultTenant;
+    }
+
+    /**
+     * Finds a tenant.
+     *
+     * @param id the tenant id
+     * @return the tenant, or empty if it is not served
+     */
+    public Optional<Tenant> find(String id) {
+        return Optional.ofNullable(tenants.get(id));
+    }
+
+    /**
+     * Returns the tenant of a request.
+     *
+     * @param context the Reactor context of the request
+     * @return the tenant in the context, or the default tenant
+     */
+    public Tenant current(ContextView context) {
+        return TenantContext.tenant(context).map(tenants::get).orElse(defaultTenant);
+    }
+
+    /**
+     * Tells whether the request being served belongs to the default tenant.
+     *
+     * @return a Mono emitting true if the Reactor context carries no tenant or the default one
+     */
+    @Override
+    public Mono<Boolean> isDefaultTenant() {
+        return Mono.deferContextual(context -> Mono.just(current(context) == defaultTenant));
+    }
+
+    /**
+     * Returns every tenant, the default one first.
+     *
+     * @return the tenants
+     */
+    public Collection<Tenant> all() {
+        return Collections.unmodifiableCollection(tenants.values());
+    }
+
+    /**
+     * Returns a registry registering the meters in another one with a {@code tenant} tag,
+     * so the same components built once per tenant report separate series.
+     *
+     * @param meterRegistry the registry of the service
+     * @param tenant the tenant
+     * @return the registry of the tenant
+     */
+    public static MeterRegistry meterRegistry(MeterRegistry meterRegistry, Tenant tenant) {
+        CompositeMeterRegistry tenantRegistry = new CompositeMeterRegistry();
+        tenantRegistry.config().commonTags("tenant", tenant.id());
+        tenantRegistry.add(meterRegistry);
+        return tenantRegistry;
+    }
+}
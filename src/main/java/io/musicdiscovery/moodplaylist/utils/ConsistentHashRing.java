@@ -0,0 +1,135 @@
+package io.musicdiscovery.user.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Consistent hash ring: every node is placed at a number of virtual points on a 63-bit
+ * ring, and a key belongs to the node of the first point at or after its hash, wrapping
+ * around. Adding or removing a node only moves the keys of the arcs it gains or loses,
+ * about {@code 1/n} of them, and the virtual points even out the share of every node.
+ * <p>
+ * Keys and the points {@code <node>#<i>} are hashed with the 64-bit FNV-1a hash of their
+ * UTF-8 bytes, mixed by the MurmurHash3 64-bit finalizer and masked to 63 bits, so a
+ * client can place keys on the published points without this class. Immutable.
+ */
+public class ConsistentHashRing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] hashes;
+    private final String[] nodes;
+    private final Set<String> members;
+
+    /**
+     * A point of the ring.
+     *
+     * @param hash the position of the point
+     * @param node the node owning the arc ending at the point
+     */
+    public record Point(long hash, String node) {
+    }
+
+    /**
+     * Creates the ring.
+     *
+     * @param nodes the nodes, at least one
+     * @param virtualNodes the number of points of every node
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("The ring needs at least one node and one point per node");
+        }
+        this.members = Collections.unmodifiableSet(new LinkedHashSet<>(nodes));
+        List<Point> points = new ArrayList<>(members.size() * virtualNodes);
+        for (String node : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.add(new Point(hash(node + "#" + i), node));
+            }
+        }
+        points.sort(Comparator.comparingLong(Point::hash).thenComparing(Point::node));
+        this.hashes = new long[points.size()];
+        this.nodes = new String[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            hashes[i] = points.get(i).hash();
+            this.nodes[i] = points.get(i).node();
+        }
+    }
+
+    /**
+     * Finds the node owning a key.
+     *
+     * @param key the key
+     * @return the node of the first point at or after the hash of the key
+     */
+    public String owner(String key) {
+        int index = Arrays.binarySearch(hashes, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return nodes[index == hashes.length ? 0 : index];
+    }
+
+    /**
+     * Computes the share of the ring owned by a node, the expected share of the keys it gets.
+     *
+     * @param node the node
+     * @return the fraction of the ring covered by the arcs of the node, 0 if it is not a member
+     */
+    public double share(String node) {
+        double size = (double) Long.MAX_VALUE + 1;
+        double owned = 0;
+        for (int i = 0; i < hashes.length; i++) {
+            if (nodes[i].equals(node)) {
+                owned += i == 0 ? hashes[0] + (size - hashes[hashes.length - 1]) : hashes[i] - hashes[i - 1];
+            }
+        }
+        return owned / size;
+    }
+
+    /**
+     * @return the nodes of the ring
+     */
+    public Set<String> members() {
+        return members;
+    }
+
+    /**
+     * @return the points of the ring, in ring order
+     */
+    public List<Point> points() {
+        List<Point> points = new ArrayList<>(hashes.length);
+        for (int i = 0; i < hashes.length; i++) {
+            points.add(new Point(hashes[i], nodes[i]));
+        }
+        return points;
+    }
+
+    /**
+     * Hashes a key onto the ring.
+     *
+     * @param key the key
+     * @return the position of the key, between 0 and {@link Long#MAX_VALUE}
+     */
+    public static long hash(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash & Long.MAX_VALUE;
+    }
+}
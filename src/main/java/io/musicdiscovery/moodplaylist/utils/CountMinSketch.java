@@ -0,0 +1,143 @@
+package io.musicdiscovery.user.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe Count-Min sketch of string frequencies accepting positive and negative
+ * updates. As long as the true count of every key stays non-negative, the estimate of
+ * a key never undercounts it and overcounts it by at most {@code e / width} times the
+ * total count with probability {@code 1 - e^-depth}.
+ * <p>
+ * Sketches of the same dimensions are linear: the cells of two sketches can be added
+ * together, which is how local deltas are merged into a shared sketch.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray cells;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.cells = new AtomicLongArray(depth * width);
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * Adds a delta, positive or negative, to the count of a key.
+     *
+     * @param key the key
+     * @param delta the delta to add
+     */
+    public void add(String key, long delta) {
+        long hash = BloomFilter.hash64(key);
+        for (int row = 0; row < depth; row++) {
+            cells.addAndGet(cell(hash, row), delta);
+        }
+    }
+
+    /**
+     * Estimates the count of a key.
+     *
+     * @param key the key
+     * @return the estimated count, never negative
+     */
+    public long estimate(String key) {
+        return estimate(key, this);
+    }
+
+    /**
+     * Estimates the count of a key over the sum of several sketches of the same dimensions,
+     * without materializing the merged sketch.
+     *
+     * @param key the key
+     * @param sketches the sketches to add up
+     * @return the estimated count, never negative
+     */
+    public static long estimate(String key, CountMinSketch... sketches) {
+        CountMinSketch first = sketches[0];
+        long hash = BloomFilter.hash64(key);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < first.depth; row++) {
+            int cell = first.cell(hash, row);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                sum += sketch.cells.get(cell);
+            }
+            min = Math.min(min, sum);
+        }
+        return Math.max(0, min);
+    }
+
+    /**
+     * Adds the given cells, laid out row after row, to this sketch.
+     *
+     * @param other the cells of a sketch with the same dimensions
+     */
+    public void merge(long[] other) {
+        checkLength(other);
+        for (int i = 0; i < other.length; i++) {
+            if (other[i] != 0) {
+                cells.addAndGet(i, other[i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the cells of this sketch.
+     *
+     * @param other the cells of a sketch with the same dimensions
+     */
+    public void load(long[] other) {
+        checkLength(other);
+        for (int i = 0; i < other.length; i++) {
+            cells.set(i, other[i]);
+        }
+    }
+
+    /**
+     * Returns the cells of this sketch and resets them to zero. Updates racing with the
+     * drain end up either in the returned cells or in the sketch, never in both.
+     *
+     * @return the cells, laid out row after row
+     */
+    public long[] drain() {
+        long[] drained = new long[cells.length()];
+        for (int i = 0; i < drained.length; i++) {
+            drained[i] = cells.getAndSet(i, 0);
+        }
+        return drained;
+    }
+
+    /**
+     * Resets every cell to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < cells.length(); i++) {
+            cells.set(i, 0);
+        }
+    }
+
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + (int) Math.floorMod(h1 + (long) (row + 1) * h2, (long) width);
+    }
+
+    private void checkLength(long[] other) {
+        if (other.length != cells.length()) {
+            throw new IllegalArgumentException("Expected " + cells.length() + " cells but got " + other.length);
+        }
+    }
+}
@@ -7,7 +7,15 @@ public enum ErrorCatalog {
 
 	USER_NOT_FOUND("ERR_STUDENT_001", "User not found."),
 	INVALID_USER("ERR_STUDENT_002", "Invalid user parameters."),
-	GENERIC_ERROR("ERR_GEN_001", "An unexpected error occurred.");
+	USER_ALREADY_EXISTS("ERR_STUDENT_003", "A user with this email already exists."),
+	GENERIC_ERROR("ERR_GEN_001", "An unexpected error occurred."),
+	SERVICE_UNAVAILABLE("ERR_GEN_002", "The service is temporarily unavailable, retry later."),
+	TIMEOUT("ERR_GEN_003", "The request timed out, retry later."),
+	PAYLOAD_TOO_LARGE("ERR_GEN_004", "The request payload exceeds the allowed size."),
+	IDEMPOTENCY_KEY_MISMATCH("ERR_GEN_005", "The idempotency key was already used with a different request."),
+	IDEMPOTENCY_KEY_IN_USE("ERR_GEN_006", "A request with this idempotency key is in progress, retry later."),
+	UNKNOWN_TENANT("ERR_GEN_007", "The tenant of the request is not served by this deployment."),
+	DEFAULT_TENANT_ONLY("ERR_GEN_008", "This resource is only served to the default tenant.");
 
 	private final String code;
 	private final String message;
@@ -0,0 +1,63 @@
+package io.musicdiscovery.user.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer shared by the indexed search fields and the search queries:
+ * text is split on anything that is not a letter or digit, case-folded and
+ * stripped of diacritics, so "Albarracín" is found by "albarra".
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Tokenizes a text.
+     *
+     * @param text the text to tokenize, may be null
+     * @return the distinct tokens in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        addTokens(text, tokens);
+        return new ArrayList<>(tokens);
+    }
+
+    /**
+     * Tokenizes several texts into a single list of distinct tokens.
+     *
+     * @param texts the texts to tokenize, may be null
+     * @return the distinct tokens in order of appearance
+     */
+    public static List<String> tokenize(Collection<String> texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (texts != null) {
+            texts.forEach(text -> addTokens(text, tokens));
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static void addTokens(String text, Set<String> tokens) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+    }
+}
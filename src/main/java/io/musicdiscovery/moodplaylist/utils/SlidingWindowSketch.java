@@ -0,0 +1,87 @@
+package io.musicdiscovery.user.utils;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-Min sketch of the string frequencies of a sliding time window. The window is split
+ * into buckets, each a sketch of its own; the oldest bucket is cleared when the window
+ * slides past it and the estimate adds up the live buckets. The window therefore covers
+ * between {@code (buckets - 1) / buckets} of its duration and its full duration.
+ */
+public class SlidingWindowSketch {
+
+    private final CountMinSketch[] buckets;
+    private final long bucketNanos;
+    private final LongSupplier nanoClock;
+    private volatile long currentSlot;
+
+    /**
+     * Creates the sketch.
+     *
+     * @param depth the depth of each bucket
+     * @param width the width of each bucket
+     * @param window the duration of the window
+     * @param bucketCount the number of buckets the window is split into
+     * @param nanoClock the clock, in nanoseconds
+     */
+    public SlidingWindowSketch(int depth, int width, Duration window, int bucketCount, LongSupplier nanoClock) {
+        if (bucketCount < 2 || window.toNanos() < bucketCount) {
+            throw new IllegalArgumentException("The window needs at least 2 buckets of 1ns");
+        }
+        this.buckets = new CountMinSketch[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new CountMinSketch(depth, width);
+        }
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.nanoClock = nanoClock;
+        this.currentSlot = Math.floorDiv(nanoClock.getAsLong(), bucketNanos);
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @param key the key
+     * @return the estimated count of the key over the window, this occurrence included
+     */
+    public long increment(String key) {
+        long slot = slide();
+        buckets[bucket(slot)].add(key, 1);
+        return CountMinSketch.estimate(key, buckets);
+    }
+
+    /**
+     * Estimates the count of a key over the window.
+     *
+     * @param key the key
+     * @return the estimated count, never negative
+     */
+    public long estimate(String key) {
+        slide();
+        return CountMinSketch.estimate(key, buckets);
+    }
+
+    /**
+     * Clears the buckets the window slid past since the last call. Occurrences counted
+     * while a bucket is being cleared may be lost, which only makes a key look colder.
+     */
+    private long slide() {
+        long slot = Math.floorDiv(nanoClock.getAsLong(), bucketNanos);
+        if (slot > currentSlot) {
+            synchronized (this) {
+                long previous = currentSlot;
+                if (slot > previous) {
+                    for (long expired = previous + 1; expired <= Math.min(slot, previous + buckets.length); expired++) {
+                        buckets[bucket(expired)].clear();
+                    }
+                    currentSlot = slot;
+                }
+            }
+        }
+        return slot;
+    }
+
+    private int bucket(long slot) {
+        return (int) Math.floorMod(slot, (long) buckets.length);
+    }
+}
@@ -0,0 +1,124 @@
+package io.musicdiscovery.user.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving summary of the most frequent keys of a stream in a fixed number of
+ * counters. Every key whose frequency exceeds {@code total / capacity} is guaranteed
+ * to be tracked; when the summary is full a new key replaces the least counted one and
+ * inherits its count, so the counts are upper bounds.
+ * <p>
+ * The summary only selects candidates: callers rank them with an exact or sketched
+ * count. Each key carries the label it was first offered with, and the keys offered
+ * since the last {@link #drainTouched()} are remembered so they can be published.
+ */
+public class SpaceSaving {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(
+            Comparator.comparingLong((Counter counter) -> counter.count).thenComparingLong(counter -> counter.sequence));
+    private final Map<String, String> touched = new LinkedHashMap<>();
+    private long sequence;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Counts one occurrence of a key.
+     *
+     * @param key the key
+     * @param label the label shown for the key, kept from the first offer
+     */
+    public synchronized void offer(String key, String label) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+            counter.sequence = ++sequence;
+            byCount.add(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key, label, 1, ++sequence);
+            counters.put(key, counter);
+            byCount.add(counter);
+        } else {
+            Counter evicted = byCount.pollFirst();
+            counters.remove(evicted.key);
+            touched.remove(evicted.key);
+            counter = new Counter(key, label, evicted.count + 1, ++sequence);
+            counters.put(key, counter);
+            byCount.add(counter);
+        }
+        touched.put(key, counter.label);
+    }
+
+    /**
+     * Returns the tracked keys and their labels.
+     *
+     * @return a copy of the tracked keys mapped to their labels
+     */
+    public synchronized Map<String, String> candidates() {
+        Map<String, String> candidates = new HashMap<>();
+        counters.values().forEach(counter -> candidates.put(counter.key, counter.label));
+        return candidates;
+    }
+
+    /**
+     * Returns the tracked keys offered since the previous call and forgets them.
+     *
+     * @return the touched keys mapped to their labels, in first touch order
+     */
+    public synchronized Map<String, String> drainTouched() {
+        Map<String, String> drained = new LinkedHashMap<>(touched);
+        touched.clear();
+        return drained;
+    }
+
+    /**
+     * Marks keys as touched again, e.g. after publishing them failed.
+     *
+     * @param keys the keys mapped to their labels
+     */
+    public synchronized void touch(Map<String, String> keys) {
+        keys.forEach((key, label) -> {
+            if (counters.containsKey(key)) {
+                touched.putIfAbsent(key, label);
+            }
+        });
+    }
+
+    /**
+     * Returns the tracked keys, the most counted first.
+     *
+     * @return the keys in descending count order
+     */
+    public synchronized List<String> keysByCount() {
+        List<String> keys = new ArrayList<>(counters.size());
+        byCount.descendingIterator().forEachRemaining(counter -> keys.add(counter.key));
+        return keys;
+    }
+
+    private static final class Counter {
+        private final String key;
+        private final String label;
+        private long count;
+        private long sequence;
+
+        private Counter(String key, String label, long count, long sequence) {
+            this.key = key;
+            this.label = label;
+            this.count = count;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.musicdiscovery.user.utils;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timer wheel: schedules millions of timers at a cost independent of their
+ * number. Level 0 has one slot per tick; every slot of level {@code n} spans a whole turn of
+ * level {@code n - 1}, so a few levels of a few slots cover a long horizon. A timer is put in
+ * the level whose span fits its delay, and the slot of an upper level is spread over the
+ * lower levels when the wheel reaches it, until its timers fire from level 0.
+ * <p>
+ * Scheduling is constant time and a tick only visits the due slots. A timer is a single
+ * node chained in its slot; there is no cancellation, a timer that no longer matters is
+ * expected to be ignored when it fires. Deadlines are rounded up to the next tick, so a
+ * timer never fires early. Not thread-safe.
+ *
+ * @param <T> the type of the items scheduled
+ */
+public class TimerWheel<T> {
+
+    private final long tickMillis;
+    private final int slotBits;
+    private final int levels;
+    private final Node<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    private static final class Node<T> {
+        private final T item;
+        private final long deadlineTick;
+        private Node<T> next;
+
+        private Node(T item, long deadlineTick, Node<T> next) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+            this.next = next;
+        }
+    }
+
+    /**
+     * Creates the wheel.
+     *
+     * @param tickMillis the duration of a tick, in milliseconds
+     * @param slotsPerLevel the number of slots of every level, a power of two
+     * @param levels the number of levels
+     * @param nowMillis the current time, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slotsPerLevel, int levels, long nowMillis) {
+        if (tickMillis < 1 || slotsPerLevel < 2 || Integer.bitCount(slotsPerLevel) != 1 || levels < 1
+                || Integer.numberOfTrailingZeros(slotsPerLevel) * levels > 62) {
+            throw new IllegalArgumentException("The wheel needs a tick of 1ms, a power of two slots and a horizon "
+                    + "of at most 2^62 ticks");
+        }
+        this.tickMillis = tickMillis;
+        this.slotBits = Integer.numberOfTrailingZeros(slotsPerLevel);
+        this.levels = levels;
+        this.wheels = new Node[levels][slotsPerLevel];
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules an item.
+     *
+     * @param item the item
+     * @param deadlineMillis the time the item is due, in milliseconds; a past deadline is due at the next tick
+     * @return false if the deadline is beyond the horizon of the wheel, in which case the item is not scheduled
+     */
+    public boolean schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        if (deadlineTick - currentTick >= 1L << (slotBits * levels)) {
+            return false;
+        }
+        insert(new Node<>(item, deadlineTick, null));
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the wheel to the current time, handing over the items due on the way.
+     *
+     * @param nowMillis the current time, in milliseconds
+     * @param due receives the due items, in deadline order across ticks
+     */
+    public void advance(long nowMillis, Consumer<T> due) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (slotBits * level)) - 1)) == 0) {
+                    Node<T> node = take(level, slot(currentTick, level));
+                    while (node != null) {
+                        Node<T> next = node.next;
+                        insert(node);
+                        node = next;
+                    }
+                }
+            }
+            Node<T> node = take(0, slot(currentTick, 0));
+            while (node != null) {
+                size--;
+                due.accept(node.item);
+                node = node.next;
+            }
+        }
+    }
+
+    /**
+     * @return the number of items scheduled
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the horizon of the wheel, in milliseconds
+     */
+    public long horizonMillis() {
+        return tickMillis * ((1L << (slotBits * levels)) - 1);
+    }
+
+    /**
+     * Chains a node in the slot of the lowest level whose turn covers its delay.
+     */
+    private void insert(Node<T> node) {
+        long delay = node.deadlineTick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delay >= 1L << (slotBits * (level + 1))) {
+            level++;
+        }
+        int slot = slot(node.deadlineTick, level);
+        node.next = wheels[level][slot];
+        wheels[level][slot] = node;
+    }
+
+    private Node<T> take(int level, int slot) {
+        Node<T> head = wheels[level][slot];
+        wheels[level][slot] = null;
+        return head;
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick >>> (slotBits * level)) & ((1 << slotBits) - 1));
+    }
+}
@@ -0,0 +1,86 @@
+package io.musicdiscovery.user.application.service;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.application.port.output.TenantScopePort;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class MoodExpiryServiceTest {
+
+    private final UserPersistencePort userRepository = mock(UserPersistencePort.class);
+    private final UserPopularityPort userPopularity = mock(UserPopularityPort.class);
+    private final MoodChangePort moodChangeFeed = mock(MoodChangePort.class);
+    private final TenantScopePort tenantScope = mock(TenantScopePort.class);
+    private final MoodExpiryService service = new MoodExpiryService(userRepository, userPopularity, moodChangeFeed,
+            tenantScope);
+
+    /**
+     * Test that every expired mood is recorded in the popularity counters and published as a change to no mood.
+     */
+    @Test
+    void testExpireMoods_RecordsAndPublishesChanges() {
+        Instant setBefore = Instant.parse("2026-01-01T00:00:00Z");
+        User expired = new User("1", "Marcelo", "marcelo@gmail.com", Mood.HAPPY, setBefore, List.of(Genre.ROCK),
+                List.of("The Beatles"));
+        when(userRepository.expireMoods(List.of("1", "2"), setBefore, 2)).thenReturn(Mono.just(List.of(expired)));
+        when(tenantScope.isDefaultTenant()).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.expireMoods(List.of("1", "2"), setBefore, 2))
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(userPopularity).recordChange(argThat(before -> before.getMood() == Mood.HAPPY),
+                argThat(after -> after.getMood() == null && after.getMoodSetAt() == null
+                        && after.getPreferredGenre().equals(List.of(Genre.ROCK))));
+        verify(moodChangeFeed).publish(argThat(change -> "1".equals(change.getUserId())
+                && change.getPrevious() == Mood.HAPPY && change.getCurrent() == null));
+    }
+
+    /**
+     * Test that the moods expired in another tenant are neither recorded in the popularity counters nor published.
+     */
+    @Test
+    void testExpireMoods_OtherTenantIsNotRecorded() {
+        Instant setBefore = Instant.parse("2026-01-01T00:00:00Z");
+        User expired = new User("1", "Marcelo", "marcelo@gmail.com", Mood.HAPPY, setBefore, List.of(Genre.ROCK),
+                List.of("The Beatles"));
+        when(userRepository.expireMoods(null, setBefore, 10)).thenReturn(Mono.just(List.of(expired)));
+        when(tenantScope.isDefaultTenant()).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.expireMoods(null, setBefore, 10))
+                .expectNext(1)
+                .verifyComplete();
+
+        verifyNoInteractions(userPopularity);
+        verifyNoInteractions(moodChangeFeed);
+    }
+
+    /**
+     * Test that an empty batch of ids does not reach the repository.
+     */
+    @Test
+    void testExpireMoods_EmptyBatch() {
+        StepVerifier.create(service.expireMoods(List.of(), Instant.now(), 10))
+                .expectNext(0)
+                .verifyComplete();
+
+        verifyNoInteractions(userRepository);
+        verifyNoInteractions(moodChangeFeed);
+    }
+}
@@ -0,0 +1,66 @@
+package io.musicdiscovery.user.application.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.musicdiscovery.user.application.port.output.UserQueryPort;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.PlaylistProfile;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class PlaylistProfileServiceTest {
+
+    private final UserQueryPort userQuery = mock(UserQueryPort.class);
+    private final PlaylistProfileService service = new PlaylistProfileService(userQuery);
+
+    /**
+     * Test that the profile of a user is read from the read model.
+     */
+    @Test
+    void testGetProfile() {
+        PlaylistProfile profile = new PlaylistProfile("1", Mood.HAPPY, List.of(Genre.ROCK), List.of("The Beatles"),
+                Instant.now());
+        when(userQuery.findProfile("1")).thenReturn(Mono.just(profile));
+
+        StepVerifier.create(service.getProfile("1")).expectNext(profile).verifyComplete();
+    }
+
+    /**
+     * Test that a user without profile is reported as not found.
+     */
+    @Test
+    void testGetProfileNotFound() {
+        when(userQuery.findProfile(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getProfile("1"))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    /**
+     * Test that the number of profiles of a mood is clamped to the allowed range.
+     */
+    @Test
+    void testGetProfilesByMoodClampsLimit() {
+        when(userQuery.findProfilesByMood(Mood.HAPPY, Genre.ROCK, PlaylistProfileService.MAX_PROFILES))
+                .thenReturn(Flux.empty());
+        when(userQuery.findProfilesByMood(Mood.HAPPY, null, 1)).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.getProfilesByMood(Mood.HAPPY, Genre.ROCK, 1_000_000)).verifyComplete();
+        StepVerifier.create(service.getProfilesByMood(Mood.HAPPY, null, 0)).verifyComplete();
+
+        verify(userQuery).findProfilesByMood(Mood.HAPPY, Genre.ROCK, PlaylistProfileService.MAX_PROFILES);
+        verify(userQuery).findProfilesByMood(Mood.HAPPY, null, 1);
+    }
+}
@@ -5,28 +5,71 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.application.port.output.MoodExpiryPort;
+import io.musicdiscovery.user.application.port.output.TenantScopePort;
+import io.musicdiscovery.user.application.port.output.UserIdGeneratorPort;
 import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyInUseException;
+import io.musicdiscovery.user.domain.exception.IdempotencyKeyMismatchException;
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
 import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
 import io.musicdiscovery.user.domain.model.User;
 import io.musicdiscovery.user.domain.model.enums.Mood;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
 
 public class UserServiceTest {
 
     @Mock
     private UserPersistencePort userRepository;
 
+    @Mock
+    private UserIdGeneratorPort userIdGenerator;
+
+    @Mock
+    private UserPopularityPort userPopularity;
+
+    @Mock
+    private MoodChangePort moodChangeFeed;
+
+    @Mock
+    private IdempotencyPort idempotency;
+
+    @Mock
+    private MoodExpiryPort moodExpiry;
+
+    @Mock
+    private TenantScopePort tenantScope;
+
     @InjectMocks
     private UserService userService;
 
@@ -35,6 +78,8 @@ public class UserServiceTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(moodExpiry.schedule(anyString(), any(Instant.class))).thenReturn(Mono.empty());
+        when(tenantScope.isDefaultTenant()).thenReturn(Mono.just(true));
         testUser = new User();
         testUser.setId("1");
         testUser.setName("John Doe");
@@ -77,6 +122,7 @@ public class UserServiceTest {
      */
     @Test
     public void testCreateUser() {
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(false));
         when(userRepository.save(testUser)).thenReturn(Mono.just(testUser));
 
         Mono<User> result = userService.createUser(testUser);
@@ -84,6 +130,154 @@ public class UserServiceTest {
         assertNotNull(result);
         assertEquals("John Doe", result.block().getName());
         verify(userRepository).save(testUser);
+        verify(userPopularity).recordChange(null, testUser);
+    }
+
+    /**
+     * Tests the createUser method assigns an id from the id generator when none is provided.
+     */
+    @Test
+    public void testCreateUser_AssignsGeneratedId() {
+        testUser.setId(null);
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(false));
+        when(userIdGenerator.nextId()).thenReturn("66f56b94831c3d47cc76cb54");
+        when(userRepository.save(testUser)).thenReturn(Mono.just(testUser));
+
+        User result = userService.createUser(testUser).block();
+
+        assertEquals("66f56b94831c3d47cc76cb54", result.getId());
+        verify(userIdGenerator).nextId();
+        verify(userRepository).save(testUser);
+    }
+
+    /**
+     * Tests the createUser method normalizes the email and rejects an already registered one.
+     */
+    @Test
+    public void testCreateUser_EmailAlreadyExists() {
+        testUser.setEmail(" John@Example.com ");
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(true));
+
+        Exception exception = assertThrows(UserAlreadyExistsException.class, () -> {
+            userService.createUser(testUser).block();
+        });
+
+        assertEquals("User already exists with email: john@example.com", exception.getMessage());
+        verify(userRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that a retry with the same idempotency key and user gets the stored user without saving it again.
+     */
+    @Test
+    public void testCreateUser_IdempotencyKeyReplaysResult() {
+        testUser.setId(null);
+        when(userIdGenerator.nextId()).thenReturn("1");
+        when(idempotency.reserve(eq("key-1"), anyString())).thenReturn(Mono.empty());
+        when(idempotency.complete(eq("key-1"), anyString(), any())).thenReturn(Mono.empty());
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(false));
+        when(userRepository.save(testUser)).thenReturn(Mono.just(testUser));
+
+        assertEquals("1", userService.createUser(testUser, "key-1").block().getId());
+
+        ArgumentCaptor<String> fingerprint = ArgumentCaptor.forClass(String.class);
+        verify(idempotency).complete(eq("key-1"), fingerprint.capture(), eq(testUser));
+        when(idempotency.reserve("key-1", fingerprint.getValue()))
+                .thenReturn(Mono.just(new IdempotencyRecord("key-1", fingerprint.getValue(), testUser, null)));
+
+        User retry = new User(null, "John Doe", "John@Example.com", null, null, List.of(), List.of());
+        assertEquals("1", userService.createUser(retry, "key-1").block().getId());
+        verify(userRepository, times(1)).save(any());
+    }
+
+    /**
+     * Tests that an idempotency key reused with a different user is rejected without saving it.
+     */
+    @Test
+    public void testCreateUser_IdempotencyKeyMismatch() {
+        when(idempotency.reserve(eq("key-1"), anyString()))
+                .thenReturn(Mono.just(new IdempotencyRecord("key-1", "other", testUser, null)));
+
+        StepVerifier.create(userService.createUser(testUser, "key-1"))
+                .expectError(IdempotencyKeyMismatchException.class)
+                .verify();
+
+        verify(userRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that a retry arriving while another instance holds the idempotency key is asked to retry later.
+     */
+    @Test
+    public void testCreateUser_IdempotencyKeyInProgress() {
+        when(idempotency.reserve(eq("key-1"), anyString())).thenAnswer(invocation -> Mono.just(
+                new IdempotencyRecord("key-1", invocation.getArgument(1), null, null)));
+
+        StepVerifier.create(userService.createUser(testUser, "key-1"))
+                .expectError(IdempotencyKeyInUseException.class)
+                .verify();
+
+        verify(userRepository, never()).save(any());
+    }
+
+    /**
+     * Tests that concurrent duplicates on the same instance share a single creation.
+     */
+    @Test
+    public void testCreateUser_CoalescesConcurrentDuplicates() {
+        testUser.setId(null);
+        when(userIdGenerator.nextId()).thenReturn("1");
+        Sinks.Empty<IdempotencyRecord> reserved = Sinks.empty();
+        when(idempotency.reserve(eq("key-1"), anyString())).thenReturn(reserved.asMono());
+        when(idempotency.complete(eq("key-1"), anyString(), any())).thenReturn(Mono.empty());
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(false));
+        when(userRepository.save(testUser)).thenReturn(Mono.just(testUser));
+
+        Mono<List<User>> both = Mono.zip(userService.createUser(testUser, "key-1"),
+                userService.createUser(new User(null, "John Doe", "john@example.com", null, null, List.of(), List.of()),
+                        "key-1"),
+                List::of);
+
+        StepVerifier.create(both)
+                .then(reserved::tryEmitEmpty)
+                .assertNext(users -> {
+                    assertEquals("1", users.get(0).getId());
+                    assertEquals("1", users.get(1).getId());
+                })
+                .verifyComplete();
+
+        verify(idempotency, times(1)).reserve(eq("key-1"), anyString());
+        verify(userRepository, times(1)).save(any());
+    }
+
+    /**
+     * Tests that a failed creation releases the idempotency key so a retry executes it again.
+     */
+    @Test
+    public void testCreateUser_FailureReleasesIdempotencyKey() {
+        when(idempotency.reserve(eq("key-1"), anyString())).thenReturn(Mono.empty());
+        when(idempotency.release("key-1")).thenReturn(Mono.empty());
+        when(userRepository.existsByEmail("john@example.com")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.createUser(testUser, "key-1"))
+                .expectError(UserAlreadyExistsException.class)
+                .verify();
+
+        verify(idempotency).release("key-1");
+        verify(idempotency, never()).complete(anyString(), anyString(), any());
+    }
+
+    /**
+     * Tests the getUserByEmail method looks the user up by the normalized email.
+     */
+    @Test
+    public void testGetUserByEmail_UserExists() {
+        when(userRepository.findByEmail("john@example.com")).thenReturn(Mono.just(testUser));
+
+        User result = userService.getUserByEmail("JOHN@example.com").block();
+
+        assertEquals("John Doe", result.getName());
+        verify(userRepository).findByEmail("john@example.com");
     }
 
     /**
@@ -100,14 +294,50 @@ public class UserServiceTest {
         updatedUser.setFavoriteArtist(List.of());
         updatedUser.setPreferredGenre(List.of());
 
-        when(userRepository.save(testUser)).thenReturn(Mono.just(updatedUser));
+        when(userRepository.existsByEmail("jan@example.com")).thenReturn(Mono.just(false));
+        when(userRepository.update(testUser)).thenReturn(Mono.just(updatedUser));
 
         Mono<User> result = userService.updateUser("1", updatedUser);
 
         assertNotNull(result);
         assertEquals("Jane Doe", result.block().getName());
         verify(userRepository).findById("1");
-        verify(userRepository).save(testUser);
+        verify(userRepository).existsByEmail("jan@example.com");
+        verify(userRepository).update(testUser);
+    }
+
+    /**
+     * Tests that updateUser rejects an email registered to another user without saving.
+     */
+    @Test
+    public void testUpdateUser_EmailTakenByAnotherUser() {
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.existsByEmail("jane@example.com")).thenReturn(Mono.just(true));
+        User updatedUser = new User();
+        updatedUser.setEmail(" Jane@Example.com ");
+
+        StepVerifier.create(userService.updateUser("1", updatedUser))
+                .expectError(UserAlreadyExistsException.class)
+                .verify();
+
+        verify(userRepository, never()).update(any(User.class));
+    }
+
+    /**
+     * Tests that updateUser does not look up the email the user already has.
+     */
+    @Test
+    public void testUpdateUser_SameEmailIsNoConflict() {
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(testUser)).thenReturn(Mono.just(testUser));
+        User updatedUser = new User();
+        updatedUser.setEmail("John@Example.com");
+
+        StepVerifier.create(userService.updateUser("1", updatedUser))
+                .expectNext(testUser)
+                .verifyComplete();
+
+        verify(userRepository, never()).existsByEmail(anyString());
     }
 
     /**
@@ -154,10 +384,100 @@ public class UserServiceTest {
         assertDoesNotThrow(() -> result.block());
         verify(userRepository).findById("1");
         verify(userRepository).deleteById("1");
+        verify(userPopularity).recordChange(testUser, null);
+    }
+
+    /**
+     * Tests the deleteUser method for an unknown user ID.
+     */
+    @Test
+    public void testDeleteUser_UserNotFound() {
+        when(userRepository.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.deleteUser("1"))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verify(userRepository, never()).deleteById("1");
+        verifyNoInteractions(userPopularity);
+    }
+
+    /**
+     * Tests that updating the mood records the change with the mood the user had before.
+     */
+    @Test
+    public void testUpdateMood_RecordsPreviousMood() {
+        testUser.setMood(Mood.SAD);
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(userPopularity).recordChange(argThat(before -> before.getMood() == Mood.SAD),
+                argThat(after -> after.getMood() == Mood.HAPPY));
+    }
+
+    /**
+     * Tests that updating the mood publishes the change, and that setting the same mood again does not.
+     */
+    @Test
+    public void testUpdateMood_PublishesMoodChange() {
+        testUser.setMood(Mood.SAD);
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY)).expectNextCount(1).verifyComplete();
+
+        verify(moodChangeFeed).publish(argThat(change -> "1".equals(change.getUserId())
+                && change.getPrevious() == Mood.SAD && change.getCurrent() == Mood.HAPPY && change.getChangedAt() != null));
+    }
+
+    /**
+     * Tests that the changes of another tenant are saved but neither recorded in the popularity counters nor published.
+     */
+    @Test
+    public void testUpdateMood_OtherTenantIsNotRecorded() {
+        when(tenantScope.isDefaultTenant()).thenReturn(Mono.just(false));
+        testUser.setMood(Mood.SAD);
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(userRepository.deleteById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY))
+                .expectNextMatches(user -> user.getMood() == Mood.HAPPY)
+                .verifyComplete();
+        StepVerifier.create(userService.deleteUser("1")).verifyComplete();
+
+        verify(userRepository).deleteById("1");
+        verify(moodExpiry).schedule(eq("1"), any(Instant.class));
+        verifyNoInteractions(userPopularity);
+        verifyNoInteractions(moodChangeFeed);
     }
     
     
     
+    /**
+     * Tests that setting a mood stamps its time and schedules its expiration, and that clearing it does not.
+     */
+    @Test
+    public void testUpdateMood_SchedulesExpiry() {
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(any(User.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY))
+                .expectNextMatches(user -> user.getMoodSetAt() != null)
+                .verifyComplete();
+        verify(moodExpiry).schedule("1", testUser.getMoodSetAt());
+
+        StepVerifier.create(userService.updateMood("1", null))
+                .expectNextMatches(user -> user.getMoodSetAt() == null)
+                .verifyComplete();
+        verify(moodExpiry, times(1)).schedule(anyString(), any(Instant.class));
+    }
+
     /**
      * Tests the update mood User method for updating an existing user.
      */
@@ -173,7 +493,7 @@ public class UserServiceTest {
         updatedUser.setFavoriteArtist(List.of());
         updatedUser.setPreferredGenre(List.of());
 
-        when(userRepository.save(testUser)).thenReturn(Mono.just(updatedUser));
+        when(userRepository.update(testUser)).thenReturn(Mono.just(updatedUser));
 
         Mono<User> result = userService.updateMood("1", Mood.EXERCISE);
 
@@ -183,6 +503,22 @@ public class UserServiceTest {
     }
     
     
+    /**
+     * Tests that a mood update of a user deleted after it was read fails as not found without recording the change.
+     */
+    @Test
+    public void testUpdateMood_UserDeletedMeanwhile() {
+        when(userRepository.findById("1")).thenReturn(Mono.just(testUser));
+        when(userRepository.update(testUser)).thenReturn(Mono.error(UserNotFoundException.withId("1")));
+
+        StepVerifier.create(userService.updateMood("1", Mood.HAPPY))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verifyNoInteractions(userPopularity, moodChangeFeed);
+        verify(userRepository, never()).save(any(User.class));
+    }
+
     /**
      * Tests the update Mood User method for a non-existing user ID.
      */
@@ -198,4 +534,63 @@ public class UserServiceTest {
         verify(userRepository).findById("999");
     }
 
+    /**
+     * Tests that the search query is tokenized, case-folded and stripped of accents before reaching the port.
+     */
+    @Test
+    public void testSearchUsers_NormalizesQuery() {
+        when(userRepository.search(List.of("albarracin", "the"), 40L, 20)).thenReturn(Flux.just(testUser));
+
+        StepVerifier.create(userService.searchUsers("  Albarracín THE ", 2, 20))
+                .expectNext(testUser)
+                .verifyComplete();
+    }
+
+    /**
+     * Tests that the search page size is capped and a negative page is treated as the first one.
+     */
+    @Test
+    public void testSearchUsers_ClampsPaging() {
+        when(userRepository.search(List.of("bea"), 0L, UserService.MAX_SEARCH_PAGE_SIZE)).thenReturn(Flux.empty());
+
+        StepVerifier.create(userService.searchUsers("bea", -3, 10_000))
+                .verifyComplete();
+
+        verify(userRepository).search(List.of("bea"), 0L, UserService.MAX_SEARCH_PAGE_SIZE);
+    }
+
+    /**
+     * Tests that a query without any word does not hit the persistence port.
+     */
+    @Test
+    public void testSearchUsers_BlankQuery() {
+        StepVerifier.create(userService.searchUsers(" - ", 0, 20))
+                .verifyComplete();
+
+        verify(userRepository, never()).search(anyList(), anyLong(), anyInt());
+    }
+
+    /**
+     * Tests that words shorter than the minimum prefix are dropped and only the first words are searched.
+     */
+    @Test
+    public void testSearchUsers_BoundsTokens() {
+        when(userRepository.search(List.of("aa", "bb", "cc", "dd", "ee"), 0L, 20)).thenReturn(Flux.empty());
+
+        StepVerifier.create(userService.searchUsers("a aa b bb cc dd ee ff gg", 0, 20))
+                .verifyComplete();
+
+        verify(userRepository).search(List.of("aa", "bb", "cc", "dd", "ee"), 0L, 20);
+    }
+
+    /**
+     * Tests that a query made of single letters only does not hit the persistence port.
+     */
+    @Test
+    public void testSearchUsers_OnlyShortWords() {
+        StepVerifier.create(userService.searchUsers("a b c", 0, 20))
+                .verifyComplete();
+
+        verify(userRepository, never()).search(anyList(), anyLong(), anyInt());
+    }
 }
@@ -0,0 +1,106 @@
+package io.musicdiscovery.user.benchmark;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.AccessLogWebFilter;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the latency the access log adds to a request, with one thread per core
+ * serving requests as fast as they can: no access log, the default sampling of 1% of
+ * the successful requests, and every request logged. The access logger is wired as in
+ * {@code logback-spring.xml}, an asynchronous appender in front of an encoder, writing
+ * to a discarding stream so the console speed does not matter.
+ * The chain answers at once, so the filter is the whole request: the difference between
+ * the modes is the full cost of the access log.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=AccessLog
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(Threads.MAX)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AccessLogBenchmark {
+
+    private static final WebFilterChain OK = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        return Mono.empty();
+    };
+
+    @Param({ "off", "sampled", "all" })
+    private String mode;
+
+    private AccessLogWebFilter filter;
+    private AsyncAppender appender;
+
+    @Setup(Level.Trial)
+    public void start() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+        appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(16384);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(output);
+        appender.start();
+
+        Logger accessLogger = context.getLogger("access");
+        accessLogger.detachAndStopAllAppenders();
+        accessLogger.setAdditive(false);
+        accessLogger.setLevel(ch.qos.logback.classic.Level.INFO);
+        accessLogger.addAppender(appender);
+
+        filter = new AccessLogWebFilter("all".equals(mode) ? 1.0 : 0.01, Duration.ofMillis(500), "X-Tenant-ID");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public Object getById() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/users/66f4bdf541bae35a29ecd68f"));
+        return "off".equals(mode) ? OK.filter(exchange).block() : filter.filter(exchange, OK).block();
+    }
+}
@@ -0,0 +1,141 @@
+package io.musicdiscovery.user.benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Compares HTTP/1.1 with h2c, with and without gzip compression, over the loopback
+ * interface: the GET /users listing of 1000 users and 64 concurrent small responses.
+ * The servers are configured like the application's (compression above 2KB, h2c next to
+ * HTTP/1.1) and the client keeps its connections alive; the bytes received per request,
+ * headers and framing included, are printed at the end of every trial.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HttpTransport
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HttpTransportBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int CONCURRENCY = 64;
+    private static final int MIN_COMPRESSED_SIZE = 2048;
+
+    @Param({ "HTTP11", "H2C" })
+    private HttpProtocol protocol;
+
+    @Param({ "false", "true" })
+    private boolean compress;
+
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+
+    private DisposableServer server;
+    private ConnectionProvider connections;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        byte[] listing = new ObjectMapper().writeValueAsBytes(IntStream.range(0, USERS)
+                .mapToObj(i -> UserResponse.builder().id("id-" + i).name("User " + i).email("user" + i + "@gmail.com")
+                        .mood(Mood.HAPPY).preferredGenre(List.of(Genre.ROCK, Genre.JAZZ))
+                        .favoriteArtist(List.of("The Beatles", "Miles Davis")).build())
+                .toList());
+        byte[] user = new ObjectMapper().writeValueAsBytes(UserResponse.builder().id("id-42").name("User 42")
+                .email("user42@gmail.com").mood(Mood.HAPPY).preferredGenre(List.of(Genre.ROCK)).favoriteArtist(List.of())
+                .build());
+
+        HttpServer httpServer = HttpServer.create().host("localhost").port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(routes -> routes
+                        .get("/users", (request, response) -> json(response.header(HttpHeaderNames.CONTENT_LENGTH,
+                                String.valueOf(listing.length))).sendByteArray(Mono.just(listing)))
+                        .get("/users/{id}", (request, response) -> json(response.header(HttpHeaderNames.CONTENT_LENGTH,
+                                String.valueOf(user.length))).sendByteArray(Mono.just(user))));
+        server = (compress ? httpServer.compress(MIN_COMPRESSED_SIZE) : httpServer).bindNow();
+
+        connections = ConnectionProvider.builder("benchmark").maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1).maxIdleTime(Duration.ofSeconds(60)).build();
+        client = HttpClient.create(connections).baseUrl("http://localhost:" + server.port())
+                .protocol(protocol)
+                .compress(compress)
+                .doOnChannelInit((observer, channel, address) -> channel.pipeline().addFirst("wire-bytes",
+                        new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext context, Object message) {
+                                if (message instanceof ByteBuf buffer) {
+                                    wireBytes.addAndGet(buffer.readableBytes());
+                                }
+                                context.fireChannelRead(message);
+                            }
+                        }));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.printf("%n%s compress=%s: %d bytes received per request%n", protocol, compress,
+                requests.get() == 0 ? 0 : wireBytes.get() / requests.get());
+        connections.disposeLater().block();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public int getAll() {
+        return get("/users").block();
+    }
+
+    @Benchmark
+    public int concurrentGetById() {
+        return Flux.range(0, CONCURRENCY)
+                .flatMap(i -> get("/users/id-42"), CONCURRENCY)
+                .reduce(0, Integer::sum)
+                .block();
+    }
+
+    private Mono<Integer> get(String uri) {
+        requests.incrementAndGet();
+        return client.get().uri(uri).responseContent().aggregate().asByteArray().map(body -> body.length);
+    }
+
+    private static HttpServerResponse json(HttpServerResponse response) {
+        return response.header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+    }
+}
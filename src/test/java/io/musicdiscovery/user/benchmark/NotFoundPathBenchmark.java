@@ -0,0 +1,170 @@
+package io.musicdiscovery.user.benchmark;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.output.MoodChangePort;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.application.port.output.UserPopularityPort;
+import io.musicdiscovery.user.application.service.UserService;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import io.musicdiscovery.user.domain.model.MoodChange;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.DefaultExceptionHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the GET /users/{id} miss path before and after the allocation-light
+ * error handling: the legacy variant reproduces the eager exception with stack
+ * trace and message concatenation plus the per-error HashMap body.
+ * The call stack here is shallow; in the running server the captured stack is
+ * much deeper, so the real saving on the legacy path is larger.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=NotFoundPath
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NotFoundPathBenchmark {
+
+    private static final String ID = "66f4bdf541bae35a29ecd68f";
+
+    private final UserPersistencePort persistence = new EmptyUserPersistencePort();
+    private final UserService userService = new UserService(persistence, () -> ID, new NoopUserPopularityPort(),
+            new NoopMoodChangePort(), null, (userId, moodSetAt) -> Mono.empty(), () -> Mono.just(true));
+    private final DefaultExceptionHandler handler = new DefaultExceptionHandler(new SimpleMeterRegistry());
+
+    @Benchmark
+    public ResponseEntity<?> legacyNotFound() {
+        return persistence.findById(ID)
+                .switchIfEmpty(Mono.error(new LegacyUserNotFoundException("User not found with ID: " + ID)))
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(LegacyUserNotFoundException.class, ex -> {
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("status", HttpStatus.NOT_FOUND.value());
+                    errorResponse.put("message", ex.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse));
+                })
+                .block();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> notFound() {
+        return userService.getUserById(ID)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(UserNotFoundException.class, handler::handleUserNotFoundException)
+                .block();
+    }
+
+    private static class LegacyUserNotFoundException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LegacyUserNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private static class NoopUserPopularityPort implements UserPopularityPort {
+
+        @Override
+        public void recordChange(User before, User after) {
+        }
+
+        @Override
+        public List<ArtistPopularity> topArtists(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public List<GenreShare> genreSharesByMood() {
+            return List.of();
+        }
+    }
+
+    private static class NoopMoodChangePort implements MoodChangePort {
+
+        @Override
+        public void publish(MoodChange change) {
+        }
+
+        @Override
+        public Flux<MoodChange> changes() {
+            return Flux.never();
+        }
+    }
+
+    private static class EmptyUserPersistencePort implements UserPersistencePort {
+
+        @Override
+        public Mono<List<User>> findAll() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Flux<User> streamAll() {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<User> findById(String id) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<User> findByEmail(String email) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Boolean> existsByEmail(String email) {
+            return Mono.just(false);
+        }
+
+        @Override
+        public Flux<User> search(List<String> queryTokens, long skip, int limit) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<User> save(User user) {
+            return Mono.just(user);
+        }
+
+        @Override
+        public Mono<User> update(User user) {
+            return Mono.just(user);
+        }
+
+        @Override
+        public Mono<Void> deleteById(String id) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<List<User>> expireMoods(List<String> ids, Instant setBefore, int limit) {
+            return Mono.just(List.of());
+        }
+    }
+}
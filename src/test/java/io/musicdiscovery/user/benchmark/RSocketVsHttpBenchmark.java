@@ -0,0 +1,251 @@
+package io.musicdiscovery.user.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.input.UserServicePort;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.MoodChange;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.UserController;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.UserRSocketController;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.mapper.UserRSocketMapper;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Compares the RSocket adapter (CBOR over one multiplexed TCP connection) with the
+ * HTTP/JSON controller on the same in-memory service, over the loopback interface:
+ * a single lookup, a batch of ids (one request-channel against concurrent GETs) and
+ * the whole collection (one request-stream against the GET /users JSON array).
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RSocketVsHttp
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RSocketVsHttpBenchmark {
+
+    private static final int USERS = 1000;
+    private static final int BATCH_SIZE = 100;
+
+    private static final List<String> BATCH = IntStream.range(0, BATCH_SIZE).mapToObj(i -> "id-" + i * 7).toList();
+
+    private AnnotationConfigApplicationContext context;
+    private DisposableServer httpServer;
+    private CloseableChannel rsocketServer;
+    private WebClient webClient;
+    private RSocketRequester requester;
+
+    @Setup
+    public void start() {
+        context = new AnnotationConfigApplicationContext(Endpoints.class);
+        httpServer = HttpServer.create().host("localhost").port(0)
+                .handle(new ReactorHttpHandlerAdapter(WebHttpHandlerBuilder.applicationContext(context).build()))
+                .bindNow();
+        RSocketMessageHandler handler = context.getBean(RSocketMessageHandler.class);
+        rsocketServer = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+
+        webClient = WebClient.create("http://localhost:" + httpServer.port());
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(handler.getRSocketStrategies())
+                .dataMimeType(MediaType.APPLICATION_CBOR)
+                .tcp("localhost", rsocketServer.address().getPort());
+    }
+
+    @TearDown
+    public void stop() {
+        requester.dispose();
+        rsocketServer.dispose();
+        httpServer.disposeNow();
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse httpGetById() {
+        return webClient.get().uri("/users/{id}", "id-42").retrieve().bodyToMono(UserResponse.class).block();
+    }
+
+    @Benchmark
+    public UserResponse rsocketGetById() {
+        return requester.route("users.get.{id}", "id-42").retrieveMono(UserResponse.class).block();
+    }
+
+    @Benchmark
+    public List<UserResponse> httpBatchGet() {
+        return Flux.fromIterable(BATCH)
+                .flatMapSequential(id -> webClient.get().uri("/users/{id}", id).retrieve().bodyToMono(UserResponse.class), 32)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<UserResponse> rsocketBatchGet() {
+        return requester.route("users.batch-get").data(Flux.fromIterable(BATCH))
+                .retrieveFlux(UserResponse.class)
+                .collectList()
+                .block();
+    }
+
+    @Benchmark
+    public List<UserResponse> httpGetAll() {
+        return webClient.get().uri("/users").retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<UserResponse>>() {
+                })
+                .block();
+    }
+
+    @Benchmark
+    public List<UserResponse> rsocketStreamAll() {
+        return requester.route("users.stream-all").retrieveFlux(UserResponse.class).collectList().block();
+    }
+
+    @Configuration
+    @EnableWebFlux
+    static class Endpoints {
+
+        @Bean
+        UserServicePort userServicePort() {
+            return new InMemoryUserService();
+        }
+
+        @Bean
+        UserRestMapper userRestMapper() {
+            return Mappers.getMapper(UserRestMapper.class);
+        }
+
+        @Bean
+        UserController userController(UserServicePort userServicePort, UserRestMapper userRestMapper) {
+            return new UserController(userServicePort, userRestMapper,
+                    new TenantRegistry(new Tenant("default", null, "users", 0, 100), List.of()));
+        }
+
+        @Bean
+        UserRSocketController userRSocketController(UserServicePort userServicePort, UserRestMapper userRestMapper) {
+            return new UserRSocketController(userServicePort, userRestMapper, Mappers.getMapper(UserRSocketMapper.class),
+                    new SimpleMeterRegistry());
+        }
+
+        @Bean
+        RSocketMessageHandler rsocketMessageHandler() {
+            RSocketMessageHandler handler = new RSocketMessageHandler();
+            handler.setRSocketStrategies(RSocketStrategies.builder()
+                    .encoder(new Jackson2CborEncoder())
+                    .decoder(new Jackson2CborDecoder())
+                    .build());
+            return handler;
+        }
+    }
+
+    private static class InMemoryUserService implements UserServicePort {
+
+        private final List<User> users = IntStream.range(0, USERS)
+                .mapToObj(i -> new User("id-" + i, "User " + i, "user" + i + "@gmail.com", Mood.HAPPY, null,
+                        List.of(Genre.ROCK, Genre.JAZZ), List.of("The Beatles", "Miles Davis")))
+                .toList();
+        private final Map<String, User> byId = users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        @Override
+        public Mono<User> getUserById(String id) {
+            User user = byId.get(id);
+            return user == null ? Mono.error(UserNotFoundException.withId(id)) : Mono.just(user);
+        }
+
+        @Override
+        public Mono<User> getUserByEmail(String email) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<User> createUser(User user) {
+            return Mono.just(user);
+        }
+
+        @Override
+        public Mono<User> createUser(User user, String idempotencyKey) {
+            return Mono.just(user);
+        }
+
+        @Override
+        public Mono<User> updateUser(String id, User user) {
+            return Mono.just(user);
+        }
+
+        @Override
+        public Mono<List<User>> getAllUsers() {
+            return Mono.just(users);
+        }
+
+        @Override
+        public Flux<User> streamAllUsers() {
+            return Flux.fromIterable(users);
+        }
+
+        @Override
+        public Flux<User> searchUsers(String query, int page, int size) {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<Void> deleteUser(String id) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<User> updateMood(String id, Mood mood) {
+            return getUserById(id);
+        }
+
+        @Override
+        public Flux<MoodChange> moodChanges() {
+            return Flux.never();
+        }
+    }
+}
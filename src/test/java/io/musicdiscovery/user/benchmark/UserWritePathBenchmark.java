@@ -0,0 +1,101 @@
+package io.musicdiscovery.user.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapperImpl;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.validation.UserRequestValidator;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapper;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapperImpl;
+import io.musicdiscovery.user.utils.SearchTokenizer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/**
+ * Compares the work done on a user creation between reading the request and handing the
+ * document to the driver: Bean Validation, then a copy of the lists at every mapping and
+ * the saved entity mapped back to a user, as the write path used to do, against the
+ * request validator and the mappers handing the lists over, the saved user being the
+ * given one. The search tokens are computed in both. Run with the GC profiler to compare
+ * the bytes allocated per operation:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark=UserWritePath "-Dbenchmark.args=-prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserWritePathBenchmark {
+
+    private final UserRestMapper restMapper = new UserRestMapperImpl();
+    private final UserPersistenceMapper persistenceMapper = new UserPersistenceMapperImpl();
+
+    private ValidatorFactory validatorFactory;
+    private Validator beanValidator;
+    private UserCreateRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+        request = new UserCreateRequest("Marcelo Alejandro Albarracín", "marceloalejandro.albarracin@gmail.com",
+                Mood.HAPPY, new ArrayList<>(List.of(Genre.ROCK, Genre.JAZZ)),
+                new ArrayList<>(List.of("The Beatles", "Miles Davis", "Soda Stereo")));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void beanValidationAndCopies(Blackhole blackhole) {
+        if (!beanValidator.validate(request).isEmpty()) {
+            throw new IllegalStateException();
+        }
+        User user = new User(null, request.getName(), request.getEmail(), request.getMood(), null,
+                new ArrayList<>(request.getPreferredGenre()), new ArrayList<>(request.getFavoriteArtist()));
+        UserEntity entity = new UserEntity(user.getId(), user.getName(), user.getEmail(), user.getMood(),
+                user.getMoodSetAt(), new ArrayList<>(user.getPreferredGenre()),
+                new ArrayList<>(user.getFavoriteArtist()),
+                SearchTokenizer.tokenize(user.getName()), SearchTokenizer.tokenize(user.getFavoriteArtist()),
+                null, null);
+        blackhole.consume(entity);
+        blackhole.consume(new User(entity.getId(), entity.getName(), entity.getEmail(), entity.getMood(),
+                entity.getMoodSetAt(), new ArrayList<>(entity.getPreferredGenre()),
+                new ArrayList<>(entity.getFavoriteArtist())));
+    }
+
+    @Benchmark
+    public void validatorAndHandOver(Blackhole blackhole) {
+        if (UserRequestValidator.violations(request) != null) {
+            throw new IllegalStateException();
+        }
+        User user = restMapper.toUser(request);
+        blackhole.consume(persistenceMapper.toUserEntity(user));
+        blackhole.consume(user);
+    }
+}
@@ -0,0 +1,144 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.expiry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.input.MoodExpiryServicePort;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class MoodExpirySchedulerTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final MoodExpiryServicePort moodExpiry = mock(MoodExpiryServicePort.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(START);
+    private final TenantRegistry tenants = new TenantRegistry(new Tenant("default", null, "users", 0, 100),
+            List.of(new Tenant("acme", null, "users_acme", 0, 100)));
+
+    /**
+     * Test that the moods scheduled fire once their time to live is over, in batches, in the tenant they were set in.
+     */
+    @Test
+    void testScheduledMoodsExpireInBatchesOnceDue() {
+        MoodExpiryScheduler scheduler = scheduler(10, 2);
+        when(moodExpiry.expireMoods(anyList(), any(Instant.class), anyInt()))
+                .thenAnswer(invocation -> Mono.just(invocation.<List<String>>getArgument(0).size()));
+        for (String id : List.of("1", "2", "3")) {
+            scheduler.schedule(id, Instant.ofEpochMilli(START)).contextWrite(TenantContext.of("acme")).block();
+        }
+        assertEquals(3.0, meterRegistry.get("user.mood_expiry.timers").gauge().value());
+
+        clock.set(START + 9_999);
+        StepVerifier.create(scheduler.expireDue()).expectNext(0L).verifyComplete();
+        verifyNoInteractions(moodExpiry);
+
+        clock.set(START + 10_000);
+        StepVerifier.create(scheduler.expireDue()).expectNext(3L).verifyComplete();
+
+        ArgumentCaptor<List<String>> ids = ArgumentCaptor.captor();
+        verify(moodExpiry, times(2)).expireMoods(ids.capture(), eq(Instant.ofEpochMilli(START)), anyInt());
+        assertEquals(Set.of("1", "2", "3"), new HashSet<>(ids.getAllValues().stream().flatMap(List::stream).toList()));
+        assertEquals(List.of(2, 1), ids.getAllValues().stream().map(List::size).toList());
+        assertEquals(0.0, meterRegistry.get("user.mood_expiry.timers").gauge().value());
+        assertEquals(3.0, meterRegistry.get("user.mood_expiry.expired").tag("source", "wheel").counter().count());
+    }
+
+    /**
+     * Test that timers on the upper levels of the wheel cascade down and fire on their own tick.
+     */
+    @Test
+    void testTimersCascadeDownTheLevels() {
+        MoodExpiryScheduler scheduler = scheduler(10, 100);
+        Map<String, Long> firedAt = new HashMap<>();
+        when(moodExpiry.expireMoods(anyList(), any(Instant.class), anyInt())).thenAnswer(invocation -> {
+            invocation.<List<String>>getArgument(0).forEach(id -> firedAt.put(id, clock.get() - START));
+            return Mono.just(invocation.<List<String>>getArgument(0).size());
+        });
+        scheduler.schedule("soon", Instant.ofEpochMilli(START)).block();
+        scheduler.schedule("later", Instant.ofEpochMilli(START + 50_500)).block();
+
+        for (int second = 1; second <= 70; second++) {
+            clock.set(START + second * 1_000L);
+            scheduler.expireDue().block();
+        }
+
+        assertEquals(Map.of("soon", 10_000L, "later", 61_000L), firedAt);
+    }
+
+    /**
+     * Test that the moods beyond the capacity of the wheel are left to the sweep.
+     */
+    @Test
+    void testTimersBeyondCapacityDeferredToSweep() {
+        MoodExpiryScheduler scheduler = new MoodExpiryScheduler(moodExpiry, tenants, new MigrationThrottle(1_000_000),
+                new MoodExpiryScheduler.Settings(Duration.ofSeconds(10), Duration.ofSeconds(1), 4, 3, 1, 2,
+                        Duration.ofMinutes(5)),
+                clock::get, meterRegistry);
+
+        scheduler.schedule("1", Instant.ofEpochMilli(START)).block();
+        scheduler.schedule("2", Instant.ofEpochMilli(START)).block();
+        scheduler.schedule("3", Instant.ofEpochMilli(START).plus(Duration.ofDays(1))).block();
+
+        assertEquals(1.0, meterRegistry.get("user.mood_expiry.timers").gauge().value());
+        assertEquals(2.0, meterRegistry.counter("user.mood_expiry.deferred").count());
+    }
+
+    /**
+     * Test that the sweep expires the due moods of every tenant batch after batch until a batch comes back short.
+     */
+    @Test
+    void testSweepExpiresDueMoodsOfEveryTenant() {
+        MoodExpiryScheduler scheduler = scheduler(10, 2);
+        Queue<Integer> batches = new ArrayDeque<>(List.of(2, 1, 0));
+        List<String> swept = new ArrayList<>();
+        when(moodExpiry.expireMoods(isNull(), any(Instant.class), eq(2)))
+                .thenAnswer(invocation -> Mono.deferContextual(context -> {
+                    swept.add(TenantContext.tenant(context).orElseThrow());
+                    return Mono.just(batches.remove());
+                }));
+
+        StepVerifier.create(scheduler.sweep()).expectNext(3L).verifyComplete();
+
+        assertEquals(List.of("default", "default", "acme"), swept);
+        verify(moodExpiry, times(3)).expireMoods(isNull(), eq(Instant.ofEpochMilli(START - 10_000)), eq(2));
+        assertEquals(3.0, meterRegistry.get("user.mood_expiry.expired").tag("source", "sweep").counter().count());
+    }
+
+    private MoodExpiryScheduler scheduler(long ttlSeconds, int batchSize) {
+        return new MoodExpiryScheduler(moodExpiry, tenants, new MigrationThrottle(1_000_000),
+                new MoodExpiryScheduler.Settings(Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(1), 4, 3, 1_000,
+                        batchSize, Duration.ofMinutes(5)),
+                clock::get, meterRegistry);
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,9 +13,9 @@ import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.web.server.ServerWebInputException;
 
 import io.musicdiscovery.user.application.port.input.UserServicePort;
 import io.musicdiscovery.user.domain.exception.UserNotFoundException;
@@ -25,6 +26,10 @@ import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRest
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UpdateMoodRequest;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
 import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -36,12 +41,14 @@ class UserControllerTest {
     @Mock
     private UserRestMapper restMapper;
 
-    @InjectMocks
     private UserController userController;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        TenantRegistry tenants = new TenantRegistry(new Tenant("default", null, "users", 0, 100),
+                List.of(new Tenant("acme", null, "acme_users", 0, 100)));
+        userController = new UserController(userServicePort, restMapper, tenants);
     }
 
     /**
@@ -93,6 +100,54 @@ class UserControllerTest {
         verify(restMapper, never()).toUserResponse(any());
     }
 
+    /**
+     * Test to retrieve a user by email.
+     */
+    @Test
+    void testGetUserByEmail_UserExists() {
+        User mockUser = new User();
+        mockUser.setId("123");
+        mockUser.setName("Marcelo");
+        mockUser.setEmail("marcelo@gmail.com");
+
+        UserResponse mockResponse = new UserResponse();
+        mockResponse.setId("123");
+        mockResponse.setName("Marcelo");
+        mockResponse.setEmail("marcelo@gmail.com");
+
+        when(userServicePort.getUserByEmail("Marcelo@gmail.com")).thenReturn(Mono.just(mockUser));
+        when(restMapper.toUserResponse(mockUser)).thenReturn(mockResponse);
+
+        StepVerifier.create(userController.getUserByEmail("Marcelo@gmail.com"))
+                .expectNext(mockResponse)
+                .verifyComplete();
+
+        verify(userServicePort).getUserByEmail("Marcelo@gmail.com");
+    }
+
+    /**
+     * Test to search users by prefix, streaming the ranked page.
+     */
+    @Test
+    void testSearchUsers() {
+        User mockUser = new User();
+        mockUser.setId("123");
+        mockUser.setName("Marcelo");
+
+        UserResponse mockResponse = new UserResponse();
+        mockResponse.setId("123");
+        mockResponse.setName("Marcelo");
+
+        when(userServicePort.searchUsers("marc", 0, 20)).thenReturn(Flux.just(mockUser));
+        when(restMapper.toUserResponse(mockUser)).thenReturn(mockResponse);
+
+        StepVerifier.create(userController.searchUsers("marc", 0, 20))
+                .expectNext(mockResponse)
+                .verifyComplete();
+
+        verify(userServicePort).searchUsers("marc", 0, 20);
+    }
+
     /**
      * Test to create a new user.
      */
@@ -125,21 +180,99 @@ class UserControllerTest {
         mockResponse.setFavoriteArtist(List.of("The Beatles"));
         mockResponse.setPreferredGenre(List.of(Genre.ROCK));
 
-        when(userServicePort.createUser(any(User.class))).thenReturn(Mono.just(savedUser));
+        when(userServicePort.createUser(any(User.class), isNull())).thenReturn(Mono.just(savedUser));
         when(restMapper.toUser(any(UserCreateRequest.class))).thenReturn(mockUser);
         when(restMapper.toUserResponse(any(User.class))).thenReturn(mockResponse);
 
-        Mono<UserResponse> result = userController.createUser(createRequest);
+        Mono<UserResponse> result = userController.createUser(createRequest, null);
 
         StepVerifier.create(result)
                 .expectNext(mockResponse)
                 .verifyComplete();
 
-        verify(userServicePort).createUser(mockUser);
+        verify(userServicePort).createUser(mockUser, null);
         verify(restMapper).toUser(createRequest);
         verify(restMapper).toUserResponse(savedUser);
     }
 
+    /**
+     * Test that the Idempotency-Key header is passed to the service.
+     */
+    @Test
+    void testCreateUser_WithIdempotencyKey() {
+        UserCreateRequest createRequest = new UserCreateRequest("Marcelo", "marcelo@gmail.com", null,
+                List.of(Genre.ROCK), List.of("The Beatles"));
+        User mockUser = new User();
+        UserResponse mockResponse = new UserResponse();
+
+        when(restMapper.toUser(createRequest)).thenReturn(mockUser);
+        when(userServicePort.createUser(mockUser, "default:retry-1")).thenReturn(Mono.just(mockUser));
+        when(restMapper.toUserResponse(mockUser)).thenReturn(mockResponse);
+
+        StepVerifier.create(userController.createUser(createRequest, "retry-1"))
+                .expectNext(mockResponse)
+                .verifyComplete();
+
+        verify(userServicePort).createUser(mockUser, "default:retry-1");
+    }
+
+    /**
+     * Test that a default-tenant key spelled like the scoped key of another tenant does not reach that tenant's key.
+     */
+    @Test
+    void testCreateUser_IdempotencyKeyCollidingWithOtherTenant() {
+        UserCreateRequest createRequest = new UserCreateRequest("Marcelo", "marcelo@gmail.com", null,
+                List.of(Genre.ROCK), List.of("The Beatles"));
+        User mockUser = new User();
+
+        when(restMapper.toUser(createRequest)).thenReturn(mockUser);
+        when(userServicePort.createUser(any(User.class), anyString())).thenReturn(Mono.just(mockUser));
+        when(restMapper.toUserResponse(mockUser)).thenReturn(new UserResponse());
+
+        StepVerifier.create(userController.createUser(createRequest, "k1")
+                        .contextWrite(TenantContext.of("acme")))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(userController.createUser(createRequest, "acme:k1"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(userServicePort).createUser(mockUser, "acme:k1");
+        verify(userServicePort).createUser(mockUser, "default:acme:k1");
+    }
+
+    /**
+     * Test that an Idempotency-Key longer than allowed is rejected before reaching the service.
+     */
+    @Test
+    void testCreateUser_IdempotencyKeyTooLong() {
+        String key = "k".repeat(UserController.MAX_IDEMPOTENCY_KEY_LENGTH + 1);
+
+        StepVerifier.create(userController.createUser(new UserCreateRequest(), key))
+                .expectError(ServerWebInputException.class)
+                .verify();
+
+        verify(userServicePort, never()).createUser(any(User.class), anyString());
+    }
+
+    /**
+     * Test that a request violating the constraints is rejected with their messages before reaching the service.
+     */
+    @Test
+    void testCreateUser_InvalidRequest() {
+        UserCreateRequest createRequest = new UserCreateRequest(" ", "marcelo@gmail.com", null,
+                List.of(Genre.ROCK), List.of());
+
+        StepVerifier.create(userController.createUser(createRequest, null))
+                .expectErrorMatches(error -> error instanceof ServerWebInputException input
+                        && "Field name cannot be empty or null. Field favoriteArtist cannot be empty or null."
+                                .equals(input.getReason()))
+                .verify();
+
+        verify(restMapper, never()).toUser(any(UserCreateRequest.class));
+        verify(userServicePort, never()).createUser(any(User.class), isNull());
+    }
+
     /**
      * Test to update a user when the user exists.
      */
@@ -229,17 +362,17 @@ class UserControllerTest {
         
 
         when(restMapper.toUser(any(UserCreateRequest.class))).thenReturn(mockUser);
-        when(userServicePort.createUser(mockUser)).thenReturn(Mono.just(mockUser));
+        when(userServicePort.createUser(mockUser, null)).thenReturn(Mono.just(mockUser));
         when(restMapper.toUserResponse(mockUser)).thenReturn(mockResponse);
 
-        Mono<UserResponse> result = userController.createUser(request);
+        Mono<UserResponse> result = userController.createUser(request, null);
 
         StepVerifier.create(result)
                 .expectNext(mockResponse)
                 .verifyComplete();
 
         verify(restMapper).toUser(request);
-        verify(userServicePort).createUser(mockUser);
+        verify(userServicePort).createUser(mockUser, null);
         verify(restMapper).toUserResponse(mockUser);
     }
 
@@ -248,14 +381,6 @@ class UserControllerTest {
      */
     @Test
     void testDeleteUser_UserExists() {
-        User user = new User();
-        user.setId("123");
-        user.setName("Test User");
-        user.setEmail("test@example.com");
-        user.setFavoriteArtist(List.of());
-        user.setPreferredGenre(List.of());
-
-        when(userServicePort.getUserById("123")).thenReturn(Mono.just(user));
         when(userServicePort.deleteUser("123")).thenReturn(Mono.empty());
 
         Mono<Void> result = userController.deleteUser("123");
@@ -264,6 +389,7 @@ class UserControllerTest {
                 .verifyComplete();
 
         verify(userServicePort).deleteUser("123");
+        verify(userServicePort, never()).getUserById("123");
     }
 
     /**
@@ -272,7 +398,7 @@ class UserControllerTest {
     @Test
     void testDeleteUser_UserDoesNotExist() {
 
-        when(userServicePort.getUserById("123")).thenReturn(Mono.error(new UserNotFoundException("User not found with ID: 123")));
+        when(userServicePort.deleteUser("123")).thenReturn(Mono.error(new UserNotFoundException("User not found with ID: 123")));
 
         Mono<Void> result = userController.deleteUser("123");
 
@@ -281,8 +407,7 @@ class UserControllerTest {
                 throwable.getMessage().equals("User not found with ID: 123"))
             .verify();
 
-        verify(userServicePort).getUserById("123");
-        verify(userServicePort, never()).deleteUser("123");
+        verify(userServicePort).deleteUser("123");
     }
     
     /**
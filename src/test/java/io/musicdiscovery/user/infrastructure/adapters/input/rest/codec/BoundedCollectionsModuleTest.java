@@ -0,0 +1,58 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.codec;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+
+class BoundedCollectionsModuleTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new BoundedCollectionsModule(3));
+        objectMapper.getFactory().setStreamReadConstraints(StreamReadConstraints.builder().maxStringLength(20).build());
+    }
+
+    /**
+     * Test that lists up to the limit are decoded, for strings and enums alike.
+     */
+    @Test
+    void testListsWithinLimit_AreDecoded() throws Exception {
+        UserCreateRequest request = objectMapper.readValue(
+                "{\"preferredGenre\":[\"ROCK\",\"JAZZ\",\"POP\"],\"favoriteArtist\":[\"Queen\",\"Muse\",\"Blur\"]}",
+                UserCreateRequest.class);
+
+        assertEquals(3, request.getPreferredGenre().size());
+        assertEquals(3, request.getFavoriteArtist().size());
+    }
+
+    /**
+     * Test that a list over the limit is rejected with the list length reason.
+     */
+    @Test
+    void testListAboveLimit_IsRejected() {
+        Exception error = assertThrows(Exception.class, () -> objectMapper.readValue(
+                "{\"favoriteArtist\":[\"a\",\"b\",\"c\",\"d\"]}", UserCreateRequest.class));
+
+        assertEquals("list_length", PayloadRejections.reason(error));
+    }
+
+    /**
+     * Test that a string over the stream constraints is rejected with the string length reason.
+     */
+    @Test
+    void testStringAboveLimit_IsRejected() {
+        Exception error = assertThrows(Exception.class, () -> objectMapper.readValue(
+                "{\"name\":\"" + "a".repeat(21) + "\"}", UserCreateRequest.class));
+
+        assertEquals("string_length", PayloadRejections.reason(error));
+    }
+}
@@ -0,0 +1,132 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.WebFilterChain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AccessLogWebFilterTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("access");
+    private final ListAppender<ILoggingEvent> lines = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        lines.start();
+        accessLogger.addAppender(lines);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(lines);
+    }
+
+    /**
+     * Test that successful requests are not logged when the sampling leaves them out.
+     */
+    @Test
+    void testSuccessfulRequest_IsSampledOut() {
+        AccessLogWebFilter filter = new AccessLogWebFilter(0.0, Duration.ofSeconds(10), "X-Tenant-ID");
+
+        StepVerifier.create(filter.filter(get("/users/1"), respond(HttpStatus.OK))).verifyComplete();
+
+        assertEquals(0, lines.list.size());
+    }
+
+    /**
+     * Test that error responses are always logged as a JSON line.
+     */
+    @Test
+    void testErrorResponse_IsAlwaysLogged() throws Exception {
+        AccessLogWebFilter filter = new AccessLogWebFilter(0.0, Duration.ofSeconds(10), "X-Tenant-ID");
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/1")
+                .header("X-Tenant-ID", "ac\"me"));
+
+        StepVerifier.create(filter.filter(exchange, respond(HttpStatus.NOT_FOUND))).verifyComplete();
+
+        assertEquals(1, lines.list.size());
+        JsonNode line = new ObjectMapper().readTree(lines.list.get(0).getFormattedMessage());
+        assertEquals(404, line.get("status").asInt());
+        assertEquals("/users/1", line.get("path").asText());
+        assertEquals("ac\"me", line.get("tenant").asText());
+        assertEquals(1.0, line.get("sample_rate").asDouble());
+    }
+
+    /**
+     * Test that an error reaching the filter before any status is set is always logged, with the status of the error.
+     */
+    @Test
+    void testErrorSignal_IsAlwaysLogged() throws Exception {
+        AccessLogWebFilter filter = new AccessLogWebFilter(0.0, Duration.ofSeconds(10), "X-Tenant-ID");
+        WebFilterChain notFound = exchange -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        WebFilterChain failing = exchange -> Mono.error(new IllegalStateException("Connection reset"));
+
+        StepVerifier.create(filter.filter(get("/users/a/b"), notFound)).verifyError(ResponseStatusException.class);
+        StepVerifier.create(filter.filter(get("/users/1"), failing)).verifyError(IllegalStateException.class);
+
+        assertEquals(2, lines.list.size());
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(404, mapper.readTree(lines.list.get(0).getFormattedMessage()).get("status").asInt());
+        JsonNode failed = mapper.readTree(lines.list.get(1).getFormattedMessage());
+        assertEquals(500, failed.get("status").asInt());
+        assertEquals(1.0, failed.get("sample_rate").asDouble());
+    }
+
+    /**
+     * Test that requests slower than the threshold are always logged and flagged as slow.
+     */
+    @Test
+    void testSlowRequest_IsAlwaysLogged() throws Exception {
+        AccessLogWebFilter filter = new AccessLogWebFilter(0.0, Duration.ofMillis(20), "X-Tenant-ID");
+        WebFilterChain slowChain = exchange -> Mono.delay(Duration.ofMillis(30)).then();
+
+        StepVerifier.create(filter.filter(get("/users"), slowChain)).verifyComplete();
+
+        assertEquals(1, lines.list.size());
+        JsonNode line = new ObjectMapper().readTree(lines.list.get(0).getFormattedMessage());
+        assertTrue(line.get("slow").asBoolean());
+        assertTrue(line.get("duration_ms").asDouble() >= 20);
+    }
+
+    /**
+     * Test that requests outside the user endpoints are not logged.
+     */
+    @Test
+    void testOtherPaths_AreNotLogged() {
+        AccessLogWebFilter filter = new AccessLogWebFilter(1.0, Duration.ofSeconds(10), "X-Tenant-ID");
+
+        StepVerifier.create(filter.filter(get("/actuator/health"), respond(HttpStatus.OK))).verifyComplete();
+
+        assertEquals(0, lines.list.size());
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private static WebFilterChain respond(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+}
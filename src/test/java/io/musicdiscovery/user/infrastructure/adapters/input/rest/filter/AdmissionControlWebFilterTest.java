@@ -0,0 +1,155 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.filter.TokenBucketRateLimiter.Limit;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class AdmissionControlWebFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final WebFilterChain chain = exchange -> Mono.empty();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private AdmissionControlWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 0.2);
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(new Limit(2, 1), new Limit(1, 1), 100, clock::get);
+        filter = new AdmissionControlWebFilter(rateLimiter, concurrencyLimiter, "X-API-Key", meterRegistry);
+    }
+
+    /**
+     * Test that a client exceeding its read bucket receives 429 with a Retry-After header.
+     */
+    @Test
+    void testReadsAboveBucketCapacity_AreRateLimited() {
+        assertNull(run(MockServerHttpRequest.get("/users/1").header("X-API-Key", "batch")));
+        assertNull(run(MockServerHttpRequest.get("/users/1").header("X-API-Key", "batch")));
+
+        MockServerWebExchange rejected = exchange(MockServerHttpRequest.get("/users/1").header("X-API-Key", "batch"));
+        StepVerifier.create(filter.filter(rejected, chain)).verifyComplete();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("1", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, meterRegistry.get("user.admission.requests").tag("route", "read").tag("outcome", "rate_limited").counter().count());
+    }
+
+    /**
+     * Test that buckets are independent per API key and per route and refill over time.
+     */
+    @Test
+    void testBucketsArePerClientAndRoute() {
+        assertNull(run(MockServerHttpRequest.post("/users").header("X-API-Key", "batch")));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, run(MockServerHttpRequest.post("/users").header("X-API-Key", "batch")));
+
+        assertNull(run(MockServerHttpRequest.post("/users").header("X-API-Key", "mobile")));
+        assertNull(run(MockServerHttpRequest.get("/users").header("X-API-Key", "batch")));
+
+        clock.addAndGet(1_000_000_000L);
+        assertNull(run(MockServerHttpRequest.post("/users").header("X-API-Key", "batch")));
+    }
+
+    /**
+     * Test that forwarded lookups of anonymous clients are rate limited per original caller, not per forwarding replica.
+     */
+    @Test
+    void testForwardedLookups_ArePerOriginalCaller() {
+        InetSocketAddress replica = new InetSocketAddress("10.0.1.1", 40000);
+        assertNull(runForwarded(MockServerHttpRequest.post("/users").remoteAddress(replica), "10.0.0.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                runForwarded(MockServerHttpRequest.post("/users").remoteAddress(replica), "10.0.0.1"));
+
+        assertNull(runForwarded(MockServerHttpRequest.post("/users").remoteAddress(replica), "10.0.0.2"));
+    }
+
+    /**
+     * Test that anonymous clients are rate limited per remote address instead of sharing one bucket.
+     */
+    @Test
+    void testAnonymousClients_ArePerRemoteAddress() {
+        InetSocketAddress first = new InetSocketAddress("10.0.0.1", 40000);
+        InetSocketAddress second = new InetSocketAddress("10.0.0.2", 40000);
+        assertNull(run(MockServerHttpRequest.post("/users").remoteAddress(first)));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS,
+                run(MockServerHttpRequest.post("/users").remoteAddress(new InetSocketAddress("10.0.0.1", 40001))));
+
+        assertNull(run(MockServerHttpRequest.post("/users").remoteAddress(second)));
+    }
+
+    /**
+     * Test that the buckets are bounded: rotating API keys does not grow them past the maximum number of clients.
+     */
+    @Test
+    void testRotatingApiKeys_AreBounded() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(new Limit(2, 1), new Limit(1, 1), 100,
+                clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            rateLimiter.tryAcquire("key-" + i, RouteType.READ);
+        }
+
+        assertTrue(rateLimiter.trackedClients() <= 100);
+    }
+
+    /**
+     * Test that requests above the concurrency limit are shed with 503.
+     */
+    @Test
+    void testConcurrencyLimitExceeded_IsShed() {
+        concurrencyLimiter.tryAcquire();
+        concurrencyLimiter.tryAcquire();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, run(MockServerHttpRequest.get("/users/1")));
+        assertEquals(1.0, meterRegistry.get("user.admission.requests").tag("route", "read").tag("outcome", "shed").counter().count());
+    }
+
+    /**
+     * Test that endpoints outside /users, such as actuator, bypass admission control.
+     */
+    @Test
+    void testOtherPaths_BypassAdmissionControl() {
+        concurrencyLimiter.tryAcquire();
+        concurrencyLimiter.tryAcquire();
+
+        assertNull(run(MockServerHttpRequest.get("/actuator/health")));
+    }
+
+    private HttpStatus run(MockServerHttpRequest.BaseBuilder<?> request) {
+        return run(exchange(request));
+    }
+
+    private HttpStatus runForwarded(MockServerHttpRequest.BaseBuilder<?> request, String caller) {
+        MockServerWebExchange exchange = exchange(request);
+        exchange.getAttributes().put(AdmissionControlWebFilter.FORWARDED_CLIENT_ATTRIBUTE, caller);
+        return run(exchange);
+    }
+
+    private HttpStatus run(MockServerWebExchange exchange) {
+        filter.filter(exchange, chain).block();
+        return exchange.getResponse().getStatusCode() == null ? null
+                : HttpStatus.valueOf(exchange.getResponse().getStatusCode().value());
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.build());
+    }
+}
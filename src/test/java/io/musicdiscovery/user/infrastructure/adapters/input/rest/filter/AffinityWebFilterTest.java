@@ -0,0 +1,210 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing;
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing.Replica;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.test.StepVerifier;
+
+class AffinityWebFilterTest {
+
+    private static final String FORWARDED_HEADER = "X-Forwarded-By-Replica";
+    private static final String CLIENT_HEADER = "X-Forwarded-Client";
+
+    private final AtomicBoolean servedLocally = new AtomicBoolean();
+    private final WebFilterChain chain = exchange -> Mono.fromRunnable(() -> servedLocally.set(true));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MockWebServer otherReplica;
+    private ReplicaRing ring;
+    private AffinityWebFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        otherReplica = new MockWebServer();
+        otherReplica.start();
+        ring = new ReplicaRing("self", List.of(new Replica("self", URI.create("http://localhost:1")),
+                new Replica("other", otherReplica.url("/").uri())), 160);
+        filter = new AffinityWebFilter(ring, WebClient.create(), FORWARDED_HEADER, CLIENT_HEADER, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        otherReplica.shutdown();
+    }
+
+    /**
+     * Test that a lookup of a user owned by this replica is served locally.
+     */
+    @Test
+    void testOwnedUser_ServedLocally() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/"
+                + userOwnedBy("self")));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertTrue(servedLocally.get());
+        assertEquals(0, otherReplica.getRequestCount());
+        assertEquals(1.0, meterRegistry.get("user.affinity.requests").tag("route", "local").counter().count());
+    }
+
+    /**
+     * Test that a lookup of a user owned by another replica is forwarded there with its headers and its answer relayed.
+     */
+    @Test
+    void testOtherOwner_Forwarded() throws InterruptedException {
+        String userId = userOwnedBy("other");
+        otherReplica.enqueue(new MockResponse().setResponseCode(200)
+                .setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .setBody("{\"id\":\"" + userId + "\"}"));
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/" + userId)
+                .header("X-Tenant-ID", "acme")
+                .header(CLIENT_HEADER, "10.6.6.6")
+                .remoteAddress(new InetSocketAddress("10.0.0.7", 40000)));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertFalse(servedLocally.get());
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, exchange.getResponse().getHeaders().getContentType());
+        StepVerifier.create(exchange.getResponse().getBodyAsString())
+                .expectNext("{\"id\":\"" + userId + "\"}")
+                .verifyComplete();
+        RecordedRequest forwarded = otherReplica.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("/users/" + userId, forwarded.getPath());
+        assertEquals("self", forwarded.getHeader(FORWARDED_HEADER));
+        assertEquals("acme", forwarded.getHeader("X-Tenant-ID"));
+        assertEquals("10.0.0.7", forwarded.getHeader(CLIENT_HEADER));
+        assertEquals(1.0, meterRegistry.get("user.affinity.requests").tag("route", "forwarded").counter().count());
+    }
+
+    /**
+     * Test that a lookup forwarded by another replica is served locally whatever the owner.
+     */
+    @Test
+    void testForwardedRequest_ServedLocally() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/"
+                + userOwnedBy("other")).header(FORWARDED_HEADER, "other").header(CLIENT_HEADER, "10.0.0.7"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertTrue(servedLocally.get());
+        assertEquals(0, otherReplica.getRequestCount());
+        assertEquals("10.0.0.7", exchange.getAttribute(AdmissionControlWebFilter.FORWARDED_CLIENT_ATTRIBUTE));
+        assertEquals(1.0, meterRegistry.get("user.affinity.requests").tag("route", "accepted").counter().count());
+    }
+
+    /**
+     * Test that the caller address is not handed to the admission control when the forwarding replica is not on the ring.
+     */
+    @Test
+    void testForwardedByUnknownReplica_CallerAddressIgnored() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/"
+                + userOwnedBy("other")).header(FORWARDED_HEADER, "stranger").header(CLIENT_HEADER, "10.0.0.7"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertTrue(servedLocally.get());
+        assertNull(exchange.getAttribute(AdmissionControlWebFilter.FORWARDED_CLIENT_ATTRIBUTE));
+    }
+
+    /**
+     * Test that a lookup whose owner does not answer in time is served locally.
+     */
+    @Test
+    void testOwnerTooSlow_FallsBackLocally() {
+        otherReplica.enqueue(new MockResponse().setHeadersDelay(2, TimeUnit.SECONDS));
+        filter = new AffinityWebFilter(ring, WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(
+                        HttpClient.create().responseTimeout(Duration.ofMillis(100))))
+                .build(), FORWARDED_HEADER, CLIENT_HEADER, meterRegistry);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/"
+                + userOwnedBy("other")));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertTrue(servedLocally.get());
+        assertEquals(1.0, meterRegistry.get("user.affinity.requests").tag("route", "fallback").counter().count());
+    }
+
+    /**
+     * Test that a lookup whose owner is rate limiting or shedding load is served locally instead of relaying the error.
+     */
+    @Test
+    void testOwnerRejecting_FallsBackLocally() {
+        otherReplica.enqueue(new MockResponse().setResponseCode(429).setBody("{\"status\":429}"));
+        otherReplica.enqueue(new MockResponse().setResponseCode(503).setBody("{\"status\":503}"));
+
+        for (int i = 0; i < 2; i++) {
+            servedLocally.set(false);
+            MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users/"
+                    + userOwnedBy("other")));
+
+            StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+            assertTrue(servedLocally.get());
+            assertNull(exchange.getResponse().getStatusCode());
+        }
+        assertEquals(2.0, meterRegistry.get("user.affinity.requests").tag("route", "fallback").counter().count());
+    }
+
+    /**
+     * Test that the filter runs before the admission control, so a forwarded lookup is only admitted by its owner.
+     */
+    @Test
+    void testOrder_BeforeAdmissionControl() {
+        assertTrue(OrderUtils.getOrder(AffinityWebFilter.class, 0)
+                < OrderUtils.getOrder(AdmissionControlWebFilter.class, 0));
+    }
+
+    /**
+     * Test that only the lookups of a single user are routed.
+     */
+    @Test
+    void testUserId_OnlyLookupsOfASingleUser() {
+        assertEquals("42", AffinityWebFilter.userId("/users/42"));
+        assertNull(AffinityWebFilter.userId("/users/42/mood"));
+        assertNull(AffinityWebFilter.userId("/users/search"));
+        assertNull(AffinityWebFilter.userId("/users/by-email"));
+        assertNull(AffinityWebFilter.userId("/users/"));
+        assertNull(AffinityWebFilter.userId("/users"));
+    }
+
+    private String userOwnedBy(String replica) {
+        return IntStream.range(0, 1000)
+                .mapToObj(i -> "user-" + i)
+                .filter(id -> ring.owner(id).id().equals(replica))
+                .findFirst()
+                .orElseThrow();
+    }
+}
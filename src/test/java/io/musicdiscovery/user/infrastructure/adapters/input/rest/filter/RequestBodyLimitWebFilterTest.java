@@ -0,0 +1,75 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class RequestBodyLimitWebFilterTest {
+
+    private final WebFilterChain readBody = exchange -> DataBufferUtils.join(exchange.getRequest().getBody()).then();
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestBodyLimitWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestBodyLimitWebFilter(DataSize.ofBytes(10), meterRegistry);
+    }
+
+    /**
+     * Test that a declared Content-Length over the limit is rejected with 413 without reading the body.
+     */
+    @Test
+    void testDeclaredLengthAboveLimit_IsRejected() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/users")
+                .contentLength(11)
+                .body(Flux.error(new AssertionError("body read"))));
+
+        StepVerifier.create(filter.filter(exchange, readBody)).verifyComplete();
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exchange.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.get("user.payload.rejected").tag("reason", "content_length").counter().count());
+    }
+
+    /**
+     * Test that a body without Content-Length fails as soon as the bytes read exceed the limit.
+     */
+    @Test
+    void testStreamedBodyAboveLimit_FailsWhileReading() {
+        DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/users")
+                .body(Flux.just("123456", "7890", "1", "never read")
+                        .map(chunk -> buffers.wrap(chunk.getBytes(StandardCharsets.UTF_8)))));
+
+        StepVerifier.create(filter.filter(exchange, readBody))
+                .expectErrorMatches(error -> error instanceof PayloadLimitExceededException limit
+                        && "body_size".equals(limit.getReason()))
+                .verify();
+    }
+
+    /**
+     * Test that a body within the limit is passed through.
+     */
+    @Test
+    void testBodyWithinLimit_IsRead() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/users").body("{}"));
+
+        StepVerifier.create(filter.filter(exchange, readBody)).verifyComplete();
+    }
+}
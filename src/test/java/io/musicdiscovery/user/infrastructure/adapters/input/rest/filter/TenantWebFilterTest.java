@@ -0,0 +1,102 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.filter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TenantWebFilterTest {
+
+    private final AtomicReference<Optional<String>> seenTenant = new AtomicReference<>();
+    private final WebFilterChain chain = exchange -> Mono.deferContextual(context -> {
+        seenTenant.set(TenantContext.tenant(context));
+        return Mono.empty();
+    });
+
+    private SimpleMeterRegistry meterRegistry;
+    private TenantWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        TenantRegistry tenants = new TenantRegistry(new Tenant("default", null, "users", 0, 100),
+                List.of(new Tenant("acme", null, "users_acme", 10, 100)));
+        filter = new TenantWebFilter(tenants, "X-Tenant-ID", meterRegistry);
+    }
+
+    /**
+     * Test that a request naming a served tenant carries it in the Reactor context.
+     */
+    @Test
+    void testKnownTenant_IsPutInContext() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users")
+                .header("X-Tenant-ID", "acme"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertEquals(Optional.of("acme"), seenTenant.get());
+    }
+
+    /**
+     * Test that a request without the tenant header belongs to the default tenant.
+     */
+    @Test
+    void testMissingHeader_IsDefaultTenant() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertEquals(Optional.empty(), seenTenant.get());
+        assertNull(exchange.getResponse().getStatusCode());
+    }
+
+    /**
+     * Test that a request naming a tenant that is not served is rejected with 400.
+     */
+    @Test
+    void testUnknownTenant_IsRejected() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/users")
+                .header("X-Tenant-ID", "other"));
+
+        StepVerifier.create(filter.filter(exchange, chain)).verifyComplete();
+
+        assertNull(seenTenant.get());
+        assertEquals(HttpStatus.BAD_REQUEST, exchange.getResponse().getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("user.tenancy.unknown_tenant").count());
+    }
+
+    /**
+     * Test that a request of another tenant to the default tenant read model is rejected with 400,
+     * while the default tenant is served.
+     */
+    @Test
+    void testDefaultTenantOnlyRoute_RejectsOtherTenants() {
+        MockServerWebExchange other = MockServerWebExchange.from(MockServerHttpRequest.get("/stats/top-artists")
+                .header("X-Tenant-ID", "acme"));
+        MockServerWebExchange byDefault = MockServerWebExchange.from(MockServerHttpRequest.get("/playlist-profiles/1"));
+
+        StepVerifier.create(filter.filter(other, chain)).verifyComplete();
+        assertNull(seenTenant.get());
+        assertEquals(HttpStatus.BAD_REQUEST, other.getResponse().getStatusCode());
+
+        StepVerifier.create(filter.filter(byDefault, chain)).verifyComplete();
+        assertEquals(Optional.empty(), seenTenant.get());
+        assertNull(byDefault.getResponse().getStatusCode());
+    }
+}
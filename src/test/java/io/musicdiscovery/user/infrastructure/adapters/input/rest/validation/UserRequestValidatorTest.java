@@ -0,0 +1,74 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rest.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.request.UserCreateRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+class UserRequestValidatorTest {
+
+    private static ValidatorFactory factory;
+    private static Validator beanValidator;
+
+    @BeforeAll
+    static void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        beanValidator = factory.getValidator();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        factory.close();
+    }
+
+    static Stream<UserCreateRequest> requests() {
+        return Stream.of(
+                request("Marcelo", "marcelo@gmail.com", List.of(Genre.ROCK), List.of("The Beatles")),
+                request(null, null, null, null),
+                new UserCreateRequest(),
+                request("", " ", List.of(), List.of()),
+                request(" \t\n", "marcelo@gmail.com", List.of(Genre.ROCK), List.of("")),
+                request("Marcelo", null, List.of(Genre.JAZZ), null),
+                request(null, "marcelo@gmail.com", List.of(), List.of("Miles Davis")));
+    }
+
+    /**
+     * Test that the validator finds the violations Bean Validation finds on the constraint annotations.
+     */
+    @ParameterizedTest
+    @MethodSource("requests")
+    void testViolations_AgreeWithBeanValidation(UserCreateRequest request) {
+        Set<String> expected = beanValidator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+
+        String violations = UserRequestValidator.violations(request);
+
+        if (expected.isEmpty()) {
+            assertNull(violations);
+        } else {
+            assertEquals(expected, Arrays.stream(violations.split("(?<=\\.) ")).collect(Collectors.toSet()));
+        }
+    }
+
+    private static UserCreateRequest request(String name, String email, List<Genre> genres, List<String> artists) {
+        return UserCreateRequest.builder().name(name).email(email).preferredGenre(genres).favoriteArtist(artists)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.codec.PayloadLimitExceededException;
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.util.DefaultPayload;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class PayloadSizeLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RSocket responder = new PayloadSizeLimitInterceptor(16, meterRegistry).apply(new RSocket() {
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            return Mono.just(payload);
+        }
+
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            return Flux.from(payloads);
+        }
+    });
+
+    /**
+     * Test that a payload within the limit reaches the responder and a larger one is rejected and counted.
+     */
+    @Test
+    void testRequestResponseRejectsLargePayload() {
+        StepVerifier.create(responder.requestResponse(DefaultPayload.create("small")).map(Payload::getDataUtf8))
+                .expectNext("small")
+                .verifyComplete();
+
+        StepVerifier.create(responder.requestResponse(DefaultPayload.create("x".repeat(17))))
+                .expectErrorMessage("ERR_GEN_004 The request payload exceeds the allowed size.")
+                .verify();
+
+        assertEquals(1.0, meterRegistry.counter("user.payload.rejected", "reason", "body_size").count());
+    }
+
+    /**
+     * Test that a channel fails on its first payload over the limit.
+     */
+    @Test
+    void testRequestChannelFailsOnLargePayload() {
+        Flux<Payload> payloads = Flux.just(DefaultPayload.create("1"), DefaultPayload.create("x".repeat(17)),
+                DefaultPayload.create("3"));
+
+        StepVerifier.create(responder.requestChannel(payloads).map(Payload::getDataUtf8))
+                .expectNext("1")
+                .expectError(PayloadLimitExceededException.class)
+                .verify();
+    }
+}
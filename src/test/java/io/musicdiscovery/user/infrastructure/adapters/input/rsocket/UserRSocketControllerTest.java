@@ -0,0 +1,101 @@
+package io.musicdiscovery.user.infrastructure.adapters.input.rsocket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import io.musicdiscovery.user.application.port.input.UserServicePort;
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.mapper.UserRestMapper;
+import io.musicdiscovery.user.infrastructure.adapters.input.rest.model.response.UserResponse;
+import io.musicdiscovery.user.infrastructure.adapters.input.rsocket.mapper.UserRSocketMapper;
+import io.rsocket.exceptions.ApplicationErrorException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class UserRSocketControllerTest {
+
+    @Mock
+    private UserServicePort userServicePort;
+
+    @Mock
+    private UserRestMapper restMapper;
+
+    @Mock
+    private UserRSocketMapper rsocketMapper;
+
+    @InjectMocks
+    private UserRSocketController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(restMapper.toUserResponse(any(User.class)))
+                .thenAnswer(invocation -> UserResponse.builder().id(invocation.<User>getArgument(0).getId()).build());
+    }
+
+    /**
+     * Test that a missing user is answered with an application error carrying the catalog code.
+     */
+    @Test
+    void testGetUserById_NotFoundIsApplicationError() {
+        when(userServicePort.getUserById("999")).thenReturn(Mono.error(UserNotFoundException.withId("999")));
+
+        StepVerifier.create(controller.getUserById("999"))
+                .expectErrorSatisfies(error -> {
+                    assertEquals(ApplicationErrorException.class, error.getClass());
+                    assertEquals("ERR_STUDENT_001 User not found.", error.getMessage());
+                })
+                .verify();
+    }
+
+    /**
+     * Test that a batch get keeps the order of the ids and skips the unknown ones.
+     */
+    @Test
+    void testBatchGet_KeepsOrderAndSkipsUnknownIds() {
+        when(userServicePort.getUserById(anyString())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            return "2".equals(id) ? Mono.error(UserNotFoundException.withId(id)) : Mono.just(user(id));
+        });
+
+        StepVerifier.create(controller.batchGet(Flux.just("1", "2", "3")).map(UserResponse::getId))
+                .expectNext("1", "3")
+                .verifyComplete();
+    }
+
+    /**
+     * Test that a batch get only pulls ids from the channel as the requester consumes the results.
+     */
+    @Test
+    void testBatchGet_FollowsRequesterDemand() {
+        when(userServicePort.getUserById(anyString())).thenAnswer(invocation -> Mono.just(user(invocation.getArgument(0))));
+        AtomicLong requestedIds = new AtomicLong();
+        Flux<String> ids = Flux.range(0, 10_000).map(String::valueOf).doOnRequest(requestedIds::addAndGet);
+
+        StepVerifier.create(controller.batchGet(ids), 0)
+                .thenRequest(5)
+                .expectNextCount(5)
+                .thenCancel()
+                .verify();
+
+        assertEquals(UserRSocketController.BATCH_GET_CONCURRENCY, requestedIds.get(), 8);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
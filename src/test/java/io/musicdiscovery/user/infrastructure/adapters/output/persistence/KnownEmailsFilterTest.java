@@ -0,0 +1,64 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Flux;
+
+class KnownEmailsFilterTest {
+
+    private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    private final UserCollectionRouter collections = collections();
+
+    /**
+     * Test that once loaded the filter answers definitely new for an unknown email and maybe for a known one.
+     */
+    @Test
+    void testLoaded_SkipsUnknownEmails() {
+        UserEntity known = new UserEntity();
+        known.setEmail("marcelo@gmail.com");
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Flux.just(known));
+        KnownEmailsFilter filter = new KnownEmailsFilter(collections, 1000, 0.01, false);
+
+        filter.load();
+
+        assertTrue(filter.mightContain("marcelo@gmail.com"));
+        assertFalse(filter.mightContain("new@gmail.com"));
+    }
+
+    /**
+     * Test that with a sharded collection, which has no unique email index, every email is checked in Mongo.
+     */
+    @Test
+    void testSharded_ChecksEveryEmail() {
+        KnownEmailsFilter filter = new KnownEmailsFilter(collections, 1000, 0.01, true);
+
+        filter.load();
+        filter.put("marcelo@gmail.com");
+
+        assertTrue(filter.mightContain("new@gmail.com"));
+        verifyNoInteractions(template);
+    }
+
+    private UserCollectionRouter collections() {
+        Tenant defaultTenant = new Tenant("default", null, "users", 0, 100);
+        return new UserCollectionRouter(new TenantRegistry(defaultTenant, List.of()),
+                Map.of("default", new UserCollection(defaultTenant, template, "users")), List.of());
+    }
+}
@@ -0,0 +1,88 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class NegativeCachingUserPersistenceAdapterTest {
+
+    @Mock
+    private UserPersistencePort delegate;
+
+    private NegativeCachingUserPersistenceAdapter adapter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adapter = new NegativeCachingUserPersistenceAdapter(delegate, Caffeine.newBuilder().build(), new SimpleMeterRegistry());
+        user = new User();
+        user.setId("1");
+        user.setName("Marcelo");
+        user.setEmail("marcelo@gmail.com");
+        user.setFavoriteArtist(List.of("The Beatles"));
+        user.setPreferredGenre(List.of(Genre.ROCK));
+    }
+
+    /**
+     * Test that a miss is answered from memory the second time.
+     */
+    @Test
+    void testFindById_MissIsCached() {
+        when(delegate.findById("1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(adapter.findById("1")).verifyComplete();
+        StepVerifier.create(adapter.findById("1")).verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+    }
+
+    /**
+     * Test that creating a user drops the cached miss for its id.
+     */
+    @Test
+    void testSave_InvalidatesCachedMiss() {
+        when(delegate.findById("1")).thenReturn(Mono.empty(), Mono.just(user));
+        when(delegate.save(user)).thenReturn(Mono.just(user));
+
+        StepVerifier.create(adapter.findById("1")).verifyComplete();
+        StepVerifier.create(adapter.save(user)).expectNext(user).verifyComplete();
+        StepVerifier.create(adapter.findById("1")).expectNext(user).verifyComplete();
+    }
+
+    /**
+     * Test that a miss read while the same id was being saved is not cached.
+     */
+    @Test
+    void testFindById_MissRacingWithSaveIsNotCached() {
+        Sinks.One<User> slowRead = Sinks.one();
+        when(delegate.findById("1")).thenReturn(slowRead.asMono(), Mono.just(user));
+        when(delegate.save(user)).thenReturn(Mono.just(user));
+
+        StepVerifier.create(adapter.findById("1"))
+                .then(() -> {
+                    adapter.save(user).block();
+                    slowRead.tryEmitEmpty();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(adapter.findById("1")).expectNext(user).verifyComplete();
+    }
+}
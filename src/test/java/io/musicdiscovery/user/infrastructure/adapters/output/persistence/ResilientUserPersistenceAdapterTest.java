@@ -0,0 +1,135 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.ResilientUserPersistenceAdapter.Hedging;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.ResilientUserPersistenceAdapter.Timeouts;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ResilientUserPersistenceAdapterTest {
+
+    private static final Timeouts TIMEOUTS = new Timeouts(Duration.ofSeconds(1), Duration.ofMillis(200),
+            Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+    @Mock
+    private UserPersistencePort delegate;
+
+    private CircuitBreaker circuitBreaker;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        circuitBreaker = CircuitBreaker.ofDefaults("test");
+        user = new User();
+        user.setId("1");
+        user.setName("Marcelo");
+        user.setEmail("marcelo@gmail.com");
+        user.setFavoriteArtist(List.of("The Beatles"));
+        user.setPreferredGenre(List.of(Genre.ROCK));
+    }
+
+    /**
+     * Test that a read slower than its timeout fails when no stale value is known.
+     */
+    @Test
+    void testFindById_Timeout() {
+        when(delegate.findById("1")).thenReturn(Mono.never());
+
+        StepVerifier.create(adapter(false).findById("1"))
+                .expectError(TimeoutException.class)
+                .verify();
+    }
+
+    /**
+     * Test that the last value read is served while Mongo is failing.
+     */
+    @Test
+    void testFindById_ServesStaleValueWhenMongoFails() {
+        ResilientUserPersistenceAdapter adapter = adapter(false);
+        when(delegate.findById("1")).thenReturn(Mono.just(user),
+                Mono.error(new DataAccessResourceFailureException("Mongo down")));
+
+        StepVerifier.create(adapter.findById("1")).expectNext(user).verifyComplete();
+        StepVerifier.create(adapter.findById("1")).expectNextMatches(this::isStaleUser).verifyComplete();
+    }
+
+    /**
+     * Test that the last value read is a copy: an in-place update whose save times out is not served while Mongo fails.
+     */
+    @Test
+    void testFindById_StaleValueIgnoresUnsavedEdits() {
+        ResilientUserPersistenceAdapter adapter = adapter(false);
+        when(delegate.findById("1")).thenReturn(Mono.just(user),
+                Mono.error(new DataAccessResourceFailureException("Mongo down")));
+        when(delegate.save(user)).thenReturn(Mono.never());
+
+        User read = adapter.findById("1").block();
+        read.setName("Unsaved");
+        StepVerifier.create(adapter.save(read)).expectError(TimeoutException.class).verify();
+
+        StepVerifier.create(adapter.findById("1"))
+                .expectNextMatches(stale -> "Marcelo".equals(stale.getName()))
+                .verifyComplete();
+    }
+
+    /**
+     * Test that reads are rejected by the open circuit unless a stale value is known.
+     */
+    @Test
+    void testFindById_CircuitOpen() {
+        ResilientUserPersistenceAdapter adapter = adapter(false);
+        when(delegate.findById("1")).thenReturn(Mono.just(user));
+        StepVerifier.create(adapter.findById("1")).expectNext(user).verifyComplete();
+
+        circuitBreaker.transitionToOpenState();
+
+        StepVerifier.create(adapter.findById("1")).expectNextMatches(this::isStaleUser).verifyComplete();
+        StepVerifier.create(adapter.findById("2")).expectError(CallNotPermittedException.class).verify();
+    }
+
+    /**
+     * Test that a hedged read answers when the first read is stuck.
+     */
+    @Test
+    void testFindById_HedgedReadWins() {
+        when(delegate.findById("1")).thenReturn(Mono.never(), Mono.just(user));
+
+        StepVerifier.create(adapter(true).findById("1"))
+                .expectNext(user)
+                .verifyComplete();
+
+        verify(delegate, times(2)).findById("1");
+    }
+
+    private boolean isStaleUser(User stale) {
+        return stale != user && "1".equals(stale.getId()) && "Marcelo".equals(stale.getName())
+                && stale.getFavoriteArtist().equals(user.getFavoriteArtist());
+    }
+
+    private ResilientUserPersistenceAdapter adapter(boolean hedging) {
+        return new ResilientUserPersistenceAdapter(delegate, circuitBreaker, Caffeine.newBuilder().build(), TIMEOUTS,
+                new Hedging(hedging, 0.95, Duration.ofMillis(10), Duration.ofMillis(20)), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,137 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.result.UpdateResult;
+
+import io.musicdiscovery.user.domain.exception.UserAlreadyExistsException;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class UserEmailReservationsTest {
+
+    private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    private final UserCollection users = new UserCollection(new Tenant("default", null, "users", 0, 100), template,
+            "users");
+    private final UserEmailReservations reservations = new UserEmailReservations(true);
+
+    /**
+     * Test that a free email is reserved by this call.
+     */
+    @Test
+    void testReserve_FreeEmail() {
+        when(template.insert(any(Document.class), eq("users_emails"))).thenReturn(Mono.just(new Document()));
+
+        StepVerifier.create(reservations.reserve(users, "marcelo@gmail.com", "1"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    /**
+     * Test that an email already held by the same user, as on an update keeping it, is no conflict.
+     */
+    @Test
+    void testReserve_HeldBySameUser() {
+        when(template.insert(any(Document.class), eq("users_emails")))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(template.findOne(any(Query.class), eq(Document.class), eq("users_emails")))
+                .thenReturn(Mono.just(reservation("1", Instant.now())));
+
+        StepVerifier.create(reservations.reserve(users, "marcelo@gmail.com", "1"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    /**
+     * Test that an email held by another live user is rejected, even when reserved long ago.
+     */
+    @Test
+    void testReserve_HeldByAnotherLiveUser() {
+        when(template.insert(any(Document.class), eq("users_emails")))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(template.findOne(any(Query.class), eq(Document.class), eq("users_emails")))
+                .thenReturn(Mono.just(reservation("2", Instant.now().minusSeconds(3600))));
+        when(template.exists(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(reservations.reserve(users, "marcelo@gmail.com", "1"))
+                .expectError(UserAlreadyExistsException.class)
+                .verify();
+
+        verify(template, never()).updateFirst(any(Query.class), any(Update.class), eq("users_emails"));
+    }
+
+    /**
+     * Test that a recent reservation of another user is rejected even if its user is not saved yet,
+     * as when two users register the same email at once.
+     */
+    @Test
+    void testReserve_PendingReservationOfAnotherUser() {
+        when(template.insert(any(Document.class), eq("users_emails")))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(template.findOne(any(Query.class), eq(Document.class), eq("users_emails")))
+                .thenReturn(Mono.just(reservation("2", Instant.now())));
+
+        StepVerifier.create(reservations.reserve(users, "marcelo@gmail.com", "1"))
+                .expectError(UserAlreadyExistsException.class)
+                .verify();
+
+        verify(template, never()).exists(any(Query.class), eq(UserEntity.class), eq("users"));
+    }
+
+    /**
+     * Test that an old reservation whose holder does not have the email, left by a failed write, is taken over.
+     */
+    @Test
+    void testReserve_TakesOverLeftoverReservation() {
+        when(template.insert(any(Document.class), eq("users_emails")))
+                .thenReturn(Mono.error(new DuplicateKeyException("duplicate")));
+        when(template.findOne(any(Query.class), eq(Document.class), eq("users_emails")))
+                .thenReturn(Mono.just(reservation("2", Instant.now().minusSeconds(3600))));
+        when(template.exists(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Mono.just(false));
+        when(template.updateFirst(any(Query.class), any(Update.class), eq("users_emails")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(reservations.reserve(users, "marcelo@gmail.com", "1"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    /**
+     * Test that without sharding nothing is reserved, the unique email index being enough.
+     */
+    @Test
+    void testNotSharded_ReservesNothing() {
+        UserEmailReservations unsharded = new UserEmailReservations(false);
+
+        StepVerifier.create(unsharded.reserve(users, "marcelo@gmail.com", "1"))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(unsharded.releaseOthers(users, "1", null)).verifyComplete();
+
+        verifyNoInteractions(template);
+    }
+
+    private static Document reservation(String userId, Instant reservedAt) {
+        return new Document("_id", "marcelo@gmail.com").append("userId", userId)
+                .append("reservedAt", Date.from(reservedAt));
+    }
+}
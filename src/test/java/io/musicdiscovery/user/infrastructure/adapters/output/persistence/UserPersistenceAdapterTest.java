@@ -1,24 +1,41 @@
 package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.ReplaceOptions;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
+import com.mongodb.client.result.UpdateResult;
+
+import io.musicdiscovery.user.domain.exception.UserNotFoundException;
 import io.musicdiscovery.user.domain.model.User;
 import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
 import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
 import io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapper;
-import io.musicdiscovery.user.infrastructure.adapters.output.persistence.repository.UserRepository;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -26,17 +43,30 @@ import reactor.test.StepVerifier;
 class UserPersistenceAdapterTest {
 
     @Mock
-    private UserRepository repository;
+    private ReactiveMongoTemplate template;
+
+    @Mock
+    private ReactiveMongoTemplate tenantTemplate;
 
     @Mock
     private UserPersistenceMapper mapper;
 
-    @InjectMocks
+    @Mock
+    private KnownEmailsFilter knownEmails;
+
     private UserPersistenceAdapter userPersistenceAdapter;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        Tenant defaultTenant = new Tenant("default", null, "users", 0, 100);
+        Tenant acme = new Tenant("acme", null, "users_acme", 0, 100);
+        TenantRegistry tenants = new TenantRegistry(defaultTenant, List.of(acme));
+        UserCollectionRouter collections = new UserCollectionRouter(tenants,
+                Map.of("default", new UserCollection(defaultTenant, template, "users"),
+                        "acme", new UserCollection(acme, tenantTemplate, "users_acme")),
+                List.of());
+        userPersistenceAdapter = new UserPersistenceAdapter(collections, mapper, knownEmails, new UserEmailReservations(false));
     }
 
     /**
@@ -72,7 +102,7 @@ class UserPersistenceAdapterTest {
         entity2.setFavoriteArtist(List.of("Adele"));
         entity2.setPreferredGenre(List.of(Genre.POP));
 
-        when(repository.findAll()).thenReturn(Flux.just(entity1, entity2));
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Flux.just(entity1, entity2));
         when(mapper.toUser(entity1)).thenReturn(user1);
         when(mapper.toUser(entity2)).thenReturn(user2);
 
@@ -82,7 +112,7 @@ class UserPersistenceAdapterTest {
                 .expectNext(Arrays.asList(user1, user2))
                 .verifyComplete();
 
-        verify(repository).findAll();
+        verify(template).find(any(Query.class), eq(UserEntity.class), eq("users"));
         verify(mapper, times(2)).toUser(any(UserEntity.class));
     }
 
@@ -91,7 +121,7 @@ class UserPersistenceAdapterTest {
      */
     @Test
     void testFindAll_EmptyList() {
-        when(repository.findAll()).thenReturn(Flux.empty());
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Flux.empty());
 
         Mono<List<User>> result = userPersistenceAdapter.findAll();
 
@@ -99,7 +129,25 @@ class UserPersistenceAdapterTest {
                 .expectNext(Collections.emptyList())
                 .verifyComplete();
 
-        verify(repository).findAll();
+        verify(template).find(any(Query.class), eq(UserEntity.class), eq("users"));
+    }
+
+    /**
+     * Test para el método search() que verifica que solo las primeras coincidencias se puntúan y se ordenan.
+     */
+    @Test
+    void testSearch_SortsBoundedCandidates() {
+        when(template.aggregate(any(Aggregation.class), eq("users"), eq(UserEntity.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(userPersistenceAdapter.search(List.of("albarra"), 20, 10))
+                .verifyComplete();
+
+        ArgumentCaptor<Aggregation> search = ArgumentCaptor.forClass(Aggregation.class);
+        verify(template).aggregate(search.capture(), eq("users"), eq(UserEntity.class));
+        List<Document> pipeline = search.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(List.of("$match", "$limit", "$addFields", "$sort", "$skip", "$limit"),
+                pipeline.stream().map(stage -> stage.keySet().iterator().next()).toList());
+        assertEquals((long) UserSearchQuery.MAX_CANDIDATES, pipeline.get(1).get("$limit"));
     }
 
     /**
@@ -122,7 +170,7 @@ class UserPersistenceAdapterTest {
         entity.setPreferredGenre(List.of(Genre.ROCK));
         
 
-        when(repository.findById("1")).thenReturn(Mono.just(entity));
+        when(template.findOne(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Mono.just(entity));
         when(mapper.toUser(entity)).thenReturn(user);
 
         Mono<User> result = userPersistenceAdapter.findById("1");
@@ -131,7 +179,7 @@ class UserPersistenceAdapterTest {
                 .expectNext(user)
                 .verifyComplete();
 
-        verify(repository).findById("1");
+        verify(template).findOne(any(Query.class), eq(UserEntity.class), eq("users"));
         verify(mapper).toUser(entity);
     }
 
@@ -140,14 +188,14 @@ class UserPersistenceAdapterTest {
      */
     @Test
     void testFindById_UserNotFound() {
-        when(repository.findById("999")).thenReturn(Mono.empty());
+        when(template.findOne(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Mono.empty());
 
         Mono<User> result = userPersistenceAdapter.findById("999");
 
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(repository).findById("999");
+        verify(template).findOne(any(Query.class), eq(UserEntity.class), eq("users"));
     }
 
     /**
@@ -170,8 +218,7 @@ class UserPersistenceAdapterTest {
         entity.setPreferredGenre(List.of(Genre.ROCK));
 
         when(mapper.toUserEntity(user)).thenReturn(entity);
-        when(repository.save(entity)).thenReturn(Mono.just(entity));
-        when(mapper.toUser(entity)).thenReturn(user);
+        when(template.insert(entity, "users")).thenReturn(Mono.just(entity));
 
         Mono<User> result = userPersistenceAdapter.save(user);
 
@@ -180,7 +227,8 @@ class UserPersistenceAdapterTest {
                 .verifyComplete();
 
         verify(mapper).toUserEntity(user);
-        verify(repository).save(entity);
+        verify(template).insert(entity, "users");
+        verify(mapper, never()).toUser(any(UserEntity.class));
     }
 
     /**
@@ -203,7 +251,7 @@ class UserPersistenceAdapterTest {
         entity.setPreferredGenre(List.of(Genre.ROCK));
 
         when(mapper.toUserEntity(user)).thenReturn(entity);
-        when(repository.save(entity)).thenReturn(Mono.error(new RuntimeException("Error al guardar")));
+        when(template.insert(entity, "users")).thenReturn(Mono.error(new RuntimeException("Error al guardar")));
 
         Mono<User> result = userPersistenceAdapter.save(user);
 
@@ -212,37 +260,227 @@ class UserPersistenceAdapterTest {
                 .verify();
 
         verify(mapper).toUserEntity(user);
-        verify(repository).save(entity);
+        verify(template).insert(entity, "users");
     }
 
     /**
-     * Test para el método deleteById() que verifica si se puede eliminar un usuario.
+     * Test para el método update() que verifica que el documento se reemplaza solo si el usuario sigue vivo.
+     */
+    @Test
+    void testUpdate_ReplacesLiveUser() {
+        User user = new User();
+        user.setId("1");
+        user.setEmail("marcelo@gmail.com");
+        UserEntity entity = new UserEntity();
+        entity.setId("1");
+        entity.setEmail("marcelo@gmail.com");
+
+        when(mapper.toUserEntity(user)).thenReturn(entity);
+        when(template.replace(any(Query.class), eq(entity), any(ReplaceOptions.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+
+        StepVerifier.create(userPersistenceAdapter.update(user))
+                .expectNext(user)
+                .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(template).replace(query.capture(), eq(entity), any(ReplaceOptions.class), eq("users"));
+        assertEquals(new Document("deleted", new Document("$ne", true)).append("id", "1"), query.getValue().getQueryObject());
+        verify(template, never()).save(any(UserEntity.class), anyString());
+        verify(template, never()).insert(any(UserEntity.class), anyString());
+    }
+
+    /**
+     * Test para el método update() que verifica que un usuario borrado después de leerlo no vuelve a la vida.
+     */
+    @Test
+    void testUpdate_DeletedAfterReadIsNotRevived() {
+        User user = new User();
+        user.setId("1");
+        user.setEmail("marcelo@gmail.com");
+        UserEntity entity = new UserEntity();
+        entity.setId("1");
+        entity.setEmail("marcelo@gmail.com");
+
+        when(mapper.toUserEntity(user)).thenReturn(entity);
+        when(template.replace(any(Query.class), eq(entity), any(ReplaceOptions.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+        StepVerifier.create(userPersistenceAdapter.update(user))
+                .expectError(UserNotFoundException.class)
+                .verify();
+
+        verify(template, never()).save(any(UserEntity.class), anyString());
+        verify(template, never()).insert(any(UserEntity.class), anyString());
+        verify(knownEmails, never()).put(anyString());
+    }
+
+    /**
+     * Test para el método deleteById() que verifica que el usuario se convierte en una lápida en lugar de borrarse.
      */
     @Test
     void testDeleteById_Success() {
-        when(repository.deleteById("1")).thenReturn(Mono.empty());
+        when(template.updateFirst(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
 
         Mono<Void> result = userPersistenceAdapter.deleteById("1");
 
         StepVerifier.create(result)
                 .verifyComplete();
 
-        verify(repository).deleteById("1");
+        verify(template).updateFirst(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users"));
+        verify(template, never()).remove(any(Query.class), eq(UserEntity.class), anyString());
     }
 
     /**
-     * Test para el método deleteById() que verifica la situación en la que se intenta eliminar un usuario que no existe.
+     * Test para el método deleteById() que verifica que eliminar un usuario inexistente o ya eliminado no falla.
      */
     @Test
     void testDeleteById_UserNotFound() {
-        when(repository.deleteById("999")).thenReturn(Mono.error(new RuntimeException("User not found")));
+        when(template.updateFirst(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
 
         Mono<Void> result = userPersistenceAdapter.deleteById("999");
 
         StepVerifier.create(result)
-                .expectError(RuntimeException.class)
-                .verify();
+                .verifyComplete();
+
+        verify(template).updateFirst(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users"));
+    }
+
+    /**
+     * Test that the due moods are found oldest first and cleared one by one on the same time condition,
+     * and that a mood cleared or set again in between is not reported.
+     */
+    @Test
+    void testExpireMoods_ReportsOnlyTheMoodsItCleared() {
+        Instant setBefore = Instant.parse("2026-01-01T00:00:00Z");
+        UserEntity first = due("1", setBefore);
+        UserEntity second = due("2", setBefore);
+        User user1 = new User();
+        user1.setId("1");
+
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Flux.just(first, second), Flux.just(first));
+        when(template.updateMulti(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mapper.toUser(first)).thenReturn(user1);
+
+        StepVerifier.create(userPersistenceAdapter.expireMoods(null, setBefore, 10))
+                .expectNext(List.of(user1))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> found = ArgumentCaptor.forClass(Query.class);
+        verify(template, times(2)).find(found.capture(), eq(UserEntity.class), eq("users"));
+        Query due = found.getAllValues().get(0);
+        assertEquals(10, due.getLimit());
+        assertEquals(new Document("moodSetAt", 1), due.getSortObject());
+        assertEquals(new Document("$exists", true).append("$lte", setBefore), due.getQueryObject().get("moodSetAt"));
+        ArgumentCaptor<Query> expired = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(template).updateMulti(expired.capture(), update.capture(), eq(UserEntity.class), eq("users"));
+        assertEquals(List.of(new Document("id", "1").append("moodSetAt", first.getMoodSetAt()),
+                new Document("id", "2").append("moodSetAt", second.getMoodSetAt())),
+                expired.getValue().getQueryObject().get("$or"));
+        assertEquals(new Document("mood", 1).append("moodSetAt", 1), update.getValue().getUpdateObject().get("$unset"));
+        Object token = ((Document) update.getValue().getUpdateObject().get("$set"))
+                .get(UserPersistenceAdapter.EXPIRY_TOKEN);
+        assertEquals(token, found.getAllValues().get(1).getQueryObject().get(UserPersistenceAdapter.EXPIRY_TOKEN));
+    }
+
+    /**
+     * Test that a batch cleared in full is reported as read, without looking up the token.
+     */
+    @Test
+    void testExpireMoods_WholeBatchCleared() {
+        Instant setBefore = Instant.parse("2026-01-01T00:00:00Z");
+        UserEntity first = due("1", setBefore);
+        User user1 = new User();
+        user1.setId("1");
+
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Flux.just(first));
+        when(template.updateMulti(any(Query.class), any(Update.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Mono.just(UpdateResult.acknowledged(1, 1L, null)));
+        when(mapper.toUser(first)).thenReturn(user1);
+
+        StepVerifier.create(userPersistenceAdapter.expireMoods(List.of("1", "2"), setBefore, 1))
+                .expectNext(List.of(user1))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> found = ArgumentCaptor.forClass(Query.class);
+        verify(template).find(found.capture(), eq(UserEntity.class), eq("users"));
+        assertEquals(new Document("$in", List.of("1")), found.getValue().getQueryObject().get("id"));
+    }
+
+    private static UserEntity due(String id, Instant setBefore) {
+        UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setMood(Mood.HAPPY);
+        user.setMoodSetAt(setBefore.minusSeconds(Long.parseLong(id)));
+        return user;
+    }
+
+    /**
+     * Test that nothing is written nor reported when none of the given users is due.
+     */
+    @Test
+    void testExpireMoods_NothingDue() {
+        when(template.find(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Flux.empty());
+
+        StepVerifier.create(userPersistenceAdapter.expireMoods(List.of("1"), Instant.now(), 10))
+                .expectNext(List.of())
+                .verifyComplete();
+
+        verify(template, never()).updateMulti(any(Query.class), any(Update.class), eq(UserEntity.class), anyString());
+    }
+
+    /**
+     * Test para el método existsByEmail() que verifica que un email que el filtro no conoce no consulta Mongo.
+     */
+    @Test
+    void testExistsByEmail_DefinitelyNew() {
+        when(knownEmails.mightContain("marcelo@gmail.com")).thenReturn(false);
+
+        StepVerifier.create(userPersistenceAdapter.existsByEmail("marcelo@gmail.com"))
+                .expectNext(false)
+                .verifyComplete();
+
+        verify(template, never()).exists(any(Query.class), eq(UserEntity.class), anyString());
+    }
+
+    /**
+     * Test para el método existsByEmail() que verifica que un posible duplicado se confirma en Mongo.
+     */
+    @Test
+    void testExistsByEmail_MaybeKnown() {
+        when(knownEmails.mightContain("marcelo@gmail.com")).thenReturn(true);
+        when(template.exists(any(Query.class), eq(UserEntity.class), eq("users"))).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userPersistenceAdapter.existsByEmail("marcelo@gmail.com"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(template).exists(any(Query.class), eq(UserEntity.class), eq("users"));
+    }
+
+    /**
+     * Test that a request of a tenant reads the collection of that tenant, through its template.
+     */
+    @Test
+    void testFindById_RoutedToTenantCollection() {
+        UserEntity entity = new UserEntity();
+        entity.setId("1");
+        User user = new User();
+        user.setId("1");
+
+        when(tenantTemplate.findOne(any(Query.class), eq(UserEntity.class), eq("users_acme")))
+                .thenReturn(Mono.just(entity));
+        when(mapper.toUser(entity)).thenReturn(user);
+
+        StepVerifier.create(userPersistenceAdapter.findById("1").contextWrite(TenantContext.of("acme")))
+                .expectNext(user)
+                .verifyComplete();
 
-        verify(repository).deleteById("999");
+        verifyNoInteractions(template);
     }
-}
\ No newline at end of file
+}
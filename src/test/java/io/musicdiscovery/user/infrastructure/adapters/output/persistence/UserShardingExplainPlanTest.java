@@ -0,0 +1,246 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.mapper.UserPersistenceMapperImpl;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Explain plan checks for the queries the {@link UserPersistenceAdapter} actually issues
+ * against a sharded users collection. The commands are captured from the driver as the
+ * adapter sends them and explained as they are: the single-user operations must filter
+ * by the _id shard key and be targeted to one shard, the broadcast ones must at least
+ * be served by an index on every shard. Runs against a sharded Mongo in a container,
+ * skipped where Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserShardingExplainPlanTest {
+
+    private static final String DATABASE = "MusicDiscovery";
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0").withSharding();
+
+    private static final List<BsonDocument> COMMANDS = Collections.synchronizedList(new ArrayList<>());
+
+    private static MongoClient mongoClient;
+    private static MongoDatabase database;
+    private static UserPersistenceAdapter adapter;
+
+    private User user;
+
+    @BeforeAll
+    static void connect() {
+        CommandListener capture = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                COMMANDS.add(event.getCommand().clone());
+            }
+        };
+        mongoClient = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(MONGO.getConnectionString()))
+                .addCommandListener(capture)
+                .build());
+        database = mongoClient.getDatabase(DATABASE);
+        Tenant defaultTenant = new Tenant("default", null, "users", 0, 100);
+        UserCollection users = new UserCollection(defaultTenant, new ReactiveMongoTemplate(mongoClient, DATABASE),
+                "users");
+        UserCollectionRouter collections = new UserCollectionRouter(new TenantRegistry(defaultTenant, List.of()),
+                Map.of("default", users), List.of());
+        new UserCollectionShardingInitializer(mongoClient, collections, "time-ordered").shard(users).block();
+        UserIndexInitializer indexes = new UserIndexInitializer(collections);
+        ReflectionTestUtils.setField(indexes, "shardingEnabled", true);
+        indexes.ensureIndexes(users).block();
+        adapter = new UserPersistenceAdapter(collections, new UserPersistenceMapperImpl(),
+                new KnownEmailsFilter(collections, 1000, 0.01, true), new UserEmailReservations(true));
+    }
+
+    @AfterAll
+    static void close() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void saveUser() {
+        User newUser = new User();
+        newUser.setName("Marcelo Rios");
+        newUser.setEmail("marcelo" + System.nanoTime() + "@gmail.com");
+        newUser.setFavoriteArtist(List.of("Soda Stereo"));
+        newUser.setMood(Mood.HAPPY);
+        newUser.setMoodSetAt(Instant.now().minusSeconds(3600));
+        user = adapter.save(newUser).block();
+        COMMANDS.clear();
+    }
+
+    /**
+     * Test that findById is a targeted query.
+     */
+    @Test
+    void testFindById_IsTargeted() {
+        adapter.findById(user.getId()).block();
+
+        assertTargeted(captured("find"));
+    }
+
+    /**
+     * Test that update, a conditional replace of a live user, is a targeted write.
+     */
+    @Test
+    void testUpdate_IsTargeted() {
+        user.setName("Marcelo Salas");
+        adapter.update(user).block();
+
+        assertTargeted(captured("update"));
+    }
+
+    /**
+     * Test that deleteById, which turns the user into a tombstone, is a targeted write.
+     */
+    @Test
+    void testDeleteById_IsTargeted() {
+        adapter.deleteById(user.getId()).block();
+
+        assertTargeted(captured("update"));
+    }
+
+    /**
+     * Test that the expiry of the moods of given users reads and writes them on their shard only.
+     */
+    @Test
+    void testExpireMoods_OfGivenUsers_IsTargeted() {
+        assertEquals(1, adapter.expireMoods(List.of(user.getId()), Instant.now(), 10).block().size());
+
+        assertTargeted(captured("find"));
+        assertTargeted(captured("update"));
+    }
+
+    /**
+     * Test that the expired moods sweep, a broadcast, is served by the mood expiry index.
+     */
+    @Test
+    void testExpireMoods_Sweep_UsesIndex() {
+        adapter.expireMoods(null, Instant.now(), 10).block();
+
+        assertIndexed(captured("find").get(0));
+    }
+
+    /**
+     * Test that findByEmail, a broadcast, is served by the email index.
+     */
+    @Test
+    void testFindByEmail_UsesIndex() {
+        adapter.findByEmail(user.getEmail()).block();
+
+        assertIndexed(captured("find").get(0));
+    }
+
+    /**
+     * Test that search, a broadcast, is served by the search token indexes.
+     */
+    @Test
+    void testSearch_UsesIndex() {
+        adapter.search(List.of("marc"), 0, 10).collectList().block();
+
+        assertIndexed(captured("aggregate").get(0));
+    }
+
+    private static List<BsonDocument> captured(String commandName) {
+        List<BsonDocument> commands;
+        synchronized (COMMANDS) {
+            commands = COMMANDS.stream()
+                    .filter(command -> command.containsKey(commandName)
+                            && "users".equals(command.getString(commandName).getValue()))
+                    .toList();
+        }
+        assertFalse(commands.isEmpty(), "No " + commandName + " issued on users");
+        return commands;
+    }
+
+    private static void assertTargeted(List<BsonDocument> commands) {
+        for (BsonDocument command : commands) {
+            assertTrue(byShardKey(filterOf(command)), "Not filtered by the shard key: " + command.toJson());
+            Document winningPlan = explain(command).get("queryPlanner", Document.class)
+                    .get("winningPlan", Document.class);
+            assertEquals("SINGLE_SHARD", winningPlan.getString("stage"));
+            assertEquals(1, winningPlan.getList("shards", Document.class).size());
+            assertFalse(stages(winningPlan).contains("COLLSCAN"), "Plan scans the collection: " + command.toJson());
+        }
+    }
+
+    private static void assertIndexed(BsonDocument command) {
+        List<String> stages = stages(explain(command));
+        assertTrue(stages.contains("IXSCAN"), "Plan uses no index: " + stages);
+        assertFalse(stages.contains("COLLSCAN"), "Plan scans the collection: " + stages);
+    }
+
+    private static BsonDocument filterOf(BsonDocument command) {
+        if (command.containsKey("updates")) {
+            return command.getArray("updates").get(0).asDocument().getDocument("q");
+        }
+        return command.getDocument("filter");
+    }
+
+    private static boolean byShardKey(BsonDocument filter) {
+        return filter.containsKey("_id") || filter.containsKey("$or") && filter.getArray("$or").stream()
+                .allMatch(clause -> clause.asDocument().containsKey("_id"));
+    }
+
+    private static Document explain(BsonDocument command) {
+        Document explained = Document.parse(command.toJson());
+        List.of("lsid", "$db", "$clusterTime", "txnNumber", "$readPreference").forEach(explained::remove);
+        return Mono.from(database.runCommand(new Document("explain", explained).append("verbosity", "queryPlanner")))
+                .block();
+    }
+
+    private static List<String> stages(Document plan) {
+        List<String> stages = new ArrayList<>();
+        collectStages(plan, stages);
+        return stages;
+    }
+
+    private static void collectStages(Document plan, List<String> stages) {
+        if (plan.containsKey("stage")) {
+            stages.add(plan.getString("stage"));
+        }
+        for (Object value : plan.values()) {
+            if (value instanceof Document child) {
+                collectStages(child, stages);
+            } else if (value instanceof List<?> children) {
+                children.stream().filter(Document.class::isInstance).forEach(child -> collectStages((Document) child, stages));
+            }
+        }
+    }
+}
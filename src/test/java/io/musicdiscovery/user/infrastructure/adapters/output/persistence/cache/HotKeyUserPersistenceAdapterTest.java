@@ -0,0 +1,123 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.utils.SlidingWindowSketch;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class HotKeyUserPersistenceAdapterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private UserPersistencePort delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private HotKeyUserPersistenceAdapter adapter;
+    private User user;
+    private User renamed;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserPersistencePort.class);
+        meterRegistry = new SimpleMeterRegistry();
+        adapter = new HotKeyUserPersistenceAdapter(delegate,
+                new SlidingWindowSketch(4, 256, Duration.ofSeconds(10), 5, clock::get),
+                new HotKeyUserPersistenceAdapter.Settings(3, Duration.ofSeconds(1), Duration.ofSeconds(5), 100),
+                clock::get, meterRegistry);
+        user = new User("1", "Marcelo", "marcelo@gmail.com", null, null, List.of(Genre.ROCK), List.of("The Beatles"));
+        renamed = new User("1", "Alejandro", "marcelo@gmail.com", null, null, List.of(Genre.ROCK),
+                List.of("The Beatles"));
+    }
+
+    /**
+     * Test that concurrent lookups of the same id share a single subscription to the delegate.
+     */
+    @Test
+    void testFindById_ConcurrentLookupsCollapse() {
+        Sinks.One<User> pending = Sinks.one();
+        when(delegate.findById("1")).thenReturn(pending.asMono());
+
+        StepVerifier.create(Mono.zip(adapter.findById("1"), adapter.findById("1"), adapter.findById("1")))
+                .then(() -> pending.tryEmitValue(user))
+                .expectNextMatches(users -> users.getT1() != users.getT2()
+                        && "Marcelo".equals(users.getT3().getName()))
+                .verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(2.0, meterRegistry.counter("user.hot_keys.collapsed").count());
+    }
+
+    /**
+     * Test that an id looked up as often as the threshold is pinned and served from memory.
+     */
+    @Test
+    void testFindById_HotUserIsPinned() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user));
+
+        for (int i = 0; i < 5; i++) {
+            StepVerifier.create(adapter.findById("1")).expectNextCount(1).verifyComplete();
+        }
+
+        verify(delegate, times(3)).findById("1");
+        assertEquals(2.0, meterRegistry.counter("user.hot_keys.pinned_hits").count());
+    }
+
+    /**
+     * Test that a pinned user older than the refresh delay is still served while one reload replaces it.
+     */
+    @Test
+    void testFindById_PinnedUserRefreshedAhead() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user), Mono.just(user), Mono.just(user),
+                Mono.just(renamed));
+        for (int i = 0; i < 3; i++) {
+            adapter.findById("1").block();
+        }
+
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+
+        StepVerifier.create(adapter.findById("1"))
+                .expectNextMatches(found -> "Marcelo".equals(found.getName()))
+                .verifyComplete();
+        StepVerifier.create(adapter.findById("1"))
+                .expectNextMatches(found -> "Alejandro".equals(found.getName()))
+                .verifyComplete();
+        verify(delegate, times(4)).findById("1");
+        assertEquals(1.0, meterRegistry.counter("user.hot_keys.refreshes").count());
+    }
+
+    /**
+     * Test that saving a pinned user unpins it, so the next lookup reads the saved version.
+     */
+    @Test
+    void testSave_UnpinsUser() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user), Mono.just(user), Mono.just(user),
+                Mono.just(renamed));
+        when(delegate.save(any(User.class))).thenReturn(Mono.just(renamed));
+        for (int i = 0; i < 3; i++) {
+            adapter.findById("1").block();
+        }
+
+        StepVerifier.create(adapter.save(renamed)).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(adapter.findById("1"))
+                .expectNextMatches(found -> "Alejandro".equals(found.getName()))
+                .verifyComplete();
+        verify(delegate, times(4)).findById("1");
+    }
+}
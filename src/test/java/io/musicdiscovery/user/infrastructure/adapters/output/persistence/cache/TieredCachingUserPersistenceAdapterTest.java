@@ -0,0 +1,152 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.application.port.output.UserPersistencePort;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantContext;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class TieredCachingUserPersistenceAdapterTest {
+
+    private UserPersistencePort delegate;
+    private SimpleMeterRegistry meterRegistry;
+    private TieredCachingUserPersistenceAdapter node1;
+    private TieredCachingUserPersistenceAdapter node2;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(UserPersistencePort.class);
+        meterRegistry = new SimpleMeterRegistry();
+        SharedUserCache sharedCache = new InMemorySharedUserCache(100, Duration.ofMinutes(1));
+        UserCacheInvalidations invalidations = new InMemoryUserCacheInvalidations();
+        node1 = node(sharedCache, invalidations);
+        node2 = node(sharedCache, invalidations);
+        user = new User("1", "Marcelo", "marcelo@gmail.com", null, null, List.of(Genre.ROCK), List.of("The Beatles"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        node1.close();
+        node2.close();
+    }
+
+    /**
+     * Test that a second lookup on the same instance is answered by the near cache.
+     */
+    @Test
+    void testFindById_NearCacheHit() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user));
+
+        StepVerifier.create(node1.findById("1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(node1.findById("1")).expectNextCount(1).verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(1.0, meterRegistry.get("user.cache.requests").tags("tier", "near", "result", "hit").counter().count());
+    }
+
+    /**
+     * Test that a user loaded by one instance is answered to another by the shared cache.
+     */
+    @Test
+    void testFindById_SharedCacheHit() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user));
+
+        StepVerifier.create(node1.findById("1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(node2.findById("1")).expectNextCount(1).verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(1.0, meterRegistry.get("user.cache.requests").tags("tier", "shared", "result", "hit").counter().count());
+    }
+
+    /**
+     * Test that saving a user on one instance evicts it from the caches of the others.
+     */
+    @Test
+    void testSave_InvalidatesOtherInstances() {
+        User renamed = new User("1", "Alejandro", "marcelo@gmail.com", null, null, List.of(Genre.ROCK),
+                List.of("The Beatles"));
+        when(delegate.findById("1")).thenReturn(Mono.just(user), Mono.just(renamed));
+        when(delegate.save(any(User.class))).thenReturn(Mono.just(renamed));
+
+        StepVerifier.create(node2.findById("1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(node1.save(renamed)).expectNextCount(1).verifyComplete();
+
+        StepVerifier.create(node2.findById("1"))
+                .expectNextMatches(found -> "Alejandro".equals(found.getName()))
+                .verifyComplete();
+        verify(delegate, times(2)).findById("1");
+    }
+
+    /**
+     * Test that concurrent lookups of the same id share a single load.
+     */
+    @Test
+    void testFindById_ConcurrentLookupsShareOneLoad() {
+        Sinks.One<User> pending = Sinks.one();
+        when(delegate.findById("1")).thenReturn(pending.asMono());
+
+        Mono<User> first = node1.findById("1");
+        Mono<User> second = node1.findById("1");
+        pending.tryEmitValue(user);
+
+        StepVerifier.create(first).expectNextCount(1).verifyComplete();
+        StepVerifier.create(second).expectNextCount(1).verifyComplete();
+        verify(delegate, times(1)).findById("1");
+    }
+
+    /**
+     * Test that callers updating the returned user in place do not change the cached one.
+     */
+    @Test
+    void testFindById_ReturnsCopies() {
+        when(delegate.findById("1")).thenReturn(Mono.just(user));
+
+        node1.findById("1").block().setName("Changed");
+
+        StepVerifier.create(node1.findById("1"))
+                .expectNextMatches(found -> "Marcelo".equals(found.getName()))
+                .verifyComplete();
+    }
+
+    /**
+     * Test that a load on a near cache miss keeps the Reactor context of the request, which carries its tenant.
+     */
+    @Test
+    void testFindById_LoadKeepsRequestContext() {
+        when(delegate.findById("1")).thenReturn(Mono.deferContextual(context -> TenantContext.tenant(context)
+                .map(tenant -> Mono.just(user)).orElse(Mono.empty())));
+
+        StepVerifier.create(node1.findById("1").contextWrite(TenantContext.of("acme")))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private TieredCachingUserPersistenceAdapter node(SharedUserCache sharedCache, UserCacheInvalidations invalidations) {
+        TieredCachingUserPersistenceAdapter node = new TieredCachingUserPersistenceAdapter(delegate,
+                Caffeine.newBuilder().buildAsync(), sharedCache, invalidations,
+                new TieredCachingUserPersistenceAdapter.Settings(Duration.ofSeconds(1), Duration.ofMillis(100)),
+                meterRegistry);
+        node.start();
+        return node;
+    }
+}
@@ -0,0 +1,66 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.idempotency;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.musicdiscovery.user.application.port.output.IdempotencyPort;
+import io.musicdiscovery.user.domain.model.IdempotencyRecord;
+import io.musicdiscovery.user.domain.model.User;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class CachingIdempotencyAdapterTest {
+
+    @Mock
+    private IdempotencyPort delegate;
+
+    private CachingIdempotencyAdapter adapter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adapter = new CachingIdempotencyAdapter(delegate, Caffeine.newBuilder().build());
+        user = new User();
+        user.setId("1");
+        user.setName("Marcelo");
+    }
+
+    /**
+     * Test that a key completed on this instance is replayed without reaching the store.
+     */
+    @Test
+    void testReserve_CompletedKeyIsCached() {
+        when(delegate.complete("key-1", "fingerprint", user)).thenReturn(Mono.empty());
+
+        StepVerifier.create(adapter.complete("key-1", "fingerprint", user)).verifyComplete();
+        StepVerifier.create(adapter.reserve("key-1", "fingerprint"))
+                .expectNextMatches(record -> record.isCompleted() && record.getResult() == user)
+                .verifyComplete();
+
+        verify(delegate, never()).reserve("key-1", "fingerprint");
+    }
+
+    /**
+     * Test that a key in progress on another instance is looked up again on the next retry.
+     */
+    @Test
+    void testReserve_KeyInProgressIsNotCached() {
+        when(delegate.reserve("key-1", "fingerprint"))
+                .thenReturn(Mono.just(new IdempotencyRecord("key-1", "fingerprint", null, null)));
+
+        StepVerifier.create(adapter.reserve("key-1", "fingerprint")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(adapter.reserve("key-1", "fingerprint")).expectNextCount(1).verifyComplete();
+
+        verify(delegate, times(2)).reserve("key-1", "fingerprint");
+    }
+}
@@ -0,0 +1,37 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class MigrationThrottleTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    /**
+     * Test that batches reserved at the same time are spaced by the configured rate.
+     */
+    @Test
+    void testConcurrentBatchesAreSpaced() {
+        MigrationThrottle throttle = new MigrationThrottle(100);
+        long now = System.nanoTime() + SECOND;
+
+        assertEquals(0, throttle.reserve(50, now));
+        assertEquals(SECOND / 2, throttle.reserve(50, now));
+        assertEquals(SECOND, throttle.reserve(100, now));
+    }
+
+    /**
+     * Test that idle time is not accumulated as a burst.
+     */
+    @Test
+    void testIdleTimeIsNotBanked() {
+        MigrationThrottle throttle = new MigrationThrottle(100);
+        long later = System.nanoTime() + 60 * SECOND;
+
+        assertEquals(0, throttle.reserve(100, later));
+        assertEquals(SECOND, throttle.reserve(1, later));
+    }
+}
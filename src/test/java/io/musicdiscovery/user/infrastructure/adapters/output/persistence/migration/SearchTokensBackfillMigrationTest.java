@@ -0,0 +1,39 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+
+public class SearchTokensBackfillMigrationTest {
+
+    private final SearchTokensBackfillMigration migration = new SearchTokensBackfillMigration();
+
+    /**
+     * Test that the migration selects the users missing any of the search token fields.
+     */
+    @Test
+    void testPendingSelectsUsersWithoutTokens() {
+        assertEquals(Document.parse("{ '$or': [ { 'nameTokens': { '$exists': false } }, { 'artistTokens': { '$exists': false } } ] }"),
+                migration.pending().getCriteriaObject());
+    }
+
+    /**
+     * Test that the update sets the tokens the persistence mapper writes for new users.
+     */
+    @Test
+    void testUpdateSetsSearchTokens() {
+        UserEntity user = new UserEntity();
+        user.setName("Marcelo Albarracín");
+        user.setFavoriteArtist(List.of("The Beatles", "Miles Davis"));
+
+        Document set = (Document) migration.update(user).getUpdateObject().get("$set");
+
+        assertEquals(List.of("marcelo", "albarracin"), set.get("nameTokens"));
+        assertEquals(List.of("the", "beatles", "miles", "davis"), set.get("artistTokens"));
+    }
+}
@@ -0,0 +1,85 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.purge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.client.result.DeleteResult;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.UserCollectionRouter.UserCollection;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.migration.MigrationThrottle;
+import io.musicdiscovery.user.infrastructure.tenancy.Tenant;
+import io.musicdiscovery.user.infrastructure.tenancy.TenantRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class TombstonePurgerTest {
+
+    private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("test");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Tenant tenant = new Tenant("default", null, "users", 0, 100);
+    private final TombstonePurger purger = new TombstonePurger(new UserCollectionRouter(
+            new TenantRegistry(tenant, List.of()), Map.of("default", new UserCollection(tenant, mongoTemplate, "users")),
+            List.of()), circuitBreaker,
+            new MigrationThrottle(1_000_000), new TombstonePurger.Settings(Duration.ofDays(7), 2, Duration.ofMinutes(1)),
+            meterRegistry);
+
+    /**
+     * Test that due tombstones are removed batch after batch until a batch comes back short.
+     */
+    @Test
+    void testPurgeRemovesDueTombstonesInBatches() {
+        when(mongoTemplate.find(any(Query.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Flux.just(tombstone("1"), tombstone("2")), Flux.just(tombstone("3")));
+        when(mongoTemplate.remove(any(Query.class), eq(UserEntity.class), eq("users")))
+                .thenReturn(Mono.just(DeleteResult.acknowledged(2)), Mono.just(DeleteResult.acknowledged(1)));
+
+        StepVerifier.create(purger.purge()).expectNext(3L).verifyComplete();
+
+        ArgumentCaptor<Query> due = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(due.capture(), eq(UserEntity.class), eq("users"));
+        assertEquals(true, due.getValue().getQueryObject().get("deleted"));
+        assertEquals(2, due.getValue().getLimit());
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq(UserEntity.class), eq("users"));
+        assertEquals(3.0, meterRegistry.counter("user.purge.documents").count());
+    }
+
+    /**
+     * Test that nothing is removed while the persistence circuit breaker is open.
+     */
+    @Test
+    void testPurgeSkippedWhileCircuitBreakerIsOpen() {
+        circuitBreaker.transitionToOpenState();
+
+        StepVerifier.create(purger.purge()).expectNext(0L).verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static UserEntity tombstone(String id) {
+        UserEntity entity = new UserEntity();
+        entity.setId(id);
+        entity.setDeleted(true);
+        return entity;
+    }
+}
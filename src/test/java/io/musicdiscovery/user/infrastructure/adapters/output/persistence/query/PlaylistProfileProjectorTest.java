@@ -0,0 +1,72 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+
+public class PlaylistProfileProjectorTest {
+
+    /**
+     * Test that a live user is projected with its mood, genres and first favorite artists only.
+     */
+    @Test
+    void testProjectionKeepsTopArtists() {
+        UserEntity user = new UserEntity("1", "John Doe", "john@example.com", Mood.HAPPY, null, List.of(Genre.ROCK),
+                List.of("The Beatles", "Miles Davis", "Queen"), List.of("john"), List.of("beatles"), null, null);
+        Instant now = Instant.now();
+
+        PlaylistProfileEntity profile = PlaylistProfileProjector.toProjection(user, 2, now);
+
+        assertEquals("1", profile.getUserId());
+        assertEquals(Mood.HAPPY, profile.getMood());
+        assertEquals(List.of(Genre.ROCK), profile.getPreferredGenre());
+        assertEquals(List.of("The Beatles", "Miles Davis"), profile.getTopArtists());
+        assertNull(profile.getDeleted());
+        assertEquals(now, profile.getUpdatedAt());
+    }
+
+    /**
+     * Test that a tombstone is projected as a deletion marker without playlist fields.
+     */
+    @Test
+    void testTombstoneProjectedAsMarker() {
+        UserEntity tombstone = new UserEntity("1", "John Doe", null, Mood.HAPPY, null, List.of(Genre.ROCK),
+                List.of("The Beatles"), null, null, true, Instant.now());
+
+        PlaylistProfileEntity profile = PlaylistProfileProjector.toProjection(tombstone, 10, Instant.now());
+
+        assertEquals(true, profile.getDeleted());
+        assertNull(profile.getMood());
+        assertNull(profile.getPreferredGenre());
+        assertNull(profile.getTopArtists());
+    }
+
+    /**
+     * Test that only a resume token gone from the oplog triggers a rebuild.
+     */
+    @Test
+    void testHistoryLostDetected() {
+        MongoCommandException historyLost = new MongoCommandException(
+                BsonDocument.parse("{ok: 0, code: 286, codeName: 'ChangeStreamHistoryLost'}"), new ServerAddress());
+        MongoCommandException other = new MongoCommandException(
+                BsonDocument.parse("{ok: 0, code: 40573, codeName: 'Location40573'}"), new ServerAddress());
+
+        assertTrue(PlaylistProfileProjector.isHistoryLost(new DataAccessResourceFailureException("lost", historyLost)));
+        assertFalse(PlaylistProfileProjector.isHistoryLost(new DataAccessResourceFailureException("other", other)));
+    }
+}
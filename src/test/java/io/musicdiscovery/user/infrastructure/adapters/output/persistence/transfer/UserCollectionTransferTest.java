@@ -0,0 +1,161 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.persistence.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.musicdiscovery.user.infrastructure.adapters.output.persistence.entity.UserEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class UserCollectionTransferTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private ReactiveMongoTemplate mongoTemplate;
+
+    @TempDir
+    private Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> insertedIds = Collections.synchronizedList(new ArrayList<>());
+    private Path file;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        file = dir.resolve("users.ndjson.gz");
+        List<UserEntity> users = IntStream.range(0, 5)
+                .mapToObj(i -> new UserEntity("id-" + i, "User " + i, "user" + i + "@gmail.com", null, null, List.of(),
+                        List.of("The Beatles"), List.of("user", Integer.toString(i)), List.of("the", "beatles"), null, null))
+                .toList();
+        when(mongoTemplate.find(any(Query.class), eq(UserEntity.class))).thenReturn(Flux.fromIterable(users));
+        StepVerifier.create(new UserCollectionExporter(mongoTemplate, objectMapper, CHUNK_SIZE, meterRegistry).export(file))
+                .expectNext(5L)
+                .verifyComplete();
+    }
+
+    /**
+     * Test that an exported file is imported back in chunks and the checkpoint is removed at the end.
+     */
+    @Test
+    void testExportThenImport() {
+        givenBulkInserts(Mono::just);
+
+        StepVerifier.create(importer(2).importFile(file))
+                .expectNext(new UserCollectionImporter.Result(3, 5, 0, -1))
+                .verifyComplete();
+
+        assertEquals(List.of("id-0", "id-1", "id-2", "id-3", "id-4"), insertedIds.stream().sorted().toList());
+        assertFalse(Files.exists(dir.resolve("users.ndjson.gz.checkpoint")));
+        assertFalse(Files.exists(dir.resolve("users.ndjson.gz.part")));
+        assertEquals(5, meterRegistry.get("user.transfer.documents").tag("direction", "export").counter().count());
+        assertEquals(5, meterRegistry.get("user.transfer.documents").tag("direction", "import")
+                .tag("outcome", "written").counter().count());
+    }
+
+    /**
+     * Test that an import resumes after the last committed chunk.
+     */
+    @Test
+    void testImportResumesAfterCheckpoint() {
+        givenBulkInserts(Mono::just);
+        new ImportCheckpoint(file, CHUNK_SIZE).commit(0);
+
+        StepVerifier.create(importer(2).importFile(file))
+                .expectNext(new UserCollectionImporter.Result(2, 3, 0, 0))
+                .verifyComplete();
+
+        assertEquals(List.of("id-2", "id-3", "id-4"), insertedIds.stream().sorted().toList());
+    }
+
+    /**
+     * Test that documents already present are counted as duplicates instead of failing the import.
+     */
+    @Test
+    void testImportSkipsDuplicates() {
+        givenBulkInserts(entities -> {
+            if (entities.get(0).getId().equals("id-0")) {
+                List<BulkWriteError> errors = List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0));
+                return Mono.error(new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                        errors, null, new ServerAddress(), Set.of()));
+            }
+            return Mono.just(entities);
+        });
+
+        StepVerifier.create(importer(1).importFile(file))
+                .expectNext(new UserCollectionImporter.Result(3, 4, 1, -1))
+                .verifyComplete();
+    }
+
+    /**
+     * Test that a failed chunk stops the import and keeps the checkpoint at the last complete chunk.
+     */
+    @Test
+    void testImportFailureKeepsCheckpoint() {
+        givenBulkInserts(entities -> entities.get(0).getId().equals("id-2")
+                ? Mono.error(new IllegalStateException("connection lost"))
+                : Mono.just(entities));
+
+        StepVerifier.create(importer(1).importFile(file))
+                .verifyError(IllegalStateException.class);
+
+        assertTrue(Files.exists(dir.resolve("users.ndjson.gz.checkpoint")));
+        assertEquals(0, new ImportCheckpoint(file, CHUNK_SIZE).lastCommittedChunk());
+    }
+
+    private UserCollectionImporter importer(int parallelism) {
+        return new UserCollectionImporter(mongoTemplate, objectMapper, CHUNK_SIZE, parallelism, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenBulkInserts(Function<List<UserEntity>, Mono<List<UserEntity>>> outcome) {
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, UserEntity.class)).thenAnswer(invocation -> {
+            ReactiveBulkOperations bulk = mock(ReactiveBulkOperations.class);
+            List<UserEntity> batch = new ArrayList<>();
+            when(bulk.insert(anyList())).thenAnswer(insert -> {
+                batch.addAll((List<UserEntity>) insert.getArgument(0));
+                return bulk;
+            });
+            when(bulk.execute()).thenAnswer(execute -> outcome.apply(batch)
+                    .doOnNext(entities -> entities.forEach(entity -> insertedIds.add(entity.getId())))
+                    .map(entities -> BulkWriteResult.acknowledged(entities.size(), 0, 0, 0, List.of(), List.of())));
+            return bulk;
+        });
+    }
+}
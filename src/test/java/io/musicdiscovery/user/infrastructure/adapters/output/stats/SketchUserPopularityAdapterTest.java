@@ -0,0 +1,101 @@
+package io.musicdiscovery.user.infrastructure.adapters.output.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import io.musicdiscovery.user.domain.model.ArtistPopularity;
+import io.musicdiscovery.user.domain.model.GenreShare;
+import io.musicdiscovery.user.domain.model.User;
+import io.musicdiscovery.user.domain.model.enums.Genre;
+import io.musicdiscovery.user.domain.model.enums.Mood;
+import io.musicdiscovery.user.infrastructure.adapters.output.stats.SketchUserPopularityAdapter.Settings;
+
+public class SketchUserPopularityAdapterTest {
+
+    @Mock
+    private ReactiveMongoTemplate template;
+
+    private SketchUserPopularityAdapter adapter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        adapter = new SketchUserPopularityAdapter(template,
+                new Settings(4, 1024, 10, Duration.ofSeconds(1), Duration.ofSeconds(30)));
+    }
+
+    /**
+     * Test that the top artists are ranked by the number of users, whatever the spelling.
+     */
+    @Test
+    void testTopArtistsAreRankedByUsers() {
+        adapter.recordChange(null, user(null, List.of(), List.of("The Beatles", "Miles Davis")));
+        adapter.recordChange(null, user(null, List.of(), List.of("the  beatles")));
+        adapter.recordChange(null, user(null, List.of(), List.of("Nina Simone")));
+        adapter.refresh();
+
+        List<ArtistPopularity> top = adapter.topArtists(2);
+
+        assertEquals(2, top.size());
+        assertEquals("The Beatles", top.get(0).getArtist());
+        assertEquals(2, top.get(0).getUsers());
+        assertEquals(1, top.get(1).getUsers());
+    }
+
+    /**
+     * Test that updates and deletes take back the counts of the previous state of the user.
+     */
+    @Test
+    void testChangesAreCountedAsDeltas() {
+        User before = user(Mood.SAD, List.of(Genre.JAZZ), List.of("Miles Davis"));
+        User after = user(Mood.HAPPY, List.of(Genre.JAZZ, Genre.ROCK), List.of("Miles Davis", "Queen"));
+        adapter.recordChange(null, before);
+        adapter.recordChange(before, after);
+        adapter.recordChange(null, user(Mood.HAPPY, List.of(Genre.ROCK), List.of("Queen")));
+        adapter.recordChange(after, null);
+        adapter.refresh();
+
+        List<ArtistPopularity> top = adapter.topArtists(10);
+        assertEquals(1, top.size());
+        assertEquals("Queen", top.get(0).getArtist());
+        assertEquals(1, top.get(0).getUsers());
+
+        List<GenreShare> shares = adapter.genreSharesByMood();
+        assertEquals(1, shares.size());
+        assertEquals(Mood.HAPPY, shares.get(0).getMood());
+        assertEquals(Genre.ROCK, shares.get(0).getGenre());
+        assertEquals(1.0, shares.get(0).getShare());
+    }
+
+    /**
+     * Test that genre shares are computed within each mood, users without mood included.
+     */
+    @Test
+    void testGenreSharesByMood() {
+        adapter.recordChange(null, user(Mood.HAPPY, List.of(Genre.ROCK, Genre.POP), List.of()));
+        adapter.recordChange(null, user(Mood.HAPPY, List.of(Genre.ROCK), List.of()));
+        adapter.recordChange(null, user(null, List.of(Genre.JAZZ), List.of()));
+        adapter.refresh();
+
+        List<GenreShare> shares = adapter.genreSharesByMood();
+
+        assertEquals(3, shares.size());
+        assertTrue(shares.stream().anyMatch(share -> share.getMood() == Mood.HAPPY && share.getGenre() == Genre.ROCK
+                && share.getUsers() == 2 && Math.abs(share.getShare() - 2.0 / 3) < 1e-9));
+        assertTrue(shares.stream().anyMatch(share -> share.getMood() == null && share.getGenre() == Genre.JAZZ
+                && share.getShare() == 1.0));
+    }
+
+    private static User user(Mood mood, List<Genre> genres, List<String> artists) {
+        return new User(null, null, null, mood, null, genres, artists);
+    }
+}
@@ -0,0 +1,83 @@
+package io.musicdiscovery.user.infrastructure.affinity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.musicdiscovery.user.infrastructure.affinity.ReplicaRing.Replica;
+
+class ReplicaRingTest {
+
+    private static final int USERS = 100_000;
+
+    /**
+     * Test that the users are spread evenly over the replicas, in line with their share of the ring.
+     */
+    @Test
+    void testUsersSpreadEvenly() {
+        ReplicaRing ring = ring("r0", 4);
+        Map<String, Integer> owned = new HashMap<>();
+        IntStream.range(0, USERS).forEach(i -> owned.merge(ring.owner("user-" + i).id(), 1, Integer::sum));
+
+        for (Replica replica : ring.replicas()) {
+            double share = ring.ring().share(replica.id());
+            double observed = owned.get(replica.id()) / (double) USERS;
+            assertTrue(share > 0.18 && share < 0.32, "share of " + replica.id() + ": " + share);
+            assertEquals(share, observed, 0.01);
+        }
+        assertEquals(1.0, ring.replicas().stream().mapToDouble(replica -> ring.ring().share(replica.id())).sum(),
+                1e-9);
+    }
+
+    /**
+     * Test that adding a replica only moves the users it takes over, about one in five for a fifth replica.
+     */
+    @Test
+    void testAddingReplicaMovesItsSliceOnly() {
+        ReplicaRing before = ring("r0", 4);
+        ReplicaRing after = ring("r0", 5);
+
+        long moved = IntStream.range(0, USERS)
+                .mapToObj(i -> "user-" + i)
+                .filter(id -> !before.owner(id).id().equals(after.owner(id).id()))
+                .peek(id -> assertEquals("r4", after.owner(id).id()))
+                .count();
+
+        assertEquals(0.2, moved / (double) USERS, 0.05);
+    }
+
+    /**
+     * Test that a cache is sized for the slice of the replica, with the headroom, within bounds.
+     */
+    @Test
+    void testSliceOfCache() {
+        ReplicaRing ring = ring("r0", 4);
+
+        assertEquals((long) Math.ceil(10_000 * ring.selfShare() * 1.25), ring.sliceOf(10_000, 1.25));
+        assertEquals(10, ring.sliceOf(10, 100));
+        assertEquals(1, ring.sliceOf(0, 1.25));
+        assertEquals(1.0, ring("r0", 1).selfShare(), 1e-9);
+    }
+
+    /**
+     * Test that this replica must be one of the replicas of the ring.
+     */
+    @Test
+    void testUnknownSelfRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ring("r9", 3));
+    }
+
+    private static ReplicaRing ring(String self, int replicas) {
+        return new ReplicaRing(self, IntStream.range(0, replicas)
+                .mapToObj(i -> new Replica("r" + i, URI.create("http://user-service-" + i + ":8081")))
+                .toList(), 160);
+    }
+}
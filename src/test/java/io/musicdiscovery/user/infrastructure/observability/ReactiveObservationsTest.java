@@ -0,0 +1,112 @@
+package io.musicdiscovery.user.infrastructure.observability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+public class ReactiveObservationsTest {
+
+    private final List<Observation.Context> stopped = new ArrayList<>();
+    private ObservationRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Test that a Mono is observed from subscription to completion and not at assembly.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMonoObservedOnSubscription() throws Throwable {
+        Mono<String> result = (Mono<String>) ReactiveObservations.observe(registry, "user.service",
+                "UserService#getUserById", "getUserById", Mono.class, () -> Mono.just("user"));
+
+        assertTrue(stopped.isEmpty());
+        StepVerifier.create(result).expectNext("user").verifyComplete();
+
+        assertEquals(1, stopped.size());
+        assertEquals("user.service", stopped.get(0).getName());
+        assertEquals("UserService#getUserById", stopped.get(0).getContextualName());
+        assertEquals("getUserById", stopped.get(0).getLowCardinalityKeyValue("method").getValue());
+    }
+
+    /**
+     * Test that nested stages are parented through the Reactor context.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNestedStageIsParentedThroughContext() throws Throwable {
+        Mono<String> persistence = (Mono<String>) ReactiveObservations.observe(registry, "user.persistence",
+                "UserPersistenceAdapter#findById", "findById", Mono.class, () -> Mono.just("user"));
+        Mono<String> service = (Mono<String>) ReactiveObservations.observe(registry, "user.service",
+                "UserService#getUserById", "getUserById", Mono.class, () -> persistence);
+
+        StepVerifier.create(service).expectNext("user").verifyComplete();
+
+        Observation.Context serviceContext = stopped("user.service");
+        assertSame(serviceContext, stopped("user.persistence").getParentObservation().getContextView());
+        assertNull(serviceContext.getParentObservation());
+    }
+
+    /**
+     * Test that an error of a Flux is recorded on its observation.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFluxErrorIsRecorded() throws Throwable {
+        IllegalStateException failure = new IllegalStateException("boom");
+        Flux<String> result = (Flux<String>) ReactiveObservations.observe(registry, "user.persistence",
+                "UserPersistenceAdapter#search", "search", Flux.class, () -> Flux.error(failure));
+
+        StepVerifier.create(result.contextWrite(ctx -> ctx.put(ObservationThreadLocalAccessor.KEY,
+                        Observation.start("http.server.requests", registry))))
+                .verifyErrorMatches(failure::equals);
+
+        assertSame(failure, stopped.get(0).getError());
+        assertEquals("http.server.requests", stopped.get(0).getParentObservation().getContextView().getName());
+    }
+
+    /**
+     * Test that a synchronous call is observed for its duration.
+     */
+    @Test
+    void testSynchronousCall() throws Throwable {
+        Object mapped = ReactiveObservations.observe(registry, "user.mapping", "UserRestMapperImpl#toUser", "toUser",
+                String.class, () -> "mapped");
+
+        assertEquals("mapped", mapped);
+        assertEquals("user.mapping", stopped.get(0).getName());
+    }
+
+    private Observation.Context stopped(String name) {
+        return stopped.stream().filter(context -> context.getName().equals(name)).findFirst().orElseThrow();
+    }
+}